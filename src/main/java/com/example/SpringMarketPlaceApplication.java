@@ -2,8 +2,10 @@ package com.example;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
 
-@SpringBootApplication
+// Spring Session is only enabled by SessionConfig (marketplace.session.store=jdbc)
+@SpringBootApplication(exclude = SessionAutoConfiguration.class)
 public class SpringMarketPlaceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,11 @@
+package com.example.configurations;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableAsync // Enable @Async methods (background jobs)
+@EnableScheduling // Enable @Scheduled methods (periodic jobs)
+public class SchedulingConfig {
+}
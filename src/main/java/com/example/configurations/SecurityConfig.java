@@ -1,31 +1,97 @@
 package com.example.configurations;
 
+import com.example.security.LoginRateLimitFilter;
+import com.example.security.PooledPasswordEncoder;
+import com.example.security.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.web.PathPatternRequestMatcherBuilderFactoryBean;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity // Enable @PreAuthorize and @Secured annotations
 public class SecurityConfig {
 
+    @Value("${marketplace.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${marketplace.rate-limit.window:PT1M}")
+    private Duration rateLimitWindow;
+
+    @Value("${marketplace.rate-limit.login-per-ip:30}")
+    private int loginPerIp;
+
+    @Value("${marketplace.rate-limit.login-per-username:10}")
+    private int loginPerUsername;
+
+    @Value("${marketplace.rate-limit.register-per-ip:10}")
+    private int registerPerIp;
+
+    // Max keys (IPs or usernames) kept in memory by each limiter
+    @Value("${marketplace.rate-limit.max-keys:100000}")
+    private int rateLimitMaxKeys;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${marketplace.password.bcrypt-strength:10}") int strength,
+            @Value("${marketplace.password.calibrate:false}") boolean calibrate,
+            @Value("${marketplace.password.target-hash-time:PT0.25S}") Duration targetHashTime,
+            @Value("${marketplace.password.hashing-threads:0}") int hashingThreads,
+            @Value("${marketplace.password.queue-capacity:100}") int queueCapacity,
+            @Value("${marketplace.password.timeout:PT5S}") Duration timeout) {
+
+        // Configured strength is the minimum, calibration may only raise it
+        int effectiveStrength = calibrate
+                ? PooledPasswordEncoder.calibrateStrength(strength, targetHashTime)
+                : strength;
+
+        // Default: half of the cores, the rest stay available for page requests
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        return new PooledPasswordEncoder(effectiveStrength, threads, queueCapacity, timeout);
+    }
+
+    /**
+     * requestMatchers(String) patterns are matched against the whole request path.
+     * WebConfig maps /product/import to a second DispatcherServlet, without this
+     * Spring Security can't tell which servlet a pattern belongs to and fails.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PathPatternRequestMatcherBuilderFactoryBean requestMatcherBuilder() {
+        return new PathPatternRequestMatcherBuilderFactoryBean();
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
+        if (rateLimitEnabled) {
+            // Reject excess attempts before the password encoder runs
+            http.addFilterBefore(loginRateLimitFilter(meterRegistry.getIfAvailable(SimpleMeterRegistry::new)),
+                    UsernamePasswordAuthenticationFilter.class);
+        }
+
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/", "/register", "/css/**", "/js/**", "/uploads/**").permitAll()
                         .requestMatchers("/product/{id:[0-9]+}").permitAll()
                         .requestMatchers("/seller/{id:[0-9]+}").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/**").permitAll()
                         .requestMatchers("/profile/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -42,4 +108,17 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * Not a bean: a Filter bean would also be registered as a servlet filter
+     * and run outside of the security chain
+     */
+    private LoginRateLimitFilter loginRateLimitFilter(MeterRegistry meterRegistry) {
+        Clock clock = Clock.systemUTC();
+        return new LoginRateLimitFilter(
+                new SlidingWindowRateLimiter("login-ip", loginPerIp, rateLimitWindow, rateLimitMaxKeys, meterRegistry, clock),
+                new SlidingWindowRateLimiter("login-username", loginPerUsername, rateLimitWindow, rateLimitMaxKeys, meterRegistry, clock),
+                new SlidingWindowRateLimiter("register-ip", registerPerIp, rateLimitWindow, rateLimitMaxKeys, meterRegistry, clock)
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.configurations;
+
+import com.example.security.LastAccessThrottlingSessionRepository;
+import com.example.security.UserPrincipalJackson2Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Session storage selection: marketplace.session.store=memory (default, servlet
+ * container sessions, needs sticky sessions with several nodes) or jdbc
+ * (Spring Session JDBC, spring_session tables shared by all nodes).
+ * <p>
+ * Boot's SessionAutoConfiguration is excluded in SpringMarketPlaceApplication,
+ * otherwise it would switch every profile to JDBC sessions.
+ */
+@Configuration
+@ConditionalOnProperty(name = "marketplace.session.store", havingValue = "jdbc")
+@EnableJdbcHttpSession
+public class SessionConfig {
+
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionRepositoryCustomizer(
+            @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+            @Value("${marketplace.session.cleanup-cron:0 */5 * * * *}") String cleanupCron) {
+        return repository -> {
+            repository.setDefaultMaxInactiveInterval(timeout);
+            repository.setCleanupCron(cleanupCron);
+        };
+    }
+
+    /**
+     * Used by SessionRepositoryFilter instead of the JDBC repository itself,
+     * see LastAccessThrottlingSessionRepository
+     */
+    @Bean
+    @Primary
+    public LastAccessThrottlingSessionRepository throttledSessionRepository(
+            JdbcIndexedSessionRepository sessionRepository,
+            @Value("${marketplace.session.last-access-write-interval:PT1M}") Duration writeInterval) {
+        return new LastAccessThrottlingSessionRepository(sessionRepository, writeInterval);
+    }
+
+    /**
+     * Session attributes are stored as JSON instead of Java serialization.
+     * Only types with a Jackson mixin (Spring Security's and UserPrincipalJackson2Module) can be read back.
+     */
+    @Bean("springSessionConversionService")
+    public ConversionService springSessionConversionService() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
+        objectMapper.registerModule(new UserPrincipalJackson2Module());
+
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class,
+                new SerializingConverter((object, out) -> objectMapper.writeValue(out, object)));
+        conversionService.addConverter(byte[].class, Object.class,
+                new DeserializingConverter(in -> objectMapper.readValue(in, Object.class)));
+        return conversionService;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.configurations;
+
+import com.example.models.ProductImage;
+import com.example.storage.ImageStorage;
+import com.example.storage.LocalImageStorage;
+import com.example.storage.S3ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Image storage backend selection: marketplace.storage.type=local (default) or s3
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "marketplace.storage.type", havingValue = "local", matchIfMissing = true)
+    public ImageStorage localImageStorage() {
+        return new LocalImageStorage(ProductImage.DIRECTORY_IMAGES);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "marketplace.storage.type", havingValue = "s3")
+    static class S3StorageConfig {
+
+        // Empty endpoint means AWS, otherwise an S3-compatible server (MinIO)
+        @Value("${marketplace.storage.s3.endpoint:}")
+        private String endpoint;
+
+        @Value("${marketplace.storage.s3.region:us-east-1}")
+        private String region;
+
+        @Value("${marketplace.storage.s3.access-key:}")
+        private String accessKey;
+
+        @Value("${marketplace.storage.s3.secret-key:}")
+        private String secretKey;
+
+        // MinIO requires path-style URLs (http://host/bucket/key)
+        @Value("${marketplace.storage.s3.path-style-access:false}")
+        private boolean pathStyleAccess;
+
+        @Bean(destroyMethod = "close")
+        public S3Client s3Client() {
+            var builder = S3Client.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(credentialsProvider())
+                    .serviceConfiguration(serviceConfiguration());
+            if (!endpoint.isBlank()) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            return builder.build();
+        }
+
+        @Bean(destroyMethod = "close")
+        public S3Presigner s3Presigner() {
+            var builder = S3Presigner.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(credentialsProvider())
+                    .serviceConfiguration(serviceConfiguration());
+            if (!endpoint.isBlank()) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            return builder.build();
+        }
+
+        @Bean
+        public ImageStorage s3ImageStorage(S3Client s3Client,
+                                           S3Presigner s3Presigner,
+                                           @Value("${marketplace.storage.s3.bucket}") String bucket,
+                                           @Value("${marketplace.storage.s3.prefix:}") String prefix,
+                                           @Value("${marketplace.storage.s3.multipart-threshold:16MB}") DataSize multipartThreshold,
+                                           @Value("${marketplace.storage.s3.part-size:8MB}") DataSize partSize,
+                                           @Value("${marketplace.storage.s3.presigned-url-ttl:PT15M}") Duration presignedUrlTtl,
+                                           @Value("${marketplace.storage.s3.public-url:}") String publicUrl) {
+            return new S3ImageStorage(
+                    s3Client,
+                    s3Presigner,
+                    bucket,
+                    prefix,
+                    multipartThreshold.toBytes(),
+                    partSize.toBytes(),
+                    presignedUrlTtl,
+                    publicUrl
+            );
+        }
+
+        private AwsCredentialsProvider credentialsProvider() {
+            if (accessKey.isBlank()) {
+                return DefaultCredentialsProvider.builder().build();
+            }
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        }
+
+        private S3Configuration serviceConfiguration() {
+            return S3Configuration.builder()
+                    .pathStyleAccessEnabled(pathStyleAccess)
+                    .build();
+        }
+    }
+}
@@ -1,14 +1,59 @@
 package com.example.configurations;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${marketplace.storage.type:local}")
+    private String storageType;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+        // With object storage, /uploads/** redirects to the bucket (ImageRedirectController)
+        if ("local".equals(storageType)) {
+            registry.addResourceHandler("/uploads/**")
+                    .addResourceLocations("file:uploads/");
+        }
+    }
+
+    /**
+     * Second DispatcherServlet, on the same context, for the bulk import only.
+     * <p>
+     * Multipart limits belong to the servlet, and the body is parsed before the
+     * controller runs (the CSRF filter reads _csrf from it). Mapping the import
+     * to its own servlet lets it accept the image zip while every other form
+     * keeps the spring.servlet.multipart limits.
+     */
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> productImportServlet(
+            WebApplicationContext context,
+            ObjectProvider<MultipartProperties> multipartProperties,
+            @Value("${marketplace.product-import.max-file-size:512MB}") DataSize maxFileSize,
+            @Value("${marketplace.product-import.max-request-size:600MB}") DataSize maxRequestSize) {
+        // Temporary location and threshold as configured for the other forms
+        MultipartProperties defaults = multipartProperties.getIfAvailable(MultipartProperties::new);
+        MultipartConfigFactory multipartConfig = new MultipartConfigFactory();
+        multipartConfig.setLocation(defaults.getLocation());
+        multipartConfig.setFileSizeThreshold(defaults.getFileSizeThreshold());
+        multipartConfig.setMaxFileSize(maxFileSize);
+        multipartConfig.setMaxRequestSize(maxRequestSize);
+
+        ServletRegistrationBean<DispatcherServlet> registration =
+                new ServletRegistrationBean<>(new DispatcherServlet(context), "/product/import");
+        registration.setName("productImportServlet");
+        registration.setMultipartConfig(multipartConfig.createMultipartConfig());
+        return registration;
     }
 }
@@ -2,9 +2,9 @@ package com.example.controllers;
 
 import com.example.models.User;
 import com.example.models.enums.Role;
+import com.example.security.UserPrincipal;
 import com.example.services.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
@@ -21,24 +21,22 @@ public class AdminController {
     private final UserService userService;
 
     @GetMapping("")
-    public String adminDashboard(@AuthenticationPrincipal User currentAdmin,
+    public String adminDashboard(@AuthenticationPrincipal UserPrincipal currentAdmin,
                                  @RequestParam(value = "query", required = false) String query,
-                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                 @RequestParam(value = "after", required = false) Long after,
+                                 @RequestParam(value = "before", required = false) Long before,
                                  Model model) {
         int pageSize = 20; // 20 users per page
-        Page<User> usersPage;
+        UserService.UserPage usersPage = userService.getByUsernameOrEmailPage(query, after, before, pageSize);
 
         if (query != null && !query.trim().isEmpty()) {
-            usersPage = userService.getByUsernameOrEmailPage(query, page, pageSize);
             model.addAttribute("searchQuery", query);
-        } else {
-            usersPage = userService.getUsersPage(page, pageSize);
         }
 
-        model.addAttribute("users", usersPage.getContent());
-        model.addAttribute("currentPage", usersPage.getNumber());
-        model.addAttribute("totalPages", usersPage.getTotalPages());
-        model.addAttribute("totalItems", usersPage.getTotalElements());
+        model.addAttribute("users", usersPage.getUsers());
+        model.addAttribute("previousCursor", usersPage.getPreviousCursor());
+        model.addAttribute("nextCursor", usersPage.getNextCursor());
+        model.addAttribute("deletionJobs", userService.getRecentDeletionJobs());
         model.addAttribute("currentAdmin", currentAdmin);
 
         return "admin-dashboard";
@@ -46,7 +44,7 @@ public class AdminController {
 
     @PostMapping("/user/{id}/toggle-ban")
     public String toggleBan(@PathVariable Long id,
-                            @AuthenticationPrincipal User currentAdmin) {
+                            @AuthenticationPrincipal UserPrincipal currentAdmin) {
         // Prevent admin from banning themselves
         if (id.equals(currentAdmin.getId())) {
             return "redirect:/profile/admin/dashboard?error=cannotBanSelf";
@@ -66,7 +64,7 @@ public class AdminController {
     @PostMapping("/user/{id}/remove-role")
     public String removeRole(@PathVariable Long id,
                              @RequestParam("role") Role role,
-                             @AuthenticationPrincipal User currentAdmin) {
+                             @AuthenticationPrincipal UserPrincipal currentAdmin) {
         // Prevent removing all roles
         User user = userService.getById(id);
         if (user != null && user.getRoles().size() <= 1) {
@@ -82,15 +80,39 @@ public class AdminController {
         return "redirect:/profile/admin/dashboard";
     }
 
+    @PostMapping("/users/bulk")
+    public String bulkAction(@RequestParam(value = "ids", required = false) List<Long> ids,
+                             @RequestParam("action") UserService.BulkAction action,
+                             @RequestParam(value = "role", required = false) Role role,
+                             @AuthenticationPrincipal UserPrincipal currentAdmin) {
+        if (ids == null || ids.isEmpty()) {
+            return "redirect:/profile/admin/dashboard?error=noUsersSelected";
+        }
+
+        // Same rules as for single users
+        if (ids.contains(currentAdmin.getId())) {
+            if (action == UserService.BulkAction.BAN) {
+                return "redirect:/profile/admin/dashboard?error=cannotBanSelf";
+            }
+            if (action == UserService.BulkAction.REMOVE_ROLE && role == Role.ROLE_ADMIN) {
+                return "redirect:/profile/admin/dashboard?error=cannotRemoveOwnAdminRole";
+            }
+        }
+
+        int changed = userService.applyBulkAction(ids, action, role);
+        return "redirect:/profile/admin/dashboard?bulkUpdated=" + changed;
+    }
+
     @PostMapping("/user/{id}/delete")
     public String deleteUser(@PathVariable Long id,
-                             @AuthenticationPrincipal User currentAdmin) {
+                             @AuthenticationPrincipal UserPrincipal currentAdmin) {
         // Prevent admin from deleting themselves
         if (id.equals(currentAdmin.getId())) {
             return "redirect:/profile/admin/dashboard?error=cannotDeleteSelf";
         }
 
+        // Deletion runs in background, progress is shown on the dashboard
         userService.deleteUser(id);
-        return "redirect:/profile/admin/dashboard";
+        return "redirect:/profile/admin/dashboard?deletion";
     }
 }
\ No newline at end of file
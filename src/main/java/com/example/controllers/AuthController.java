@@ -1,6 +1,7 @@
 package com.example.controllers;
 
 import com.example.models.User;
+import com.example.security.PasswordHashingUnavailableException;
 import com.example.services.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -37,8 +38,13 @@ public class AuthController {
         }
 
         // Register user
-        if (!userService.registerUser(user)) {
-            model.addAttribute("errorRegistration", "Username or email already exists");
+        try {
+            if (!userService.registerUser(user)) {
+                model.addAttribute("errorRegistration", "Username or email already exists");
+                return "register";
+            }
+        } catch (PasswordHashingUnavailableException e) {
+            model.addAttribute("errorRegistration", "Too many registrations right now, please try again in a moment");
             return "register";
         }
 
@@ -0,0 +1,47 @@
+package com.example.controllers;
+
+import com.example.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Redirects image requests to object storage, so image bytes
+ * are downloaded directly from the bucket instead of the app servers.
+ * Image URLs in templates (/uploads/{key}) stay the same for every storage type.
+ */
+@Controller
+@ConditionalOnProperty(name = "marketplace.storage.type", havingValue = "s3")
+@RequiredArgsConstructor
+public class ImageRedirectController {
+
+    private final ImageStorage imageStorage;
+
+    @Value("${marketplace.storage.s3.presigned-url-ttl:PT15M}")
+    private Duration presignedUrlTtl = Duration.ofMinutes(15);
+
+    @GetMapping("/uploads/{key}")
+    public ResponseEntity<Void> redirectToImage(@PathVariable String key) {
+        Optional<URI> url = imageStorage.getDirectUrl(key);
+        if (url.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Cache the redirect for half the presigned URL lifetime, so a cached URL is still valid when used
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, url.get().toString())
+                .cacheControl(CacheControl.maxAge(presignedUrlTtl.dividedBy(2)).cachePrivate())
+                .build();
+    }
+}
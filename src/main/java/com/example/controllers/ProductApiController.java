@@ -0,0 +1,158 @@
+package com.example.controllers;
+
+import com.example.dto.ProductCard;
+import com.example.dto.ProductCardList;
+import com.example.dto.ProductDetail;
+import com.example.security.UserPrincipal;
+import com.example.services.ProductService;
+import com.example.services.ProductService.CardPage;
+import com.example.services.ProductViewCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Read-only JSON API of the catalog, search and product details for the
+ * mobile app, so it doesn't have to download and scrape the HTML pages.
+ * <p>
+ * Lists are paged by an opaque cursor: the (dateOfCreated, id) keyset for
+ * the catalog, the page number for search results in relevance order.
+ * Every response carries a strong ETag computed from the ids and versions
+ * of the products in it; a request with a matching If-None-Match gets
+ * 304 Not Modified without a body.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class ProductApiController {
+    private final ProductService productService;
+    private final ProductViewCounter productViewCounter;
+
+    @Value("${marketplace.api.page-size:20}")
+    private int pageSize = 20;
+
+    @GetMapping("/products")
+    public ResponseEntity<ProductCardList> products(@RequestParam(required = false) String cursor) {
+        Keyset keyset = null;
+        if (cursor != null) {
+            keyset = decodeKeyset(cursor);
+            if (keyset == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        CardPage page = keyset == null
+                ? productService.getCards(null, null, pageSize)
+                : productService.getCards(keyset.beforeDate(), keyset.beforeId(), pageSize);
+        String nextCursor = page.hasNext() ? encodeKeyset(page.getNextBeforeDate(), page.getNextBeforeId()) : null;
+
+        return cardList(page.getProducts(), nextCursor);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductCardList> search(@RequestParam("q") String query,
+                                                  @RequestParam(required = false) String cursor) {
+        int pageNumber = 0;
+        if (cursor != null) {
+            pageNumber = decodePageNumber(cursor);
+            if (pageNumber < 0) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Page<ProductCard> page = productService.searchCards(query.trim(), pageNumber, pageSize);
+        String nextCursor = page.hasNext() ? encode(String.valueOf(pageNumber + 1)) : null;
+
+        return cardList(page.getContent(), nextCursor);
+    }
+
+    @GetMapping("/products/{id}")
+    public ResponseEntity<ProductDetail> productDetails(@PathVariable Long id,
+                                                        @AuthenticationPrincipal UserPrincipal currentUser) {
+        ProductDetail product = productService.getDetail(id);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Counted like the detail page, owners looking at their own listing are not
+        if (currentUser == null || !product.isOwnedBy(currentUser.getId())) {
+            productViewCounter.recordView(id);
+        }
+
+        // The owner's username is part of the detail but doesn't change the product version
+        String etag = etag(product.getId() + ":" + product.getVersion() + ":" + product.getOwnerUsername());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(product);
+    }
+
+    private ResponseEntity<ProductCardList> cardList(List<ProductCard> cards, String nextCursor) {
+        StringBuilder versions = new StringBuilder();
+        for (ProductCard card : cards) {
+            versions.append(card.getId()).append(':').append(card.getVersion()).append(',');
+        }
+        versions.append(nextCursor);
+
+        // If-None-Match is checked by Spring when the ETag is set, a match is sent as 304 without the body
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag(versions.toString()))
+                .body(new ProductCardList(cards, nextCursor));
+    }
+
+    private static String etag(String versions) {
+        return "\"" + DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static String encodeKeyset(LocalDateTime beforeDate, Long beforeId) {
+        return encode(beforeDate + "_" + beforeId);
+    }
+
+    /**
+     * @return The keyset, null if the cursor is not a catalog cursor
+     */
+    private static Keyset decodeKeyset(String cursor) {
+        try {
+            String[] parts = decode(cursor).split("_", 2);
+            return new Keyset(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The page number, -1 if the cursor is not a search cursor
+     */
+    private static int decodePageNumber(String cursor) {
+        try {
+            return Math.max(Integer.parseInt(decode(cursor)), -1);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private record Keyset(LocalDateTime beforeDate, Long beforeId) {
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.controllers;
 
+import com.example.dto.ProductDetail;
 import com.example.models.Product;
-import com.example.models.User;
+import com.example.security.UserPrincipal;
 import com.example.services.ProductService;
 import com.example.services.ProductService.SaveResult;
+import com.example.services.ProductViewCounter;
 import com.example.services.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
@@ -22,18 +25,23 @@ import java.util.List;
 public class ProductController {
     private final ProductService productService;
     private final UserService userService;
+    private final ProductViewCounter productViewCounter;
 
     private final static int PAGE_SIZE = 16;
 
     @GetMapping("/")
     public String products(@RequestParam(value = "query", required = false) String query,
                            @RequestParam(value = "page", defaultValue = "0") int page,
+                           @RequestParam(value = "sort", required = false) String sort,
                            Model model) {
         Page<Product> productsPage;
 
         if (query != null && !query.trim().isEmpty()) {
             productsPage = productService.searchProducts(query, page, PAGE_SIZE);
             model.addAttribute("searchQuery", query);
+        } else if ("views".equals(sort)) {
+            productsPage = productService.getMostViewedProducts(page, PAGE_SIZE);
+            model.addAttribute("sort", sort);
         } else {
             productsPage = productService.getProducts(page, PAGE_SIZE);
         }
@@ -59,7 +67,7 @@ public class ProductController {
                              @RequestParam(value = "additionalImages", required = false) List<MultipartFile> additionalImages,
                              @Valid @ModelAttribute Product product,
                              BindingResult bindingResult,
-                             @AuthenticationPrincipal User currentUser,
+                             @AuthenticationPrincipal UserPrincipal currentUser,
                              Model model) {
 
         if(bindingResult.hasErrors()) {
@@ -76,7 +84,7 @@ public class ProductController {
                 previewImage,
                 additionalImages,
                 product,
-                currentUser
+                userService.getReference(currentUser.getId())
         );
 
         if(!result.isSuccess()) {
@@ -91,9 +99,9 @@ public class ProductController {
     // Details
     @GetMapping("/product/{id}")
     public String productDetails(@PathVariable Long id,
-                                 @AuthenticationPrincipal User currentUser,
+                                 @AuthenticationPrincipal UserPrincipal currentUser,
                                  Model model) {
-        Product product = productService.getById(id);
+        ProductDetail product = productService.getDetail(id);
         if(product == null) {
             return "redirect:/";
         }
@@ -101,26 +109,33 @@ public class ProductController {
         // Check if the current user is the owner
         boolean isOwner = false;
         if(currentUser != null) {
-            isOwner = productService.isOwner(product, currentUser);
+            isOwner = productService.isOwner(product, currentUser.getId());
+        }
+
+        // Owners looking at their own listing are not counted
+        if(!isOwner) {
+            productViewCounter.recordView(id);
         }
 
         model.addAttribute("product", product);
         model.addAttribute("isOwner", isOwner);
+        model.addAttribute("views", productViewCounter.getViewCount(id));
+        model.addAttribute("similarProducts", productService.getSimilarProducts(id));
         return "product-details";
     }
 
     // Edit
     @GetMapping("/product/{id}/edit")
     public String productEdit(@PathVariable Long id,
-                              @AuthenticationPrincipal User currentUser,
+                              @AuthenticationPrincipal UserPrincipal currentUser,
                               Model model) {
-        Product product = productService.getById(id);
+        ProductDetail product = productService.getCurrentDetail(id);
         if(product == null) {
             return "redirect:/";
         }
 
         // Check access rights
-        if(!productService.isOwner(product, currentUser)) {
+        if(!productService.isOwner(product, currentUser != null ? currentUser.getId() : null)) {
             model.addAttribute("errorAccess", "You don't have permission to edit this product");
             return "redirect:/product/" + id;
         }
@@ -136,16 +151,16 @@ public class ProductController {
                               @RequestParam(value = "removeImageIds", required = false) List<Long> removeImageIds,
                               @Valid @ModelAttribute Product product,
                               BindingResult bindingResult,
-                              @AuthenticationPrincipal User currentUser,
+                              @AuthenticationPrincipal UserPrincipal currentUser,
                               Model model) {
 
         // Check access rights
-        Product dbProduct = productService.getById(id);
+        ProductDetail dbProduct = productService.getCurrentDetail(id);
         if(dbProduct == null) {
             return "redirect:/";
         }
 
-        if(!productService.isOwner(dbProduct, currentUser)) {
+        if(!productService.isOwner(dbProduct, currentUser != null ? currentUser.getId() : null)) {
             return "redirect:/product/" + id;
         }
 
@@ -154,13 +169,29 @@ public class ProductController {
         }
 
         // Update product with validation
-        SaveResult result = productService.updateProduct(
-                id,
-                previewImage,
-                additionalImages,
-                removeImageIds,
-                product
-        );
+        SaveResult result;
+        try {
+            result = productService.updateProduct(
+                    id,
+                    previewImage,
+                    additionalImages,
+                    removeImageIds,
+                    product
+            );
+        } catch (OptimisticLockingFailureException e) {
+            // Another edit committed while this one was running
+            result = SaveResult.conflict("Your changes were not saved, review the current listing and save again.");
+        }
+
+        if (result.isConflict()) {
+            ProductDetail current = productService.getCurrentDetail(id);
+            if (current == null) {
+                return "redirect:/";
+            }
+            model.addAttribute("errorConflict", result.getErrorMessage());
+            model.addAttribute("product", current);
+            return "product-edit";
+        }
 
         if (!result.isSuccess()) {
             model.addAttribute("errorSaving", result.getErrorMessage());
@@ -175,15 +206,15 @@ public class ProductController {
     // Delete
     @PostMapping("/product/{id}/delete")
     public String productDelete(@PathVariable Long id,
-                                @AuthenticationPrincipal User currentUser) {
+                                @AuthenticationPrincipal UserPrincipal currentUser) {
 
         // Check access rights
-        Product product = productService.getById(id);
+        ProductDetail product = productService.getCurrentDetail(id);
         if(product == null) {
             return "redirect:/";
         }
 
-        if(!productService.isOwner(product, currentUser)) {
+        if(!productService.isOwner(product, currentUser != null ? currentUser.getId() : null)) {
             return "redirect:/product/" + id;
         }
 
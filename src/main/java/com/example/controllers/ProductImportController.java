@@ -0,0 +1,38 @@
+package com.example.controllers;
+
+import com.example.security.UserPrincipal;
+import com.example.services.ProductImportService;
+import com.example.services.ProductImportService.ImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+@Controller
+@RequiredArgsConstructor
+public class ProductImportController {
+    private final ProductImportService productImportService;
+
+    @GetMapping("/product/import")
+    public String importForm() {
+        return "product-import";
+    }
+
+    @PostMapping("/product/import")
+    public String importProducts(@RequestParam(value = "file", required = false) MultipartFile file,
+                                 @RequestParam(value = "images", required = false) MultipartFile images,
+                                 @AuthenticationPrincipal UserPrincipal currentUser,
+                                 Model model) {
+        if (currentUser == null) {
+            return "redirect:/logout";
+        }
+
+        ImportResult result = productImportService.importProducts(file, images, currentUser.getId());
+        model.addAttribute("result", result);
+        return "product-import";
+    }
+}
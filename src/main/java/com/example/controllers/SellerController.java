@@ -1,36 +1,37 @@
 package com.example.controllers;
 
-import com.example.models.Product;
-import com.example.models.User;
-import com.example.services.ProductService;
-import com.example.services.UserService;
+import com.example.services.SellerService;
+import com.example.services.SellerService.SellerPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @Controller
 @RequiredArgsConstructor
 public class SellerController {
-    private final UserService userService;
-    private final ProductService productService;
+    private final SellerService sellerService;
 
     @GetMapping("/seller/{id}")
-    public String sellerProfile(@PathVariable Long id, Model model) {
-        User seller = userService.getById(id);
-
-        if (seller == null) {
+    public String sellerProfile(@PathVariable Long id,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                @RequestParam(required = false) Long beforeId,
+                                Model model) {
+        SellerPage page = sellerService.getSellerPage(id, before, beforeId);
+
+        if (page == null) {
             return "redirect:/";
         }
 
-        List<Product> products = productService.getProductsByOwnerId(id);
-
-        model.addAttribute("seller", seller);
-        model.addAttribute("products", products);
+        model.addAttribute("seller", page);
+        model.addAttribute("products", page.getProducts());
 
         return "profile-seller";
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,17 @@
 package com.example.controllers;
 
 import com.example.dto.UpdateProfileDto;
-import com.example.models.Product;
 import com.example.models.User;
+import com.example.security.UserPrincipal;
 import com.example.services.ProductService;
+import com.example.services.ProductService.CardPage;
 import com.example.services.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -19,8 +22,9 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @Controller
 @RequiredArgsConstructor
@@ -28,14 +32,27 @@ public class UserController {
     private final UserService userService;
     private final ProductService productService;
 
+    @Value("${marketplace.my-products.page-size:20}")
+    private int myProductsPageSize = 20;
+
     @GetMapping("/profile")
-    public String profile(@AuthenticationPrincipal User user, Model model) {
+    public String profile(@AuthenticationPrincipal UserPrincipal principal, Model model) {
+        User user = userService.getById(principal.getId());
+        if (user == null) {
+            return "redirect:/logout";
+        }
+
         model.addAttribute("user", user);
         return "profile";
     }
 
     @GetMapping("/profile/edit")
-    public String editProfile(@AuthenticationPrincipal User user, Model model) {
+    public String editProfile(@AuthenticationPrincipal UserPrincipal principal, Model model) {
+        User user = userService.getById(principal.getId());
+        if (user == null) {
+            return "redirect:/logout";
+        }
+
         UpdateProfileDto updateDto = new UpdateProfileDto();
         updateDto.setUsername(user.getUsername());
         updateDto.setEmail(user.getEmail());
@@ -46,18 +63,18 @@ public class UserController {
     }
 
     @PostMapping("/profile/update")
-    public String updateProfile(@AuthenticationPrincipal User user,
+    public String updateProfile(@AuthenticationPrincipal UserPrincipal principal,
                                 @Valid @ModelAttribute UpdateProfileDto updateDto,
                                 BindingResult bindingResult,
                                 Model model,
                                 HttpServletRequest request) {
 
-        User currentUser = userService.getById(user.getId());
+        User user = userService.getById(principal.getId());
 
         // For example:
         // 1. The admin deleted the user, but the session is still active.
         // 2. The user changed the username in another tab, but the old username remains in the current session.
-        if (currentUser == null) {
+        if (user == null) {
             return "redirect:/logout";
         }
 
@@ -84,11 +101,13 @@ public class UserController {
         if (updateDto.getUsername() != null && !updateDto.getUsername().equals(user.getUsername()) ||
                 updateDto.getEmail() != null && !updateDto.getEmail().equals(user.getEmail())) {
             User updatedUser = userService.getByUsername(updateDto.getUsername());
+            UserPrincipal updatedPrincipal = UserPrincipal.from(updatedUser);
+            updatedPrincipal.eraseCredentials();
 
             Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    updatedUser,
-                    updatedUser.getPassword(),
-                    updatedUser.getAuthorities()
+                    updatedPrincipal,
+                    null,
+                    updatedPrincipal.getAuthorities()
             );
 
             // Replaces the old authentication with the new one
@@ -111,13 +130,13 @@ public class UserController {
     }
 
     @PostMapping("/profile/delete")
-    public String deleteProfile(@AuthenticationPrincipal User user,
+    public String deleteProfile(@AuthenticationPrincipal UserPrincipal principal,
                                 HttpServletRequest request) {
-        if (user == null) {
+        if (principal == null) {
             return "redirect:/logout";
         }
 
-        userService.deleteUser(user.getId());
+        userService.deleteUser(principal.getId());
 
         // Deletes user information in object Authentication
         SecurityContextHolder.clearContext();
@@ -133,15 +152,22 @@ public class UserController {
     }
 
     @GetMapping("/profile/products")
-    public String myProducts(@AuthenticationPrincipal User user, Model model) {
-        if (user == null) {
+    public String myProducts(@AuthenticationPrincipal UserPrincipal principal,
+                             @RequestParam(required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                             @RequestParam(required = false) Long beforeId,
+                             Model model) {
+        if (principal == null) {
             return "redirect:/logout";
         }
 
-        List<Product> userProducts = productService.getProductsByOwnerId(user.getId());
+        CardPage page = productService.getCardsByOwnerId(principal.getId(), before, beforeId, myProductsPageSize);
 
-        model.addAttribute("products", userProducts);
-        model.addAttribute("user", user);
+        model.addAttribute("page", page);
+        model.addAttribute("products", page.getProducts());
+        model.addAttribute("firstPage", before == null || beforeId == null);
+        model.addAttribute("stats", userService.getListingStats(principal.getId()));
+        model.addAttribute("user", principal);
 
         return "profile-products";
     }
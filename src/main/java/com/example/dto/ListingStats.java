@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+/**
+ * Listing counters of a user, kept on the users row
+ * (UserRepository.addListingCounters) so profile headers don't count products.
+ */
+@Getter
+public final class ListingStats {
+    public static final ListingStats EMPTY = new ListingStats(0, 0);
+
+    private final long productCount;
+    private final long imageCount;
+
+    public ListingStats(long productCount, long imageCount) {
+        this.productCount = productCount;
+        this.imageCount = imageCount;
+    }
+}
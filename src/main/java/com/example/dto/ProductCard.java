@@ -0,0 +1,45 @@
+package com.example.dto;
+
+import com.example.models.ProductImage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Product listing card with its preview image, read in one query
+ * (ProductRepository.findCardsByOwnerId) instead of loading Product
+ * entities and their lazy images. Immutable, safe to cache.
+ * Also the card of the JSON API, null fields are left out there.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ProductCard {
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final BigDecimal price;
+    private final LocalDateTime dateOfCreated;
+    // Optimistic lock version, the JSON API derives ETags from it
+    private final Long version;
+    private final String previewImageUrl;
+    private final Integer previewWidth;
+    private final Integer previewHeight;
+    private final String previewPlaceholder;
+
+    public ProductCard(Long id, String title, String description, BigDecimal price, LocalDateTime dateOfCreated,
+                       Long version, String previewImageDirectory, Integer previewWidth, Integer previewHeight,
+                       String previewPlaceholder) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.dateOfCreated = dateOfCreated;
+        this.version = version;
+        this.previewImageUrl = previewImageDirectory != null ? ProductImage.toImageUrl(previewImageDirectory) : null;
+        this.previewWidth = previewWidth;
+        this.previewHeight = previewHeight;
+        this.previewPlaceholder = previewPlaceholder;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of product cards in the JSON API. nextCursor is opaque to clients,
+ * they send it back to get the next page; it is left out on the last page.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ProductCardList {
+    private final List<ProductCard> items;
+    private final String nextCursor;
+
+    public ProductCardList(List<ProductCard> items, String nextCursor) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+    }
+}
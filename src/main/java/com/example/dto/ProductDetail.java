@@ -0,0 +1,133 @@
+package com.example.dto;
+
+import com.example.models.ProductImage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product detail page read model: product, owner and images read in one
+ * query (ProductRepository.findDetailRowsById), images ordered preview
+ * first. Immutable, safe to cache. Also the body of GET /api/v1/products/{id}.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ProductDetail {
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final BigDecimal price;
+    private final LocalDateTime dateOfCreated;
+    // Optimistic lock version, sent back by the edit form
+    private final Long version;
+    private final Long ownerId;
+    private final String ownerUsername;
+    private final List<Image> images;
+
+    public ProductDetail(Long id, String title, String description, BigDecimal price, LocalDateTime dateOfCreated,
+                         Long version, Long ownerId, String ownerUsername, List<Image> images) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.dateOfCreated = dateOfCreated;
+        this.version = version;
+        this.ownerId = ownerId;
+        this.ownerUsername = ownerUsername;
+        this.images = List.copyOf(images);
+    }
+
+    /**
+     * Build the detail from the joined rows, one row per image
+     *
+     * @return The detail, null if there are no rows
+     */
+    public static ProductDetail fromRows(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        List<Image> images = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.imageId != null) {
+                images.add(new Image(row.imageId, ProductImage.toImageUrl(row.imageDirectory),
+                        row.imageWidth, row.imageHeight, row.imagePlaceholder, row.previewImage));
+            }
+        }
+
+        Row first = rows.get(0);
+        return new ProductDetail(first.id, first.title, first.description, first.price, first.dateOfCreated,
+                first.version, first.ownerId, first.ownerUsername, images);
+    }
+
+    public boolean isOwnedBy(Long userId) {
+        return userId != null && userId.equals(ownerId);
+    }
+
+    /**
+     * Image of the product, names match ProductImage so templates work with both
+     */
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Image {
+        private final Long id;
+        private final String imageUrl;
+        private final Integer width;
+        private final Integer height;
+        private final String placeholder;
+        private final boolean previewImage;
+
+        public Image(Long id, String imageUrl, Integer width, Integer height, String placeholder,
+                     boolean previewImage) {
+            this.id = id;
+            this.imageUrl = imageUrl;
+            this.width = width;
+            this.height = height;
+            this.placeholder = placeholder;
+            this.previewImage = previewImage;
+        }
+    }
+
+    /**
+     * One row of the detail query: the product and owner columns repeated for each image
+     */
+    public static final class Row {
+        private final Long id;
+        private final String title;
+        private final String description;
+        private final BigDecimal price;
+        private final LocalDateTime dateOfCreated;
+        private final Long version;
+        private final Long ownerId;
+        private final String ownerUsername;
+        private final Long imageId;
+        private final String imageDirectory;
+        private final Integer imageWidth;
+        private final Integer imageHeight;
+        private final String imagePlaceholder;
+        private final boolean previewImage;
+
+        public Row(Long id, String title, String description, BigDecimal price, LocalDateTime dateOfCreated,
+                   Long version, Long ownerId, String ownerUsername, Long imageId, String imageDirectory,
+                   Integer imageWidth, Integer imageHeight, String imagePlaceholder, Boolean previewImage) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.price = price;
+            this.dateOfCreated = dateOfCreated;
+            this.version = version;
+            this.ownerId = ownerId;
+            this.ownerUsername = ownerUsername;
+            this.imageId = imageId;
+            this.imageDirectory = imageDirectory;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.imagePlaceholder = imagePlaceholder;
+            this.previewImage = Boolean.TRUE.equals(previewImage);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.elasticsearch;
 
 import com.example.models.Product;
+import com.example.models.ProductImage;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -37,6 +38,10 @@ public class ProductDocument {
     @Field(type = FieldType.Keyword)
     private String previewImageUrl;
 
+    // Stored for rendering only, not searchable
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
+    private String previewImagePlaceholder;
+
     @Field(type = FieldType.Long)
     private Long ownerId;
 
@@ -52,6 +57,11 @@ public class ProductDocument {
         this.dateOfCreated = product.getDateOfCreated();
         this.previewImageUrl = product.getPreviewImageUrl();
 
+        ProductImage previewImage = product.getPreviewImage();
+        if (previewImage != null) {
+            this.previewImagePlaceholder = previewImage.getPlaceholder();
+        }
+
         if (product.getOwner() != null) {
             this.ownerId = product.getOwner().getId();
             this.ownerUsername = product.getOwner().getUsername();
@@ -0,0 +1,54 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * File scheduled for removal from disk.
+ * Rows are written in the same transaction that deletes the owning entity
+ * and processed after commit by FileDeletionWorker.
+ */
+@Entity(name = "pending_file_deletions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingFileDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 500, nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    public PendingFileDeletion(String path) {
+        this.path = path;
+    }
+
+    @PrePersist
+    private void init() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        PendingFileDeletion deletion = (PendingFileDeletion) obj;
+        return id != null && id.equals(deletion.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
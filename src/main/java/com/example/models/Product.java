@@ -3,21 +3,25 @@ package com.example.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// UPDATE only the changed columns, a price change doesn't rewrite the description
 @Entity(name = "products")
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    // Pooled ids: one nextval per 50 products, inserts can be batched
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
-    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq_id", allocationSize = 1)
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq_id", allocationSize = 50)
     private Long id;
 
     @Column(length = 80)
@@ -38,6 +42,11 @@ public class Product {
     @Column
     private LocalDateTime dateOfCreated;
 
+    // Incremented on every update, including image changes; stale edits are rejected
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<ProductImage> images;
 
@@ -57,11 +66,12 @@ public class Product {
         return images.stream()
                 .filter(ProductImage::isPreviewImage)
                 .findFirst()
-                .get();
+                .orElse(null);
     }
 
     public String getPreviewImageUrl() {
-        return getPreviewImage().getImageUrl();
+        ProductImage previewImage = getPreviewImage();
+        return previewImage != null ? previewImage.getImageUrl() : null;
     }
 
     public void addImages(List<ProductImage> newImages) {
@@ -72,20 +82,6 @@ public class Product {
         this.images.remove(image);
     }
 
-    public List<ProductImage> getSortedImages() {
-        if(images == null || images.isEmpty()) {
-            return List.of();
-        }
-
-        return images.stream()
-                .sorted((img1, img2) -> {
-                    if(img1.isPreviewImage()) return -1;
-                    if(img2.isPreviewImage()) return 1;
-                    return 0;
-                })
-                .toList();
-    }
-
     @Override
     public boolean equals(Object obj) {
         if(this == obj) return true;
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.*;
 
 @Entity(name = "product_images")
@@ -19,8 +20,10 @@ public class ProductImage {
 
     public static final String DIRECTORY_IMAGES = "uploads/";
 
+    // Sequence instead of IDENTITY so image inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_images_seq")
+    @SequenceGenerator(name = "product_images_seq", sequenceName = "product_images_seq_id", allocationSize = 50)
     private Long id;
 
     @Column(length = 500)
@@ -33,12 +36,46 @@ public class ProductImage {
     @Column
     private boolean isPreviewImage = false;
 
+    // Pixel dimensions read from the file header on upload
+    @Column
+    private Integer width;
+
+    @Column
+    private Integer height;
+
+    // Tiny blurred preview as a data URI, shown while the image is loading
+    @Column(length = 2048)
+    private String placeholder;
+
     public ProductImage(String imageDirectory, boolean isPreviewImage) {
         this.imageDirectory = imageDirectory;
         this.isPreviewImage = isPreviewImage;
     }
 
+    /**
+     * Key of the file in ImageStorage, null for external images
+     */
+    public String getStorageKey() {
+        return toStorageKey(imageDirectory);
+    }
+
+    public static String toStorageKey(String imageDirectory) {
+        if (imageDirectory == null || imageDirectory.startsWith("http://") || imageDirectory.startsWith("https://")) {
+            return null;
+        }
+
+        if (imageDirectory.startsWith(DIRECTORY_IMAGES)) {
+            return imageDirectory.substring(DIRECTORY_IMAGES.length());
+        }
+
+        return imageDirectory;
+    }
+
     public String getImageUrl() {
+        return toImageUrl(imageDirectory);
+    }
+
+    public static String toImageUrl(String imageDirectory) {
         if (imageDirectory.startsWith("http://") || imageDirectory.startsWith("https://")) {
             return imageDirectory;
         }
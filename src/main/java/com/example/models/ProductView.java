@@ -0,0 +1,26 @@
+package com.example.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * View count of a product, read-only here: ProductViewCounter writes the
+ * counts in batches with plain JDBC. Mapped for "most viewed" queries.
+ */
+@Entity(name = "product_views")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class ProductView {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long viewCount;
+}
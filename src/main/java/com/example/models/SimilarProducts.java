@@ -0,0 +1,53 @@
+package com.example.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed neighbours of a product. Read-only as an entity, written by
+ * SimilarProductsWorker and ProductService through SimilarProductsRepository
+ * update queries.
+ */
+@Entity(name = "similar_products")
+@Getter
+@NoArgsConstructor
+public class SimilarProducts {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Comma separated product ids, best match first
+    @Column(length = 1000)
+    private String similarIds;
+
+    // Null until the worker has computed the neighbours
+    private LocalDateTime computedAt;
+
+    // Incremented each time the product is queued again
+    private int generation;
+
+    public List<Long> getSimilarProductIds() {
+        if (similarIds == null || similarIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(similarIds.split(",")).map(Long::valueOf).toList();
+    }
+
+    public static String joinIds(List<Long> productIds) {
+        return String.join(",", productIds.stream().map(String::valueOf).toList());
+    }
+
+    /**
+     * Product picked by the worker, with the generation its neighbours are computed for
+     */
+    public record Queued(Long productId, int generation) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.models;
+
+import com.example.models.enums.DeletionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background deletion of a user and their products.
+ * Created by UserService.deleteUser and processed in batches by UserDeletionWorker,
+ * the counters show the progress on the admin dashboard.
+ */
+@Entity(name = "user_deletion_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private DeletionStatus status = DeletionStatus.PENDING;
+
+    // Products owned when the deletion was requested
+    @Column(nullable = false)
+    private long totalProducts;
+
+    @Column(nullable = false)
+    private long productsDeleted;
+
+    @Column(nullable = false)
+    private long imagesQueued;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    // Refreshed after every batch, a running job that stops updating is picked up again
+    @Column
+    private LocalDateTime updatedAt;
+
+    public UserDeletionJob(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    /**
+     * Progress in percent, 100 once completed
+     */
+    public int getProgressPercent() {
+        if (status == DeletionStatus.COMPLETED) {
+            return 100;
+        }
+        if (totalProducts == 0) {
+            return 0;
+        }
+        return (int) Math.min(99, productsDeleted * 100 / totalProducts);
+    }
+
+    @PrePersist
+    private void init() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        UserDeletionJob job = (UserDeletionJob) obj;
+        return id != null && id.equals(job.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.models.enums;
+
+public enum DeletionStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
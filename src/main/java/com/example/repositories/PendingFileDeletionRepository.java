@@ -0,0 +1,11 @@
+package com.example.repositories;
+
+import com.example.models.PendingFileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PendingFileDeletionRepository extends JpaRepository<PendingFileDeletion, Long> {
+    List<PendingFileDeletion> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
@@ -2,6 +2,31 @@ package com.example.repositories;
 
 import com.example.models.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+
+    @Query("select i.imageDirectory from product_images i where i.imageDirectory in :directories")
+    List<String> findExistingImageDirectories(@Param("directories") Collection<String> directories);
+
+    /**
+     * Queue the files of all images of the products for deletion, in one statement
+     *
+     * @return Number of queued files
+     */
+    @Modifying
+    @Query(value = "insert into pending_file_deletions (path, attempts, created_at) " +
+            "select i.image_directory, 0, current_timestamp from product_images i " +
+            "where i.product_id in (:productIds) and i.image_directory is not null",
+            nativeQuery = true)
+    int queueFilesForDeletionByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from product_images i where i.product.id in :productIds")
+    int deleteAllByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
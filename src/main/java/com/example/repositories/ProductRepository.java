@@ -1,11 +1,119 @@
 package com.example.repositories;
 
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
 import com.example.models.Product;
 import com.example.models.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByOwnerId(Long id);
+    // Explicit queries: the derived findByOwnerId joined users and filtered on users.id,
+    // which kept the planner from using idx_products_user_id_date (see AbstractQueryPlanTest)
+    @Query("select p from products p where p.owner.id = :ownerId")
+    List<Product> findByOwnerId(@Param("ownerId") Long id);
+
+    @Query("select count(p) from products p where p.owner.id = :ownerId")
+    long countByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Newest cards of the owner, with the preview image joined in the same query
+     */
+    @Query("select new com.example.dto.ProductCard(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, i.imageDirectory, i.width, i.height, i.placeholder) " +
+            "from products p left join p.images i on i.isPreviewImage = true " +
+            "where p.owner.id = :ownerId " +
+            "order by p.dateOfCreated desc, p.id desc")
+    List<ProductCard> findCardsByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Next cards of the owner after the (dateOfCreated, id) keyset of the last shown card
+     */
+    @Query("select new com.example.dto.ProductCard(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, i.imageDirectory, i.width, i.height, i.placeholder) " +
+            "from products p left join p.images i on i.isPreviewImage = true " +
+            "where p.owner.id = :ownerId " +
+            "and (p.dateOfCreated < :beforeDate or (p.dateOfCreated = :beforeDate and p.id < :beforeId)) " +
+            "order by p.dateOfCreated desc, p.id desc")
+    List<ProductCard> findCardsByOwnerIdBefore(@Param("ownerId") Long ownerId,
+                                               @Param("beforeDate") LocalDateTime beforeDate,
+                                               @Param("beforeId") Long beforeId,
+                                               Pageable pageable);
+
+    /**
+     * Newest cards of the catalog (JSON API), idx_products_date_of_created serves the order
+     */
+    @Query("select new com.example.dto.ProductCard(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, i.imageDirectory, i.width, i.height, i.placeholder) " +
+            "from products p left join p.images i on i.isPreviewImage = true " +
+            "order by p.dateOfCreated desc, p.id desc")
+    List<ProductCard> findCards(Pageable pageable);
+
+    /**
+     * Next cards of the catalog after the (dateOfCreated, id) keyset of the last returned card
+     */
+    @Query("select new com.example.dto.ProductCard(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, i.imageDirectory, i.width, i.height, i.placeholder) " +
+            "from products p left join p.images i on i.isPreviewImage = true " +
+            "where p.dateOfCreated < :beforeDate or (p.dateOfCreated = :beforeDate and p.id < :beforeId) " +
+            "order by p.dateOfCreated desc, p.id desc")
+    List<ProductCard> findCardsBefore(@Param("beforeDate") LocalDateTime beforeDate,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
+
+    /**
+     * Cards of the given products, in no particular order
+     */
+    @Query("select new com.example.dto.ProductCard(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, i.imageDirectory, i.width, i.height, i.placeholder) " +
+            "from products p left join p.images i on i.isPreviewImage = true " +
+            "where p.id in :ids")
+    List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Viewed products, most viewed first (ProductViewCounter writes the counts)
+     */
+    @Query(value = "select p from products p join product_views v on v.productId = p.id " +
+            "order by v.viewCount desc, p.id desc",
+            countQuery = "select count(v) from product_views v")
+    Page<Product> findMostViewed(Pageable pageable);
+
+    /**
+     * Product, owner and images in one query, one row per image, preview image first.
+     * Build the detail with ProductDetail.fromRows.
+     */
+    @Query("select new com.example.dto.ProductDetail$Row(p.id, p.title, p.description, p.price, p.dateOfCreated, " +
+            "p.version, o.id, o.username, i.id, i.imageDirectory, i.width, i.height, i.placeholder, i.isPreviewImage) " +
+            "from products p left join p.owner o left join p.images i " +
+            "where p.id = :id " +
+            "order by i.isPreviewImage desc, i.id")
+    List<ProductDetail.Row> findDetailRowsById(@Param("id") Long id);
+
+    /**
+     * Product whose version is incremented at commit even if only its images change
+     * (the image collection is the inverse side and does not bump the version).
+     * The commit fails if another edit was committed meanwhile. If the product itself
+     * changes too, the version moves by two; it is only compared for equality.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select p from products p where p.id = :id")
+    Optional<Product> findWithVersionIncrementById(@Param("id") Long id);
+
+    @Query("select p.id from products p where p.owner.id = :ownerId order by p.id")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from products p where p.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,68 @@
+package com.example.repositories;
+
+import com.example.models.SimilarProducts;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SimilarProductsRepository extends JpaRepository<SimilarProducts, Long> {
+
+    /**
+     * Products whose neighbours were never computed or changed since, newest first
+     */
+    @Query("select new com.example.models.SimilarProducts$Queued(s.productId, s.generation) " +
+            "from similar_products s where s.computedAt is null order by s.productId desc")
+    List<SimilarProducts.Queued> findPending(Pageable pageable);
+
+    /**
+     * Products whose neighbours are older than the given time, oldest first
+     */
+    @Query("select new com.example.models.SimilarProducts$Queued(s.productId, s.generation) " +
+            "from similar_products s where s.computedAt < :before order by s.computedAt")
+    List<SimilarProducts.Queued> findComputedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Queue a new product for the worker
+     */
+    @Modifying
+    @Query(value = "INSERT INTO similar_products (product_id) VALUES (:productId)", nativeQuery = true)
+    void insertPending(@Param("productId") Long productId);
+
+    /**
+     * Queue new products, one statement for a batch of imported products
+     */
+    @Modifying
+    @Query(value = "INSERT INTO similar_products (product_id) SELECT id FROM products WHERE id IN (:productIds)",
+            nativeQuery = true)
+    void insertPendingAll(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Queue a product again, e.g. after its title or description changed
+     */
+    @Modifying
+    @Query("update similar_products s set s.computedAt = null, s.generation = s.generation + 1 " +
+            "where s.productId = :productId")
+    int markPending(@Param("productId") Long productId);
+
+    /**
+     * Store the neighbours unless the product was queued again since it was picked
+     *
+     * @param generation Generation the product had when picked
+     * @return 0 if the product was queued again or deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("update similar_products s set s.similarIds = :similarIds, s.computedAt = :computedAt " +
+            "where s.productId = :productId and s.generation = :generation")
+    int saveSimilarIds(@Param("productId") Long productId,
+                       @Param("generation") int generation,
+                       @Param("similarIds") String similarIds,
+                       @Param("computedAt") LocalDateTime computedAt);
+}
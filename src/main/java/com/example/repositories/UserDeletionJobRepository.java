@@ -0,0 +1,56 @@
+package com.example.repositories;
+
+import com.example.models.UserDeletionJob;
+import com.example.models.enums.DeletionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJob, Long> {
+    Optional<UserDeletionJob> findFirstByUserIdAndStatusIn(Long userId, Collection<DeletionStatus> statuses);
+
+    List<UserDeletionJob> findTop10ByOrderByIdDesc();
+
+    /**
+     * Pending jobs and running jobs without progress since staleBefore (node crashed or restarted)
+     */
+    @Query("select j.id from user_deletion_jobs j " +
+            "where j.status = com.example.models.enums.DeletionStatus.PENDING " +
+            "or (j.status = com.example.models.enums.DeletionStatus.RUNNING and j.updatedAt < :staleBefore) " +
+            "order by j.id")
+    List<Long> findRunnableIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Mark a runnable job as running. Only one node gets 1 back.
+     */
+    @Modifying
+    @Transactional
+    @Query("update user_deletion_jobs j set j.status = com.example.models.enums.DeletionStatus.RUNNING, j.updatedAt = :now " +
+            "where j.id = :id and (j.status = com.example.models.enums.DeletionStatus.PENDING " +
+            "or (j.status = com.example.models.enums.DeletionStatus.RUNNING and j.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("update user_deletion_jobs j set j.productsDeleted = j.productsDeleted + :products, " +
+            "j.imagesQueued = j.imagesQueued + :images, j.updatedAt = :now where j.id = :id")
+    int addProgress(@Param("id") Long id,
+                    @Param("products") long products,
+                    @Param("images") long images,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update user_deletion_jobs j set j.status = :status, j.error = :error, j.updatedAt = :now where j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") DeletionStatus status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+}
@@ -1,10 +1,15 @@
 package com.example.repositories;
 
+import com.example.dto.ListingStats;
 import com.example.models.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,10 +17,78 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
 
-    boolean existsByUsername(String username);
-    boolean existsByEmail(String email);
+    // Keyset pagination by id, no COUNT query
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<User> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
 
-    Page<User> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-            String username, String email, Pageable pageable
-    );
+    /**
+     * Users whose username or email matches the ILIKE pattern, after the given id.
+     * On PostgreSQL served by the pg_trgm GIN indexes from migration V3.
+     */
+    @Query("SELECT u FROM User u " +
+            "WHERE (u.username ILIKE :pattern ESCAPE '\\' OR u.email ILIKE :pattern ESCAPE '\\') " +
+            "AND u.id > :afterId ORDER BY u.id ASC")
+    List<User> searchByUsernameOrEmailAfter(@Param("pattern") String pattern,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT u FROM User u " +
+            "WHERE (u.username ILIKE :pattern ESCAPE '\\' OR u.email ILIKE :pattern ESCAPE '\\') " +
+            "AND u.id < :beforeId ORDER BY u.id DESC")
+    List<User> searchByUsernameOrEmailBefore(@Param("pattern") String pattern,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
+    // Bulk admin actions: one statement per batch of ids, no entities loaded
+
+    @Modifying
+    @Query("UPDATE User u SET u.active = :active WHERE u.id IN :ids")
+    int updateActiveByIdIn(@Param("ids") Collection<Long> ids, @Param("active") boolean active);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_roles (user_id, role) " +
+            "SELECT u.id, :role FROM users u WHERE u.id IN (:ids) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role)",
+            nativeQuery = true)
+    int addRoleByIdIn(@Param("ids") Collection<Long> ids, @Param("role") String role);
+
+    /**
+     * Remove a role, except from users for whom it is the last one
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_roles WHERE role = :role AND user_id IN (:ids) " +
+            "AND user_id IN (SELECT r.user_id FROM user_roles r GROUP BY r.user_id HAVING COUNT(*) > 1)",
+            nativeQuery = true)
+    int removeRoleByIdIn(@Param("ids") Collection<Long> ids, @Param("role") String role);
+
+    /**
+     * Profile update in one statement, duplicates are rejected by the unique constraints.
+     * A null password keeps the current one.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.username = :username, u.email = :email, " +
+            "u.password = COALESCE(:password, u.password) WHERE u.id = :id")
+    int updateProfile(@Param("id") Long id,
+                      @Param("username") String username,
+                      @Param("email") String email,
+                      @Param("password") String password);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
+
+    /**
+     * Add to the listing counters of the user, negative to subtract.
+     * The increment happens in the database, so concurrent changes are not lost.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.productCount = u.productCount + :products, " +
+            "u.imageCount = u.imageCount + :images WHERE u.id = :id")
+    int addListingCounters(@Param("id") Long id, @Param("products") long products, @Param("images") long images);
+
+    @Query("SELECT new com.example.dto.ListingStats(u.productCount, u.imageCount) FROM User u WHERE u.id = :id")
+    Optional<ListingStats> findListingStatsById(@Param("id") Long id);
 }
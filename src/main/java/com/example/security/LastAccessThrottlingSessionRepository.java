@@ -0,0 +1,126 @@
+package com.example.security;
+
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Session repository that writes the last access time only when it moved
+ * by at least the write interval.
+ * <p>
+ * SessionRepositoryFilter sets the last access time on every request, which
+ * makes Spring Session JDBC update the spring_session row even when nothing
+ * else changed. Here smaller moves are kept off the stored session, so most
+ * requests of a logged-in user cause no write at all. A session can therefore
+ * expire up to one interval earlier than its max inactive interval says.
+ */
+public class LastAccessThrottlingSessionRepository
+        implements SessionRepository<LastAccessThrottlingSessionRepository.ThrottledSession> {
+
+    private final SessionRepository<Session> delegate;
+    private final Duration writeInterval;
+
+    // Only sessions created or found by the delegate are passed back to it
+    @SuppressWarnings("unchecked")
+    public LastAccessThrottlingSessionRepository(SessionRepository<? extends Session> delegate, Duration writeInterval) {
+        this.delegate = (SessionRepository<Session>) delegate;
+        this.writeInterval = writeInterval;
+    }
+
+    @Override
+    public ThrottledSession createSession() {
+        return new ThrottledSession(delegate.createSession(), writeInterval);
+    }
+
+    @Override
+    public void save(ThrottledSession session) {
+        delegate.save(session.delegate);
+    }
+
+    @Override
+    public ThrottledSession findById(String id) {
+        Session session = delegate.findById(id);
+        return session != null ? new ThrottledSession(session, writeInterval) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    public static final class ThrottledSession implements Session {
+
+        private final Session delegate;
+        private final Duration writeInterval;
+
+        private ThrottledSession(Session delegate, Duration writeInterval) {
+            this.delegate = delegate;
+            this.writeInterval = writeInterval;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            if (!lastAccessedTime.isBefore(delegate.getLastAccessedTime().plus(writeInterval))) {
+                delegate.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Throttles login and registration attempts before the password encoder runs.
+ * Login is limited per client IP and per username, registration per client IP.
+ * <p>
+ * Rejections are counted by the limiters and only logged at DEBUG.
+ * <p>
+ * The client IP is request.getRemoteAddr(). Behind a reverse proxy
+ * server.forward-headers-strategy must be set, otherwise all clients share the proxy IP.
+ */
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/login";
+    static final String REGISTER_PATH = "/register";
+
+    private final SlidingWindowRateLimiter loginByIp;
+    private final SlidingWindowRateLimiter loginByUsername;
+    private final SlidingWindowRateLimiter registerByIp;
+
+    public LoginRateLimitFilter(SlidingWindowRateLimiter loginByIp,
+                                SlidingWindowRateLimiter loginByUsername,
+                                SlidingWindowRateLimiter registerByIp) {
+        this.loginByIp = loginByIp;
+        this.loginByUsername = loginByUsername;
+        this.registerByIp = registerByIp;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !LOGIN_PATH.equals(path) && !REGISTER_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+
+        if (LOGIN_PATH.equals(request.getServletPath())) {
+            if (!loginByIp.tryAcquire(clientIp)) {
+                reject(response, loginByIp, "Too many login attempts from IP " + clientIp);
+                return;
+            }
+
+            String username = request.getParameter("username");
+            if (username != null && !username.isBlank()
+                    && !loginByUsername.tryAcquire(username.trim().toLowerCase(Locale.ROOT))) {
+                reject(response, loginByUsername, "Too many login attempts for the username sent from IP " + clientIp);
+                return;
+            }
+        } else if (!registerByIp.tryAcquire(clientIp)) {
+            reject(response, registerByIp, "Too many registrations from IP " + clientIp);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response,
+                        SlidingWindowRateLimiter limiter,
+                        String reason) throws IOException {
+        // Counted in marketplace.rate-limit.requests{result=rejected}. Not logged at WARN, an attack
+        // would write one line per request, and not with the username, which is client input.
+        log.debug("{}, request rejected", reason);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getRetryAfterSeconds()));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many attempts, please try again later");
+    }
+}
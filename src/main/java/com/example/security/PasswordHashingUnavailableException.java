@@ -0,0 +1,12 @@
+package com.example.security;
+
+/**
+ * Thrown when the password hashing pool is saturated.
+ * During login Spring Security turns it into an authentication failure.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password encoder that runs BCrypt on a small dedicated thread pool.
+ * <p>
+ * Each hash takes ~100 ms of CPU. Without a limit a login or registration
+ * burst makes every request thread hash at once and the whole site stalls.
+ * The pool caps the number of concurrent hashes, so the remaining cores keep
+ * serving pages; requests over the queue limit fail fast instead of piling up.
+ * <p>
+ * Hashes are stored with an algorithm prefix ({bcrypt}$2a$12$...).
+ * Old hashes without prefix or with a lower work factor are reported by
+ * {@link #upgradeEncoding(String)}, so Spring Security rehashes them on the
+ * next successful login.
+ */
+@Slf4j
+public class PooledPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    static final String ENCODING_ID = "bcrypt";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final int strength;
+
+    public PooledPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout) {
+        this.strength = strength;
+        this.timeout = timeout;
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                ENCODING_ID, Map.of(ENCODING_ID, new BCryptPasswordEncoder(strength)));
+        // Hashes created before the prefix was introduced
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        this.delegate = delegating;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full ({} waiting)", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Password hashing queue is full", e);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingUnavailableException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Find the work factor whose hash takes about the target time on this machine.
+     * Each step of the work factor doubles the time.
+     *
+     * @param minimumStrength Lowest allowed work factor
+     * @param targetTime      Desired time of one hash
+     * @return Work factor between minimumStrength and 16
+     */
+    public static int calibrateStrength(int minimumStrength, Duration targetTime) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minimumStrength);
+        // Warm up JIT before measuring
+        probe.encode("calibration");
+
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+        int strength = minimumStrength;
+        long estimatedNanos = elapsedNanos;
+        while (strength < 16 && estimatedNanos * 2 <= targetTime.toNanos()) {
+            estimatedNanos *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt calibration: strength {} takes {} ms, using strength {} (~{} ms)",
+                minimumStrength, elapsedNanos / 1_000_000, strength, estimatedNanos / 1_000_000);
+        return strength;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key rate limiter with a sliding window.
+ * <p>
+ * The window is approximated from two fixed windows: the count of the previous
+ * window is weighted by how much of it still overlaps the sliding window.
+ * Each key holds a single AtomicLong with both counts and the window number,
+ * updated with compare-and-set, so checks never take a lock.
+ * <p>
+ * Keys are spread over independent stripes. Each stripe holds at most
+ * maxKeys / stripes keys; when a stripe is full, keys of expired windows are
+ * removed first, then the keys with the fewest requests. Memory stays bounded
+ * even when an attacker sends a new username with every request, and the new
+ * usernames can't push out a throttled key to reset its count.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int STRIPES = 16;
+
+    // State layout: [window number: 24 bits][previous count: 20 bits][current count: 20 bits]
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << 24) - 1;
+
+    private final int limit;
+    private final long windowMillis;
+    private final int keysPerStripe;
+    private final Clock clock;
+    private final Stripe[] stripes;
+
+    private final Counter allowedCounter;
+    private final Counter rejectedCounter;
+    private final Counter evictedCounter;
+
+    /**
+     * @param name          Limiter name, used as metric tag
+     * @param limit         Max requests per key within the window
+     * @param window        Window length
+     * @param maxKeys       Max keys kept in memory
+     * @param meterRegistry Registry for metrics
+     * @param clock         Time source
+     */
+    public SlidingWindowRateLimiter(String name,
+                                    int limit,
+                                    Duration window,
+                                    int maxKeys,
+                                    MeterRegistry meterRegistry,
+                                    Clock clock) {
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.keysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.clock = clock;
+
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        this.allowedCounter = Counter.builder("marketplace.rate-limit.requests")
+                .tag("limiter", name)
+                .tag("result", "allowed")
+                .description("Requests checked by the rate limiter")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("marketplace.rate-limit.requests")
+                .tag("limiter", name)
+                .tag("result", "rejected")
+                .description("Requests checked by the rate limiter")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("marketplace.rate-limit.evictions")
+                .tag("limiter", name)
+                .description("Active keys removed because the limiter was full")
+                .register(meterRegistry);
+        Gauge.builder("marketplace.rate-limit.keys", this, SlidingWindowRateLimiter::trackedKeys)
+                .tag("limiter", name)
+                .description("Keys tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count a request for the key
+     *
+     * @param key Client IP, username etc.
+     * @return false if the key is over the limit, the request is not counted then
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.millis();
+        long window = (now / windowMillis) & WINDOW_MASK;
+        // Share of the previous window that is still inside the sliding window
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+
+        AtomicLong state = stripeFor(key).getOrCreate(key, window);
+
+        while (true) {
+            long current = state.get();
+            long stateWindow = current >>> (2 * COUNT_BITS);
+            long count = current & COUNT_MASK;
+            long previousCount = (current >>> COUNT_BITS) & COUNT_MASK;
+
+            if (stateWindow != window) {
+                // Roll over: the old current window becomes the previous one if adjacent
+                previousCount = stateWindow == ((window - 1) & WINDOW_MASK) ? count : 0;
+                count = 0;
+            }
+
+            if (previousCount * previousWeight + count >= limit) {
+                rejectedCounter.increment();
+                return false;
+            }
+
+            long updated = (window << (2 * COUNT_BITS))
+                    | (previousCount << COUNT_BITS)
+                    | Math.min(count + 1, COUNT_MASK);
+            if (state.compareAndSet(current, updated)) {
+                allowedCounter.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Seconds until a rejected client should retry
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (windowMillis + 999) / 1000);
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.states.size();
+        }
+        return total;
+    }
+
+    // Requests in the current and previous window of the state
+    private static long requests(long state) {
+        return (state & COUNT_MASK) + ((state >>> COUNT_BITS) & COUNT_MASK);
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPES - 1)];
+    }
+
+    private record KeyRequests(String key, AtomicLong state, long requests) {
+    }
+
+    private final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> states = new ConcurrentHashMap<>();
+
+        // Only one thread cleans a stripe at a time, others just insert
+        private final AtomicInteger cleaning = new AtomicInteger();
+
+        private AtomicLong getOrCreate(String key, long window) {
+            AtomicLong state = states.get(key);
+            if (state != null) {
+                return state;
+            }
+
+            if (states.size() >= keysPerStripe) {
+                makeRoom(window);
+            }
+
+            return states.computeIfAbsent(key, k -> new AtomicLong(window << (2 * COUNT_BITS)));
+        }
+
+        private void makeRoom(long window) {
+            if (!cleaning.compareAndSet(0, 1)) {
+                return;
+            }
+
+            try {
+                long previousWindow = (window - 1) & WINDOW_MASK;
+
+                // Keys not used in the current or previous window have no effect on limits
+                states.values().removeIf(state -> {
+                    long stateWindow = state.get() >>> (2 * COUNT_BITS);
+                    return stateWindow != window && stateWindow != previousWindow;
+                });
+
+                // Still full: drop the keys with the fewest requests to free 10% of the stripe.
+                // New keys of an attacker cycling usernames go first, a throttled key keeps its count.
+                int excess = states.size() - (keysPerStripe - Math.max(1, keysPerStripe / 10));
+                if (excess > 0) {
+                    // Counts are read once, they may change while sorting
+                    List<KeyRequests> candidates = new ArrayList<>(states.size());
+                    states.forEach((key, state) -> candidates.add(new KeyRequests(key, state, requests(state.get()))));
+                    candidates.sort(Comparator.comparingLong(KeyRequests::requests));
+                    for (KeyRequests candidate : candidates.subList(0, Math.min(excess, candidates.size()))) {
+                        if (states.remove(candidate.key(), candidate.state())) {
+                            evictedCounter.increment();
+                        }
+                    }
+                }
+            } finally {
+                cleaning.set(0);
+            }
+        }
+    }
+}
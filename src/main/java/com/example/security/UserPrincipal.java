@@ -0,0 +1,111 @@
+package com.example.security;
+
+import com.example.models.User;
+import com.example.models.enums.Role;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Authenticated user stored in the security context and the HTTP session.
+ * <p>
+ * Holds only what authorization needs (id, username, roles, active flag),
+ * never the User entity, so sessions stay small, serialize safely and
+ * can't trigger lazy loading. Controllers load the User through UserService
+ * when they need more data.
+ * <p>
+ * The password hash is only present between loading and authentication,
+ * Spring Security erases it after a successful login.
+ */
+public final class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final Set<Role> roles;
+    private final boolean active;
+
+    // Not part of the session: transient and erased after login
+    private transient String password;
+
+    public UserPrincipal(Long id, String username, String password, Set<Role> roles, boolean active) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.roles = roles == null ? Set.of() : Set.copyOf(roles);
+        this.active = active;
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getRoles(), user.isActive());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    public Set<Role> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public Collection<Role> getAuthorities() {
+        return roles;
+    }
+
+    public boolean hasRole(Role role) {
+        return roles.contains(role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole(Role.ROLE_ADMIN);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        UserPrincipal other = (UserPrincipal) obj;
+        return Objects.equals(id, other.id) && Objects.equals(username, other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, username);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[id=" + id + ", username=" + username + ", roles=" + roles + "]";
+    }
+}
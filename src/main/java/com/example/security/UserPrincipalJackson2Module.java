@@ -0,0 +1,110 @@
+package com.example.security;
+
+import com.example.models.enums.Role;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Jackson mixins for the types this application puts into the security context,
+ * used together with SecurityJackson2Modules when sessions are stored as JSON.
+ * <p>
+ * Spring Security only reads back types that have a mixin, so UserPrincipal and Role
+ * are registered here. The password is never written.
+ */
+public class UserPrincipalJackson2Module extends SimpleModule {
+
+    public UserPrincipalJackson2Module() {
+        super(UserPrincipalJackson2Module.class.getName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.setMixInAnnotations(UserPrincipal.class, UserPrincipalMixin.class);
+        context.setMixInAnnotations(Role.class, RoleMixin.class);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    @JsonSerialize(using = UserPrincipalSerializer.class)
+    @JsonDeserialize(using = UserPrincipalDeserializer.class)
+    abstract static class UserPrincipalMixin {
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    abstract static class RoleMixin {
+    }
+
+    static class UserPrincipalSerializer extends StdSerializer<UserPrincipal> {
+
+        UserPrincipalSerializer() {
+            super(UserPrincipal.class);
+        }
+
+        @Override
+        public void serialize(UserPrincipal principal, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(principal);
+            writeFields(principal, gen);
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(UserPrincipal principal, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSerializer) throws IOException {
+            WritableTypeId typeId = typeSerializer.writeTypePrefix(gen,
+                    typeSerializer.typeId(principal, JsonToken.START_OBJECT));
+            writeFields(principal, gen);
+            typeSerializer.writeTypeSuffix(gen, typeId);
+        }
+
+        private void writeFields(UserPrincipal principal, JsonGenerator gen) throws IOException {
+            gen.writeNumberField("id", principal.getId());
+            gen.writeStringField("username", principal.getUsername());
+            gen.writeArrayFieldStart("roles");
+            for (Role role : principal.getRoles()) {
+                gen.writeString(role.name());
+            }
+            gen.writeEndArray();
+            gen.writeBooleanField("active", principal.isActive());
+        }
+    }
+
+    static class UserPrincipalDeserializer extends StdDeserializer<UserPrincipal> {
+
+        UserPrincipalDeserializer() {
+            super(UserPrincipal.class);
+        }
+
+        @Override
+        public UserPrincipal deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonNode node = parser.readValueAsTree();
+
+            Set<Role> roles = EnumSet.noneOf(Role.class);
+            for (JsonNode role : node.path("roles")) {
+                roles.add(Role.valueOf(role.asText()));
+            }
+
+            return new UserPrincipal(
+                    node.path("id").asLong(),
+                    node.path("username").asText(),
+                    null,
+                    roles,
+                    node.path("active").asBoolean()
+            );
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of immutable read models with a time-to-live.
+ * <p>
+ * Values are loaded on a miss and shared between requests, null is never
+ * cached. Evictions inside a transaction are repeated after commit, so a
+ * request that reads between the eviction and the commit can't put the old
+ * value back for the whole time-to-live. The time-to-live bounds staleness
+ * when several instances share the database.
+ * <p>
+ * Publishes {@code <metricPrefix>.requests} (tagged hit/miss),
+ * {@code <metricPrefix>.evictions} and {@code <metricPrefix>.size}.
+ * <p>
+ * Subclasses can keep a secondary index in step with the entries through
+ * {@link #stored} and {@link #removed}, and look values up by it with
+ * {@link #getIfPresent} and {@link #load}.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maximumSize;
+    private final Duration timeToLive;
+
+    private Clock clock = Clock.systemUTC();
+
+    // Access ordered, the least recently used entry is removed when full
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > maximumSize) {
+                evictionCounter.increment();
+                removed(eldest.getKey(), eldest.getValue().value);
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Incremented on every eviction. A value loaded from the database is only
+    // stored if no eviction happened while it was loading, so a concurrent
+    // update can't be overwritten with the old row.
+    private long generation;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    /**
+     * @param metricPrefix Prefix of the meter names, e.g. "marketplace.seller-page-cache"
+     * @param description  What is cached, e.g. "Seller page"
+     */
+    public BoundedTtlCache(String metricPrefix, String description, int maximumSize, Duration timeToLive,
+                           MeterRegistry meterRegistry) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.hitCounter = Counter.builder(metricPrefix + ".requests")
+                .tag("result", "hit")
+                .description(description + " cache lookups")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(metricPrefix + ".requests")
+                .tag("result", "miss")
+                .description(description + " cache lookups")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder(metricPrefix + ".evictions")
+                .description(description + " cache entries removed because it was full")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".size", this, BoundedTtlCache::size)
+                .description(description + " cache entries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the value, loading it on a miss
+     *
+     * @param key    Cache key
+     * @param loader Database lookup, returns null if there is nothing to cache
+     * @return The value or null
+     */
+    public V get(K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && clock.instant().isBefore(entry.expiresAt)) {
+                hitCounter.increment();
+                return entry.value;
+            }
+            loadGeneration = generation;
+        }
+
+        missCounter.increment();
+        V value = loader.get();
+        if (value != null) {
+            store(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Get the value without loading it, a hit is counted when found
+     *
+     * @return The value or null if not cached or expired
+     */
+    protected synchronized V getIfPresent(K key) {
+        Entry<V> entry = key != null ? entries.get(key) : null;
+        if (entry != null && clock.instant().isBefore(entry.expiresAt)) {
+            hitCounter.increment();
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Load a value whose key is only known after loading, e.g. a lookup by
+     * a secondary key, counted as a miss
+     *
+     * @param loader Database lookup, returns null if there is nothing to cache
+     * @param keyOf  Key of the loaded value
+     * @return The value or null
+     */
+    protected V load(Supplier<V> loader, Function<V, K> keyOf) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+
+        missCounter.increment();
+        V value = loader.get();
+        if (value != null) {
+            store(keyOf.apply(value), value, loadGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Called with the cache locked after a value was stored
+     */
+    protected void stored(K key, V value) {
+    }
+
+    /**
+     * Called with the cache locked after a value was removed or replaced
+     */
+    protected void removed(K key, V value) {
+    }
+
+    /**
+     * Remove the key now and, inside a transaction, again after commit
+     */
+    public void evict(K key) {
+        if (key != null) {
+            evictAll(List.of(key));
+        }
+    }
+
+    /**
+     * Remove the keys now and, inside a transaction, again after commit
+     */
+    public void evictAll(Collection<K> keys) {
+        List<K> copy = List.copyOf(keys);
+        afterCommitToo(() -> removeAll(copy));
+    }
+
+    /**
+     * Remove every value matching the filter now and, inside a transaction,
+     * again after commit
+     */
+    protected void evictIf(Predicate<V> filter) {
+        afterCommitToo(() -> removeIf(filter));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.forEach((key, entry) -> removed(key, entry.value));
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void afterCommitToo(Runnable removal) {
+        removal.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removal.run();
+                }
+            });
+        }
+    }
+
+    private synchronized void store(K key, V value, long loadGeneration) {
+        if (generation != loadGeneration || key == null) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, clock.instant().plus(timeToLive)));
+        if (previous != null) {
+            removed(key, previous.value);
+        }
+        stored(key, value);
+    }
+
+    private synchronized void removeAll(List<K> keys) {
+        generation++;
+        for (K key : keys) {
+            Entry<V> entry = entries.remove(key);
+            if (entry != null) {
+                removed(key, entry.value);
+            }
+        }
+    }
+
+    private synchronized void removeIf(Predicate<V> filter) {
+        generation++;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (filter.test(entry.getValue().value)) {
+                iterator.remove();
+                removed(entry.getKey(), entry.getValue().value);
+            }
+        }
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
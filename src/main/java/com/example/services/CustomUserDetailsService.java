@@ -1,21 +1,46 @@
 package com.example.services;
 
-import com.example.models.User;
+import com.example.security.UserPrincipal;
 import com.example.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
+    /**
+     * Read from the database, not UserCache: the password check needs the hash,
+     * which is not kept in the cache
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
+                .map(UserPrincipal::from)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
-}
\ No newline at end of file
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash
+     * uses an old format or a lower work factor than the current one
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        int updated = userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+
+        if (updated == 0) {
+            log.warn("Could not rehash password, user not found: {}", user.getUsername());
+            return user;
+        }
+
+        log.info("Password hash upgraded for user: {}", user.getUsername());
+        return loadUserByUsername(user.getUsername());
+    }
+}
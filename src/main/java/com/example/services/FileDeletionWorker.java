@@ -0,0 +1,125 @@
+package com.example.services;
+
+import com.example.models.PendingFileDeletion;
+import com.example.models.ProductImage;
+import com.example.repositories.PendingFileDeletionRepository;
+import com.example.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background deleter for the pending_file_deletions queue.
+ * Runs after commits that schedule deletions and periodically to pick up
+ * rows left by crashes or failed attempts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDeletionWorker {
+
+    // Give up on a file after this many failed attempts
+    static final int MAX_ATTEMPTS = 5;
+
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
+    private final ImageStorage imageStorage;
+
+    // Only one run at a time per instance
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${marketplace.file-deletion.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Trigger processing in background (called after commit)
+     */
+    @Async
+    public void processPendingDeletionsAsync() {
+        processPendingDeletions();
+    }
+
+    /**
+     * Delete queued files batch by batch until the queue is drained
+     *
+     * @return Number of queue rows processed
+     */
+    @Scheduled(fixedDelayString = "${marketplace.file-deletion.interval:PT1M}")
+    public int processPendingDeletions() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        int processed = 0;
+        try {
+            // Keyset pagination: rows that failed stay in the queue
+            // and are retried on the next run, not in this loop
+            long lastId = 0;
+            List<PendingFileDeletion> batch;
+            do {
+                batch = pendingFileDeletionRepository.findByIdGreaterThanOrderByIdAsc(
+                        lastId, PageRequest.of(0, batchSize)
+                );
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                processBatch(batch);
+                processed += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Error processing pending file deletions", e);
+        } finally {
+            running.set(false);
+        }
+
+        if (processed > 0) {
+            log.info("Processed {} pending file deletions", processed);
+        }
+        return processed;
+    }
+
+    private void processBatch(List<PendingFileDeletion> batch) {
+        List<Long> doneIds = new ArrayList<>();
+        List<PendingFileDeletion> failed = new ArrayList<>();
+
+        for (PendingFileDeletion deletion : batch) {
+            try {
+                // Already missing file counts as deleted
+                String key = ProductImage.toStorageKey(deletion.getPath());
+                if (key != null) {
+                    imageStorage.delete(key);
+                }
+                doneIds.add(deletion.getId());
+            } catch (IOException e) {
+                deletion.setAttempts(deletion.getAttempts() + 1);
+                if (deletion.getAttempts() >= MAX_ATTEMPTS) {
+                    log.error("file " + deletion.getPath() + " could not be deleted after "
+                            + MAX_ATTEMPTS + " attempts, giving up\n" + e.getMessage());
+                    doneIds.add(deletion.getId());
+                } else {
+                    log.warn("file {} could not be deleted (attempt {}): {}",
+                            deletion.getPath(), deletion.getAttempts(), e.getMessage());
+                    failed.add(deletion);
+                }
+            }
+        }
+
+        // One statement for the whole batch
+        if (!doneIds.isEmpty()) {
+            pendingFileDeletionRepository.deleteAllByIdInBatch(doneIds);
+        }
+        if (!failed.isEmpty()) {
+            pendingFileDeletionRepository.saveAll(failed);
+        }
+    }
+}
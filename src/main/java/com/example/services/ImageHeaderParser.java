@@ -0,0 +1,436 @@
+package com.example.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads image dimensions and frame count from the first bytes of a file
+ * without decoding any pixel data.
+ * JPEG segments are walked on the stream, everything else is parsed from a fixed window.
+ * Supported formats: JPEG, PNG (including APNG), WebP and AVIF.
+ */
+public final class ImageHeaderParser {
+
+    // Max bytes read from the start of a PNG, WebP or AVIF file.
+    // Their headers fit into the first few KB.
+    public static final int HEADER_READ_LIMIT = 64 * 1024;
+
+    // Max bytes walked in a JPEG before the SOF marker.
+    // Each EXIF/ICC/XMP segment can be up to 64KB and a file may have several of them,
+    // segments are skipped by their length so nothing is buffered.
+    public static final int JPEG_SCAN_LIMIT = 2 * 1024 * 1024;
+
+    private ImageHeaderParser() {
+    }
+
+    /**
+     * Parse image header
+     *
+     * @param header First bytes of the image file
+     * @return ImageInfo or null if format is unknown or header is truncated/corrupted
+     */
+    public static ImageInfo parse(byte[] header) {
+        if (header == null) {
+            return null;
+        }
+
+        try {
+            return parse(new ByteArrayInputStream(header));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse image header from a stream.
+     * Reads at most JPEG_SCAN_LIMIT bytes of a JPEG and HEADER_READ_LIMIT bytes of other formats.
+     *
+     * @param in Stream positioned at the start of the image file, not closed
+     * @return ImageInfo or null if format is unknown or header is truncated/corrupted
+     * @throws IOException if error reading the stream
+     */
+    public static ImageInfo parse(InputStream in) throws IOException {
+        byte[] signature = in.readNBytes(3);
+        if (startsWith(signature, 0, 0xFF, 0xD8, 0xFF)) {
+            return parseJpeg(in);
+        }
+
+        byte[] rest = in.readNBytes(HEADER_READ_LIMIT - signature.length);
+        byte[] header = new byte[signature.length + rest.length];
+        System.arraycopy(signature, 0, header, 0, signature.length);
+        System.arraycopy(rest, 0, header, signature.length, rest.length);
+
+        if (header.length < 12) {
+            return null;
+        }
+
+        try {
+            if (startsWith(header, 0, 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)) {
+                return parsePng(header);
+            }
+            if (fourCcEquals(header, 0, "RIFF") && fourCcEquals(header, 8, "WEBP")) {
+                return parseWebp(header);
+            }
+            if (fourCcEquals(header, 4, "ftyp")) {
+                return parseAvif(header);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Header is truncated in the middle of a structure
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * JPEG: walk marker segments on the stream until the first SOFn marker,
+     * which holds height and width (16 bit big-endian each).
+     * SOI and the first byte of the next marker are already consumed.
+     */
+    private static ImageInfo parseJpeg(InputStream in) throws IOException {
+        long consumed = 3;
+        int current = 0xFF;
+
+        while (consumed <= JPEG_SCAN_LIMIT) {
+            if (current != 0xFF) {
+                return null;
+            }
+
+            int marker = in.read();
+            consumed++;
+            if (marker == -1) {
+                return null;
+            }
+
+            // Fill bytes before a marker
+            if (marker == 0xFF) {
+                continue;
+            }
+
+            // Standalone markers without length
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                current = in.read();
+                consumed++;
+                continue;
+            }
+
+            // Start of scan or end of image before any frame header
+            if (marker == 0xDA || marker == 0xD9) {
+                return null;
+            }
+
+            byte[] length = in.readNBytes(2);
+            if (length.length < 2) {
+                return null;
+            }
+
+            int segmentLength = readUInt16BE(length, 0);
+            if (segmentLength < 2) {
+                return null;
+            }
+
+            if (isStartOfFrame(marker)) {
+                // precision, height, width
+                byte[] frame = in.readNBytes(5);
+                if (frame.length < 5) {
+                    return null;
+                }
+                int height = readUInt16BE(frame, 1);
+                int width = readUInt16BE(frame, 3);
+                return new ImageInfo(ImageFormat.JPEG, width, height, 1);
+            }
+
+            try {
+                in.skipNBytes(segmentLength - 2);
+            } catch (EOFException e) {
+                return null;
+            }
+
+            consumed += segmentLength;
+            current = in.read();
+            consumed++;
+        }
+
+        return null;
+    }
+
+    /**
+     * SOF0-SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+     */
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF &&
+                marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    /**
+     * PNG: IHDR is always the first chunk.
+     * Animated PNG declares the number of frames in the acTL chunk before the first IDAT.
+     */
+    private static ImageInfo parsePng(byte[] b) {
+        if (b.length < 24 || !fourCcEquals(b, 12, "IHDR")) {
+            return null;
+        }
+
+        int width = clampToInt(readUInt32BE(b, 16));
+        int height = clampToInt(readUInt32BE(b, 20));
+        int frames = 1;
+
+        long pos = 8;
+        while (pos + 12 <= b.length) {
+            int p = (int) pos;
+            long chunkLength = readUInt32BE(b, p);
+
+            if (fourCcEquals(b, p + 4, "IDAT")) {
+                break;
+            }
+
+            if (fourCcEquals(b, p + 4, "acTL") && p + 12 <= b.length) {
+                frames = Math.max(1, clampToInt(readUInt32BE(b, p + 8)));
+                break;
+            }
+
+            // length + type + data + crc
+            pos += 12 + chunkLength;
+        }
+
+        return new ImageInfo(ImageFormat.PNG, width, height, frames);
+    }
+
+    /**
+     * WebP: the first chunk is VP8 (lossy), VP8L (lossless) or VP8X (extended).
+     * Animated files have VP8X with the animation flag and one ANMF chunk per frame.
+     */
+    private static ImageInfo parseWebp(byte[] b) {
+        if (b.length < 30) {
+            return null;
+        }
+
+        if (fourCcEquals(b, 12, "VP8 ")) {
+            // Key frame start code: 9D 01 2A
+            if (!startsWith(b, 23, 0x9D, 0x01, 0x2A)) {
+                return null;
+            }
+            int width = readUInt16LE(b, 26) & 0x3FFF;
+            int height = readUInt16LE(b, 28) & 0x3FFF;
+            return new ImageInfo(ImageFormat.WEBP, width, height, 1);
+        }
+
+        if (fourCcEquals(b, 12, "VP8L")) {
+            if ((b[20] & 0xFF) != 0x2F) {
+                return null;
+            }
+            long bits = readUInt32LE(b, 21);
+            int width = (int) (bits & 0x3FFF) + 1;
+            int height = (int) ((bits >> 14) & 0x3FFF) + 1;
+            return new ImageInfo(ImageFormat.WEBP, width, height, 1);
+        }
+
+        if (fourCcEquals(b, 12, "VP8X")) {
+            boolean animated = (b[20] & 0x02) != 0;
+            int width = readUInt24LE(b, 24) + 1;
+            int height = readUInt24LE(b, 27) + 1;
+            int frames = animated ? Math.max(1, countWebpFrames(b)) : 1;
+            return new ImageInfo(ImageFormat.WEBP, width, height, frames);
+        }
+
+        return null;
+    }
+
+    /**
+     * Count ANMF chunks within the read window.
+     * For files larger than the window this is a lower bound.
+     */
+    private static int countWebpFrames(byte[] b) {
+        int frames = 0;
+        long pos = 12;
+
+        while (pos + 8 <= b.length) {
+            int p = (int) pos;
+            long chunkSize = readUInt32LE(b, p + 4);
+
+            if (fourCcEquals(b, p, "ANMF")) {
+                frames++;
+            }
+
+            // Chunks are padded to an even size
+            pos += 8 + chunkSize + (chunkSize & 1);
+        }
+
+        return frames;
+    }
+
+    /**
+     * AVIF (ISOBMFF): dimensions are stored in the ispe property
+     * inside meta -> iprp -> ipco. When several ispe boxes exist
+     * (thumbnails, alpha planes) the largest one is used.
+     */
+    private static ImageInfo parseAvif(byte[] b) {
+        long[] largest = new long[2];
+        findImageSpatialExtents(b, 0, b.length, largest, 0);
+
+        if (largest[0] == 0 || largest[1] == 0) {
+            return null;
+        }
+
+        return new ImageInfo(ImageFormat.AVIF, clampToInt(largest[0]), clampToInt(largest[1]), 1);
+    }
+
+    private static void findImageSpatialExtents(byte[] b, int start, int end, long[] largest, int depth) {
+        // Guard against maliciously nested boxes
+        if (depth > 8) {
+            return;
+        }
+
+        long pos = start;
+        while (pos + 8 <= end) {
+            int p = (int) pos;
+            long boxSize = readUInt32BE(b, p);
+            int headerSize = 8;
+
+            if (boxSize == 1) {
+                if (p + 16 > end) {
+                    return;
+                }
+                boxSize = readUInt64BE(b, p + 8);
+                headerSize = 16;
+            } else if (boxSize == 0) {
+                // Box extends to the end of file
+                boxSize = end - pos;
+            }
+
+            if (boxSize < headerSize) {
+                return;
+            }
+
+            int boxEnd = (int) Math.min(pos + boxSize, end);
+            String type = new String(b, p + 4, 4, StandardCharsets.US_ASCII);
+
+            switch (type) {
+                // meta is a FullBox: version and flags precede the children
+                case "meta" -> findImageSpatialExtents(b, p + headerSize + 4, boxEnd, largest, depth + 1);
+                case "iprp", "ipco" -> findImageSpatialExtents(b, p + headerSize, boxEnd, largest, depth + 1);
+                case "ispe" -> {
+                    int data = p + headerSize + 4;
+                    if (data + 8 <= boxEnd) {
+                        long width = readUInt32BE(b, data);
+                        long height = readUInt32BE(b, data + 4);
+                        if (width * height > largest[0] * largest[1]) {
+                            largest[0] = width;
+                            largest[1] = height;
+                        }
+                    }
+                }
+                default -> {
+                    // Skip box
+                }
+            }
+
+            pos += boxSize;
+        }
+    }
+
+
+    // ========================================
+    // Byte helpers
+    // ========================================
+
+    private static boolean startsWith(byte[] b, int offset, int... signature) {
+        if (offset + signature.length > b.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((b[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean fourCcEquals(byte[] b, int offset, String fourCc) {
+        if (offset + 4 > b.length) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (b[offset + i] != (byte) fourCc.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readUInt16BE(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int readUInt16LE(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int readUInt24LE(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8) | ((b[offset + 2] & 0xFF) << 16);
+    }
+
+    private static long readUInt32BE(byte[] b, int offset) {
+        return ((long) readUInt16BE(b, offset) << 16) | readUInt16BE(b, offset + 2);
+    }
+
+    private static long readUInt32LE(byte[] b, int offset) {
+        return readUInt16LE(b, offset) | ((long) readUInt16LE(b, offset + 2) << 16);
+    }
+
+    private static long readUInt64BE(byte[] b, int offset) {
+        return (readUInt32BE(b, offset) << 32) | readUInt32BE(b, offset + 4);
+    }
+
+    private static int clampToInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+
+    public enum ImageFormat {
+        JPEG,
+        PNG,
+        WEBP,
+        AVIF
+    }
+
+    /**
+     * Inner class for parsed header data
+     */
+    public static class ImageInfo {
+        private final ImageFormat format;
+        private final int width;
+        private final int height;
+        private final int frameCount;
+
+        public ImageInfo(ImageFormat format, int width, int height, int frameCount) {
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.frameCount = frameCount;
+        }
+
+        public ImageFormat getFormat() {
+            return format;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        public long getPixelCount() {
+            return (long) width * height;
+        }
+    }
+}
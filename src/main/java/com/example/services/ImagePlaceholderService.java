@@ -0,0 +1,132 @@
+package com.example.services;
+
+import com.example.services.ImageHeaderParser.ImageFormat;
+import com.example.services.ImageHeaderParser.ImageInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Iterator;
+
+/**
+ * Builds a tiny blurred preview (LQIP) of an uploaded image as a data URI.
+ * Listing pages inline it as the image background, so cards show
+ * the rough colors of the photo while the full image is loading.
+ */
+@Slf4j
+@Service
+public class ImagePlaceholderService {
+
+    // Longest side of the placeholder in pixels
+    static final int PLACEHOLDER_SIZE = 16;
+
+    // Max length of the data URI (ProductImage.placeholder column)
+    public static final int MAX_PLACEHOLDER_LENGTH = 2048;
+
+    private static final String DATA_URI_PREFIX = "data:image/png;base64,";
+
+    /**
+     * Generate placeholder for an already validated image
+     *
+     * @param file      Uploaded image
+     * @param imageInfo Header data of the image
+     * @return Data URI or null if the format can't be decoded (WebP, AVIF) or decoding failed
+     */
+    public String generatePlaceholder(MultipartFile file, ImageInfo imageInfo) {
+        if (file == null || file.isEmpty() || imageInfo == null) {
+            return null;
+        }
+
+        // JDK ImageIO has no WebP/AVIF readers
+        if (imageInfo.getFormat() != ImageFormat.JPEG && imageInfo.getFormat() != ImageFormat.PNG) {
+            return null;
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            BufferedImage decoded = decodeSubsampled(inputStream, imageInfo);
+            if (decoded == null) {
+                return null;
+            }
+
+            String placeholder = encode(resize(decoded));
+            if (placeholder.length() > MAX_PLACEHOLDER_LENGTH) {
+                log.warn("Placeholder of '{}' is too large: {} chars", file.getOriginalFilename(), placeholder.length());
+                return null;
+            }
+            return placeholder;
+
+        } catch (IOException | RuntimeException e) {
+            // Placeholder is optional, the upload must not fail because of it
+            log.warn("Could not generate placeholder for '{}': {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decode only every n-th pixel of every n-th row, so memory and time
+     * depend on the placeholder size rather than on the image resolution
+     */
+    private BufferedImage decodeSubsampled(InputStream inputStream, ImageInfo imageInfo) throws IOException {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageStream == null) {
+                return null;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+
+                // Keep ~4 source pixels per placeholder pixel for smoother downscaling
+                int longestSide = Math.max(imageInfo.getWidth(), imageInfo.getHeight());
+                int step = Math.max(1, longestSide / (PLACEHOLDER_SIZE * 4));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source) {
+        double scale = (double) PLACEHOLDER_SIZE / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * Math.min(1.0, scale)));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * Math.min(1.0, scale)));
+
+        // Opaque images produce a smaller PNG without the alpha channel
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private String encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return DATA_URI_PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
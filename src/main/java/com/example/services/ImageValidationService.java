@@ -1,5 +1,6 @@
 package com.example.services;
 
+import com.example.services.ImageHeaderParser.ImageInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -19,6 +20,21 @@ public class ImageValidationService {
     // Max additional images count
     private static final int MAX_ADDITIONAL_IMAGES = 10;
 
+    // Max width or height of an image in pixels
+    private static final int MAX_IMAGE_SIDE = 12_000;
+
+    // Max pixels of a single frame: 50 megapixels
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    // Max frames of an animated image
+    private static final int MAX_FRAMES = 200;
+
+    // Max pixels of all frames combined
+    private static final long MAX_TOTAL_PIXELS = 200_000_000L;
+
+    // Bytes needed to recognize any supported format by its magic bytes
+    private static final int SIGNATURE_LENGTH = 12;
+
     // Allowed image extensions
     private static final Set<String> ALLOWED_EXTENSIONS = Set.of(
             "jpg", "jpeg", "png", "webp", "avif"
@@ -73,18 +89,52 @@ public class ImageValidationService {
         }
 
         // Verify that file is actually an image by checking magic bytes
+        // and that its declared dimensions are within limits
+        ImageInfo imageInfo;
         try {
-            if (!isValidImageFile(file)) {
+            if (!isValidImageFile(file, readSignature(file))) {
                 return ValidationResult.error("File is not a valid image");
             }
+            imageInfo = parseHeader(file);
         } catch (IOException e) {
             log.error("Error reading file for validation: {}", filename, e);
             return ValidationResult.error("Error validating image file");
         }
 
+        if (imageInfo == null) {
+            log.warn("Could not read dimensions of image '{}'", filename);
+            return ValidationResult.error("Could not read image dimensions");
+        }
+
+        ValidationResult dimensionsValidation = validateDimensions(imageInfo);
+        if (!dimensionsValidation.isValid()) {
+            log.warn("Image '{}' rejected: {}x{}, {} frames",
+                    filename, imageInfo.getWidth(), imageInfo.getHeight(), imageInfo.getFrameCount());
+            return dimensionsValidation;
+        }
+
         return ValidationResult.success();
     }
 
+    /**
+     * Read image dimensions from the file header without decoding the image
+     *
+     * @param file Image file
+     * @return ImageInfo or null if the header cannot be read
+     */
+    public ImageInfo readImageInfo(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return parseHeader(file);
+        } catch (IOException e) {
+            log.error("Error reading image header: {}", file.getOriginalFilename(), e);
+            return null;
+        }
+    }
+
     /**
      * Validate preview image
      *
@@ -150,28 +200,85 @@ public class ImageValidationService {
     }
 
     /**
-     * Verify file is a valid image by checking magic bytes (file signature)
+     * Check image dimensions against limits.
+     * Protects against decompression bombs: small files declaring huge resolutions.
      *
-     * @param file File to check
-     * @return true if file is a valid image
+     * @param imageInfo Parsed image header
+     * @return ValidationResult
+     */
+    private ValidationResult validateDimensions(ImageInfo imageInfo) {
+        if (imageInfo.getWidth() <= 0 || imageInfo.getHeight() <= 0) {
+            return ValidationResult.error("Invalid image dimensions");
+        }
+
+        if (imageInfo.getWidth() > MAX_IMAGE_SIDE || imageInfo.getHeight() > MAX_IMAGE_SIDE) {
+            return ValidationResult.error(
+                    String.format("Image dimensions exceed maximum allowed size of %dx%d pixels", MAX_IMAGE_SIDE, MAX_IMAGE_SIDE)
+            );
+        }
+
+        if (imageInfo.getPixelCount() > MAX_PIXELS) {
+            return ValidationResult.error(
+                    String.format("Image resolution exceeds maximum allowed of %d megapixels", MAX_PIXELS / 1_000_000)
+            );
+        }
+
+        if (imageInfo.getFrameCount() > MAX_FRAMES) {
+            return ValidationResult.error(
+                    String.format("Animated image exceeds maximum of %d frames", MAX_FRAMES)
+            );
+        }
+
+        if (imageInfo.getPixelCount() * imageInfo.getFrameCount() > MAX_TOTAL_PIXELS) {
+            return ValidationResult.error("Animated image is too large");
+        }
+
+        return ValidationResult.success();
+    }
+
+    /**
+     * Read the magic bytes at the start of the file
+     *
+     * @param file File to read
+     * @return Up to SIGNATURE_LENGTH bytes
      * @throws IOException if error reading file
      */
-    private boolean isValidImageFile(MultipartFile file) throws IOException {
-        byte[] bytes = new byte[Math.min((int) file.getSize(), 20)];
-        int bytesRead;
+    private byte[] readSignature(MultipartFile file) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return inputStream.readNBytes(SIGNATURE_LENGTH);
+        }
+    }
 
+    /**
+     * Parse image dimensions from the file header.
+     * JPEG segments are skipped on the stream, so large EXIF/ICC blocks are never buffered.
+     *
+     * @param file File to read
+     * @return ImageInfo or null if the header cannot be parsed
+     * @throws IOException if error reading file
+     */
+    private ImageInfo parseHeader(MultipartFile file) throws IOException {
         try (InputStream inputStream = file.getInputStream()) {
-            bytesRead = inputStream.read(bytes);
+            return ImageHeaderParser.parse(inputStream);
         }
+    }
 
-        if (bytesRead < 2) {
+    /**
+     * Verify file is a valid image by checking magic bytes (file signature)
+     *
+     * @param file File to check
+     * @param header First bytes of the file
+     * @return true if file is a valid image
+     */
+    private boolean isValidImageFile(MultipartFile file, byte[] header) {
+        if (header.length < 2) {
             log.warn("File '{}' is too small: {} bytes read",
-                    file.getOriginalFilename(), bytesRead);
+                    file.getOriginalFilename(), header.length);
             return false;
         }
 
         // Check magic bytes for different image formats
-        return isJPEG(bytes) || isPNG(bytes) || isWEBP(bytes) || isAVIF(bytes);
+        return isJPEG(header) || isPNG(header) || isWEBP(header) || isAVIF(header);
     }
 
     /**
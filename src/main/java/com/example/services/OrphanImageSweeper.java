@@ -0,0 +1,207 @@
+package com.example.services;
+
+import com.example.models.ProductImage;
+import com.example.repositories.ProductImageRepository;
+import com.example.storage.ImageStorage;
+import com.example.storage.StoredObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Removes stored image files that have no product_images row.
+ * Such files are left by failed saves, crashes between writing the file and
+ * committing the product, and rolled back updates.
+ * <p>
+ * The storage listing is streamed in batches, each batch is checked against the
+ * database with one query, so neither the listing nor the table
+ * is loaded into memory.
+ */
+@Slf4j
+@Service
+public class OrphanImageSweeper {
+
+    // Files moved here when quarantine is enabled
+    static final String QUARANTINE_DIRECTORY = ".orphaned";
+
+    private final ProductImageRepository productImageRepository;
+    private final ImageStorage imageStorage;
+    private final Counter deletedCounter;
+    private final Counter reclaimedBytesCounter;
+
+    // Only one run at a time per instance
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${marketplace.orphan-sweeper.enabled:true}")
+    private boolean enabled = true;
+
+    // Files younger than this may belong to an upload that is not committed yet
+    @Value("${marketplace.orphan-sweeper.grace-period:PT24H}")
+    private Duration gracePeriod = Duration.ofHours(24);
+
+    @Value("${marketplace.orphan-sweeper.batch-size:500}")
+    private int batchSize = 500;
+
+    // Rate limit: max files removed per run and pause between batches
+    @Value("${marketplace.orphan-sweeper.max-deletions-per-run:1000}")
+    private int maxDeletionsPerRun = 1000;
+
+    @Value("${marketplace.orphan-sweeper.pause-between-batches:PT0.2S}")
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+
+    // Move orphans to .orphaned/ instead of deleting them
+    @Value("${marketplace.orphan-sweeper.quarantine:false}")
+    private boolean quarantine = false;
+
+    public OrphanImageSweeper(ProductImageRepository productImageRepository,
+                              ImageStorage imageStorage,
+                              MeterRegistry meterRegistry) {
+        this.productImageRepository = productImageRepository;
+        this.imageStorage = imageStorage;
+        this.deletedCounter = Counter.builder("marketplace.uploads.orphans.removed")
+                .description("Orphaned upload files removed by the sweeper")
+                .register(meterRegistry);
+        this.reclaimedBytesCounter = Counter.builder("marketplace.uploads.orphans.reclaimed")
+                .baseUnit("bytes")
+                .description("Disk space reclaimed by the orphaned upload sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${marketplace.orphan-sweeper.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Scan the uploads directory and remove orphaned files older than the grace period
+     *
+     * @return SweepResult with scanned/removed counts and reclaimed bytes
+     */
+    public SweepResult sweep() {
+        SweepResult result = new SweepResult();
+
+        if (!running.compareAndSet(false, true)) {
+            log.info("Orphaned upload sweep is already running");
+            return result;
+        }
+
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        List<StoredObject> batch = new ArrayList<>(batchSize);
+
+        try (Stream<StoredObject> objects = imageStorage.list()) {
+            Iterator<StoredObject> iterator = objects.iterator();
+
+            while (iterator.hasNext() && result.getRemoved() < maxDeletionsPerRun) {
+                StoredObject object = iterator.next();
+
+                // Skip .gitkeep and other hidden files
+                if (object.getKey().startsWith(".")) {
+                    continue;
+                }
+
+                batch.add(object);
+                if (batch.size() == batchSize) {
+                    processBatch(batch, cutoff, result);
+                    batch.clear();
+                    pause();
+                }
+            }
+
+            if (!batch.isEmpty() && result.getRemoved() < maxDeletionsPerRun) {
+                processBatch(batch, cutoff, result);
+            }
+
+            log.info("Orphaned upload sweep finished: {} files scanned, {} orphans removed, {} bytes reclaimed",
+                    result.getScanned(), result.getRemoved(), result.getReclaimedBytes());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error listing stored images", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Orphaned upload sweep interrupted");
+        } finally {
+            running.set(false);
+        }
+
+        return result;
+    }
+
+    private void processBatch(List<StoredObject> batch, Instant cutoff, SweepResult result) {
+        result.scanned += batch.size();
+
+        Map<String, StoredObject> objectsByDirectory = new LinkedHashMap<>();
+        for (StoredObject object : batch) {
+            objectsByDirectory.put(ProductImage.DIRECTORY_IMAGES + object.getKey(), object);
+        }
+
+        // One query per batch
+        Set<String> referenced = new HashSet<>(
+                productImageRepository.findExistingImageDirectories(objectsByDirectory.keySet())
+        );
+
+        for (Map.Entry<String, StoredObject> entry : objectsByDirectory.entrySet()) {
+            StoredObject object = entry.getValue();
+
+            if (referenced.contains(entry.getKey()) || object.getLastModified().isAfter(cutoff)) {
+                continue;
+            }
+            if (result.getRemoved() >= maxDeletionsPerRun) {
+                return;
+            }
+
+            try {
+                if (quarantine) {
+                    imageStorage.move(object.getKey(), QUARANTINE_DIRECTORY + "/" + object.getKey());
+                } else {
+                    imageStorage.delete(object.getKey());
+                }
+
+                result.removed++;
+                result.reclaimedBytes += object.getSize();
+                deletedCounter.increment();
+                reclaimedBytesCounter.increment(object.getSize());
+            } catch (IOException e) {
+                log.error("file " + object.getKey() + " could not be removed\n" + e.getMessage());
+            }
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (!pauseBetweenBatches.isZero()) {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+        }
+    }
+
+    /**
+     * Inner class for sweep statistics
+     */
+    public static class SweepResult {
+        private long scanned;
+        private long removed;
+        private long reclaimedBytes;
+
+        public long getScanned() {
+            return scanned;
+        }
+
+        public long getRemoved() {
+            return removed;
+        }
+
+        public long getReclaimedBytes() {
+            return reclaimedBytes;
+        }
+    }
+}
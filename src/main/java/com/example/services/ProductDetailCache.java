@@ -0,0 +1,35 @@
+package com.example.services;
+
+import com.example.dto.ProductDetail;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded LRU cache of product detail read models by product id.
+ * <p>
+ * ProductService evicts a product when it is updated or deleted,
+ * UserService and UserDeletionWorker evict all products of an owner
+ * when the username changes or the products are removed. A loader
+ * returning null (unknown product) is not cached.
+ */
+@Component
+public class ProductDetailCache extends BoundedTtlCache<Long, ProductDetail> {
+
+    public ProductDetailCache(MeterRegistry meterRegistry,
+                              @Value("${marketplace.product-detail-cache.maximum-size:10000}") int maximumSize,
+                              @Value("${marketplace.product-detail-cache.time-to-live:PT10M}") Duration timeToLive) {
+        super("marketplace.product-detail-cache", "Product detail", maximumSize, timeToLive, meterRegistry);
+    }
+
+    /**
+     * Remove all products of the owner, e.g. after a username change
+     */
+    public void evictByOwner(Long ownerId) {
+        if (ownerId != null) {
+            evictIf(detail -> ownerId.equals(detail.getOwnerId()));
+        }
+    }
+}
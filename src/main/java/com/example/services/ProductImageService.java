@@ -1,21 +1,29 @@
 package com.example.services;
 
+import com.example.models.PendingFileDeletion;
 import com.example.models.ProductImage;
+import com.example.repositories.PendingFileDeletionRepository;
 import com.example.repositories.ProductImageRepository;
+import com.example.storage.ImageStorage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
-import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductImageService {
     private final ProductImageRepository productImageRepository;
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
+    private final FileDeletionWorker fileDeletionWorker;
+    private final ImageStorage imageStorage;
 
     public ProductImage getImageById(Long id) {
         return productImageRepository.findById(id).orElse(null);
@@ -25,17 +33,52 @@ public class ProductImageService {
         productImageRepository.deleteById(id);
     }
 
-    public void deleteImageFromDisk(ProductImage image) {
-        if(image != null && image.getImageDirectory() != null) {
-            String imageDir = image.getImageDirectory();
+    /**
+     * Delete image file immediately (files that were never committed to the database)
+     */
+    public void deleteImageFile(ProductImage image) {
+        if(image != null && image.getStorageKey() != null) {
+            String key = image.getStorageKey();
 
             try {
-                Files.delete(Paths.get(imageDir));
-            } catch (NoSuchFileException e) {
-                log.error("file " + imageDir + " does not exist");
+                imageStorage.delete(key);
             } catch (IOException e) {
-                log.error("file " + imageDir + " could not be deleted\n" + e.getMessage());
+                log.error("file " + key + " could not be deleted\n" + e.getMessage());
             }
         }
     }
+
+    /**
+     * Queue image files for deletion.
+     * Queue rows are written in the current transaction, so a rollback keeps the files.
+     * Files are deleted in background after commit.
+     */
+    public void scheduleDeletion(Collection<ProductImage> images) {
+        if (images == null || images.isEmpty()) {
+            return;
+        }
+
+        List<PendingFileDeletion> deletions = images.stream()
+                .map(ProductImage::getImageDirectory)
+                .filter(Objects::nonNull)
+                .map(PendingFileDeletion::new)
+                .toList();
+
+        if (deletions.isEmpty()) {
+            return;
+        }
+
+        pendingFileDeletionRepository.saveAll(deletions);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fileDeletionWorker.processPendingDeletionsAsync();
+                }
+            });
+        } else {
+            fileDeletionWorker.processPendingDeletionsAsync();
+        }
+    }
 }
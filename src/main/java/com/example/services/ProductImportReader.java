@@ -0,0 +1,323 @@
+package com.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the rows of a bulk import file one at a time, only the current row
+ * is kept in memory.
+ * <p>
+ * CSV: a header row naming the columns title, description, price,
+ * preview_image and optionally additional_images (file names separated
+ * by |). Fields may be quoted, quoted fields may contain commas, quotes
+ * ("") and line breaks.
+ * <p>
+ * NDJSON: one object per line with the fields title, description, price,
+ * previewImage and additionalImages (array of file names).
+ */
+public abstract class ProductImportReader implements Closeable {
+
+    // Longer rows are skipped and reported, title and description are limited to 680 characters anyway
+    static final int MAX_ROW_LENGTH = 16 * 1024;
+
+    private static final String IMAGE_SEPARATOR = "|";
+
+    protected final BufferedReader reader;
+
+    // Physical line of the next character, rows report the line they start on
+    protected int line = 1;
+
+    private ProductImportReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Reader of a CSV file, the header row is read here
+     *
+     * @throws IllegalArgumentException if the header misses a required column
+     */
+    public static ProductImportReader csv(Reader reader) throws IOException {
+        return new CsvReader(reader);
+    }
+
+    public static ProductImportReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new NdjsonReader(reader, objectMapper);
+    }
+
+    /**
+     * @return The next row, null at the end of the file
+     */
+    public abstract ImportRow next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static List<String> splitImages(String value) {
+        List<String> names = new ArrayList<>();
+        if (value == null) {
+            return names;
+        }
+        for (String name : value.split("\\" + IMAGE_SEPARATOR)) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    private static final class CsvReader extends ProductImportReader {
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        // Set by readRecord when the record was over MAX_ROW_LENGTH and skipped
+        private boolean recordTooLong;
+
+        private CsvReader(Reader reader) throws IOException {
+            super(reader);
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // Excel writes a byte order mark in front of the first column
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                columns.putIfAbsent(name, i);
+            }
+            for (String required : List.of("title", "description", "price", "preview_image")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("Missing column: " + required);
+                }
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            while (true) {
+                int rowLine = line;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                if (recordTooLong) {
+                    return ImportRow.error(rowLine, "Row is longer than " + MAX_ROW_LENGTH + " characters");
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                return new ImportRow(rowLine, field(fields, "title"), field(fields, "description"),
+                        field(fields, "price"), field(fields, "preview_image"),
+                        splitImages(field(fields, "additional_images")), null);
+            }
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index != null && index < fields.size() ? fields.get(index) : null;
+        }
+
+        /**
+         * @return Fields of the next record, null at the end of the file
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            recordTooLong = false;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int length = 0;
+            while (c != -1) {
+                if (c == '\n') {
+                    line++;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+
+                if (++length > MAX_ROW_LENGTH) {
+                    skipRecord(quoted);
+                    recordTooLong = true;
+                    return fields;
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        // Read up to the end of the record without keeping it
+        private void skipRecord(boolean quoted) throws IOException {
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    line++;
+                    if (!quoted) {
+                        return;
+                    }
+                } else if (c == '"') {
+                    quoted = !quoted;
+                }
+            }
+        }
+    }
+
+    private static final class NdjsonReader extends ProductImportReader {
+        private final ObjectMapper objectMapper;
+
+        private NdjsonReader(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            while (true) {
+                int rowLine = line;
+                StringBuilder json = new StringBuilder();
+                boolean tooLong = false;
+                int c;
+                while ((c = reader.read()) != -1 && c != '\n') {
+                    if (json.length() < MAX_ROW_LENGTH) {
+                        json.append((char) c);
+                    } else {
+                        tooLong = true;
+                    }
+                }
+                if (c == -1 && json.isEmpty()) {
+                    return null;
+                }
+                line++;
+
+                if (tooLong) {
+                    return ImportRow.error(rowLine, "Row is longer than " + MAX_ROW_LENGTH + " characters");
+                }
+                if (json.toString().isBlank()) {
+                    continue;
+                }
+                return parse(rowLine, json.toString());
+            }
+        }
+
+        private ImportRow parse(int rowLine, String json) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(json);
+            } catch (JsonProcessingException e) {
+                return ImportRow.error(rowLine, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return ImportRow.error(rowLine, "Invalid JSON: expected an object");
+            }
+
+            JsonNode additional = node.get("additionalImages");
+            List<String> additionalImages;
+            if (additional != null && additional.isArray()) {
+                additionalImages = new ArrayList<>();
+                additional.forEach(name -> additionalImages.add(name.asText()));
+            } else {
+                additionalImages = splitImages(text(node, "additionalImages"));
+            }
+            return new ImportRow(rowLine, text(node, "title"), text(node, "description"), text(node, "price"),
+                    text(node, "previewImage"), additionalImages, null);
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    /**
+     * One row of the import file, values as written in the file
+     */
+    public static final class ImportRow {
+        private final int line;
+        private final String title;
+        private final String description;
+        private final String price;
+        private final String previewImage;
+        private final List<String> additionalImages;
+        private final String error;
+
+        public ImportRow(int line, String title, String description, String price, String previewImage,
+                         List<String> additionalImages, String error) {
+            this.line = line;
+            this.title = title;
+            this.description = description;
+            this.price = price;
+            this.previewImage = previewImage;
+            this.additionalImages = List.copyOf(additionalImages);
+            this.error = error;
+        }
+
+        public static ImportRow error(int line, String message) {
+            return new ImportRow(line, null, null, null, null, List.of(), message);
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public String getPreviewImage() {
+            return previewImage;
+        }
+
+        public List<String> getAdditionalImages() {
+            return additionalImages;
+        }
+
+        /**
+         * @return Why the row could not be read, null if it was read
+         */
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.services;
+
+import com.example.models.Product;
+import com.example.models.ProductImage;
+import com.example.models.User;
+import com.example.repositories.UserRepository;
+import com.example.services.ImageValidationService.ValidationResult;
+import com.example.services.ProductImportReader.ImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of a seller's listings from a CSV or NDJSON file and a zip of
+ * their images.
+ * <p>
+ * The file is read row by row (ProductImportReader). Each row is checked with
+ * the Product constraints and the image checks of the product form, then its
+ * images are stored. Valid rows are saved in batches, each batch in its own
+ * transaction with batched inserts, and indexed with one bulk request after
+ * commit. Only the current batch is held in memory, so the size of the file
+ * doesn't matter. Rows that fail are reported by line and skipped, the other
+ * rows are imported.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final UserRepository userRepository;
+    private final ImageValidationService imageValidationService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${marketplace.product-import.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${marketplace.product-import.max-rows:10000}")
+    private int maxRows = 10000;
+
+    // Further errors are only counted
+    @Value("${marketplace.product-import.max-reported-errors:100}")
+    private int maxReportedErrors = 100;
+
+    /**
+     * Import the products of the file
+     *
+     * @param file    CSV (.csv) or NDJSON (.ndjson, .jsonl) file, one product per row
+     * @param images  Zip with the images named in the file
+     * @param ownerId Seller of the products
+     * @return Imported row count and the errors of the other rows
+     */
+    public ImportResult importProducts(MultipartFile file, MultipartFile images, Long ownerId) {
+        ImportResult result = new ImportResult(maxReportedErrors);
+        if (file == null || file.isEmpty()) {
+            return result.fail("Select a CSV or NDJSON file to import");
+        }
+        if (images == null || images.isEmpty()) {
+            return result.fail("Select a zip archive with the images of the products");
+        }
+        String fileName = file.getOriginalFilename() != null
+                ? file.getOriginalFilename().toLowerCase(Locale.ROOT)
+                : "";
+        boolean csv = fileName.endsWith(".csv");
+        if (!csv && !fileName.endsWith(".ndjson") && !fileName.endsWith(".jsonl")) {
+            return result.fail("Unsupported file type, use .csv or .ndjson");
+        }
+        // Loaded once, the products of every batch reference it
+        User owner = userRepository.findById(ownerId).orElse(null);
+        if (owner == null) {
+            return result.fail("The seller account no longer exists");
+        }
+
+        Path archivePath = null;
+        Batch batch = new Batch();
+        try {
+            // ZipFile needs random access, uploads are only guaranteed to be readable as a stream
+            archivePath = Files.createTempFile("product-import-", ".zip");
+            images.transferTo(archivePath);
+
+            try (ZipImageArchive archive = ZipImageArchive.open(archivePath);
+                 Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+                 ProductImportReader rows = csv
+                         ? ProductImportReader.csv(reader)
+                         : ProductImportReader.ndjson(reader, objectMapper)) {
+
+                int rowCount = 0;
+                ImportRow row;
+                while ((row = rows.next()) != null) {
+                    if (++rowCount > maxRows) {
+                        result.fail(String.format("Only the first %d rows are imported, split the file", maxRows));
+                        break;
+                    }
+
+                    Product product = toProduct(row, archive, result);
+                    if (product != null) {
+                        batch.add(product, row.getLine());
+                        if (batch.size() >= batchSize) {
+                            save(batch, owner, result);
+                        }
+                    }
+                }
+                save(batch, owner, result);
+            }
+        } catch (IllegalArgumentException e) {
+            result.fail(e.getMessage());
+        } catch (IOException e) {
+            log.error("Error reading import file {}", file.getOriginalFilename(), e);
+            result.fail("The file or the image archive could not be read");
+        } finally {
+            // Rows read but not saved before the error
+            batch.discard(productService);
+            deleteTempFile(archivePath);
+        }
+
+        log.info("Import of {} for user {}: {} imported, {} failed",
+                file.getOriginalFilename(), ownerId, result.getImported(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Check the row and store its images
+     *
+     * @return The product with its images, null if the row is invalid (the error is added to the result)
+     */
+    private Product toProduct(ImportRow row, ZipImageArchive archive, ImportResult result) {
+        if (row.getError() != null) {
+            result.addError(row.getLine(), row.getError());
+            return null;
+        }
+
+        Product product = new Product();
+        product.setTitle(trim(row.getTitle()));
+        product.setDescription(trim(row.getDescription()));
+        try {
+            product.setPrice(row.getPrice() != null && !row.getPrice().isBlank()
+                    ? new BigDecimal(row.getPrice().trim())
+                    : null);
+        } catch (NumberFormatException e) {
+            result.addError(row.getLine(), "Invalid price: " + row.getPrice());
+            return null;
+        }
+
+        String violations = validator.validate(product).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+        if (!violations.isEmpty()) {
+            result.addError(row.getLine(), violations);
+            return null;
+        }
+
+        if (row.getPreviewImage() == null || row.getPreviewImage().isBlank()) {
+            result.addError(row.getLine(), "Preview image is required");
+            return null;
+        }
+        MultipartFile previewImage = archive.get(row.getPreviewImage());
+        if (previewImage == null) {
+            result.addError(row.getLine(), "Image not found in the archive: " + row.getPreviewImage());
+            return null;
+        }
+        List<MultipartFile> additionalImages = new ArrayList<>();
+        for (String name : row.getAdditionalImages()) {
+            MultipartFile image = archive.get(name);
+            if (image == null) {
+                result.addError(row.getLine(), "Image not found in the archive: " + name);
+                return null;
+            }
+            additionalImages.add(image);
+        }
+
+        ValidationResult previewValidation = imageValidationService.validatePreviewImage(previewImage);
+        if (!previewValidation.isValid()) {
+            result.addError(row.getLine(), row.getPreviewImage() + ": " + previewValidation.getErrorMessage());
+            return null;
+        }
+        ValidationResult additionalValidation = imageValidationService.validateAdditionalImages(additionalImages);
+        if (!additionalValidation.isValid()) {
+            result.addError(row.getLine(), additionalValidation.getErrorMessage());
+            return null;
+        }
+
+        List<ProductImage> stored = new ArrayList<>();
+        ProductImage preview = productService.storeImage(previewImage, true);
+        if (preview == null) {
+            result.addError(row.getLine(), "Failed to save preview image");
+            return null;
+        }
+        stored.add(preview);
+        for (MultipartFile file : additionalImages) {
+            ProductImage image = productService.storeImage(file, false);
+            if (image == null) {
+                productService.deleteStoredImages(stored);
+                result.addError(row.getLine(), "Failed to save additional image");
+                return null;
+            }
+            stored.add(image);
+        }
+
+        product.setImages(stored);
+        return product;
+    }
+
+    /**
+     * Save the batch and index it, on failure its rows are reported and their files deleted
+     */
+    private void save(Batch batch, User owner, ImportResult result) {
+        if (batch.size() == 0) {
+            return;
+        }
+
+        try {
+            productService.saveImportedProducts(batch.products, owner);
+        } catch (RuntimeException e) {
+            log.error("Import batch of {} products failed", batch.size(), e);
+            for (Integer line : batch.lines) {
+                result.addError(line, "Not saved, the batch with this row could not be written");
+            }
+            batch.discard(productService);
+            return;
+        }
+
+        productSearchService.indexProducts(batch.products);
+        result.imported += batch.size();
+        batch.clear();
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private static void deleteTempFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    /**
+     * Valid rows waiting to be saved, with their line numbers for error reports
+     */
+    private static final class Batch {
+        private final List<Product> products = new ArrayList<>();
+        private final List<Integer> lines = new ArrayList<>();
+
+        void add(Product product, int line) {
+            products.add(product);
+            lines.add(line);
+        }
+
+        int size() {
+            return products.size();
+        }
+
+        // Delete the stored files of rows that were not saved
+        void discard(ProductService productService) {
+            products.forEach(product -> productService.deleteStoredImages(product.getImages()));
+            clear();
+        }
+
+        void clear() {
+            products.clear();
+            lines.clear();
+        }
+    }
+
+    /**
+     * Outcome of an import
+     */
+    public static class ImportResult {
+        private final int maxReportedErrors;
+        private final List<RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+        private String errorMessage;
+
+        ImportResult(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void addError(int line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        ImportResult fail(String message) {
+            this.errorMessage = message;
+            return this;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return Number of rows not imported
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return Errors of the first failed rows, in file order
+         */
+        public List<RowError> getErrors() {
+            return errors;
+        }
+
+        public int getUnreportedErrorCount() {
+            return failed - errors.size();
+        }
+
+        /**
+         * @return Why the import stopped or could not start, null if the whole file was read
+         */
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * Error of one row, line is the line of the file where the row starts
+     */
+    public static class RowError {
+        private final int line;
+        private final String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
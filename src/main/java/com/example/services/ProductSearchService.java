@@ -7,9 +7,16 @@ import com.example.repositories.ProductSearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.MoreLikeThisQuery;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,6 +26,7 @@ public class ProductSearchService {
 
     private final ProductSearchRepository searchRepository;
     private final ProductRepository productRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
 
     /**
      * Index a product in Elasticsearch
@@ -33,6 +41,25 @@ public class ProductSearchService {
         }
     }
 
+    /**
+     * Send only the changed fields of an indexed product (update API with a partial
+     * document). Falls back to indexing the whole product, e.g. if it is missing in the index.
+     *
+     * @param fields ProductDocument field names and their new values
+     */
+    public void updateProductFields(Product product, Map<String, Object> fields) {
+        try {
+            UpdateQuery query = UpdateQuery.builder(String.valueOf(product.getId()))
+                    .withDocument(Document.from(fields))
+                    .build();
+            elasticsearchOperations.update(query, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+            log.info("Product fields {} updated in index: {}", fields.keySet(), product.getId());
+        } catch (Exception e) {
+            log.warn("Partial update of product {} failed, indexing the whole document", product.getId(), e);
+            indexProduct(product);
+        }
+    }
+
     /**
      * Delete product from Elasticsearch index
      */
@@ -45,6 +72,36 @@ public class ProductSearchService {
         }
     }
 
+    /**
+     * Index products in one bulk request
+     */
+    public void indexProducts(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try {
+            searchRepository.saveAll(products.stream().map(ProductDocument::new).toList());
+            log.info("Products indexed: {}", products.size());
+        } catch (Exception e) {
+            log.error("Error indexing {} products", products.size(), e);
+        }
+    }
+
+    /**
+     * Delete products from Elasticsearch index in one request
+     */
+    public void deleteProductsFromIndex(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            searchRepository.deleteAllById(productIds);
+            log.info("Products deleted from index: {}", productIds.size());
+        } catch (Exception e) {
+            log.error("Error deleting {} products from index", productIds.size(), e);
+        }
+    }
+
     /**
      * Reindex all products
      */
@@ -65,6 +122,47 @@ public class ProductSearchService {
         }
     }
 
+    /**
+     * Products whose title and description are most like the given product's
+     * (more_like_this on the indexed document), best match first
+     *
+     * @return Product ids, null if Elasticsearch could not be queried
+     */
+    public List<Long> findSimilarProductIds(Long productId, int limit) {
+        try {
+            MoreLikeThisQuery query = new MoreLikeThisQuery();
+            query.setId(String.valueOf(productId));
+            query.addFields("title", "description");
+            // Listings are short, single occurrences of a term count
+            query.setMinTermFreq(1);
+            query.setMinDocFreq(1);
+            query.setPageable(PageRequest.of(0, limit));
+
+            SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+            return hits.getSearchHits().stream()
+                    .map(hit -> Long.valueOf(hit.getId()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("Error finding products similar to: {}", productId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Ids of the products matching the query in title or description, in relevance order
+     *
+     * @return Page of ids, null if Elasticsearch is unavailable
+     */
+    public Page<Long> searchProductIds(String query, int page, int size) {
+        try {
+            return searchRepository.findByTitleContainingOrDescriptionContaining(query, query, PageRequest.of(page, size))
+                    .map(ProductDocument::getId);
+        } catch (Exception e) {
+            log.error("Error searching product ids with query: {}", query, e);
+            return null;
+        }
+    }
+
     /**
      * Search products by query (searches in title and description)
      */
@@ -1,62 +1,180 @@
 package com.example.services;
 
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
 import com.example.models.Product;
 import com.example.models.ProductImage;
 import com.example.models.User;
+import com.example.models.SimilarProducts;
 import com.example.repositories.ProductRepository;
+import com.example.repositories.SimilarProductsRepository;
+import com.example.repositories.UserRepository;
+import com.example.services.ImageHeaderParser.ImageInfo;
 import com.example.services.ImageValidationService.ValidationResult;
+import com.example.storage.ImageStorage;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
+    private final UserRepository userRepository;
     private final ProductImageService productImageService;
     private final ProductSearchService searchService;
     private final ImageValidationService imageValidationService;
+    private final ImageStorage imageStorage;
+    private final ImagePlaceholderService imagePlaceholderService;
+    private final SellerPageCache sellerPageCache;
+    private final ProductDetailCache productDetailCache;
+    private final SimilarProductsRepository similarProductsRepository;
+    private final SimilarProductsCache similarProductsCache;
 
     public Page<Product> getProducts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("dateOfCreated").descending());
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Catalog page sorted by view count, products never viewed are not listed
+     */
+    public Page<Product> getMostViewedProducts(int page, int size) {
+        return productRepository.findMostViewed(PageRequest.of(page, size));
+    }
+
     public Product getById(Long id) {
         return productRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Detail page read model, cached in ProductDetailCache
+     *
+     * @return The detail, null if the product does not exist
+     */
+    public ProductDetail getDetail(Long id) {
+        return productDetailCache.get(id, () -> getCurrentDetail(id));
+    }
+
+    /**
+     * Detail read from the database, bypassing ProductDetailCache. The cache
+     * is per instance and may lag behind an edit saved on another one, so the
+     * edit form (its version), the conflict page and the access checks before
+     * writes use this instead.
+     *
+     * @return The detail, null if the product does not exist
+     */
+    public ProductDetail getCurrentDetail(Long id) {
+        return ProductDetail.fromRows(productRepository.findDetailRowsById(id));
+    }
+
+    /**
+     * Cards of the products similar to the given one, precomputed by
+     * SimilarProductsWorker and cached in SimilarProductsCache
+     *
+     * @return Cards, best match first; empty until computed
+     */
+    public List<ProductCard> getSimilarProducts(Long id) {
+        return similarProductsCache.get(id, () -> loadSimilarProducts(id));
+    }
+
+    private List<ProductCard> loadSimilarProducts(Long id) {
+        List<Long> similarIds = similarProductsRepository.findById(id)
+                .map(SimilarProducts::getSimilarProductIds)
+                .orElse(List.of());
+        if (similarIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Neighbours deleted since the computation are left out
+        Map<Long, ProductCard> cards = productRepository.findCardsByIdIn(similarIds).stream()
+                .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        return similarIds.stream().map(cards::get).filter(Objects::nonNull).toList();
+    }
+
     public void save(Product product) {
         productRepository.save(product);
         searchService.indexProduct(product);
+        productDetailCache.evict(product.getId());
+        evictSellerPage(product);
     }
 
     public List<Product> getProductsByOwnerId(Long ownerId) {
         return productRepository.findByOwnerId(ownerId);
     }
 
-    public boolean isOwner(Product product, User user) {
-        if (product == null || user == null) {
+    /**
+     * Page of the owner's product cards, newest first
+     *
+     * @param beforeDate dateOfCreated of the last card of the previous page, null for the first page
+     * @param beforeId   id of the last card of the previous page, null for the first page
+     */
+    public CardPage getCardsByOwnerId(Long ownerId, LocalDateTime beforeDate, Long beforeId, int size) {
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<ProductCard> cards = beforeDate == null || beforeId == null
+                ? productRepository.findCardsByOwnerId(ownerId, pageRequest)
+                : productRepository.findCardsByOwnerIdBefore(ownerId, beforeDate, beforeId, pageRequest);
+        return toCardPage(cards, size);
+    }
+
+    /**
+     * Page of the catalog's product cards, newest first
+     *
+     * @param beforeDate dateOfCreated of the last card of the previous page, null for the first page
+     * @param beforeId   id of the last card of the previous page, null for the first page
+     */
+    public CardPage getCards(LocalDateTime beforeDate, Long beforeId, int size) {
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<ProductCard> cards = beforeDate == null || beforeId == null
+                ? productRepository.findCards(pageRequest)
+                : productRepository.findCardsBefore(beforeDate, beforeId, pageRequest);
+        return toCardPage(cards, size);
+    }
+
+    // Read one card more than the page size, it tells if there is a next page
+    private static CardPage toCardPage(List<ProductCard> cards, int size) {
+        if (cards.size() <= size) {
+            return new CardPage(cards, null);
+        }
+        List<ProductCard> page = cards.subList(0, size);
+        return new CardPage(page, page.get(size - 1));
+    }
+
+    public boolean isOwner(Product product, Long userId) {
+        if (product == null || userId == null) {
             return false;
         }
-        return product.getOwner() != null && product.getOwner().getId().equals(user.getId());
+        return product.getOwner() != null && product.getOwner().getId().equals(userId);
+    }
+
+    public boolean isOwner(ProductDetail product, Long userId) {
+        return product != null && product.isOwnedBy(userId);
     }
 
     /**
@@ -64,6 +182,7 @@ public class ProductService {
      *
      * @return SaveResult with success status and error message if any
      */
+    @Transactional
     public SaveResult saveProductWithImages(MultipartFile previewImage,
                                             List<MultipartFile> additionalImages,
                                             Product product,
@@ -85,56 +204,95 @@ public class ProductService {
             return SaveResult.error(additionalValidation.getErrorMessage());
         }
 
-        try {
-            String uploadDir = ProductImage.DIRECTORY_IMAGES;
-            Files.createDirectories(Paths.get(uploadDir));
-
-            List<ProductImage> images = new ArrayList<>();
-
-            // Process preview image
-            ProductImage preview = parseMultipartFileToUniqueFileName(uploadDir, previewImage, true);
-            if (preview != null) {
-                preview.setProduct(product);
-                images.add(preview);
-            } else {
-                log.error("Failed to save preview image");
-                return SaveResult.error("Failed to save preview image");
-            }
+        String uploadDir = ProductImage.DIRECTORY_IMAGES;
+
+        List<ProductImage> images = new ArrayList<>();
 
-            // Process additional images
-            if (additionalImages != null && !additionalImages.isEmpty()) {
-                for (MultipartFile file : additionalImages) {
-                    if (file != null && !file.isEmpty()) {
-                        ProductImage img = parseMultipartFileToUniqueFileName(uploadDir, file, false);
-                        if (img != null) {
-                            img.setProduct(product);
-                            images.add(img);
-                        } else {
-                            log.error("Failed to save additional image");
-                            // Clean up already saved images
-                            cleanupImages(images);
-                            return SaveResult.error("Failed to save additional image");
-                        }
+        // Nothing refers to the stored files if the insert fails or the commit is rolled back
+        deleteFilesOnRollback(images);
+
+        // Process preview image
+        ProductImage preview = parseMultipartFileToUniqueFileName(uploadDir, previewImage, true);
+        if (preview != null) {
+            preview.setProduct(product);
+            images.add(preview);
+        } else {
+            log.error("Failed to save preview image");
+            return SaveResult.error("Failed to save preview image");
+        }
+
+        // Process additional images
+        if (additionalImages != null && !additionalImages.isEmpty()) {
+            for (MultipartFile file : additionalImages) {
+                if (file != null && !file.isEmpty()) {
+                    ProductImage img = parseMultipartFileToUniqueFileName(uploadDir, file, false);
+                    if (img != null) {
+                        img.setProduct(product);
+                        images.add(img);
+                    } else {
+                        log.error("Failed to save additional image");
+                        // Clean up already saved images
+                        cleanupImages(images);
+                        return SaveResult.error("Failed to save additional image");
                     }
                 }
             }
+        }
 
-            product.setImages(images);
-            product.setOwner(owner);
-            productRepository.save(product);
+        // Persistence errors propagate and roll back the transaction
+        product.setImages(images);
+        product.setOwner(owner);
+        productRepository.save(product);
+        addListingCounters(owner.getId(), 1, images.size());
+        similarProductsRepository.insertPending(product.getId());
 
-            // Index product in Elasticsearch
+        // Index product in Elasticsearch once it is committed, a rollback leaves no document behind
+        afterCommit(() -> {
             searchService.indexProduct(product);
+            sellerPageCache.evict(owner.getId());
+        });
 
-            return SaveResult.success();
+        return SaveResult.success();
+    }
 
-        } catch (IOException e) {
-            log.error("IO Error while saving product images", e);
-            return SaveResult.error("Error uploading images: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error while saving product", e);
-            return SaveResult.error("Unexpected error occurred while saving product");
+    /**
+     * Save a batch of imported products in one transaction: batched inserts,
+     * one counter update and one similar products statement for the batch.
+     * The caller indexes them after commit (ProductSearchService.indexProducts).
+     *
+     * @param products Validated products with their stored images
+     * @param owner    Loaded seller, the index reads the username after commit
+     */
+    @Transactional
+    public void saveImportedProducts(List<Product> products, User owner) {
+        int images = 0;
+        for (Product product : products) {
+            product.setOwner(owner);
+            product.getImages().forEach(image -> image.setProduct(product));
+            images += product.getImages().size();
         }
+
+        productRepository.saveAll(products);
+        addListingCounters(owner.getId(), products.size(), images);
+        similarProductsRepository.insertPendingAll(products.stream().map(Product::getId).toList());
+        sellerPageCache.evict(owner.getId());
+    }
+
+    /**
+     * Store an image the way the product form does: unique file name,
+     * dimensions and, for a preview image, the placeholder
+     *
+     * @return The image, not attached to a product; null if it could not be stored
+     */
+    public ProductImage storeImage(MultipartFile file, boolean isPreviewImage) {
+        return parseMultipartFileToUniqueFileName(ProductImage.DIRECTORY_IMAGES, file, isPreviewImage);
+    }
+
+    /**
+     * Delete the files of images that were stored but not saved
+     */
+    public void deleteStoredImages(List<ProductImage> images) {
+        cleanupImages(images);
     }
 
     private ProductImage parseMultipartFileToUniqueFileName(String uploadDir,
@@ -143,13 +301,26 @@ public class ProductService {
         try {
             if (file != null && !file.isEmpty()) {
                 String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-                Path path = Paths.get(uploadDir + fileName);
 
                 try (InputStream inputStream = file.getInputStream()) {
-                    Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+                    imageStorage.store(fileName, inputStream, file.getSize(), file.getContentType());
+                }
+
+                ProductImage image = new ProductImage(uploadDir + fileName, isPreviewImage);
+
+                // Store dimensions so templates can reserve space for the image
+                ImageInfo imageInfo = imageValidationService.readImageInfo(file);
+                if (imageInfo != null) {
+                    image.setWidth(imageInfo.getWidth());
+                    image.setHeight(imageInfo.getHeight());
                 }
 
-                return new ProductImage(uploadDir + fileName, isPreviewImage);
+                // Only preview images are shown in listing cards
+                if (isPreviewImage) {
+                    image.setPlaceholder(imagePlaceholderService.generatePlaceholder(file, imageInfo));
+                }
+
+                return image;
             }
         } catch (IOException e) {
             log.error("Error saving file: {}", file.getOriginalFilename(), e);
@@ -158,11 +329,11 @@ public class ProductService {
     }
 
     /**
-     * Clean up images from disk
+     * Clean up stored image files
      */
     private void cleanupImages(List<ProductImage> images) {
         for (ProductImage image : images) {
-            productImageService.deleteImageFromDisk(image);
+            productImageService.deleteImageFile(image);
         }
     }
 
@@ -174,14 +345,19 @@ public class ProductService {
             return;
         }
 
-        for (var image : product.getImages()) {
-            productImageService.deleteImageFromDisk(image);
-        }
+        // Files are removed after commit
+        productImageService.scheduleDeletion(product.getImages());
 
         productRepository.deleteById(id);
+        if (product.getOwner() != null) {
+            addListingCounters(product.getOwner().getId(), -1, -product.getImages().size());
+        }
 
         // Delete from Elasticsearch index
         searchService.deleteProductFromIndex(id);
+        productDetailCache.evict(id);
+        similarProductsCache.evict(id);
+        evictSellerPage(product);
     }
 
     @Transactional
@@ -191,11 +367,6 @@ public class ProductService {
                                     List<Long> removeImageIds,
                                     Product product) {
 
-        Product dbProduct = productRepository.findById(id).orElse(null);
-        if (dbProduct == null) {
-            return SaveResult.error("Product not found");
-        }
-
         // Validate preview image if provided
         if (previewImage != null && !previewImage.isEmpty()) {
             ValidationResult validation = imageValidationService.validateImage(previewImage);
@@ -210,74 +381,189 @@ public class ProductService {
             return SaveResult.error(additionalValidation.getErrorMessage());
         }
 
-        try {
-            List<ProductImage> newImages = new ArrayList<>();
-
-            dbProduct.setTitle(product.getTitle());
-            dbProduct.setDescription(product.getDescription());
-            dbProduct.setPrice(product.getPrice());
+        // Store new files before the product is locked, nothing is changed if one fails
+        List<ProductImage> newImages = new ArrayList<>();
+        deleteFilesOnRollback(newImages);
+        ProductImage newPreviewImage = null;
+        if (hasFile(previewImage)) {
+            newPreviewImage = parseMultipartFileToUniqueFileName(
+                    ProductImage.DIRECTORY_IMAGES, previewImage, true
+            );
+            if (newPreviewImage == null) {
+                log.error("Failed to save new preview image");
+                return SaveResult.error("Failed to update preview image");
+            }
+            newImages.add(newPreviewImage);
+        }
 
-            // Remove specified images
-            if (removeImageIds != null && !removeImageIds.isEmpty()) {
-                for (var idRemoveImage : removeImageIds) {
-                    ProductImage image = productImageService.getImageById(idRemoveImage);
-                    if (image != null) {
-                        dbProduct.deleteImage(image);
-                        productImageService.deleteImageFromDisk(image);
+        if (additionalImages != null) {
+            for (var file : additionalImages) {
+                if (hasFile(file)) {
+                    ProductImage newAdditionalImage = parseMultipartFileToUniqueFileName(
+                            ProductImage.DIRECTORY_IMAGES, file, false
+                    );
+                    if (newAdditionalImage == null) {
+                        log.error("Failed to save new additional image");
+                        cleanupImages(newImages);
+                        return SaveResult.error("Failed to update additional images");
                     }
+                    newImages.add(newAdditionalImage);
                 }
             }
+        }
 
-            // Replace preview image if new one provided
-            if (previewImage != null && !previewImage.isEmpty()) {
-                ProductImage currentPreviewImage = dbProduct.getPreviewImage();
-                if (currentPreviewImage != null) {
-                    dbProduct.deleteImage(currentPreviewImage);
-                    productImageService.deleteImageFromDisk(currentPreviewImage);
-                }
+        // Image changes alone don't make the product dirty, lock it so the version still moves.
+        // Every return without a write after this point must call discardChanges, or the
+        // version would move anyway and resubmitting the form would be a conflict.
+        boolean changesImages = !newImages.isEmpty() || (removeImageIds != null && !removeImageIds.isEmpty());
+        Product dbProduct = (changesImages
+                ? productRepository.findWithVersionIncrementById(id)
+                : productRepository.findById(id)).orElse(null);
+        if (dbProduct == null) {
+            discardChanges(newImages);
+            return SaveResult.error("Product not found");
+        }
 
-                ProductImage newPreviewImage = parseMultipartFileToUniqueFileName(
-                        ProductImage.DIRECTORY_IMAGES, previewImage, true
-                );
-                if (newPreviewImage != null) {
-                    newPreviewImage.setProduct(dbProduct);
-                    newImages.add(newPreviewImage);
-                } else {
-                    log.error("Failed to save new preview image");
-                    return SaveResult.error("Failed to update preview image");
-                }
-            }
+        // The form was opened before another edit was saved, don't overwrite it
+        if (product.getVersion() != null && !product.getVersion().equals(dbProduct.getVersion())) {
+            discardChanges(newImages);
+            return SaveResult.conflict("Your changes were not saved, review the current listing and save again.");
+        }
 
-            // Add new additional images
-            if (additionalImages != null && !additionalImages.isEmpty()) {
-                for (var file : additionalImages) {
-                    if (file != null && !file.isEmpty()) {
-                        ProductImage newAdditionalImage = parseMultipartFileToUniqueFileName(
-                                ProductImage.DIRECTORY_IMAGES, file, false
-                        );
-                        if (newAdditionalImage != null) {
-                            newAdditionalImage.setProduct(dbProduct);
-                            newImages.add(newAdditionalImage);
-                        } else {
-                            log.error("Failed to save new additional image");
-                            cleanupImages(newImages);
-                            return SaveResult.error("Failed to update additional images");
-                        }
-                    }
-                }
-            }
+        // Images to remove, taken from the product's own images: ids of other products are ignored
+        List<ProductImage> removedImages = new ArrayList<>();
+        if (removeImageIds != null && !removeImageIds.isEmpty()) {
+            Set<Long> ids = new HashSet<>(removeImageIds);
+            dbProduct.getImages().stream()
+                    .filter(image -> ids.contains(image.getId()))
+                    .forEach(removedImages::add);
+        }
 
-            dbProduct.addImages(newImages);
-            productRepository.save(dbProduct);
+        if (newPreviewImage != null) {
+            ProductImage currentPreviewImage = dbProduct.getPreviewImage();
+            if (currentPreviewImage != null && !removedImages.contains(currentPreviewImage)) {
+                removedImages.add(currentPreviewImage);
+            }
+        }
 
-            // Update in Elasticsearch index
-            searchService.indexProduct(dbProduct);
+        // Indexed fields that changed, sent to Elasticsearch as a partial update
+        Map<String, Object> changedFields = new LinkedHashMap<>();
+        if (!Objects.equals(dbProduct.getTitle(), product.getTitle())) {
+            dbProduct.setTitle(product.getTitle());
+            changedFields.put("title", product.getTitle());
+        }
+        if (!Objects.equals(dbProduct.getDescription(), product.getDescription())) {
+            dbProduct.setDescription(product.getDescription());
+            changedFields.put("description", product.getDescription());
+        }
+        if (!samePrice(dbProduct.getPrice(), product.getPrice())) {
+            dbProduct.setPrice(product.getPrice());
+            changedFields.put("price", product.getPrice());
+        }
 
+        if (changedFields.isEmpty() && newImages.isEmpty() && removedImages.isEmpty()) {
+            discardChanges(newImages);
             return SaveResult.success();
+        }
 
-        } catch (Exception e) {
-            log.error("Error updating product", e);
-            return SaveResult.error("Error updating product: " + e.getMessage());
+        // Persistence errors propagate and roll back the transaction, the new files are deleted
+        removedImages.forEach(dbProduct::deleteImage);
+        newImages.forEach(image -> image.setProduct(dbProduct));
+        dbProduct.addImages(newImages);
+        if (newPreviewImage != null || removedImages.stream().anyMatch(ProductImage::isPreviewImage)) {
+            ProductImage preview = dbProduct.getPreviewImage();
+            changedFields.put("previewImageUrl", preview != null ? preview.getImageUrl() : null);
+            changedFields.put("previewImagePlaceholder", preview != null ? preview.getPlaceholder() : null);
+        }
+
+        productRepository.save(dbProduct);
+        if (dbProduct.getOwner() != null) {
+            addListingCounters(dbProduct.getOwner().getId(), 0, newImages.size() - removedImages.size());
+        }
+        productImageService.scheduleDeletion(removedImages);
+
+        // Neighbours are computed from the text, recompute them when it changes
+        if (changedFields.containsKey("title") || changedFields.containsKey("description")) {
+            similarProductsRepository.markPending(id);
+        }
+
+        // Additional images are not indexed, nothing to send when only they changed
+        if (!changedFields.isEmpty()) {
+            afterCommit(() -> searchService.updateProductFields(dbProduct, changedFields));
+        }
+        productDetailCache.evict(id);
+        evictSellerPage(dbProduct);
+
+        return SaveResult.success();
+    }
+
+    private static boolean hasFile(MultipartFile file) {
+        return file != null && !file.isEmpty();
+    }
+
+    // 10.5 and 10.50 are the same price
+    private static boolean samePrice(BigDecimal current, BigDecimal updated) {
+        return current == null || updated == null ? current == updated : current.compareTo(updated) == 0;
+    }
+
+    /**
+     * Cached seller pages show the product card, drop the owner's page
+     */
+    private void evictSellerPage(Product product) {
+        if (product.getOwner() != null) {
+            sellerPageCache.evict(product.getOwner().getId());
+        }
+    }
+
+    /**
+     * Run the action after commit, or now outside of a transaction
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Nothing is written after all: roll back, so a version increment requested by
+     * findWithVersionIncrementById is dropped, and delete the new files
+     */
+    private void discardChanges(List<ProductImage> newImages) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // deleteFilesOnRollback removes the files
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        } else {
+            cleanupImages(newImages);
+        }
+    }
+
+    /**
+     * Delete the files of the images, including ones added to the list later,
+     * if the transaction does not commit
+     */
+    private void deleteFilesOnRollback(List<ProductImage> images) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        cleanupImages(images);
+                    }
+                }
+            });
+        }
+    }
+
+    private void addListingCounters(Long ownerId, long products, long images) {
+        if (products != 0 || images != 0) {
+            userRepository.addListingCounters(ownerId, products, images);
         }
     }
 
@@ -286,30 +572,93 @@ public class ProductService {
         return searchService.searchProducts(query, page, size);
     }
 
+    /**
+     * Search results as cards, in relevance order. Falls back to the newest
+     * cards if Elasticsearch is unavailable, like searchProducts.
+     */
+    public Page<ProductCard> searchCards(String query, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Page<Long> ids = searchService.searchProductIds(query, page, size);
+        if (ids == null) {
+            return new PageImpl<>(productRepository.findCards(pageRequest), pageRequest, productRepository.count());
+        }
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, ids.getTotalElements());
+        }
+
+        // Products deleted but still in the index are left out
+        Map<Long, ProductCard> cards = productRepository.findCardsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        List<ProductCard> ordered = ids.getContent().stream().map(cards::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(ordered, pageRequest, ids.getTotalElements());
+    }
+
+    /**
+     * Page of product cards with the keyset of the next page
+     */
+    public static class CardPage {
+        private final List<ProductCard> products;
+        private final ProductCard nextAfter;
+
+        public CardPage(List<ProductCard> products, ProductCard nextAfter) {
+            this.products = List.copyOf(products);
+            this.nextAfter = nextAfter;
+        }
+
+        public List<ProductCard> getProducts() {
+            return products;
+        }
+
+        public boolean hasNext() {
+            return nextAfter != null;
+        }
+
+        public LocalDateTime getNextBeforeDate() {
+            return nextAfter != null ? nextAfter.getDateOfCreated() : null;
+        }
+
+        public Long getNextBeforeId() {
+            return nextAfter != null ? nextAfter.getId() : null;
+        }
+    }
+
     /**
      * Result class for save operations
      */
     public static class SaveResult {
         private final boolean success;
+        private final boolean conflict;
         private final String errorMessage;
 
-        private SaveResult(boolean success, String errorMessage) {
+        private SaveResult(boolean success, boolean conflict, String errorMessage) {
             this.success = success;
+            this.conflict = conflict;
             this.errorMessage = errorMessage;
         }
 
         public static SaveResult success() {
-            return new SaveResult(true, null);
+            return new SaveResult(true, false, null);
         }
 
         public static SaveResult error(String message) {
-            return new SaveResult(false, message);
+            return new SaveResult(false, false, message);
+        }
+
+        /**
+         * The product was changed by someone else since the edit form was loaded
+         */
+        public static SaveResult conflict(String message) {
+            return new SaveResult(false, true, message);
         }
 
         public boolean isSuccess() {
             return success;
         }
 
+        public boolean isConflict() {
+            return conflict;
+        }
+
         public String getErrorMessage() {
             return errorMessage;
         }
@@ -0,0 +1,196 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product view counts, collected in memory and written in batches.
+ * <p>
+ * A view only increments a LongAdder, so popular listings don't turn into
+ * a hot row with one UPDATE per view. Every flush interval the counts are
+ * added to the product_views table in one transaction. If a node stops
+ * without shutting down, at most one flush interval of its views is lost.
+ * <p>
+ * Counts idle for a whole interval are dropped from the map. A view that
+ * races with the removal is moved to a fresh counter, see addPending.
+ * <p>
+ * Written counts are cached, so the detail page doesn't read product_views
+ * on every view. A flush evicts the products it wrote; views written by
+ * other nodes show up after the cache time-to-live.
+ */
+@Slf4j
+@Component
+public class ProductViewCounter implements DisposableBean {
+
+    private static final String SELECT_VIEWS = "SELECT view_count FROM product_views WHERE product_id = ?";
+
+    private static final String ADD_VIEWS =
+            "UPDATE product_views SET view_count = view_count + ? WHERE product_id = ?";
+
+    // Products deleted since the view are skipped, the row is removed with the product
+    private static final String INSERT_VIEWS = """
+            INSERT INTO product_views (product_id, view_count)
+            SELECT ?, ? FROM products WHERE id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${marketplace.product-views.batch-size:500}")
+    private int batchSize = 500;
+
+    // Product id -> views not yet written
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    // Product id -> view_count of product_views
+    private final BoundedTtlCache<Long, Long> writtenViews;
+
+    private final Counter viewCounter;
+
+    public ProductViewCounter(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${marketplace.product-views.count-cache.maximum-size:10000}") int countCacheSize,
+                              @Value("${marketplace.product-views.count-cache.time-to-live:PT1M}") Duration countCacheTimeToLive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.writtenViews = new BoundedTtlCache<>("marketplace.product-views.count-cache", "Written view count",
+                countCacheSize, countCacheTimeToLive, meterRegistry);
+
+        this.viewCounter = Counter.builder("marketplace.product-views.recorded")
+                .description("Product views recorded")
+                .register(meterRegistry);
+        Gauge.builder("marketplace.product-views.pending", pendingViews, Map::size)
+                .description("Products with views waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void recordView(Long productId) {
+        addPending(productId, 1);
+        viewCounter.increment();
+    }
+
+    /**
+     * Written views plus the views of this node not yet written
+     */
+    public long getViewCount(Long productId) {
+        return writtenViews.get(productId, () -> readWritten(productId)) + pending(productId);
+    }
+
+    private long readWritten(Long productId) {
+        List<Long> written = jdbcTemplate.queryForList(SELECT_VIEWS, Long.class, productId);
+        return written.isEmpty() ? 0 : written.get(0);
+    }
+
+    /**
+     * Add collected views to the product_views table
+     *
+     * @return Number of products written
+     */
+    @Scheduled(fixedDelayString = "${marketplace.product-views.flush-interval:PT10S}")
+    public int flush() {
+        List<long[]> views = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            // Atomic per cell, views arriving meanwhile stay for the next flush
+            long count = entry.getValue().sumThenReset();
+            if (count == 0) {
+                if (pendingViews.remove(entry.getKey(), entry.getValue())) {
+                    // Views added between the sum and the removal
+                    addPending(entry.getKey(), entry.getValue().sumThenReset());
+                }
+            } else {
+                views.add(new long[]{entry.getKey(), count});
+            }
+        }
+
+        // Every node locks the rows in the same order, concurrent flushes can't deadlock
+        views.sort(Comparator.comparingLong(v -> v[0]));
+
+        int flushed = 0;
+        for (int from = 0; from < views.size(); from += batchSize) {
+            List<long[]> batch = views.subList(from, Math.min(from + batchSize, views.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                writtenViews.evictAll(batch.stream().map(v -> v[0]).toList());
+                flushed += batch.size();
+            } catch (DataAccessException e) {
+                // Nothing of the batch was written, keep the views for the next flush
+                log.warn("Failed to write views of {} products, retrying later", batch.size(), e);
+                batch.forEach(v -> addPending(v[0], v[1]));
+            }
+        }
+
+        if (flushed > 0) {
+            log.debug("Flushed views of {} products", flushed);
+        }
+        return flushed;
+    }
+
+    /**
+     * Add views to the product's counter. If a flush dropped the counter
+     * meanwhile, whatever it did not drain is moved to a new one.
+     */
+    private void addPending(Long productId, long views) {
+        while (views != 0) {
+            LongAdder adder = pendingViews.computeIfAbsent(productId, id -> new LongAdder());
+            adder.add(views);
+            if (pendingViews.get(productId) == adder) {
+                return;
+            }
+            views = adder.sumThenReset();
+        }
+    }
+
+    long pending(Long productId) {
+        LongAdder adder = pendingViews.get(productId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Write remaining views on shutdown
+     */
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush product views on shutdown", e);
+        }
+    }
+
+    /**
+     * Portable upsert: add to existing rows, insert the rest. A row inserted
+     * concurrently by another node fails the transaction and is retried as an update.
+     */
+    private void write(List<long[]> batch) {
+        int[] updated = jdbcTemplate.batchUpdate(ADD_VIEWS,
+                batch.stream().map(v -> new Object[]{v[1], v[0]}).toList());
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                long[] v = batch.get(i);
+                inserts.add(new Object[]{v[0], v[1], v[0]});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_VIEWS, inserts);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.services;
+
+import com.example.services.SellerService.SellerPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded LRU cache of seller pages: the seller header and the first page
+ * of product cards, by seller id.
+ * <p>
+ * Pages are immutable and shared between requests. ProductService,
+ * UserService and UserDeletionWorker evict a seller whenever their
+ * products or username change. A loader returning null (unknown seller)
+ * is not cached.
+ */
+@Component
+public class SellerPageCache extends BoundedTtlCache<Long, SellerPage> {
+
+    public SellerPageCache(MeterRegistry meterRegistry,
+                           @Value("${marketplace.seller-page-cache.maximum-size:1000}") int maximumSize,
+                           @Value("${marketplace.seller-page-cache.time-to-live:PT5M}") Duration timeToLive) {
+        super("marketplace.seller-page-cache", "Seller page", maximumSize, timeToLive, meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.services;
+
+import com.example.dto.ProductCard;
+import com.example.models.User;
+import com.example.services.ProductService.CardPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Public seller pages: seller header and product cards, newest first,
+ * paged by the (dateOfCreated, id) keyset. The first page is cached
+ * in SellerPageCache, later pages reuse its header.
+ */
+@Service
+@RequiredArgsConstructor
+public class SellerService {
+    private final UserService userService;
+    private final ProductService productService;
+    private final SellerPageCache sellerPageCache;
+
+    @Value("${marketplace.seller-page.page-size:20}")
+    private int pageSize = 20;
+
+    /**
+     * Page of the seller's products
+     *
+     * @param sellerId   Seller id
+     * @param beforeDate dateOfCreated of the last card of the previous page, null for the first page
+     * @param beforeId   id of the last card of the previous page, null for the first page
+     * @return The page, null if the seller does not exist
+     */
+    public SellerPage getSellerPage(Long sellerId, LocalDateTime beforeDate, Long beforeId) {
+        SellerPage firstPage = sellerPageCache.get(sellerId, () -> loadFirstPage(sellerId));
+        if (firstPage == null || beforeDate == null || beforeId == null) {
+            return firstPage;
+        }
+
+        CardPage cards = productService.getCardsByOwnerId(sellerId, beforeDate, beforeId, pageSize);
+        return new SellerPage(firstPage.getSellerId(), firstPage.getUsername(), firstPage.getProductCount(),
+                cards, false);
+    }
+
+    private SellerPage loadFirstPage(Long sellerId) {
+        User seller = userService.getById(sellerId);
+        if (seller == null) {
+            return null;
+        }
+
+        CardPage cards = productService.getCardsByOwnerId(sellerId, null, null, pageSize);
+        long productCount = userService.getListingStats(sellerId).getProductCount();
+
+        return new SellerPage(seller.getId(), seller.getUsername(), productCount, cards, true);
+    }
+
+    /**
+     * Seller header and one page of cards
+     */
+    public static class SellerPage {
+        private final Long sellerId;
+        private final String username;
+        private final long productCount;
+        private final CardPage cards;
+        private final boolean firstPage;
+
+        public SellerPage(Long sellerId, String username, long productCount, CardPage cards, boolean firstPage) {
+            this.sellerId = sellerId;
+            this.username = username;
+            this.productCount = productCount;
+            this.cards = cards;
+            this.firstPage = firstPage;
+        }
+
+        public Long getSellerId() {
+            return sellerId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getProductCount() {
+            return productCount;
+        }
+
+        public List<ProductCard> getProducts() {
+            return cards.getProducts();
+        }
+
+        public boolean isFirstPage() {
+            return firstPage;
+        }
+
+        public boolean hasNext() {
+            return cards.hasNext();
+        }
+
+        public LocalDateTime getNextBeforeDate() {
+            return cards.getNextBeforeDate();
+        }
+
+        public Long getNextBeforeId() {
+            return cards.getNextBeforeId();
+        }
+    }
+}
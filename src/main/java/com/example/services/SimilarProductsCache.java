@@ -0,0 +1,39 @@
+package com.example.services;
+
+import com.example.dto.ProductCard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the "similar products" cards by product id.
+ * <p>
+ * SimilarProductsWorker evicts a product when its neighbours are recomputed
+ * and ProductService when it is deleted. Cards of the neighbours themselves
+ * are not tracked, edits to them show up after the time-to-live.
+ */
+@Component
+public class SimilarProductsCache extends BoundedTtlCache<Long, List<ProductCard>> {
+
+    public SimilarProductsCache(MeterRegistry meterRegistry,
+                                @Value("${marketplace.similar-products-cache.maximum-size:10000}") int maximumSize,
+                                @Value("${marketplace.similar-products-cache.time-to-live:PT10M}") Duration timeToLive) {
+        super("marketplace.similar-products-cache", "Similar products", maximumSize, timeToLive, meterRegistry);
+    }
+
+    /**
+     * Get the similar products of the product, loading them on a miss
+     *
+     * @param productId Product id
+     * @param loader    Database lookup, an empty list is cached as well
+     * @return Cards of the similar products, best match first
+     */
+    @Override
+    public List<ProductCard> get(Long productId, Supplier<List<ProductCard>> loader) {
+        return super.get(productId, () -> List.copyOf(loader.get()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.services;
+
+import com.example.models.SimilarProducts;
+import com.example.repositories.SimilarProductsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Computes the "similar products" of listings ahead of time, so the detail
+ * page reads a stored id list instead of querying Elasticsearch.
+ * <p>
+ * Each run takes a batch of products from similar_products: new and edited
+ * listings first, then lists older than refresh-after, which picks up
+ * listings added since. Neighbours come from more_like_this on title and
+ * description. If Elasticsearch is unavailable the run stops and the
+ * products stay queued. Neighbours of a product that was edited while they
+ * were computed are dropped, the product stays queued as well.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimilarProductsWorker {
+
+    private final SimilarProductsRepository similarProductsRepository;
+    private final ProductSearchService productSearchService;
+    private final SimilarProductsCache similarProductsCache;
+
+    // Only one run at a time per instance
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${marketplace.similar-products.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${marketplace.similar-products.limit:6}")
+    private int limit = 6;
+
+    @Value("${marketplace.similar-products.refresh-after:P1D}")
+    private Duration refreshAfter = Duration.ofDays(1);
+
+    /**
+     * Compute the neighbours of one batch of products
+     *
+     * @return Number of products computed
+     */
+    @Scheduled(fixedDelayString = "${marketplace.similar-products.interval:PT1M}")
+    public int computeBatch() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        int computed = 0;
+        try {
+            List<SimilarProducts.Queued> products = new ArrayList<>(
+                    similarProductsRepository.findPending(PageRequest.of(0, batchSize)));
+            if (products.size() < batchSize) {
+                products.addAll(similarProductsRepository.findComputedBefore(
+                        LocalDateTime.now().minus(refreshAfter), PageRequest.of(0, batchSize - products.size())));
+            }
+
+            for (int i = 0; i < products.size(); i++) {
+                SimilarProducts.Queued product = products.get(i);
+                List<Long> similarIds = productSearchService.findSimilarProductIds(product.productId(), limit);
+                if (similarIds == null) {
+                    log.warn("Search unavailable, {} products left for the next run", products.size() - i);
+                    break;
+                }
+
+                // Not stored if the product was edited meanwhile, it stays queued for the next run
+                if (similarProductsRepository.saveSimilarIds(product.productId(), product.generation(),
+                        SimilarProducts.joinIds(similarIds), LocalDateTime.now()) > 0) {
+                    similarProductsCache.evict(product.productId());
+                    computed++;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error computing similar products", e);
+        } finally {
+            running.set(false);
+        }
+
+        if (computed > 0) {
+            log.info("Computed similar products of {} products", computed);
+        }
+        return computed;
+    }
+}
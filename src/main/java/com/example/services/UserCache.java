@@ -0,0 +1,131 @@
+package com.example.services;
+
+import com.example.models.User;
+import com.example.models.enums.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of users by id, with a username index.
+ * <p>
+ * Entries are immutable snapshots of the user row and roles without the
+ * password hash: authentication reads the user from the database
+ * (CustomUserDetailsService), so hashes are not kept in memory. Every
+ * lookup returns a new detached User with a null password and an empty
+ * products collection.
+ * <p>
+ * UserService and UserDeletionWorker evict a user whenever it changes.
+ */
+@Component
+public class UserCache extends BoundedTtlCache<Long, UserCache.CachedUser> {
+
+    // Guarded by the cache lock, updated through stored() and removed()
+    private final Map<String, Long> usernameIndex = new HashMap<>();
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${marketplace.user-cache.maximum-size:10000}") int maximumSize,
+                     @Value("${marketplace.user-cache.time-to-live:PT10M}") Duration timeToLive) {
+        super("marketplace.user-cache", "User", maximumSize, timeToLive, meterRegistry);
+    }
+
+    /**
+     * Get user by id, loading it on a miss
+     *
+     * @param id     User id
+     * @param loader Database lookup
+     * @return Detached copy of the user without password or empty if not found
+     */
+    public Optional<User> getById(Long id, Supplier<Optional<User>> loader) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(get(id, () -> loader.get().map(CachedUser::new).orElse(null)))
+                .map(CachedUser::toUser);
+    }
+
+    /**
+     * Get user by username, loading it on a miss
+     *
+     * @param username Username
+     * @param loader   Database lookup
+     * @return Detached copy of the user without password or empty if not found
+     */
+    public Optional<User> getByUsername(String username, Supplier<Optional<User>> loader) {
+        if (username == null) {
+            return Optional.empty();
+        }
+
+        CachedUser cached = getIfPresent(idOf(username));
+        // The entry may have been replaced by the renamed user since the index was read
+        if (cached == null || !cached.username().equals(username)) {
+            cached = load(() -> loader.get().map(CachedUser::new).orElse(null), CachedUser::id);
+        }
+        return Optional.ofNullable(cached).map(CachedUser::toUser);
+    }
+
+    /**
+     * Remove user now and, inside a transaction, again after commit
+     *
+     * @param id       User id
+     * @param username Username, may differ from the cached one after a rename
+     */
+    public void evict(Long id, String username) {
+        List<Long> ids = new ArrayList<>(2);
+        if (id != null) {
+            ids.add(id);
+        }
+        Long cachedId = username != null ? idOf(username) : null;
+        if (cachedId != null && !cachedId.equals(id)) {
+            ids.add(cachedId);
+        }
+        evictAll(ids);
+    }
+
+    @Override
+    protected void stored(Long id, CachedUser user) {
+        usernameIndex.put(user.username(), id);
+    }
+
+    @Override
+    protected void removed(Long id, CachedUser user) {
+        usernameIndex.remove(user.username(), id);
+    }
+
+    private synchronized Long idOf(String username) {
+        return usernameIndex.get(username);
+    }
+
+    /**
+     * Immutable snapshot of a user, without the password hash
+     */
+    record CachedUser(Long id, String username, String email, boolean active, Set<Role> roles,
+                      LocalDateTime createdAt) {
+
+        private CachedUser(User user) {
+            this(user.getId(), user.getUsername(), user.getEmail(), user.isActive(), Set.copyOf(user.getRoles()),
+                    user.getCreatedAt());
+        }
+
+        private User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setActive(active);
+            user.getRoles().addAll(roles);
+            user.setCreatedAt(createdAt);
+            return user;
+        }
+    }
+}
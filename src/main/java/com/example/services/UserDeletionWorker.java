@@ -0,0 +1,150 @@
+package com.example.services;
+
+import com.example.models.UserDeletionJob;
+import com.example.models.enums.DeletionStatus;
+import com.example.repositories.ProductImageRepository;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserDeletionJobRepository;
+import com.example.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes users queued in user_deletion_jobs.
+ * <p>
+ * Products are removed in batches, each batch in its own short transaction
+ * with three bulk statements: image files are queued for FileDeletionWorker,
+ * then image rows and product rows are deleted by id. Nothing is loaded into
+ * the persistence context, so a seller with 50k products costs 100 small
+ * transactions instead of one with 100k+ statements. Search index entries of
+ * each batch are removed with one Elasticsearch request after commit.
+ * <p>
+ * The user row goes last. Jobs interrupted by a restart are resumed by the
+ * periodic run, already deleted batches are not repeated.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserDeletionWorker {
+
+    private final UserDeletionJobRepository userDeletionJobRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductSearchService productSearchService;
+    private final FileDeletionWorker fileDeletionWorker;
+    private final UserCache userCache;
+    private final SellerPageCache sellerPageCache;
+    private final ProductDetailCache productDetailCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${marketplace.user-deletion.batch-size:500}")
+    private int batchSize = 500;
+
+    // A running job without progress for this long is considered abandoned
+    @Value("${marketplace.user-deletion.stale-after:PT10M}")
+    private Duration staleAfter = Duration.ofMinutes(10);
+
+    /**
+     * Run a job in background (called after the job was committed)
+     */
+    @Async
+    public void runAsync(Long jobId) {
+        run(jobId);
+    }
+
+    /**
+     * Run pending jobs and resume abandoned ones
+     *
+     * @return Number of jobs run by this call
+     */
+    @Scheduled(fixedDelayString = "${marketplace.user-deletion.interval:PT1M}")
+    public int runPendingJobs() {
+        int completed = 0;
+        for (Long jobId : userDeletionJobRepository.findRunnableIds(LocalDateTime.now().minus(staleAfter))) {
+            if (run(jobId)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Delete the products and the user of a job
+     *
+     * @return false if the job is already taken by another run or failed
+     */
+    public boolean run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (userDeletionJobRepository.claim(jobId, now, now.minus(staleAfter)) == 0) {
+            return false;
+        }
+
+        UserDeletionJob job = userDeletionJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return false;
+        }
+        log.info("Deleting user {} ({} products)", job.getUsername(), job.getTotalProducts());
+
+        try {
+            List<Long> productIds;
+            do {
+                productIds = transactionTemplate.execute(status -> deleteProductBatch(job));
+                if (!productIds.isEmpty()) {
+                    productDetailCache.evictAll(productIds);
+                    productSearchService.deleteProductsFromIndex(productIds);
+                    fileDeletionWorker.processPendingDeletionsAsync();
+                }
+            } while (productIds.size() == batchSize);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.findById(job.getUserId()).ifPresent(userRepository::delete);
+                userDeletionJobRepository.finish(jobId, DeletionStatus.COMPLETED, null, LocalDateTime.now());
+            });
+            userCache.evict(job.getUserId(), job.getUsername());
+            sellerPageCache.evict(job.getUserId());
+
+            log.info("User deleted: {}", job.getUsername());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Deletion of user {} failed", job.getUsername(), e);
+            String error = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500)
+                    : e.getMessage();
+            userDeletionJobRepository.finish(jobId, DeletionStatus.FAILED, error, LocalDateTime.now());
+            return false;
+        }
+    }
+
+    /**
+     * Delete the next batch of the user's products
+     *
+     * @return Ids of the deleted products, empty when none are left
+     */
+    private List<Long> deleteProductBatch(UserDeletionJob job) {
+        List<Long> productIds = productRepository.findIdsByOwnerId(job.getUserId(), PageRequest.of(0, batchSize));
+        if (productIds.isEmpty()) {
+            return productIds;
+        }
+
+        // Queue rows are committed together with the deletes, a rollback keeps the files
+        int images = productImageRepository.queueFilesForDeletionByProductIds(productIds);
+        productImageRepository.deleteAllByProductIdIn(productIds);
+        productRepository.deleteAllByIdIn(productIds);
+        userRepository.addListingCounters(job.getUserId(), -productIds.size(), -images);
+
+        userDeletionJobRepository.addProgress(job.getId(), productIds.size(), images, LocalDateTime.now());
+        log.debug("Deleted {} products of user {}", productIds.size(), job.getUsername());
+        return productIds;
+    }
+}
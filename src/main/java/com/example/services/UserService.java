@@ -1,28 +1,48 @@
 package com.example.services;
 
-import com.example.models.Product;
+import com.example.dto.ListingStats;
 import com.example.models.User;
+import com.example.models.UserDeletionJob;
+import com.example.models.enums.DeletionStatus;
 import com.example.models.enums.Role;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserDeletionJobRepository;
 import com.example.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    // Ids per statement of bulk actions, keeps IN lists within database limits
+    static final int BULK_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ProductImageService productImageService;
+    private final ProductRepository productRepository;
+    private final UserDeletionJobRepository userDeletionJobRepository;
+    private final UserDeletionWorker userDeletionWorker;
+    private final UserCache userCache;
+    private final SellerPageCache sellerPageCache;
+    private final ProductDetailCache productDetailCache;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -33,40 +53,85 @@ public class UserService {
         return userRepository.findAll(pageable);
     }
 
-    public Page<User> getByUsernameOrEmailPage(String query, int page, int size) {
+    /**
+     * Keyset page of users ordered by id, optionally filtered by username or email.
+     * Pages are addressed by the id of a neighbouring row instead of an offset,
+     * so deep pages cost the same as the first one and no COUNT is needed.
+     *
+     * @param query  Substring of username or email, null or blank for all users
+     * @param after  Return users after this id (next page), null for the first page
+     * @param before Return users before this id (previous page), takes precedence over after
+     * @param size   Page size
+     */
+    public UserPage getByUsernameOrEmailPage(String query, Long after, Long before, int size) {
+        // One extra row tells whether there is another page
+        Pageable limit = PageRequest.of(0, size + 1);
+        boolean backwards = before != null;
+        long afterId = after != null ? after : 0L;
+
+        List<User> rows;
         if (query == null || query.trim().isEmpty()) {
-            return getUsersPage(page, size);
+            rows = backwards
+                    ? userRepository.findByIdLessThanOrderByIdDesc(before, limit)
+                    : userRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+        } else {
+            String pattern = "%" + escapeLike(query.trim()) + "%";
+            rows = backwards
+                    ? userRepository.searchByUsernameOrEmailBefore(pattern, before, limit)
+                    : userRepository.searchByUsernameOrEmailAfter(pattern, afterId, limit);
         }
-        Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-        return userRepository.findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                query, query, pageable
-        );
+
+        boolean more = rows.size() > size;
+        List<User> users = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backwards) {
+            Collections.reverse(users);
+            return new UserPage(users, more, !users.isEmpty());
+        }
+        return new UserPage(users, after != null && !users.isEmpty(), more);
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
+    /**
+     * Insert the user in one statement, a duplicate username or email
+     * is reported by the unique constraints instead of being checked first.
+     *
+     * @return false if the username or email is already taken
+     */
     public boolean registerUser(User user) {
-        if(userRepository.existsByUsername(user.getUsername())) {
-            log.error("Username already exists: {}", user.getUsername());
-            return false;
-        }
+        String rawPassword = user.getPassword();
+        user.setPassword(passwordEncoder.encode(rawPassword));
+        user.addRole(Role.ROLE_USER);
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            log.error("Email already exists: {}", user.getEmail());
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            logDuplicate(e, user.getUsername(), user.getEmail());
+            // Leave the form object as it was submitted
+            user.setPassword(rawPassword);
+            user.getRoles().remove(Role.ROLE_USER);
             return false;
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.addRole(Role.ROLE_USER);
-
-        userRepository.save(user);
         log.info("User registered successfully: {}", user.getUsername());
         return true;
     }
 
     public User getByUsername(String username) {
-        return userRepository.findByUsername(username).orElse(null);
+        return userCache.getByUsername(username, () -> userRepository.findByUsername(username)).orElse(null);
     }
 
-    @Transactional
+    /**
+     * Update username, email and optionally password with a single UPDATE,
+     * duplicates are detected by the unique constraints.
+     *
+     * @return false if the user does not exist or the username or email is already taken
+     */
     public boolean updateUser(Long id, String username, String email, String newPassword) {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) {
@@ -74,57 +139,115 @@ public class UserService {
             return false;
         }
 
-        // If usernames aren't equals AND new username already exists
-        if (!user.getUsername().equals(username) && userRepository.existsByUsername(username)) {
-            log.error("Username already exists: {}", username);
-            return false;
-        }
+        String encodedPassword = newPassword != null && !newPassword.isBlank()
+                ? passwordEncoder.encode(newPassword)
+                : null;
 
-        // If email aren't equals AND new email already exists
-        if (!user.getEmail().equals(email) && userRepository.existsByEmail(email)) {
-            log.error("Email already exists: {}", email);
+        try {
+            if (userRepository.updateProfile(id, username, email, encodedPassword) == 0) {
+                log.error("User with id {} not found", id);
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            logDuplicate(e, username, email);
             return false;
         }
 
-        user.setUsername(username);
-        user.setEmail(email);
+        userCache.evict(user.getId(), user.getUsername());
+        sellerPageCache.evict(user.getId());
+        // Detail pages show the seller's username
+        productDetailCache.evictByOwner(user.getId());
+        log.info("User updated successfully: {}", username);
+        return true;
+    }
 
-        if (newPassword != null && !newPassword.isBlank()) {
-            user.setPassword(passwordEncoder.encode(newPassword));
-        }
+    /**
+     * Log which unique constraint rejected the row, rethrow other integrity violations
+     */
+    private static void logDuplicate(DataIntegrityViolationException e, String username, String email) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
 
-        userRepository.save(user);
-        log.info("User updated successfully: {}", user.getUsername());
-        return true;
+        if (message.contains(User.USERNAME_CONSTRAINT) || message.contains("(username")) {
+            log.error("Username already exists: {}", username);
+        } else if (message.contains(User.EMAIL_CONSTRAINT) || message.contains("(email")) {
+            log.error("Email already exists: {}", email);
+        } else {
+            throw e;
+        }
     }
 
     public User getById(Long id) {
-        return userRepository.findById(id).orElse(null);
+        return userCache.getById(id, () -> userRepository.findById(id)).orElse(null);
+    }
+
+    /**
+     * Listing counters of the user, read from the database as cached users don't track them
+     */
+    public ListingStats getListingStats(Long id) {
+        return userRepository.findListingStatsById(id).orElse(ListingStats.EMPTY);
+    }
+
+    /**
+     * Reference to the user row without loading it, e.g. to set a product owner
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
     }
 
+    /**
+     * Deactivate the user now and delete them with their products in background.
+     * See UserDeletionWorker.
+     *
+     * @return The deletion job, null if the user does not exist
+     */
     @Transactional
-    public void deleteUser(Long id) {
+    public UserDeletionJob deleteUser(Long id) {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) {
             log.error("User with id {} not found", id);
-            return;
+            return null;
         }
 
-        if (user.getProducts() != null && !user.getProducts().isEmpty()) {
-            for (Product product : user.getProducts()) {
-                if (product.getImages() != null) {
-                    for (var image : product.getImages()) {
-                        productImageService.deleteImageFromDisk(image);
-                    }
+        // Can't log in or be found as active seller while products are removed
+        user.setActive(false);
+        userRepository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
+        sellerPageCache.evict(user.getId());
+
+        // A failed or interrupted job is restarted rather than duplicated
+        UserDeletionJob job = userDeletionJobRepository
+                .findFirstByUserIdAndStatusIn(id, List.of(DeletionStatus.PENDING, DeletionStatus.RUNNING, DeletionStatus.FAILED))
+                .orElseGet(() -> new UserDeletionJob(user.getId(), user.getUsername()));
+        if (job.getStatus() == DeletionStatus.RUNNING) {
+            return job;
+        }
+        job.setStatus(DeletionStatus.PENDING);
+        job.setError(null);
+        job.setTotalProducts(job.getProductsDeleted() + productRepository.countByOwnerId(id));
+        userDeletionJobRepository.save(job);
+
+        Long jobId = job.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDeletionWorker.runAsync(jobId);
                 }
-            }
-            log.info("Deleted {} products for user: {}", user.getProducts().size(), user.getUsername());
+            });
+        } else {
+            userDeletionWorker.runAsync(jobId);
         }
 
-        userRepository.deleteById(id);
-        log.info("User deleted: {}", user.getUsername());
+        log.info("User {} scheduled for deletion with {} products", user.getUsername(), job.getTotalProducts());
+        return job;
     }
 
+    /**
+     * Latest deletion jobs for the admin dashboard
+     */
+    public List<UserDeletionJob> getRecentDeletionJobs() {
+        return userDeletionJobRepository.findTop10ByOrderByIdDesc();
+    }
 
     // ========================================
     // Admin methods
@@ -140,6 +263,7 @@ public class UserService {
 
         user.setActive(!user.isActive());
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
         log.info("User {} active status changed to: {}", user.getUsername(), user.isActive());
         return true;
     }
@@ -154,6 +278,7 @@ public class UserService {
 
         user.addRole(role);
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
         log.info("Added role {} to user: {}", role, user.getUsername());
         return true;
     }
@@ -168,7 +293,97 @@ public class UserService {
 
         user.removeRole(role);
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
         log.info("Removed role {} from user: {}", role, user.getUsername());
         return true;
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Admin actions that can be applied to several users at once
+     */
+    public enum BulkAction {
+        BAN,
+        UNBAN,
+        ADD_ROLE,
+        REMOVE_ROLE
+    }
+
+    /**
+     * Apply an admin action to several users with one UPDATE/INSERT/DELETE per batch of ids.
+     * Users are not loaded, cached copies are evicted in one pass.
+     *
+     * @param ids    User ids
+     * @param action Action to apply
+     * @param role   Role for ADD_ROLE and REMOVE_ROLE, ignored otherwise.
+     *               REMOVE_ROLE skips users for whom it is the last role.
+     * @return Number of changed rows
+     */
+    @Transactional
+    public int applyBulkAction(Collection<Long> ids, BulkAction action, Role role) {
+        if ((action == BulkAction.ADD_ROLE || action == BulkAction.REMOVE_ROLE) && role == null) {
+            throw new IllegalArgumentException("Role is required for " + action);
+        }
+
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return 0;
+        }
+
+        int changed = 0;
+        for (int from = 0; from < distinctIds.size(); from += BULK_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + BULK_BATCH_SIZE, distinctIds.size()));
+            changed += switch (action) {
+                case BAN -> userRepository.updateActiveByIdIn(batch, false);
+                case UNBAN -> userRepository.updateActiveByIdIn(batch, true);
+                case ADD_ROLE -> userRepository.addRoleByIdIn(batch, role.name());
+                case REMOVE_ROLE -> userRepository.removeRoleByIdIn(batch, role.name());
+            };
+        }
+
+        userCache.evictAll(distinctIds);
+        log.info("Bulk action {} applied to {} users, {} rows changed", action, distinctIds.size(), changed);
+        return changed;
+    }
+
+    /**
+     * Keyset page of users
+     */
+    public static class UserPage {
+        private final List<User> users;
+        private final boolean hasPrevious;
+        private final boolean hasNext;
+
+        public UserPage(List<User> users, boolean hasPrevious, boolean hasNext) {
+            this.users = users;
+            this.hasPrevious = hasPrevious;
+            this.hasNext = hasNext;
+        }
+
+        public List<User> getUsers() {
+            return users;
+        }
+
+        public boolean hasPrevious() {
+            return hasPrevious;
+        }
+
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        /**
+         * Value for the before parameter of the previous page
+         */
+        public Long getPreviousCursor() {
+            return hasPrevious ? users.get(0).getId() : null;
+        }
+
+        /**
+         * Value for the after parameter of the next page
+         */
+        public Long getNextCursor() {
+            return hasNext ? users.get(users.size() - 1).getId() : null;
+        }
+    }
+}
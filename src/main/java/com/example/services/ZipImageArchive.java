@@ -0,0 +1,170 @@
+package com.example.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Zip of the images of a bulk import. Entries are looked up by name through
+ * the central directory and read straight from the file, so each image is
+ * streamed when it is validated and stored instead of unpacking the archive.
+ * Entries are exposed as MultipartFile so the checks and storage of the
+ * product form apply to them unchanged.
+ */
+public final class ZipImageArchive implements Closeable {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp",
+            "avif", "image/avif"
+    );
+
+    private final ZipFile zipFile;
+
+    private ZipImageArchive(ZipFile zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * @throws IOException if the file is not a zip archive
+     */
+    public static ZipImageArchive open(Path path) throws IOException {
+        return new ZipImageArchive(new ZipFile(path.toFile()));
+    }
+
+    /**
+     * @param name Path of the entry in the archive
+     * @return The image, null if there is no such file
+     */
+    public MultipartFile get(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        ZipEntry entry = zipFile.getEntry(name.trim());
+        // The size is needed to check the image limits before reading it
+        if (entry == null || entry.isDirectory() || entry.getSize() < 0) {
+            return null;
+        }
+        return new EntryFile(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    private final class EntryFile implements MultipartFile {
+        private final ZipEntry entry;
+
+        private EntryFile(ZipEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getName() {
+            return entry.getName();
+        }
+
+        // Without the directories, the name becomes part of the storage key
+        @Override
+        public String getOriginalFilename() {
+            String name = entry.getName();
+            return name.substring(name.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public String getContentType() {
+            String name = getOriginalFilename();
+            String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entry.getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            try (InputStream inputStream = getInputStream()) {
+                return inputStream.readAllBytes();
+            }
+        }
+
+        // Never more than the size in the central directory, which was checked against the limits
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new SizeLimitedInputStream(zipFile.getInputStream(entry), entry.getSize());
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream inputStream = getInputStream()) {
+                Files.copy(inputStream, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        private SizeLimitedInputStream(InputStream in, long size) {
+            super(in);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
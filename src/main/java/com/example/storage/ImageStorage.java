@@ -0,0 +1,53 @@
+package com.example.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend for product image files.
+ * Files are addressed by key (unique file name, without the uploads/ prefix).
+ */
+public interface ImageStorage {
+
+    /**
+     * Store file content under the key
+     *
+     * @param key Unique file name
+     * @param content File content, not closed by this method
+     * @param size Content length in bytes
+     * @param contentType MIME type
+     * @throws IOException if the file could not be stored
+     */
+    void store(String key, InputStream content, long size, String contentType) throws IOException;
+
+    /**
+     * Delete file. Missing file is not an error.
+     *
+     * @throws IOException if the file exists but could not be deleted
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Move file to another key (used for quarantine of orphaned files)
+     *
+     * @throws IOException if the file could not be moved
+     */
+    void move(String key, String targetKey) throws IOException;
+
+    /**
+     * Lazily list stored files (top level only). The stream must be closed.
+     *
+     * @throws IOException if listing could not be started
+     */
+    Stream<StoredObject> list() throws IOException;
+
+    /**
+     * URL the client can download the file from directly, bypassing the app servers.
+     *
+     * @return URL or empty if the file is served by the application itself
+     */
+    Optional<URI> getDirectUrl(String key);
+}
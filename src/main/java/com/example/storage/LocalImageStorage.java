@@ -0,0 +1,98 @@
+package com.example.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores images in a directory on the local disk.
+ * Files are served by the application (see WebConfig).
+ */
+@Slf4j
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path directory;
+
+    public LocalImageStorage(String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create upload directory: " + directory, e);
+        }
+    }
+
+    @Override
+    public void store(String key, InputStream content, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void move(String key, String targetKey) throws IOException {
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public Stream<StoredObject> list() throws IOException {
+        DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isRegularFile);
+
+        return StreamSupport.stream(stream.spliterator(), false)
+                .onClose(() -> {
+                    try {
+                        stream.close();
+                    } catch (IOException e) {
+                        log.warn("Could not close directory stream: {}", directory, e);
+                    }
+                })
+                .map(this::toStoredObject)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Optional<URI> getDirectUrl(String key) {
+        return Optional.empty();
+    }
+
+    private StoredObject toStoredObject(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new StoredObject(
+                    file.getFileName().toString(),
+                    attributes.size(),
+                    attributes.lastModifiedTime().toInstant()
+            );
+        } catch (IOException e) {
+            // Deleted between listing and reading attributes
+            return null;
+        }
+    }
+
+    /**
+     * Resolve key inside the storage directory, rejecting path traversal
+     */
+    private Path resolve(String key) throws IOException {
+        Path path = directory.resolve(key).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IOException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
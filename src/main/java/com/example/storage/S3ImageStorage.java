@@ -0,0 +1,213 @@
+package com.example.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stores images in an S3-compatible bucket (AWS S3, MinIO, ...).
+ * Clients download images directly from the bucket via presigned URLs
+ * or, for public buckets, via the configured public base URL.
+ */
+@Slf4j
+public class S3ImageStorage implements ImageStorage {
+
+    // S3 minimum part size (except the last part)
+    static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final String bucket;
+    private final String prefix;
+    private final long multipartThreshold;
+    private final long partSize;
+    private final Duration presignedUrlTtl;
+    private final String publicBaseUrl;
+
+    public S3ImageStorage(S3Client s3Client,
+                          S3Presigner s3Presigner,
+                          String bucket,
+                          String prefix,
+                          long multipartThreshold,
+                          long partSize,
+                          Duration presignedUrlTtl,
+                          String publicBaseUrl) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.presignedUrlTtl = presignedUrlTtl;
+        this.publicBaseUrl = publicBaseUrl == null || publicBaseUrl.isBlank()
+                ? null
+                : publicBaseUrl.replaceAll("/+$", "");
+    }
+
+    @Override
+    public void store(String key, InputStream content, long size, String contentType) throws IOException {
+        try {
+            if (size > multipartThreshold) {
+                storeMultipart(key, content, contentType);
+                return;
+            }
+
+            s3Client.putObject(
+                    PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey(key))
+                            .contentType(contentType)
+                            .contentLength(size)
+                            .build(),
+                    RequestBody.fromInputStream(content, size)
+            );
+        } catch (SdkException e) {
+            throw new IOException("Could not store object " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Upload in parts of partSize, so large files are never buffered completely in memory.
+     * The upload is aborted if any part fails, otherwise S3 keeps the uploaded parts.
+     */
+    private void storeMultipart(String key, InputStream content, String contentType) throws IOException {
+        String objectKey = objectKey(key);
+        String uploadId = s3Client.createMultipartUpload(
+                CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .build()
+        ).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[(int) partSize];
+            int partNumber = 1;
+            int read;
+
+            while ((read = content.readNBytes(buffer, 0, buffer.length)) > 0) {
+                UploadPartResponse response = s3Client.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) read)
+                                .build(),
+                        RequestBody.fromBytes(read == buffer.length ? buffer : Arrays.copyOf(buffer, read))
+                );
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+                partNumber++;
+            }
+
+            s3Client.completeMultipartUpload(
+                    CompleteMultipartUploadRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey)
+                            .uploadId(uploadId)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                            .build()
+            );
+        } catch (IOException | SdkException e) {
+            abortMultipart(objectKey, uploadId);
+            throw e instanceof IOException io ? io : new IOException("Multipart upload failed for " + key, e);
+        }
+    }
+
+    private void abortMultipart(String objectKey, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(
+                    AbortMultipartUploadRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey)
+                            .uploadId(uploadId)
+                            .build()
+            );
+        } catch (SdkException e) {
+            log.error("Could not abort multipart upload {} for {}", uploadId, objectKey, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            // S3 DELETE succeeds for missing keys
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (SdkException e) {
+            throw new IOException("Could not delete object " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void move(String key, String targetKey) throws IOException {
+        try {
+            s3Client.copyObject(
+                    CopyObjectRequest.builder()
+                            .sourceBucket(bucket)
+                            .sourceKey(objectKey(key))
+                            .destinationBucket(bucket)
+                            .destinationKey(objectKey(targetKey))
+                            .build()
+            );
+        } catch (SdkException e) {
+            throw new IOException("Could not move object " + key + ": " + e.getMessage(), e);
+        }
+        delete(key);
+    }
+
+    @Override
+    public Stream<StoredObject> list() throws IOException {
+        try {
+            // The paginator fetches pages of 1000 keys lazily.
+            // Delimiter "/" keeps nested keys (quarantine) out of the listing.
+            return s3Client.listObjectsV2Paginator(
+                            ListObjectsV2Request.builder()
+                                    .bucket(bucket)
+                                    .prefix(prefix)
+                                    .delimiter("/")
+                                    .build()
+                    )
+                    .contents()
+                    .stream()
+                    .map(object -> new StoredObject(
+                            object.key().substring(prefix.length()),
+                            object.size(),
+                            object.lastModified()
+                    ));
+        } catch (SdkException e) {
+            throw new IOException("Could not list bucket " + bucket + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<URI> getDirectUrl(String key) {
+        if (publicBaseUrl != null) {
+            return Optional.of(URI.create(publicBaseUrl + "/" + objectKey(key)));
+        }
+
+        return Optional.of(URI.create(
+                s3Presigner.presignGetObject(request -> request
+                        .signatureDuration(presignedUrlTtl)
+                        .getObjectRequest(get -> get.bucket(bucket).key(objectKey(key)))
+                ).url().toString()
+        ));
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+}
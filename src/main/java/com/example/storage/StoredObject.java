@@ -0,0 +1,17 @@
+package com.example.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Stored file metadata returned by ImageStorage.list()
+ */
+@Getter
+@AllArgsConstructor
+public class StoredObject {
+    private final String key;
+    private final long size;
+    private final Instant lastModified;
+}
@@ -0,0 +1,4 @@
+-- Incremented when a product is queued again (SimilarProductsRepository.markPending).
+-- The worker only stores neighbours computed for the generation it picked, so an
+-- edit during the computation keeps the product queued.
+ALTER TABLE similar_products ADD COLUMN generation INTEGER DEFAULT 0 NOT NULL;
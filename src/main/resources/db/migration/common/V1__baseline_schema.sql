@@ -0,0 +1,64 @@
+-- Schema as created by Hibernate before migrations (ddl-auto=update).
+-- Databases created that way are baselined at this version and continue with V2.
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    active     BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6),
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    username   VARCHAR(50)  NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role    VARCHAR(255) CHECK (role IN ('ROLE_USER', 'ROLE_ADMIN')),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Pooled ids (allocationSize 50), see Product and ProductImage
+CREATE SEQUENCE products_seq_id START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_images_seq_id START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE products (
+    id              BIGINT         NOT NULL PRIMARY KEY,
+    date_of_created TIMESTAMP(6),
+    description     VARCHAR(600)   NOT NULL,
+    price           NUMERIC(10, 2) NOT NULL,
+    title           VARCHAR(80)    NOT NULL,
+    user_id         BIGINT,
+    CONSTRAINT fk_products_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE product_images (
+    id               BIGINT NOT NULL PRIMARY KEY,
+    height           INTEGER,
+    image_directory  VARCHAR(500),
+    is_preview_image BOOLEAN,
+    placeholder      VARCHAR(2048),
+    width            INTEGER,
+    product_id       BIGINT,
+    CONSTRAINT fk_product_images_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE pending_file_deletions (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    attempts   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6),
+    path       VARCHAR(500) NOT NULL
+);
+
+CREATE TABLE user_deletion_jobs (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at       TIMESTAMP(6),
+    error            VARCHAR(500),
+    images_queued    BIGINT       NOT NULL,
+    products_deleted BIGINT       NOT NULL,
+    status           VARCHAR(20)  NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    total_products   BIGINT       NOT NULL,
+    updated_at       TIMESTAMP(6),
+    user_id          BIGINT       NOT NULL,
+    username         VARCHAR(255) NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Listing counters for profile headers, maintained by UserRepository.addListingCounters
+ALTER TABLE users ADD COLUMN product_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN image_count BIGINT DEFAULT 0 NOT NULL;
+
+-- Backfill from the existing listings
+UPDATE users SET
+    product_count = (SELECT COUNT(*) FROM products p WHERE p.user_id = users.id),
+    image_count = (SELECT COUNT(*) FROM product_images i JOIN products p ON p.id = i.product_id
+                   WHERE p.user_id = users.id);
@@ -0,0 +1,11 @@
+-- View counts of products, written in batches by ProductViewCounter.
+-- Kept out of the products row so counting views doesn't rewrite listings.
+CREATE TABLE product_views (
+    product_id BIGINT NOT NULL,
+    view_count BIGINT NOT NULL,
+    CONSTRAINT pk_product_views PRIMARY KEY (product_id),
+    CONSTRAINT fk_product_views_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- Catalog sorted by most viewed
+CREATE INDEX idx_product_views_view_count ON product_views (view_count);
@@ -0,0 +1,16 @@
+-- Precomputed "similar products" of each listing, filled by SimilarProductsWorker
+-- from Elasticsearch more_like_this. similar_ids is the comma separated
+-- neighbour list, best match first; computed_at is NULL until computed.
+CREATE TABLE similar_products (
+    product_id  BIGINT NOT NULL,
+    similar_ids VARCHAR(1000),
+    computed_at TIMESTAMP,
+    CONSTRAINT pk_similar_products PRIMARY KEY (product_id),
+    CONSTRAINT fk_similar_products_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- Pending and outdated neighbour lists for the worker
+CREATE INDEX idx_similar_products_computed_at ON similar_products (computed_at);
+
+-- Existing listings are computed by the worker after the upgrade
+INSERT INTO similar_products (product_id) SELECT id FROM products;
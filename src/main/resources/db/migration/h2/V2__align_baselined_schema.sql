@@ -0,0 +1,37 @@
+-- Same as on PostgreSQL for the H2 databases of the tests, no-op on a new database.
+-- H2 has no DO blocks: the unique constraints Hibernate created are dropped by the names
+-- PostgreSQL gives them, and product_images_seq_id is not moved past existing rows.
+
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS height INTEGER;
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS placeholder VARCHAR(2048);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS width INTEGER;
+
+CREATE TABLE IF NOT EXISTS pending_file_deletions (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    attempts   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6),
+    path       VARCHAR(500) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_deletion_jobs (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at       TIMESTAMP(6),
+    error            VARCHAR(500),
+    images_queued    BIGINT       NOT NULL,
+    products_deleted BIGINT       NOT NULL,
+    status           VARCHAR(20)  NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    total_products   BIGINT       NOT NULL,
+    updated_at       TIMESTAMP(6),
+    user_id          BIGINT       NOT NULL,
+    username         VARCHAR(255) NOT NULL
+);
+
+ALTER SEQUENCE products_seq_id INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_images_seq_id START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_username_key;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_username;
+ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username);
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_email;
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
@@ -0,0 +1,7 @@
+-- Same B-tree indexes as on PostgreSQL, H2 has no trigram indexes
+
+CREATE INDEX IF NOT EXISTS idx_products_user_id ON products (user_id);
+CREATE INDEX IF NOT EXISTS idx_product_images_product_id ON product_images (product_id);
+CREATE INDEX IF NOT EXISTS idx_user_roles_user_id ON user_roles (user_id);
+CREATE INDEX IF NOT EXISTS idx_products_date_of_created ON products (date_of_created);
+CREATE INDEX IF NOT EXISTS idx_product_images_image_directory ON product_images (image_directory);
@@ -0,0 +1,4 @@
+-- Same as on PostgreSQL
+
+CREATE INDEX IF NOT EXISTS idx_products_user_id_date ON products (user_id, date_of_created, id);
+DROP INDEX IF EXISTS idx_products_user_id;
@@ -0,0 +1,53 @@
+-- Brings a database baselined from ddl-auto=update to the V1 schema, no-op on a new database.
+
+-- Tables and columns of entities added since, ddl-auto=validate rejects the database without them
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS height INTEGER;
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS placeholder VARCHAR(2048);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS width INTEGER;
+
+CREATE TABLE IF NOT EXISTS pending_file_deletions (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    attempts   INTEGER      NOT NULL,
+    created_at TIMESTAMP(6),
+    path       VARCHAR(500) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_deletion_jobs (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at       TIMESTAMP(6),
+    error            VARCHAR(500),
+    images_queued    BIGINT       NOT NULL,
+    products_deleted BIGINT       NOT NULL,
+    status           VARCHAR(20)  NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    total_products   BIGINT       NOT NULL,
+    updated_at       TIMESTAMP(6),
+    user_id          BIGINT       NOT NULL,
+    username         VARCHAR(255) NOT NULL
+);
+
+-- Pooled sequences: products_seq_id had increment 1, product_images used an identity column
+ALTER SEQUENCE products_seq_id INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_images_seq_id START WITH 1 INCREMENT BY 50;
+SELECT setval('product_images_seq_id', COALESCE((SELECT MAX(id) FROM product_images), 0) + 1, false);
+ALTER TABLE product_images ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Unique constraints created by Hibernate (users_username_key, or UK<hash> on older versions)
+-- would sit next to the named ones, and UserService tells duplicates apart by constraint name
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'users'::regclass AND contype = 'u'
+          AND conname NOT IN ('uk_users_username', 'uk_users_email')
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+-- Unique constraints with the names UserService looks for
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_username;
+ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username);
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_email;
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
@@ -0,0 +1,24 @@
+-- CONCURRENTLY: building on a large table does not block writes, but it cannot run
+-- in a transaction (executeInTransaction=false in the .sql.conf file next to this script).
+-- If a build fails, drop the INVALID index before restarting.
+
+-- Foreign keys used in lookups, PostgreSQL does not index them by itself
+-- ProductRepository.findByOwnerId / countByOwnerId / findIdsByOwnerId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_user_id ON products (user_id);
+-- Lazy Product.images load and image deletes by product
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_product_id ON product_images (product_id);
+-- Eager User.roles load on every user lookup
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_user_id ON user_roles (user_id);
+
+-- Catalog sorted by newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_date_of_created ON products (date_of_created);
+
+-- ProductImageRepository.findExistingImageDirectories (orphan sweeper)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_image_directory ON product_images (image_directory);
+
+-- Admin user search: username/email ILIKE '%q%' (UserRepository.searchByUsernameOrEmail*)
+-- Trigram GIN indexes serve substring matches of 3+ characters without a sequential scan.
+-- The database user needs permission to CREATE EXTENSION pg_trgm (or create it once as superuser).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
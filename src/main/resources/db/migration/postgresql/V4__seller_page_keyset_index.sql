@@ -0,0 +1,8 @@
+-- Runs outside a transaction (CONCURRENTLY), see the .sql.conf file next to this script.
+-- Seller pages: cards of one owner, newest first, paged by the (date_of_created, id) keyset
+-- (ProductRepository.findCardsByOwnerId / findCardsByOwnerIdBefore). The index returns
+-- them in order, so a page reads page-size rows instead of sorting all of the seller's products.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_user_id_date ON products (user_id, date_of_created, id);
+
+-- Lookups by owner alone use the leading column of the new index
+DROP INDEX CONCURRENTLY IF EXISTS idx_products_user_id;
@@ -2,6 +2,8 @@ package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
 import com.example.models.User;
+import com.example.models.UserDeletionJob;
+import com.example.security.UserPrincipal;
 import com.example.models.enums.Role;
 import com.example.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,8 +12,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,6 +20,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -64,38 +65,36 @@ class AdminControllerTest {
     @WithMockUser(roles = "ADMIN")
     void adminDashboard_ShouldReturnDashboardPage() throws Exception {
         // Arrange
-        List<User> users = List.of(regularUser);
-        Page<User> userPage = new PageImpl<>(users);
-        when(userService.getUsersPage(anyInt(), anyInt())).thenReturn(userPage);
+        UserService.UserPage userPage = new UserService.UserPage(List.of(regularUser), false, true);
+        when(userService.getByUsernameOrEmailPage(isNull(), isNull(), isNull(), anyInt())).thenReturn(userPage);
 
         // Act & Assert
-        mockMvc.perform(get("/profile/admin/dashboard").with(user(adminUser)))
+        mockMvc.perform(get("/profile/admin/dashboard").with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-dashboard"))
                 .andExpect(model().attributeExists("users"))
-                .andExpect(model().attributeExists("currentPage"))
-                .andExpect(model().attributeExists("totalPages"));
+                .andExpect(model().attribute("nextCursor", 2L))
+                .andExpect(model().attributeDoesNotExist("previousCursor"));
 
-        verify(userService, times(1)).getUsersPage(0, 20);
+        verify(userService, times(1)).getByUsernameOrEmailPage(null, null, null, 20);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void adminDashboard_WithSearchQuery_ShouldReturnFilteredResults() throws Exception {
         // Arrange
-        List<User> users = List.of(regularUser);
-        Page<User> userPage = new PageImpl<>(users);
-        when(userService.getByUsernameOrEmailPage(anyString(), anyInt(), anyInt())).thenReturn(userPage);
+        UserService.UserPage userPage = new UserService.UserPage(List.of(regularUser), false, false);
+        when(userService.getByUsernameOrEmailPage(anyString(), isNull(), isNull(), anyInt())).thenReturn(userPage);
 
         // Act & Assert
         mockMvc.perform(get("/profile/admin/dashboard")
-                        .with(user(adminUser))
+                        .with(user(UserPrincipal.from(adminUser)))
                         .param("query", "user"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-dashboard"))
                 .andExpect(model().attribute("searchQuery", "user"));
 
-        verify(userService, times(1)).getByUsernameOrEmailPage("user", 0, 20);
+        verify(userService, times(1)).getByUsernameOrEmailPage("user", null, null, 20);
     }
 
     @Test
@@ -107,7 +106,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/2/toggle-ban")
                         .with(csrf())
-                        .with(user(adminUser)))
+                        .with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard"));
 
@@ -120,7 +119,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/1/toggle-ban")
                         .with(csrf())
-                        .with(user(adminUser)))
+                        .with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard?error=cannotBanSelf"));
 
@@ -136,7 +135,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/2/add-role")
                         .with(csrf())
-                        .with(user(adminUser))
+                        .with(user(UserPrincipal.from(adminUser)))
                         .param("role", "ROLE_ADMIN"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard"));
@@ -159,7 +158,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/2/remove-role")
                         .with(csrf())
-                        .with(user(adminUser))
+                        .with(user(UserPrincipal.from(adminUser)))
                         .param("role", "ROLE_ADMIN"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard"));
@@ -176,7 +175,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/2/remove-role")
                         .with(csrf())
-                        .with(user(adminUser))
+                        .with(user(UserPrincipal.from(adminUser)))
                         .param("role", "ROLE_USER"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard?error=cannotRemoveLastRole"));
@@ -193,7 +192,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/1/remove-role")
                         .with(csrf())
-                        .with(user(adminUser))
+                        .with(user(UserPrincipal.from(adminUser)))
                         .param("role", "ROLE_ADMIN"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard?error=cannotRemoveOwnAdminRole"));
@@ -203,16 +202,16 @@ class AdminControllerTest {
 
     @Test
     @WithMockUser(roles = "ADMIN")
-    void deleteUser_ShouldDeleteAndRedirect() throws Exception {
+    void deleteUser_ShouldScheduleDeletionAndRedirect() throws Exception {
         // Arrange
-        doNothing().when(userService).deleteUser(anyLong());
+        when(userService.deleteUser(anyLong())).thenReturn(new UserDeletionJob(2L, "user"));
 
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/2/delete")
                         .with(csrf())
-                        .with(user(adminUser)))
+                        .with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/profile/admin/dashboard"));
+                .andExpect(redirectedUrl("/profile/admin/dashboard?deletion"));
 
         verify(userService, times(1)).deleteUser(2L);
     }
@@ -223,7 +222,7 @@ class AdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/dashboard/user/1/delete")
                         .with(csrf())
-                        .with(user(adminUser)))
+                        .with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard?error=cannotDeleteSelf"));
 
@@ -234,25 +233,75 @@ class AdminControllerTest {
     @WithMockUser(roles = "USER")
     void adminDashboard_AsRegularUser_ShouldBeForbidden() throws Exception {
         // Act & Assert
-        mockMvc.perform(get("/profile/admin/dashboard").with(user(regularUser)))
+        mockMvc.perform(get("/profile/admin/dashboard").with(user(UserPrincipal.from(regularUser))))
                 .andExpect(status().isForbidden());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
-    void adminDashboard_WithPagination_ShouldReturnCorrectPage() throws Exception {
+    void adminDashboard_WithCursor_ShouldReturnPageAfterCursor() throws Exception {
         // Arrange
-        List<User> users = List.of(regularUser);
-        Page<User> userPage = new PageImpl<>(users);
-        when(userService.getUsersPage(anyInt(), anyInt())).thenReturn(userPage);
+        UserService.UserPage userPage = new UserService.UserPage(List.of(regularUser), true, false);
+        when(userService.getByUsernameOrEmailPage(isNull(), anyLong(), isNull(), anyInt())).thenReturn(userPage);
 
         // Act & Assert
         mockMvc.perform(get("/profile/admin/dashboard")
-                        .with(user(adminUser))
-                        .param("page", "1"))
+                        .with(user(UserPrincipal.from(adminUser)))
+                        .param("after", "1"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("admin-dashboard"));
+                .andExpect(view().name("admin-dashboard"))
+                .andExpect(model().attribute("previousCursor", 2L))
+                .andExpect(content().string(containsString("before=2")));
+
+        verify(userService, times(1)).getByUsernameOrEmailPage(null, 1L, null, 20);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkAction_ShouldApplyToSelectedUsers() throws Exception {
+        // Arrange
+        when(userService.applyBulkAction(anyList(), any(), any())).thenReturn(3);
+
+        // Act & Assert
+        mockMvc.perform(post("/profile/admin/dashboard/users/bulk")
+                        .with(csrf())
+                        .with(user(UserPrincipal.from(adminUser)))
+                        .param("ids", "2", "3", "4")
+                        .param("action", "REMOVE_ROLE")
+                        .param("role", "ROLE_ADMIN"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/profile/admin/dashboard?bulkUpdated=3"));
+
+        verify(userService, times(1))
+                .applyBulkAction(List.of(2L, 3L, 4L), UserService.BulkAction.REMOVE_ROLE, Role.ROLE_ADMIN);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkAction_BanIncludingSelf_ShouldReturnError() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/profile/admin/dashboard/users/bulk")
+                        .with(csrf())
+                        .with(user(UserPrincipal.from(adminUser)))
+                        .param("ids", "1", "2")
+                        .param("action", "BAN"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/profile/admin/dashboard?error=cannotBanSelf"));
+
+        verify(userService, never()).applyBulkAction(anyList(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkAction_WithoutSelection_ShouldReturnError() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/profile/admin/dashboard/users/bulk")
+                        .with(csrf())
+                        .with(user(UserPrincipal.from(adminUser)))
+                        .param("action", "UNBAN"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/profile/admin/dashboard?error=noUsersSelected"));
 
-        verify(userService, times(1)).getUsersPage(1, 20);
+        verifyNoInteractions(userService);
     }
-}
\ No newline at end of file
+}
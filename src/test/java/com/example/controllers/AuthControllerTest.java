@@ -2,6 +2,7 @@ package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
 import com.example.models.User;
+import com.example.security.PasswordHashingUnavailableException;
 import com.example.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -76,6 +77,25 @@ class AuthControllerTest {
         verify(userService, times(1)).registerUser(any(User.class));
     }
 
+    @Test
+    @WithMockUser
+    void registerUser_WhenPasswordHashingIsBusy_ShouldReturnError() throws Exception {
+        // Arrange
+        when(userService.registerUser(any(User.class)))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing queue is full", null));
+
+        // Act & Assert
+        mockMvc.perform(post("/register")
+                        .with(csrf())
+                        .param("username", "testuser")
+                        .param("email", "test@example.com")
+                        .param("password", "password123"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("register"))
+                .andExpect(model().attribute("errorRegistration",
+                        "Too many registrations right now, please try again in a moment"));
+    }
+
     @Test
     @WithMockUser
     void registerUser_WithExistingUsername_ShouldReturnError() throws Exception {
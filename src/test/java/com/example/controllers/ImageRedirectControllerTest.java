@@ -0,0 +1,58 @@
+package com.example.controllers;
+
+import com.example.configurations.SecurityConfig;
+import com.example.storage.ImageStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ImageRedirectController.class, properties = {
+        "marketplace.storage.type=s3",
+        "marketplace.storage.s3.presigned-url-ttl=PT10M"
+})
+@Import(SecurityConfig.class)
+class ImageRedirectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImageStorage imageStorage;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void redirectToImage_ShouldRedirectToDirectUrl() throws Exception {
+        // Arrange
+        when(imageStorage.getDirectUrl("a.jpg"))
+                .thenReturn(Optional.of(URI.create("http://localhost:9000/images/uploads/a.jpg?X-Amz-Signature=abc")));
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/a.jpg"))
+                .andExpect(status().isFound())
+                .andExpect(redirectedUrl("http://localhost:9000/images/uploads/a.jpg?X-Amz-Signature=abc"))
+                .andExpect(header().string("Cache-Control", "max-age=300, private"));
+    }
+
+    @Test
+    void redirectToImage_WhenNoDirectUrl_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(imageStorage.getDirectUrl("a.jpg")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/a.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.controllers;
+
+import com.example.configurations.SecurityConfig;
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
+import com.example.models.User;
+import com.example.models.enums.Role;
+import com.example.security.UserPrincipal;
+import com.example.services.ProductService;
+import com.example.services.ProductService.CardPage;
+import com.example.services.ProductViewCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductApiController.class)
+@Import(SecurityConfig.class)
+class ProductApiControllerTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 12, 30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private ProductViewCounter productViewCounter;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void products_ShouldReturnCardsAndNextCursorWithoutLogin() throws Exception {
+        // Arrange
+        ProductCard last = card(2L, 0L);
+        when(productService.getCards(null, null, 20)).thenReturn(new CardPage(List.of(card(3L, 0L), last), last));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[0].previewImageUrl").value("/uploads/3.jpg"))
+                .andExpect(jsonPath("$.items[0].previewPlaceholder").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value(cursor(CREATED + "_2")));
+    }
+
+    @Test
+    void products_WithCursor_ShouldRequestNextPage() throws Exception {
+        // Arrange
+        when(productService.getCards(CREATED, 2L, 20)).thenReturn(new CardPage(List.of(card(1L, 0L)), null));
+
+        // Act & Assert - no cursor on the last page
+        mockMvc.perform(get("/api/v1/products").param("cursor", cursor(CREATED + "_2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(productService, times(1)).getCards(CREATED, 2L, 20);
+    }
+
+    @Test
+    void products_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getCards(any(), any(), anyInt());
+    }
+
+    @Test
+    void products_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(productService.getCards(null, null, 20)).thenReturn(new CardPage(List.of(card(1L, 0L)), null));
+        String etag = mockMvc.perform(get("/api/v1/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void products_WhenAProductChanges_ShouldReturnNewETag() throws Exception {
+        // Arrange
+        when(productService.getCards(null, null, 20))
+                .thenReturn(new CardPage(List.of(card(1L, 0L)), null))
+                .thenReturn(new CardPage(List.of(card(1L, 1L)), null));
+        String before = mockMvc.perform(get("/api/v1/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        String after = mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void search_ShouldReturnCardsAndPageCursor() throws Exception {
+        // Arrange
+        when(productService.searchCards("camera", 0, 20))
+                .thenReturn(new PageImpl<>(List.of(card(7L, 0L)), PageRequest.of(0, 20), 25));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/search").param("q", " camera "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.nextCursor").value(cursor("1")));
+    }
+
+    @Test
+    void search_WithCursor_ShouldRequestThatPage() throws Exception {
+        // Arrange
+        when(productService.searchCards("camera", 1, 20))
+                .thenReturn(new PageImpl<>(List.of(card(8L, 0L)), PageRequest.of(1, 20), 21));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/search").param("q", "camera").param("cursor", cursor("1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(8))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void search_WithBlankQuery_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void productDetails_ShouldReturnDetailAndRecordView() throws Exception {
+        // Arrange
+        when(productService.getDetail(1L)).thenReturn(detail(3L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.title").value("Test Product"))
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(jsonPath("$.images[0].previewImage").value(true))
+                .andExpect(jsonPath("$.images[0].placeholder").doesNotExist());
+
+        verify(productViewCounter, times(1)).recordView(1L);
+    }
+
+    @Test
+    void productDetails_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(productService.getDetail(1L)).thenReturn(detail(3L));
+        String etag = mockMvc.perform(get("/api/v1/products/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Assert - an edit increments the version and changes the ETag
+        when(productService.getDetail(1L)).thenReturn(detail(4L));
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void productDetails_ByOwner_ShouldNotRecordView() throws Exception {
+        // Arrange
+        User owner = new User();
+        owner.setId(1L);
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.getRoles().add(Role.ROLE_USER);
+        when(productService.getDetail(1L)).thenReturn(detail(3L));
+
+        // Act
+        mockMvc.perform(get("/api/v1/products/1").with(user(UserPrincipal.from(owner))))
+                .andExpect(status().isOk());
+
+        // Assert
+        verify(productViewCounter, never()).recordView(anyLong());
+    }
+
+    @Test
+    void productDetails_WhenNotFound_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(productService.getDetail(anyLong())).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products/999"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(productViewCounter);
+    }
+
+    private ProductCard card(Long id, Long version) {
+        return new ProductCard(id, "Test Product " + id, "Test Description", new BigDecimal("99.99"), CREATED,
+                version, "uploads/" + id + ".jpg", 800, 600, null);
+    }
+
+    private ProductDetail detail(Long version) {
+        return new ProductDetail(1L, "Test Product", "Test Description for the product",
+                new BigDecimal("99.99"), CREATED, version, 1L, "seller",
+                List.of(new ProductDetail.Image(1L, "/uploads/1.jpg", 800, 600, null, true)));
+    }
+
+    private static String cursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes());
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
 import com.example.models.Product;
 import com.example.models.ProductImage;
 import com.example.models.User;
+import com.example.security.UserPrincipal;
 import com.example.models.enums.Role;
 import com.example.services.ProductService;
 import com.example.services.ProductService.SaveResult;
+import com.example.services.ProductViewCounter;
 import com.example.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,14 +21,17 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -47,10 +54,14 @@ class ProductControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private ProductViewCounter productViewCounter;
+
     @MockBean
     private PasswordEncoder passwordEncoder;
 
     private Product testProduct;
+    private ProductDetail testDetail;
     private User testUser;
 
     @BeforeEach
@@ -74,6 +85,11 @@ class ProductControllerTest {
         previewImage.setImageDirectory("uploads/test-image.jpg");
         previewImage.setPreviewImage(true);
         testProduct.setImages(List.of(previewImage));
+
+        testDetail = new ProductDetail(1L, "Test Product", "Test Description for the product",
+                new BigDecimal("99.99"), LocalDateTime.of(2025, 1, 1, 12, 0), 3L, 1L, "testuser",
+                List.of(new ProductDetail.Image(1L, "/uploads/test-image.jpg", 800, 600, null, true),
+                        new ProductDetail.Image(2L, "/uploads/test-image-2.jpg", 800, 600, null, false)));
     }
 
     @Test
@@ -94,6 +110,20 @@ class ProductControllerTest {
         verify(productService, times(1)).getProducts(0, PAGE_SIZE);
     }
 
+    @Test
+    void products_ShouldInlineImagePlaceholder() throws Exception {
+        // Arrange
+        testProduct.getPreviewImage().setPlaceholder("data:image/png;base64,iVBORw0KGgo=");
+        when(productService.getProducts(anyInt(), anyInt())).thenReturn(new PageImpl<>(List.of(testProduct)));
+
+        // Act & Assert
+        mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "background-image: url(&#39;data:image/png;base64,iVBORw0KGgo=&#39;)")))
+                .andExpect(content().string(containsString("loading=\"eager\"")));
+    }
+
     @Test
     void products_WithSearchQuery_ShouldReturnSearchResults() throws Exception {
         // Arrange
@@ -110,6 +140,22 @@ class ProductControllerTest {
         verify(productService, times(1)).searchProducts("test", 0, PAGE_SIZE);
     }
 
+    @Test
+    void products_SortedByViews_ShouldReturnMostViewed() throws Exception {
+        // Arrange
+        when(productService.getMostViewedProducts(anyInt(), anyInt())).thenReturn(new PageImpl<>(List.of(testProduct)));
+
+        // Act & Assert
+        mockMvc.perform(get("/").param("sort", "views"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("products"))
+                .andExpect(model().attribute("sort", "views"))
+                .andExpect(content().string(containsString("sort=views")));
+
+        verify(productService, times(1)).getMostViewedProducts(0, PAGE_SIZE);
+        verify(productService, never()).getProducts(anyInt(), anyInt());
+    }
+
     @Test
     @WithMockUser
     void addProduct_GET_ShouldReturnAddProductPage() throws Exception {
@@ -133,7 +179,7 @@ class ProductControllerTest {
         mockMvc.perform(multipart("/product/add")
                         .file(previewImage)
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("title", "New Product")
                         .param("description", "This is a long description for the product")
                         .param("price", "99.99"))
@@ -158,7 +204,7 @@ class ProductControllerTest {
         mockMvc.perform(multipart("/product/add")
                         .file(emptyPreviewImage)
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("title", "New Product")
                         .param("description", "This is a long description for the product")
                         .param("price", "99.99"))
@@ -177,7 +223,7 @@ class ProductControllerTest {
         mockMvc.perform(multipart("/product/add")
                         .file(previewImage)
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("title", "")
                         .param("description", "Short")
                         .param("price", "99.99"))
@@ -191,79 +237,129 @@ class ProductControllerTest {
     @Test
     void productDetails_ShouldReturnDetailsPage() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
+        when(productService.getDetail(anyLong())).thenReturn(testDetail);
 
         // Act & Assert
         mockMvc.perform(get("/product/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("product-details"))
-                .andExpect(model().attributeExists("product"))
-                .andExpect(model().attributeExists("isOwner"));
+                .andExpect(model().attribute("product", testDetail))
+                .andExpect(model().attribute("isOwner", false))
+                .andExpect(content().string(containsString("/seller/1")))
+                .andExpect(content().string(containsString("testuser")));
+
+        verify(productService, times(1)).getDetail(1L);
+        verify(productService, never()).getById(anyLong());
+    }
+
+    @Test
+    void productDetails_ShouldRecordViewAndShowCount() throws Exception {
+        // Arrange
+        when(productService.getDetail(anyLong())).thenReturn(testDetail);
+        when(productViewCounter.getViewCount(1L)).thenReturn(42L);
+
+        // Act & Assert
+        mockMvc.perform(get("/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("views", 42L))
+                .andExpect(content().string(containsString("42 views")));
+
+        verify(productViewCounter, times(1)).recordView(1L);
+    }
+
+    @Test
+    void productDetails_ShouldShowSimilarProducts() throws Exception {
+        // Arrange
+        ProductCard similar = new ProductCard(5L, "Similar camera", "Description", new BigDecimal("80.00"),
+                LocalDateTime.of(2025, 1, 2, 12, 0), 0L, "uploads/similar.jpg", 800, 600, null);
+        when(productService.getDetail(anyLong())).thenReturn(testDetail);
+        when(productService.getSimilarProducts(1L)).thenReturn(List.of(similar));
+
+        // Act & Assert
+        mockMvc.perform(get("/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("similarProducts", List.of(similar)))
+                .andExpect(content().string(containsString("Similar products")))
+                .andExpect(content().string(containsString("/product/5")));
+    }
+
+    @Test
+    @WithMockUser
+    void productDetails_AsOwner_ShouldNotRecordView() throws Exception {
+        // Arrange
+        when(productService.getDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
 
-        verify(productService, times(1)).getById(1L);
+        // Act & Assert
+        mockMvc.perform(get("/product/1")
+                        .with(user(UserPrincipal.from(testUser))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("isOwner", true));
+
+        verify(productViewCounter, never()).recordView(anyLong());
     }
 
     @Test
     void productDetails_WhenProductNotFound_ShouldRedirect() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(null);
+        when(productService.getDetail(anyLong())).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/product/999"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/"));
 
-        verify(productService, times(1)).getById(999L);
+        verify(productService, times(1)).getDetail(999L);
     }
 
     @Test
     @WithMockUser
     void productEdit_GET_AsOwner_ShouldReturnEditPage() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
-        when(productService.isOwner(any(), any())).thenReturn(true);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(get("/product/1/edit")
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("product-edit"))
                 .andExpect(model().attributeExists("product"));
 
-        verify(productService, times(1)).getById(1L);
-        verify(productService, times(1)).isOwner(any(), any());
+        verify(productService, times(1)).getCurrentDetail(1L);
+        verify(productService, times(1)).isOwner(any(ProductDetail.class), any());
     }
 
     @Test
     @WithMockUser
     void productEdit_GET_AsNonOwner_ShouldRedirect() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
-        when(productService.isOwner(any(), any())).thenReturn(false);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(get("/product/1/edit")
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/product/1"));
 
-        verify(productService, times(1)).getById(1L);
-        verify(productService, times(1)).isOwner(any(), any());
+        verify(productService, times(1)).getCurrentDetail(1L);
+        verify(productService, times(1)).isOwner(any(ProductDetail.class), any());
     }
 
     @Test
     @WithMockUser
     void productEdit_POST_WithValidData_ShouldRedirectToDetails() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
-        when(productService.isOwner(any(), any())).thenReturn(true);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
         when(productService.updateProduct(anyLong(), any(), any(), any(), any()))
                 .thenReturn(SaveResult.success());
 
         // Act & Assert
         mockMvc.perform(multipart("/product/1/edit")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("title", "Updated Product")
                         .param("description", "Updated description for the product")
                         .param("price", "149.99"))
@@ -273,18 +369,67 @@ class ProductControllerTest {
         verify(productService, times(1)).updateProduct(anyLong(), any(), any(), any(), any());
     }
 
+    @Test
+    @WithMockUser
+    void productEdit_POST_FromStaleForm_ShouldShowConflictWithCurrentListing() throws Exception {
+        // Arrange
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
+        when(productService.updateProduct(anyLong(), any(), any(), any(), any()))
+                .thenReturn(SaveResult.conflict("Review the current listing and save again."));
+
+        // Act & Assert - the form is shown again with the current version
+        mockMvc.perform(multipart("/product/1/edit")
+                        .with(csrf())
+                        .with(user(UserPrincipal.from(testUser)))
+                        .param("title", "Updated Product")
+                        .param("description", "Updated description for the product")
+                        .param("price", "149.99")
+                        .param("version", "2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("product-edit"))
+                .andExpect(model().attribute("errorConflict", "Review the current listing and save again."))
+                .andExpect(model().attribute("product", testDetail))
+                .andExpect(content().string(containsString("name=\"version\" value=\"3\"")));
+
+        verify(productService).updateProduct(eq(1L), any(), any(), any(),
+                argThat(product -> Long.valueOf(2L).equals(product.getVersion())));
+    }
+
+    @Test
+    @WithMockUser
+    void productEdit_POST_WhenConcurrentEditCommitted_ShouldShowConflict() throws Exception {
+        // Arrange
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
+        when(productService.updateProduct(anyLong(), any(), any(), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/product/1/edit")
+                        .with(csrf())
+                        .with(user(UserPrincipal.from(testUser)))
+                        .param("title", "Updated Product")
+                        .param("description", "Updated description for the product")
+                        .param("price", "149.99")
+                        .param("version", "3"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("product-edit"))
+                .andExpect(model().attributeExists("errorConflict"));
+    }
+
     @Test
     @WithMockUser
     void productDelete_AsOwner_ShouldDeleteAndRedirect() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
-        when(productService.isOwner(any(), any())).thenReturn(true);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(true);
         doNothing().when(productService).deleteProductById(anyLong());
 
         // Act & Assert
         mockMvc.perform(post("/product/1/delete")
                         .with(csrf())
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/products"));
 
@@ -295,13 +440,13 @@ class ProductControllerTest {
     @WithMockUser
     void productDelete_AsNonOwner_ShouldNotDelete() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(testProduct);
-        when(productService.isOwner(any(), any())).thenReturn(false);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(testDetail);
+        when(productService.isOwner(any(ProductDetail.class), any())).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(post("/product/1/delete")
                         .with(csrf())
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/product/1"));
 
@@ -312,12 +457,12 @@ class ProductControllerTest {
     @WithMockUser
     void productDelete_WhenProductNotFound_ShouldRedirect() throws Exception {
         // Arrange
-        when(productService.getById(anyLong())).thenReturn(null);
+        when(productService.getCurrentDetail(anyLong())).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(post("/product/999/delete")
                         .with(csrf())
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/"));
 
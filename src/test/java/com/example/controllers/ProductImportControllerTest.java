@@ -0,0 +1,108 @@
+package com.example.controllers;
+
+import com.example.configurations.SecurityConfig;
+import com.example.models.User;
+import com.example.models.enums.Role;
+import com.example.security.UserPrincipal;
+import com.example.services.ProductImportService;
+import com.example.services.ProductImportService.ImportResult;
+import com.example.services.ProductImportService.RowError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductImportController.class)
+@Import(SecurityConfig.class)
+class ProductImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.getRoles().add(Role.ROLE_USER);
+    }
+
+    @Test
+    void importForm_ShouldRenderForm() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/import").with(user(UserPrincipal.from(testUser))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("product-import"))
+                .andExpect(content().string(containsString("enctype=\"multipart/form-data\"")));
+    }
+
+    @Test
+    void importForm_WhenNotLoggedIn_ShouldRedirectToLogin() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/import"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+
+    @Test
+    void importProducts_ShouldShowImportedCountAndRowErrors() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv", "title".getBytes());
+        MockMultipartFile images = new MockMultipartFile("images", "images.zip", "application/zip", new byte[]{1});
+        ImportResult result = mock(ImportResult.class);
+        when(result.getImported()).thenReturn(12);
+        when(result.getFailed()).thenReturn(1);
+        when(result.getErrors()).thenReturn(List.of(new RowError(7, "Invalid price: 12,50")));
+        when(productImportService.importProducts(any(), any(), eq(1L))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/product/import")
+                        .file(file)
+                        .file(images)
+                        .with(user(UserPrincipal.from(testUser)))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("product-import"))
+                .andExpect(content().string(containsString("12</span> products imported")))
+                .andExpect(content().string(containsString("Invalid price: 12,50")));
+
+        verify(productImportService).importProducts(
+                argThat(f -> "products.csv".equals(f.getOriginalFilename())),
+                argThat(f -> "images.zip".equals(f.getOriginalFilename())),
+                eq(1L));
+    }
+
+    @Test
+    void importProducts_WithoutCsrf_ShouldBeForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(multipart("/product/import")
+                        .with(user(UserPrincipal.from(testUser))))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(productImportService);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
 import com.example.models.User;
+import com.example.security.UserPrincipal;
 import com.example.models.enums.Role;
 import com.example.services.ProductSearchService;
 import org.junit.jupiter.api.BeforeEach;
@@ -55,7 +56,7 @@ class SearchAdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/search/reindex")
                         .with(csrf())
-                        .with(user(adminUser)))
+                        .with(user(UserPrincipal.from(adminUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile/admin/dashboard?reindexed=true"));
 
@@ -74,7 +75,7 @@ class SearchAdminControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/admin/search/reindex")
                         .with(csrf())
-                        .with(user(regularUser)))
+                        .with(user(UserPrincipal.from(regularUser))))
                 .andExpect(status().isForbidden());
 
         verify(searchService, never()).reindexAllProducts();
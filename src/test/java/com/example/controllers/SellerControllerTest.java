@@ -1,13 +1,10 @@
 package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
-import com.example.models.Product;
-import com.example.models.ProductImage;
-import com.example.models.User;
-import com.example.models.enums.Role;
-import com.example.services.ProductService;
-import com.example.services.UserService;
-import org.junit.jupiter.api.BeforeEach;
+import com.example.dto.ProductCard;
+import com.example.services.ProductService.CardPage;
+import com.example.services.SellerService;
+import com.example.services.SellerService.SellerPage;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -17,9 +14,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,120 +28,93 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Import(SecurityConfig.class)
 class SellerControllerTest {
 
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 12, 30);
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
-    private UserService userService;
-
-    @MockBean
-    private ProductService productService;
+    private SellerService sellerService;
 
     @MockBean
     private PasswordEncoder passwordEncoder;
 
-    private User sellerUser;
-    private Product testProduct;
-
-    @BeforeEach
-    void setUp() {
-        sellerUser = new User();
-        sellerUser.setId(1L);
-        sellerUser.setUsername("seller");
-        sellerUser.setEmail("seller@example.com");
-        sellerUser.getRoles().add(Role.ROLE_USER);
-
-        testProduct = new Product();
-        testProduct.setId(1L);
-        testProduct.setTitle("Test Product");
-        testProduct.setDescription("Test Description");
-        testProduct.setPrice(new BigDecimal("99.99"));
-        testProduct.setOwner(sellerUser);
-
-        // Add preview image
-        ProductImage previewImage = new ProductImage();
-        previewImage.setId(1L);
-        previewImage.setImageDirectory("uploads/test-image.jpg");
-        previewImage.setPreviewImage(true);
-        testProduct.setImages(List.of(previewImage));
-    }
-
     @Test
     void sellerProfile_ShouldReturnSellerProfilePage() throws Exception {
         // Arrange
-        List<Product> products = List.of(testProduct);
-        when(userService.getById(anyLong())).thenReturn(sellerUser);
-        when(productService.getProductsByOwnerId(anyLong())).thenReturn(products);
+        List<ProductCard> cards = List.of(card(1L));
+        SellerPage page = new SellerPage(1L, "seller", 1, new CardPage(cards, null), true);
+        when(sellerService.getSellerPage(1L, null, null)).thenReturn(page);
 
         // Act & Assert
         mockMvc.perform(get("/seller/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile-seller"))
-                .andExpect(model().attributeExists("seller"))
-                .andExpect(model().attributeExists("products"))
-                .andExpect(model().attribute("seller", sellerUser))
-                .andExpect(model().attribute("products", products));
+                .andExpect(model().attribute("seller", page))
+                .andExpect(model().attribute("products", cards))
+                .andExpect(content().string(containsString("Test Product 1")))
+                .andExpect(content().string(not(containsString("Older listings"))));
 
-        verify(userService, times(1)).getById(1L);
-        verify(productService, times(1)).getProductsByOwnerId(1L);
+        verify(sellerService, times(1)).getSellerPage(1L, null, null);
     }
 
     @Test
     void sellerProfile_WhenSellerNotFound_ShouldRedirect() throws Exception {
         // Arrange
-        when(userService.getById(anyLong())).thenReturn(null);
+        when(sellerService.getSellerPage(anyLong(), any(), any())).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/seller/999"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/"));
 
-        verify(userService, times(1)).getById(999L);
-        verify(productService, never()).getProductsByOwnerId(anyLong());
+        verify(sellerService, times(1)).getSellerPage(999L, null, null);
     }
 
     @Test
     void sellerProfile_WithNoProducts_ShouldReturnEmptyList() throws Exception {
         // Arrange
-        when(userService.getById(anyLong())).thenReturn(sellerUser);
-        when(productService.getProductsByOwnerId(anyLong())).thenReturn(List.of());
+        when(sellerService.getSellerPage(1L, null, null))
+                .thenReturn(new SellerPage(1L, "seller", 0, new CardPage(List.of(), null), true));
 
         // Act & Assert
         mockMvc.perform(get("/seller/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile-seller"))
-                .andExpect(model().attribute("products", List.of()));
-
-        verify(productService, times(1)).getProductsByOwnerId(1L);
+                .andExpect(model().attribute("products", List.of()))
+                .andExpect(content().string(containsString("hasn't created any products yet")));
     }
 
     @Test
-    void sellerProfile_WithMultipleProducts_ShouldReturnAllProducts() throws Exception {
+    void sellerProfile_WithMoreProducts_ShouldLinkToOlderListings() throws Exception {
         // Arrange
-        Product product2 = new Product();
-        product2.setId(2L);
-        product2.setTitle("Another Product");
-        product2.setDescription("Another Description");
-        product2.setPrice(new BigDecimal("149.99"));
-        product2.setOwner(sellerUser);
-
-        // Add preview image to product2
-        ProductImage previewImage2 = new ProductImage();
-        previewImage2.setId(2L);
-        previewImage2.setImageDirectory("uploads/test-image-2.jpg");
-        previewImage2.setPreviewImage(true);
-        product2.setImages(List.of(previewImage2));
-
-        List<Product> products = List.of(testProduct, product2);
-        when(userService.getById(anyLong())).thenReturn(sellerUser);
-        when(productService.getProductsByOwnerId(anyLong())).thenReturn(products);
+        ProductCard last = card(2L);
+        when(sellerService.getSellerPage(1L, null, null))
+                .thenReturn(new SellerPage(1L, "seller", 30, new CardPage(List.of(card(3L), last), last), true));
 
         // Act & Assert
         mockMvc.perform(get("/seller/1"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("profile-seller"))
-                .andExpect(model().attribute("products", products));
+                .andExpect(content().string(containsString("30")))
+                .andExpect(content().string(containsString("/seller/1?before=2025-01-01T12:30&amp;beforeId=2")));
+    }
+
+    @Test
+    void sellerProfile_WithKeyset_ShouldRequestOlderPage() throws Exception {
+        // Arrange
+        when(sellerService.getSellerPage(1L, CREATED, 2L))
+                .thenReturn(new SellerPage(1L, "seller", 30, new CardPage(List.of(card(1L)), null), false));
+
+        // Act & Assert
+        mockMvc.perform(get("/seller/1").param("before", "2025-01-01T12:30").param("beforeId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Newest")));
+
+        verify(sellerService, times(1)).getSellerPage(1L, CREATED, 2L);
+    }
 
-        verify(productService, times(1)).getProductsByOwnerId(1L);
+    private ProductCard card(Long id) {
+        return new ProductCard(id, "Test Product " + id, "Test Description", new BigDecimal("99.99"), CREATED,
+                0L, "uploads/test-image-" + id + ".jpg", 800, 600, null);
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,15 @@
 package com.example.controllers;
 
 import com.example.configurations.SecurityConfig;
+import com.example.dto.ListingStats;
+import com.example.dto.ProductCard;
 import com.example.dto.UpdateProfileDto;
-import com.example.models.Product;
-import com.example.models.ProductImage;
 import com.example.models.User;
+import com.example.models.UserDeletionJob;
+import com.example.security.UserPrincipal;
 import com.example.models.enums.Role;
 import com.example.services.ProductService;
+import com.example.services.ProductService.CardPage;
 import com.example.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,8 +22,10 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -46,7 +51,7 @@ class UserControllerTest {
     private PasswordEncoder passwordEncoder;
 
     private User testUser;
-    private Product testProduct;
+    private ProductCard testCard;
 
     @BeforeEach
     void setUp() {
@@ -57,25 +62,16 @@ class UserControllerTest {
         testUser.setPassword("encodedPassword");
         testUser.getRoles().add(Role.ROLE_USER);
 
-        testProduct = new Product();
-        testProduct.setId(1L);
-        testProduct.setTitle("Test Product");
-        testProduct.setDescription("Test Description");
-        testProduct.setPrice(new BigDecimal("99.99"));
-        testProduct.setOwner(testUser);
-
-        // Add preview image
-        ProductImage previewImage = new ProductImage();
-        previewImage.setId(1L);
-        previewImage.setImageDirectory("uploads/test-image.jpg");
-        previewImage.setPreviewImage(true);
-        testProduct.setImages(List.of(previewImage));
+        testCard = new ProductCard(1L, "Test Product", "Test Description", new BigDecimal("99.99"),
+                LocalDateTime.of(2025, 1, 1, 10, 0), 0L, "uploads/test-image.jpg", 800, 600, null);
     }
 
     @Test
     @WithMockUser
     void profile_ShouldReturnProfilePage() throws Exception {
-        mockMvc.perform(get("/profile").with(user(testUser)))
+        when(userService.getById(1L)).thenReturn(testUser);
+
+        mockMvc.perform(get("/profile").with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile"))
                 .andExpect(model().attributeExists("user"));
@@ -84,7 +80,9 @@ class UserControllerTest {
     @Test
     @WithMockUser
     void editProfile_GET_ShouldReturnEditPage() throws Exception {
-        mockMvc.perform(get("/profile/edit").with(user(testUser)))
+        when(userService.getById(1L)).thenReturn(testUser);
+
+        mockMvc.perform(get("/profile/edit").with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile-edit"))
                 .andExpect(model().attributeExists("updateProfileDto"))
@@ -109,7 +107,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "newusername")
                         .param("email", "newemail@example.com")
                         .param("password", "newpassword"))
@@ -138,7 +136,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "newusername")
                         .param("email", "newemail@example.com")
                         .param("password", ""))
@@ -157,7 +155,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "newusername")
                         .param("email", "newemail@example.com"))
                 .andExpect(status().is3xxRedirection())
@@ -175,7 +173,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "ab")
                         .param("email", "invalid-email"))
                 .andExpect(status().isOk())
@@ -194,7 +192,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "testuser")
                         .param("email", "test@example.com")
                         .param("password", "short"))
@@ -215,7 +213,7 @@ class UserControllerTest {
         // Act & Assert
         mockMvc.perform(post("/profile/update")
                         .with(csrf())
-                        .with(user(testUser))
+                        .with(user(UserPrincipal.from(testUser)))
                         .param("username", "existinguser")
                         .param("email", "test@example.com")
                         .param("password", ""))
@@ -228,12 +226,12 @@ class UserControllerTest {
     @WithMockUser
     void deleteProfile_ShouldDeleteAndRedirect() throws Exception {
         // Arrange
-        doNothing().when(userService).deleteUser(anyLong());
+        when(userService.deleteUser(anyLong())).thenReturn(new UserDeletionJob(1L, "testuser"));
 
         // Act & Assert
         mockMvc.perform(post("/profile/delete")
                         .with(csrf())
-                        .with(user(testUser)))
+                        .with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/register?accountDeleted"));
 
@@ -242,33 +240,57 @@ class UserControllerTest {
 
     @Test
     @WithMockUser
-    void myProducts_ShouldReturnMyProductsPage() throws Exception {
+    void myProducts_ShouldReturnMyProductsPageWithCounters() throws Exception {
         // Arrange
-        List<Product> products = List.of(testProduct);
-        when(productService.getProductsByOwnerId(anyLong())).thenReturn(products);
+        CardPage page = new CardPage(List.of(testCard), null);
+        when(productService.getCardsByOwnerId(1L, null, null, 20)).thenReturn(page);
+        when(userService.getListingStats(1L)).thenReturn(new ListingStats(1, 3));
 
         // Act & Assert
-        mockMvc.perform(get("/profile/products").with(user(testUser)))
+        mockMvc.perform(get("/profile/products").with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile-products"))
-                .andExpect(model().attributeExists("products"))
-                .andExpect(model().attributeExists("user"));
-
-        verify(productService, times(1)).getProductsByOwnerId(1L);
+                .andExpect(model().attribute("products", List.of(testCard)))
+                .andExpect(model().attribute("firstPage", true))
+                .andExpect(model().attributeExists("stats"))
+                .andExpect(model().attributeExists("user"))
+                .andExpect(content().string(containsString("3")))
+                .andExpect(content().string(containsString("images")));
+
+        verify(productService, times(1)).getCardsByOwnerId(1L, null, null, 20);
+        verify(productService, never()).getProductsByOwnerId(anyLong());
     }
 
     @Test
     @WithMockUser
     void myProducts_WithNoProducts_ShouldReturnEmptyList() throws Exception {
         // Arrange
-        when(productService.getProductsByOwnerId(anyLong())).thenReturn(List.of());
+        when(productService.getCardsByOwnerId(1L, null, null, 20)).thenReturn(new CardPage(List.of(), null));
+        when(userService.getListingStats(1L)).thenReturn(ListingStats.EMPTY);
 
         // Act & Assert
-        mockMvc.perform(get("/profile/products").with(user(testUser)))
+        mockMvc.perform(get("/profile/products").with(user(UserPrincipal.from(testUser))))
                 .andExpect(status().isOk())
                 .andExpect(view().name("profile-products"))
-                .andExpect(model().attribute("products", List.of()));
+                .andExpect(model().attribute("products", List.of()))
+                .andExpect(content().string(containsString("haven't created any products yet")));
+    }
 
-        verify(productService, times(1)).getProductsByOwnerId(1L);
+    @Test
+    @WithMockUser
+    void myProducts_WithKeyset_ShouldReturnOlderPage() throws Exception {
+        // Arrange
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 12, 30);
+        when(productService.getCardsByOwnerId(1L, before, 5L, 20))
+                .thenReturn(new CardPage(List.of(testCard), testCard));
+        when(userService.getListingStats(1L)).thenReturn(new ListingStats(45, 90));
+
+        // Act & Assert
+        mockMvc.perform(get("/profile/products").param("before", "2025-01-01T12:30").param("beforeId", "5")
+                        .with(user(UserPrincipal.from(testUser))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(content().string(containsString("Newest")))
+                .andExpect(content().string(containsString("/profile/products?before=2025-01-01T10:00&amp;beforeId=1")));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.example.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.flywaydb.core.api.output.ValidateResult;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The migration scripts in db/migration run by Flyway on H2,
+ * with the same locations and baseline settings as application.properties
+ */
+class SchemaMigrationsTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private Flyway flyway;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        flyway = Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void migrate_OnEmptyDatabase_ShouldApplyAllVersionsInOrder() {
+        // Act
+        MigrateResult result = flyway.migrate();
+
+        // Assert - common V1 and V5 to V10 and the H2 V2 to V4
+        assertEquals(10, result.migrationsExecuted);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), versions());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+    }
+
+    @Test
+    void migrate_Twice_ShouldNotApplyAgain() {
+        // Arrange
+        flyway.migrate();
+
+        // Act
+        MigrateResult result = flyway.migrate();
+
+        // Assert
+        assertEquals(0, result.migrationsExecuted);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), versions());
+    }
+
+    @Test
+    void migrate_WithExistingSchemaWithoutHistory_ShouldBaselineAndApplyNewerVersions() {
+        // Arrange - tables created outside the migrations, e.g. by ddl-auto=update
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__baseline_schema.sql"))
+                .execute(database);
+
+        // Act
+        MigrateResult result = flyway.migrate();
+
+        // Assert - V1 is recorded as baseline without running it
+        assertEquals(9, result.migrationsExecuted);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), versions());
+        assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                "SELECT \"type\" FROM \"flyway_schema_history\" WHERE \"version\" = '1'", String.class));
+    }
+
+    @Test
+    void migrate_WithSchemaFromDdlAutoUpdate_ShouldMatchTheEntities() {
+        // Arrange - schema of a database created before the migrations, baselined at V1
+        new ResourceDatabasePopulator(new ClassPathResource("db/ddl_auto_update_baseline.sql"))
+                .execute(database);
+
+        // Act
+        MigrateResult result = flyway.migrate();
+
+        // Assert - ddl-auto=validate accepts it, only the named unique constraints are left
+        assertEquals(9, result.migrationsExecuted);
+        assertDoesNotThrow(this::validateEntities);
+        assertEquals(List.of("UK_USERS_EMAIL", "UK_USERS_USERNAME"), jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_NAME = 'USERS' AND CONSTRAINT_TYPE = 'UNIQUE' ORDER BY CONSTRAINT_NAME",
+                String.class));
+    }
+
+    @Test
+    void validate_WhenAppliedScriptChanged_ShouldFail() {
+        // Arrange
+        flyway.migrate();
+        jdbcTemplate.update("UPDATE \"flyway_schema_history\" SET \"checksum\" = \"checksum\" + 1 WHERE \"version\" = '3'");
+
+        // Act
+        ValidateResult result = flyway.validateWithResult();
+
+        // Assert - startup (migrate) fails on the same check
+        assertFalse(result.validationSuccessful);
+        assertTrue(result.invalidMigrations.stream().anyMatch(m -> "3".equals(m.version)));
+        assertThrows(FlywayException.class, () -> flyway.migrate());
+    }
+
+    private void validateEntities() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(database);
+        factory.setPackagesToScan("com.example.models");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                AvailableSettings.HBM2DDL_AUTO, "validate",
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName()));
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+
+    private List<String> versions() {
+        return jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" ORDER BY \"installed_rank\"",
+                String.class);
+    }
+}
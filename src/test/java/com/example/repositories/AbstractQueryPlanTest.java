@@ -0,0 +1,201 @@
+package com.example.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * EXPLAIN of the SQL Hibernate generates for the hot repository methods, on seeded data.
+ * The statements and their parameters are captured from the DataSource (QueryCapture)
+ * while the repository method runs, so a changed JPQL query or mapping is checked as well.
+ * A test fails when the table is read with a full scan, e.g. after an index was dropped
+ * from the migrations or a query stopped matching it.
+ * <p>
+ * Only the PostgreSQL run (PostgresQueryPlanTest, mvn test -Pbenchmark with
+ * BENCHMARK_DATABASE_URL) enforces the indexes. H2 indexes foreign key columns by itself,
+ * so H2QueryPlanTest in the default build cannot notice a missing index on
+ * products.user_id, product_images.product_id or user_roles.user_id.
+ * <p>
+ * Transactional here as well: test methods declared in this class do not
+ * pick up the @DataJpaTest transaction of the subclass, seeded rows would be committed.
+ */
+@Transactional
+@Import(QueryCapture.class)
+abstract class AbstractQueryPlanTest {
+
+    private static final int USERS = 50;
+    private static final int PRODUCTS_PER_USER = 40;
+    private static final int IMAGES_PER_PRODUCT = 3;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private QueryCapture queryCapture;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed();
+        afterSeed(jdbcTemplate);
+    }
+
+    /**
+     * Hook to refresh planner statistics after seeding
+     */
+    protected void afterSeed(JdbcTemplate jdbcTemplate) {
+    }
+
+    @Test
+    void findByOwnerId_ShouldUseIndex() {
+        assertNoFullScan("products", () -> productRepository.findByOwnerId(7L));
+    }
+
+    @Test
+    void countByOwnerId_ShouldUseIndex() {
+        assertNoFullScan("products", () -> productRepository.countByOwnerId(7L));
+    }
+
+    @Test
+    void catalogNewestFirst_ShouldUseIndex() {
+        assertNoFullScan("products", () -> productRepository.findCards(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void sellerPageKeyset_ShouldUseIndex() {
+        assertNoFullScan("products", () -> productRepository.findCardsByOwnerIdBefore(
+                7L, LocalDateTime.now(), 300L, PageRequest.of(0, 21)));
+    }
+
+    @Test
+    void productImagesLoad_ShouldUseIndex() {
+        assertNoFullScan("product_images",
+                () -> productRepository.findById(100L).orElseThrow().getImages().size());
+    }
+
+    @Test
+    void productDetail_ShouldUseIndex() {
+        assertNoFullScan("product_images", () -> productRepository.findDetailRowsById(100L));
+    }
+
+    @Test
+    void findExistingImageDirectories_ShouldUseIndex() {
+        assertNoFullScan("product_images", () -> productImageRepository.findExistingImageDirectories(
+                List.of("uploads/100_0.jpg", "uploads/missing.jpg")));
+    }
+
+    @Test
+    void userRolesLoad_ShouldUseIndex() {
+        assertNoFullScan("user_roles", () -> userRepository.findById(7L));
+    }
+
+    @Test
+    void findByUsername_ShouldUseUniqueConstraint() {
+        assertNoFullScan("users", () -> userRepository.findByUsername("user7"));
+    }
+
+    @Test
+    void findByEmail_ShouldUseUniqueConstraint() {
+        assertNoFullScan("users", () -> userRepository.findByEmail("user7@example.com"));
+    }
+
+    @Test
+    void expiredSessions_ShouldUseIndex() {
+        // Not a repository method: the predicate of Spring Session's cleanup DELETE
+        assertNoFullScan("spring_session", new QueryCapture.Query(
+                "SELECT primary_id FROM spring_session WHERE expiry_time < ?", List.of(1_000L)));
+    }
+
+    /**
+     * Run the repository call, then EXPLAIN every captured statement that reads the table
+     */
+    private void assertNoFullScan(String table, Runnable repositoryCall) {
+        entityManager.clear();
+        Pattern tableName = Pattern.compile("\\b" + table + "\\b", Pattern.CASE_INSENSITIVE);
+
+        List<QueryCapture.Query> queries = queryCapture.capture(repositoryCall).stream()
+                .filter(query -> query.sql().trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(query -> tableName.matcher(query.sql()).find())
+                .toList();
+
+        assertFalse(queries.isEmpty(), "No query on " + table + " was executed");
+        queries.forEach(query -> assertNoFullScan(table, query));
+    }
+
+    /**
+     * Fails if the plan reads the whole table: "tableScan" in H2 plans, "Seq Scan" in PostgreSQL plans
+     */
+    private void assertNoFullScan(String table, QueryCapture.Query query) {
+        String plan = String.join("\n",
+                jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class, query.parameters().toArray()));
+        String normalized = plan.toLowerCase(Locale.ROOT);
+
+        assertFalse(normalized.contains(table + ".tablescan") || normalized.contains("seq scan on " + table),
+                "Full scan of " + table + " for: " + query.sql() + "\n" + plan);
+    }
+
+    private void seed() {
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> sessions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        long productId = 0;
+        for (long userId = 1; userId <= USERS; userId++) {
+            users.add(new Object[]{userId, "user" + userId + "@example.com", "user" + userId});
+            roles.add(new Object[]{userId});
+            String sessionId = String.format("%036d", userId);
+            sessions.add(new Object[]{sessionId, sessionId, userId * 100});
+
+            for (int p = 0; p < PRODUCTS_PER_USER; p++) {
+                productId++;
+                products.add(new Object[]{productId, Timestamp.valueOf(now.minusMinutes(productId)), userId});
+                for (int i = 0; i < IMAGES_PER_PRODUCT; i++) {
+                    images.add(new Object[]{productId * 10 + i, "uploads/" + productId + "_" + i + ".jpg", productId});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, active, created_at, email, password, username) "
+                + "VALUES (?, TRUE, CURRENT_TIMESTAMP, ?, 'x', ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role) VALUES (?, 'ROLE_USER')", roles);
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, date_of_created, description, price, title, user_id) "
+                + "VALUES (?, ?, 'description', 10, 'title', ?)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO product_images (id, image_directory, is_preview_image, product_id) "
+                + "VALUES (?, ?, FALSE, ?)", images);
+        jdbcTemplate.batchUpdate("INSERT INTO spring_session "
+                + "(primary_id, session_id, creation_time, last_access_time, max_inactive_interval, expiry_time) "
+                + "VALUES (?, ?, 0, 0, 1800, ?)", sessions);
+    }
+}
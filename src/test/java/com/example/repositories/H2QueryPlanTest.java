@@ -0,0 +1,7 @@
+package com.example.repositories;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+@DataJpaTest
+class H2QueryPlanTest extends AbstractQueryPlanTest {
+}
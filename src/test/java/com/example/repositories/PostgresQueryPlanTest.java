@@ -0,0 +1,37 @@
+package com.example.repositories;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Query plans on PostgreSQL, the schema is created by the migrations.
+ * <p>
+ * Needs an empty disposable database, test data is rolled back:
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/bench?user=postgres mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${BENCHMARK_DATABASE_URL:}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PostgresQueryPlanTest extends AbstractQueryPlanTest {
+
+    @BeforeAll
+    static void requireDatabase() {
+        String url = System.getenv("BENCHMARK_DATABASE_URL");
+        assumeTrue(url != null && url.startsWith("jdbc:postgresql:"), "BENCHMARK_DATABASE_URL not set");
+    }
+
+    @Override
+    protected void afterSeed(JdbcTemplate jdbcTemplate) {
+        // Without statistics the planner assumes tiny tables and prefers sequential scans
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.repositories;
+
+import com.example.models.PendingFileDeletion;
+import com.example.models.Product;
+import com.example.models.ProductImage;
+import com.example.models.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProductImageRepositoryTest {
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PendingFileDeletionRepository pendingFileDeletionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product first;
+    private Product second;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.setPassword("encodedPassword");
+        entityManager.persist(owner);
+
+        first = product(owner, "uploads/a.jpg", "uploads/b.jpg");
+        second = product(owner, "uploads/c.jpg");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void queueFilesForDeletionByProductIds_ShouldQueueAllImagesOfProducts() {
+        // Act
+        int queued = productImageRepository.queueFilesForDeletionByProductIds(List.of(first.getId()));
+
+        // Assert
+        assertEquals(2, queued);
+        assertEquals(List.of("uploads/a.jpg", "uploads/b.jpg"),
+                pendingFileDeletionRepository.findAll().stream().map(PendingFileDeletion::getPath).sorted().toList());
+    }
+
+    @Test
+    void bulkDeletes_ShouldRemoveImagesAndProducts() {
+        // Act
+        int images = productImageRepository.deleteAllByProductIdIn(List.of(first.getId()));
+        int products = productRepository.deleteAllByIdIn(List.of(first.getId()));
+
+        // Assert
+        assertEquals(2, images);
+        assertEquals(1, products);
+        assertEquals(List.of(second.getId()),
+                productRepository.findIdsByOwnerId(second.getOwner().getId(), PageRequest.of(0, 10)));
+        assertEquals(1, productImageRepository.count());
+    }
+
+    private Product product(User owner, String... paths) {
+        Product product = new Product();
+        product.setTitle("Product title long enough");
+        product.setDescription("Product description long enough");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setOwner(owner);
+        product.setImages(new ArrayList<>());
+        for (String path : paths) {
+            ProductImage image = new ProductImage(path, product.getImages().isEmpty());
+            image.setProduct(product);
+            product.getImages().add(image);
+        }
+        entityManager.persist(product);
+        return product;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.repositories;
+
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
+import com.example.models.Product;
+import com.example.models.ProductImage;
+import com.example.models.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProductRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private Product oldest;
+    private Product sameTimeLower;
+    private Product sameTimeHigher;
+    private Product newest;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("seller");
+        User other = user("other");
+
+        oldest = product(owner, NOW.minusDays(2), true);
+        sameTimeLower = product(owner, NOW.minusDays(1), true);
+        sameTimeHigher = product(owner, NOW.minusDays(1), false);
+        newest = product(owner, NOW, true);
+        product(other, NOW.plusDays(1), true);
+        entityManager.clear();
+    }
+
+    @Test
+    void findCardsByOwnerId_ShouldReturnNewestFirstWithPreviewImage() {
+        // Act
+        List<ProductCard> cards = productRepository.findCardsByOwnerId(owner.getId(), PageRequest.of(0, 10));
+
+        // Assert - equal dates are ordered by id, a product without preview still has a card
+        assertEquals(List.of(newest.getId(), sameTimeHigher.getId(), sameTimeLower.getId(), oldest.getId()),
+                cards.stream().map(ProductCard::getId).toList());
+        ProductCard first = cards.get(0);
+        assertEquals(ProductImage.toImageUrl("uploads/" + newest.getTitle() + "-preview.jpg"), first.getPreviewImageUrl());
+        assertEquals(800, first.getPreviewWidth());
+        assertNull(cards.get(1).getPreviewImageUrl());
+    }
+
+    @Test
+    void findCardsByOwnerIdBefore_ShouldContinueAfterLastCard() {
+        // Arrange
+        List<ProductCard> firstPage = productRepository.findCardsByOwnerId(owner.getId(), PageRequest.of(0, 2));
+        ProductCard last = firstPage.get(firstPage.size() - 1);
+
+        // Act
+        List<ProductCard> nextPage = productRepository.findCardsByOwnerIdBefore(
+                owner.getId(), last.getDateOfCreated(), last.getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of(sameTimeLower.getId(), oldest.getId()),
+                nextPage.stream().map(ProductCard::getId).toList());
+    }
+
+    @Test
+    void findCardsBefore_ShouldPageTheWholeCatalogByKeyset() {
+        // Arrange - the other seller's product is the newest of the catalog
+        List<ProductCard> firstPage = productRepository.findCards(PageRequest.of(0, 2));
+        ProductCard last = firstPage.get(firstPage.size() - 1);
+
+        // Act
+        List<ProductCard> nextPage = productRepository.findCardsBefore(
+                last.getDateOfCreated(), last.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(newest.getId(), last.getId());
+        assertEquals(0L, last.getVersion());
+        assertEquals(List.of(sameTimeHigher.getId(), sameTimeLower.getId(), oldest.getId()),
+                nextPage.stream().map(ProductCard::getId).toList());
+    }
+
+    @Test
+    void findDetailRowsById_ShouldReadProductOwnerAndImagesInOneQuery() {
+        // Act
+        ProductDetail detail = ProductDetail.fromRows(productRepository.findDetailRowsById(newest.getId()));
+
+        // Assert - preview image first
+        assertEquals(newest.getTitle(), detail.getTitle());
+        assertEquals(owner.getId(), detail.getOwnerId());
+        assertEquals("seller", detail.getOwnerUsername());
+        assertEquals(List.of(true, false), detail.getImages().stream().map(ProductDetail.Image::isPreviewImage).toList());
+        assertEquals(800, detail.getImages().get(0).getWidth());
+        assertTrue(detail.getImages().get(1).getImageUrl().endsWith("-additional.jpg"));
+    }
+
+    @Test
+    void findDetailRowsById_WhenProductNotFound_ShouldReturnNoRows() {
+        // Act & Assert
+        assertNull(ProductDetail.fromRows(productRepository.findDetailRowsById(-1L)));
+    }
+
+    @Test
+    void findCardsByIdIn_ShouldReturnCardsOfGivenProducts() {
+        // Act
+        List<ProductCard> cards = productRepository.findCardsByIdIn(List.of(oldest.getId(), sameTimeHigher.getId(), -1L));
+
+        // Assert - one card per product, with or without preview image
+        assertEquals(Set.of(oldest.getId(), sameTimeHigher.getId()),
+                cards.stream().map(ProductCard::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void findMostViewed_ShouldOrderByViewCountAndSkipUnviewed() {
+        // Arrange
+        views(oldest, 5);
+        views(newest, 20);
+        views(sameTimeLower, 5);
+
+        // Act
+        Page<Product> page = productRepository.findMostViewed(PageRequest.of(0, 10));
+
+        // Assert - equal counts are ordered by id, newest listing first
+        assertEquals(List.of(newest.getId(), sameTimeLower.getId(), oldest.getId()),
+                page.getContent().stream().map(Product::getId).toList());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encodedPassword");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(User owner, LocalDateTime dateOfCreated, boolean withPreview) {
+        Product product = new Product();
+        product.setTitle("product-" + dateOfCreated.getDayOfMonth() + "-" + withPreview);
+        product.setDescription("Description of the product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setOwner(owner);
+
+        List<ProductImage> images = new ArrayList<>();
+        if (withPreview) {
+            ProductImage preview = new ProductImage("uploads/" + product.getTitle() + "-preview.jpg", true);
+            preview.setWidth(800);
+            preview.setHeight(600);
+            preview.setProduct(product);
+            images.add(preview);
+        }
+        ProductImage additional = new ProductImage("uploads/" + product.getTitle() + "-additional.jpg", false);
+        additional.setProduct(product);
+        images.add(additional);
+        product.setImages(images);
+
+        entityManager.persist(product);
+        entityManager.flush();
+
+        // dateOfCreated is set on persist
+        entityManager.createQuery("update products p set p.dateOfCreated = :date where p.id = :id")
+                .setParameter("date", dateOfCreated)
+                .setParameter("id", product.getId())
+                .executeUpdate();
+        return product;
+    }
+
+    private void views(Product product, long viewCount) {
+        entityManager.createNativeQuery("INSERT INTO product_views (product_id, view_count) VALUES (?, ?)")
+                .setParameter(1, product.getId())
+                .setParameter(2, viewCount)
+                .executeUpdate();
+    }
+}
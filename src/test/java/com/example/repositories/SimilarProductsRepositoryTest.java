@@ -0,0 +1,132 @@
+package com.example.repositories;
+
+import com.example.models.Product;
+import com.example.models.SimilarProducts;
+import com.example.models.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SimilarProductsRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private SimilarProductsRepository similarProductsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product first;
+    private Product second;
+    private Product third;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.setPassword("encodedPassword");
+        entityManager.persist(owner);
+
+        first = product(owner);
+        second = product(owner);
+        third = product(owner);
+    }
+
+    @Test
+    void findPending_ShouldReturnNewestNotComputedFirst() {
+        // Arrange
+        similarProductsRepository.saveSimilarIds(second.getId(), 0, "1", NOW);
+
+        // Act
+        List<SimilarProducts.Queued> pending = similarProductsRepository.findPending(PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(new SimilarProducts.Queued(third.getId(), 0), new SimilarProducts.Queued(first.getId(), 0)),
+                pending);
+    }
+
+    @Test
+    void findComputedBefore_ShouldReturnOldestFirst() {
+        // Arrange
+        similarProductsRepository.saveSimilarIds(first.getId(), 0, "", NOW.minusHours(1));
+        similarProductsRepository.saveSimilarIds(second.getId(), 0, "", NOW.minusDays(2));
+        similarProductsRepository.saveSimilarIds(third.getId(), 0, "", NOW.minusDays(3));
+
+        // Act
+        List<SimilarProducts.Queued> outdated = similarProductsRepository.findComputedBefore(
+                NOW.minusDays(1), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(third.getId(), second.getId()),
+                outdated.stream().map(SimilarProducts.Queued::productId).toList());
+    }
+
+    @Test
+    void markPending_ShouldQueueProductAgainAndKeepNeighbours() {
+        // Arrange
+        similarProductsRepository.saveSimilarIds(first.getId(), 0, "3,2", NOW);
+
+        // Act
+        similarProductsRepository.markPending(first.getId());
+        entityManager.clear();
+
+        // Assert - the old neighbours are shown until recomputed
+        SimilarProducts similar = similarProductsRepository.findById(first.getId()).orElseThrow();
+        assertNull(similar.getComputedAt());
+        assertEquals(List.of(3L, 2L), similar.getSimilarProductIds());
+    }
+
+    @Test
+    void saveSimilarIds_WhenQueuedAgainSincePicked_ShouldNotOverwrite() {
+        // Arrange - picked by the worker, then edited
+        SimilarProducts.Queued picked = similarProductsRepository.findPending(PageRequest.of(0, 10)).stream()
+                .filter(queued -> queued.productId().equals(first.getId()))
+                .findFirst().orElseThrow();
+        similarProductsRepository.markPending(first.getId());
+
+        // Act
+        int updated = similarProductsRepository.saveSimilarIds(first.getId(), picked.generation(), "3", NOW);
+        entityManager.clear();
+
+        // Assert - still queued for the edited listing
+        assertEquals(0, updated);
+        SimilarProducts similar = similarProductsRepository.findById(first.getId()).orElseThrow();
+        assertNull(similar.getComputedAt());
+        assertEquals(1, similar.getGeneration());
+    }
+
+    @Test
+    void deleteProduct_ShouldRemoveItsNeighbours() {
+        // Act
+        entityManager.createQuery("delete from products p where p.id = :id")
+                .setParameter("id", first.getId())
+                .executeUpdate();
+
+        // Assert
+        assertTrue(similarProductsRepository.findById(first.getId()).isEmpty());
+    }
+
+    private Product product(User owner) {
+        Product product = new Product();
+        product.setTitle("Vintage film camera");
+        product.setDescription("Description of the product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setOwner(owner);
+        entityManager.persist(product);
+        entityManager.flush();
+        similarProductsRepository.insertPending(product.getId());
+        return product;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.repositories;
+
+import com.example.dto.ListingStats;
+import com.example.models.User;
+import com.example.models.enums.Role;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = userRepository.saveAll(List.of(
+                user("alice", "alice@example.com"),
+                user("Bob_Smith", "bob@example.com"),
+                user("bobxsmith", "carol@EXAMPLE.org"),
+                user("dave", "dave@example.com")
+        ));
+    }
+
+    @Test
+    void searchByUsernameOrEmailAfter_ShouldMatchSubstringIgnoringCase() {
+        // Act
+        List<User> result = userRepository.searchByUsernameOrEmailAfter("%example.org%", 0L, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("bobxsmith"), usernames(result));
+    }
+
+    @Test
+    void searchByUsernameOrEmailAfter_ShouldTreatEscapedUnderscoreLiterally() {
+        // Act
+        List<User> escaped = userRepository.searchByUsernameOrEmailAfter("%bob\\_smith%", 0L, PageRequest.of(0, 10));
+        List<User> wildcard = userRepository.searchByUsernameOrEmailAfter("%bob_smith%", 0L, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Bob_Smith"), usernames(escaped));
+        assertEquals(List.of("Bob_Smith", "bobxsmith"), usernames(wildcard));
+    }
+
+    @Test
+    void searchByUsernameOrEmailAfter_ShouldPageByIdWithLimit() {
+        // Act
+        List<User> first = userRepository.searchByUsernameOrEmailAfter("%example%", 0L, PageRequest.of(0, 2));
+        List<User> second = userRepository.searchByUsernameOrEmailAfter(
+                "%example%", first.get(1).getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of("alice", "Bob_Smith"), usernames(first));
+        assertEquals(List.of("bobxsmith", "dave"), usernames(second));
+    }
+
+    @Test
+    void searchByUsernameOrEmailBefore_ShouldReturnDescendingIds() {
+        // Act
+        List<User> result = userRepository.searchByUsernameOrEmailBefore(
+                "%example%", users.get(3).getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of("bobxsmith", "Bob_Smith"), usernames(result));
+    }
+
+    @Test
+    void findByIdGreaterThanOrderByIdAsc_ShouldReturnNextKeysetPage() {
+        // Act
+        List<User> result = userRepository.findByIdGreaterThanOrderByIdAsc(users.get(0).getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of("Bob_Smith", "bobxsmith"), usernames(result));
+    }
+
+    @Test
+    void updateActiveByIdIn_ShouldUpdateOnlyGivenUsers() {
+        // Act
+        int updated = userRepository.updateActiveByIdIn(List.of(users.get(0).getId(), users.get(1).getId()), false);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(2, updated);
+        assertFalse(userRepository.findById(users.get(0).getId()).orElseThrow().isActive());
+        assertTrue(userRepository.findById(users.get(2).getId()).orElseThrow().isActive());
+    }
+
+    @Test
+    void addRoleByIdIn_ShouldSkipUsersThatHaveRole() {
+        // Arrange
+        List<Long> ids = List.of(users.get(0).getId(), users.get(1).getId());
+        userRepository.addRoleByIdIn(List.of(users.get(0).getId()), "ROLE_ADMIN");
+
+        // Act
+        int inserted = userRepository.addRoleByIdIn(ids, "ROLE_ADMIN");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, inserted);
+        assertTrue(userRepository.findById(users.get(1).getId()).orElseThrow().hasRole(Role.ROLE_ADMIN));
+    }
+
+    @Test
+    void removeRoleByIdIn_ShouldKeepLastRole() {
+        // Arrange - first user has USER and ADMIN, second only ADMIN
+        userRepository.addRoleByIdIn(List.of(users.get(0).getId(), users.get(1).getId()), "ROLE_ADMIN");
+        userRepository.addRoleByIdIn(List.of(users.get(0).getId()), "ROLE_USER");
+
+        // Act
+        int removed = userRepository.removeRoleByIdIn(List.of(users.get(0).getId(), users.get(1).getId()), "ROLE_ADMIN");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, removed);
+        assertFalse(userRepository.findById(users.get(0).getId()).orElseThrow().hasRole(Role.ROLE_ADMIN));
+        assertTrue(userRepository.findById(users.get(1).getId()).orElseThrow().hasRole(Role.ROLE_ADMIN));
+    }
+
+    @Test
+    void saveAndFlush_WithDuplicateUsername_ShouldViolateUsernameConstraint() {
+        // Act
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("alice", "other@example.com")));
+
+        // Assert
+        assertTrue(constraintMessage(e).contains(User.USERNAME_CONSTRAINT));
+    }
+
+    @Test
+    void saveAndFlush_WithDuplicateEmail_ShouldViolateEmailConstraint() {
+        // Act
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("newuser", "dave@example.com")));
+
+        // Assert
+        assertTrue(constraintMessage(e).contains(User.EMAIL_CONSTRAINT));
+    }
+
+    @Test
+    void updateProfile_ShouldUpdateInOneStatementAndKeepPasswordWhenNull() {
+        // Act
+        int updated = userRepository.updateProfile(users.get(0).getId(), "alice2", "alice2@example.com", null);
+        entityManager.clear();
+
+        // Assert
+        User user = userRepository.findById(users.get(0).getId()).orElseThrow();
+        assertEquals(1, updated);
+        assertEquals("alice2", user.getUsername());
+        assertEquals("alice2@example.com", user.getEmail());
+        assertEquals("encodedPassword", user.getPassword());
+    }
+
+    @Test
+    void updateProfile_WithTakenEmail_ShouldViolateEmailConstraint() {
+        // Act
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.updateProfile(users.get(0).getId(), "alice", "dave@example.com", null));
+
+        // Assert
+        assertTrue(constraintMessage(e).contains(User.EMAIL_CONSTRAINT));
+    }
+
+    @Test
+    void addListingCounters_ShouldAccumulateInDatabase() {
+        // Arrange
+        Long id = users.get(0).getId();
+        entityManager.flush();
+
+        // Act
+        userRepository.addListingCounters(id, 1, 4);
+        userRepository.addListingCounters(id, 1, 2);
+        userRepository.addListingCounters(id, -1, -4);
+
+        // Assert
+        ListingStats stats = userRepository.findListingStatsById(id).orElseThrow();
+        assertEquals(1, stats.getProductCount());
+        assertEquals(2, stats.getImageCount());
+    }
+
+    @Test
+    void save_ShouldNotOverwriteListingCounters() {
+        // Arrange - the entity was loaded before the counters changed
+        User user = userRepository.findById(users.get(0).getId()).orElseThrow();
+        userRepository.addListingCounters(user.getId(), 3, 9);
+
+        // Act
+        user.setActive(false);
+        userRepository.saveAndFlush(user);
+
+        // Assert
+        ListingStats stats = userRepository.findListingStatsById(user.getId()).orElseThrow();
+        assertEquals(3, stats.getProductCount());
+        assertEquals(9, stats.getImageCount());
+    }
+
+    private User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("encodedPassword");
+        return user;
+    }
+
+    private String constraintMessage(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause().getMessage().toLowerCase(Locale.ROOT);
+    }
+
+    private List<String> usernames(List<User> result) {
+        return result.stream().map(User::getUsername).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.repositories;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Admin user search on PostgreSQL with 5M users: the old
+ * lower(...) LIKE '%q%' query with OFFSET paging and COUNT against the
+ * pg_trgm keyset query of UserRepository.searchByUsernameOrEmailAfter.
+ * <p>
+ * Needs a disposable PostgreSQL database, the users table is replaced:
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/bench?user=postgres mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class UserSearchBenchmarkTest {
+
+    private static final int USERS = 5_000_000;
+
+    private static final String OLD_SEARCH = """
+            SELECT * FROM users
+            WHERE lower(username) LIKE lower('%%' || ? || '%%') OR lower(email) LIKE lower('%%' || ? || '%%')
+            ORDER BY id OFFSET %d LIMIT 20""";
+
+    private static final String OLD_COUNT = """
+            SELECT count(*) FROM users
+            WHERE lower(username) LIKE lower('%' || ? || '%') OR lower(email) LIKE lower('%' || ? || '%')""";
+
+    private static final String NEW_SEARCH = """
+            SELECT * FROM users
+            WHERE (username ILIKE '%' || ? || '%' OR email ILIKE '%' || ? || '%') AND id > ?
+            ORDER BY id LIMIT 21""";
+
+    @Test
+    void searchOnFiveMillionUsers() {
+        String url = System.getenv("BENCHMARK_DATABASE_URL");
+        assumeTrue(url != null && url.startsWith("jdbc:postgresql:"), "BENCHMARK_DATABASE_URL not set");
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, true);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            createUsers(jdbc);
+
+            // Rare match (few rows) and common match (many rows), first and deep page
+            for (String query : List.of("user4242424", "example.net")) {
+                System.out.printf("%nQuery '%s'%n", query);
+                time(jdbc, "old search, page 1", OLD_SEARCH.formatted(0), query, query);
+                time(jdbc, "old search, page 1000", OLD_SEARCH.formatted(20_000), query, query);
+                time(jdbc, "old count", OLD_COUNT, query, query);
+                time(jdbc, "trigram keyset, first page", NEW_SEARCH, query, query, 0L);
+                time(jdbc, "trigram keyset, after id 4M", NEW_SEARCH, query, query, 4_000_000L);
+            }
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private void createUsers(JdbcTemplate jdbc) {
+        jdbc.execute("DROP TABLE IF EXISTS users CASCADE");
+        jdbc.execute("""
+                CREATE TABLE users (
+                    id BIGSERIAL PRIMARY KEY,
+                    username VARCHAR(255) NOT NULL UNIQUE,
+                    email VARCHAR(255) NOT NULL UNIQUE,
+                    password VARCHAR(255) NOT NULL,
+                    active BOOLEAN NOT NULL,
+                    created_at TIMESTAMP)""");
+        long start = System.nanoTime();
+        jdbc.execute("""
+                INSERT INTO users (username, email, password, active, created_at)
+                SELECT 'user' || g,
+                       'user' || g || CASE WHEN g % 10 = 0 THEN '@example.net' ELSE '@example.com' END,
+                       'x', true, now()
+                FROM generate_series(1, %d) g""".formatted(USERS));
+        System.out.printf("Inserted %d users in %d ms%n", USERS, (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        jdbc.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        jdbc.execute("CREATE INDEX idx_users_username_trgm ON users USING gin (username gin_trgm_ops)");
+        jdbc.execute("CREATE INDEX idx_users_email_trgm ON users USING gin (email gin_trgm_ops)");
+        jdbc.execute("ANALYZE users");
+        System.out.printf("Built trigram indexes in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void time(JdbcTemplate jdbc, String name, String sql, Object... args) {
+        // Warm up, then best of 3
+        jdbc.queryForList(sql, args);
+        long best = Long.MAX_VALUE;
+        int rows = 0;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            rows = jdbc.queryForList(sql, args).size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("  %-30s %8.1f ms  (%d rows)%n", name, best / 1_000_000.0, rows);
+    }
+}
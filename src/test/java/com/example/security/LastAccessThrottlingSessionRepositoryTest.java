@@ -0,0 +1,103 @@
+package com.example.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Against Spring Session JDBC on H2, checking what ends up in spring_session
+ */
+class LastAccessThrottlingSessionRepositoryTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private LastAccessThrottlingSessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("org/springframework/session/jdbc/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        JdbcIndexedSessionRepository sessionRepository = new JdbcIndexedSessionRepository(
+                jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)));
+        repository = new LastAccessThrottlingSessionRepository(sessionRepository, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void save_WhenAccessTimeMovedLessThanInterval_ShouldNotWriteIt() {
+        // Arrange
+        String id = createSession();
+        Instant stored = storedLastAccessTime(id);
+
+        // Act
+        accessAndSave(id, stored.plusSeconds(30));
+
+        // Assert
+        assertEquals(stored, storedLastAccessTime(id));
+    }
+
+    @Test
+    void save_WhenAccessTimeMovedByInterval_ShouldWriteIt() {
+        // Arrange
+        String id = createSession();
+        Instant accessedAt = storedLastAccessTime(id).plus(Duration.ofMinutes(1));
+
+        // Act
+        accessAndSave(id, accessedAt);
+
+        // Assert
+        assertEquals(accessedAt, storedLastAccessTime(id));
+    }
+
+    @Test
+    void save_WhenOnlyAttributesChanged_ShouldWriteAttributes() {
+        // Arrange
+        String id = createSession();
+
+        // Act
+        LastAccessThrottlingSessionRepository.ThrottledSession session = repository.findById(id);
+        session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(1));
+        session.setAttribute("name", "value");
+        repository.save(session);
+
+        // Assert
+        assertEquals("value", repository.findById(id).getAttribute("name"));
+    }
+
+    private String createSession() {
+        LastAccessThrottlingSessionRepository.ThrottledSession session = repository.createSession();
+        repository.save(session);
+        return session.getId();
+    }
+
+    private void accessAndSave(String id, Instant accessedAt) {
+        LastAccessThrottlingSessionRepository.ThrottledSession session = repository.findById(id);
+        session.setLastAccessedTime(accessedAt);
+        repository.save(session);
+    }
+
+    private Instant storedLastAccessTime(String id) {
+        return Instant.ofEpochMilli(jdbcTemplate.queryForObject(
+                "SELECT LAST_ACCESS_TIME FROM SPRING_SESSION WHERE SESSION_ID = ?", Long.class, id));
+    }
+}
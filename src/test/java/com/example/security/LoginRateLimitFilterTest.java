@@ -0,0 +1,114 @@
+package com.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimitFilterTest {
+
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.systemUTC();
+        Duration window = Duration.ofMinutes(1);
+        filter = new LoginRateLimitFilter(
+                new SlidingWindowRateLimiter("login-ip", 5, window, 1000, meterRegistry, clock),
+                new SlidingWindowRateLimiter("login-username", 2, window, 1000, meterRegistry, clock),
+                new SlidingWindowRateLimiter("register-ip", 1, window, 1000, meterRegistry, clock)
+        );
+    }
+
+    @Test
+    void login_OverUsernameLimit_ShouldReturnTooManyRequests() throws Exception {
+        // Act
+        MockHttpServletResponse first = login("10.0.0.1", "alice");
+        MockHttpServletResponse second = login("10.0.0.2", "Alice");
+        MockHttpServletResponse third = login("10.0.0.3", "alice ");
+
+        // Assert - username limit applies across IPs and ignores case
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("60", third.getHeader("Retry-After"));
+    }
+
+    @Test
+    void login_OverIpLimit_ShouldReturnTooManyRequests() throws Exception {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, login("10.0.0.1", "user" + i).getStatus());
+        }
+        MockHttpServletResponse response = login("10.0.0.1", "another");
+
+        // Assert
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    void rejectedRequest_ShouldNotReachAuthentication() throws Exception {
+        // Arrange
+        login("10.0.0.1", "alice");
+        login("10.0.0.1", "alice");
+
+        // Act
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("POST", "/login", "10.0.0.1", "alice"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void register_OverIpLimit_ShouldReturnTooManyRequests() throws Exception {
+        // Act
+        MockHttpServletResponse first = execute(request("POST", "/register", "10.0.0.1", "alice"));
+        MockHttpServletResponse second = execute(request("POST", "/register", "10.0.0.1", "bob"));
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+    }
+
+    @Test
+    void otherRequests_ShouldNotBeLimited() throws Exception {
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, execute(request("GET", "/login", "10.0.0.1", null)).getStatus());
+            assertEquals(200, execute(request("POST", "/product/create", "10.0.0.1", null)).getStatus());
+        }
+    }
+
+    // ========================================
+    // Helper methods
+    // ========================================
+
+    private MockHttpServletResponse login(String ip, String username) throws Exception {
+        return execute(request("POST", "/login", ip, username));
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String path, String ip, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(ip);
+        if (username != null) {
+            request.setParameter("username", username);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.security;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login throughput (password checks per second) for different hashing pool sizes.
+ * 32 concurrent "request threads" check passwords like a login burst,
+ * while a probe thread measures how long a cheap page request has to wait for CPU.
+ * <p>
+ * Excluded from the default build, run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class PasswordHashingBenchmarkTest {
+
+    private static final int STRENGTH = 10;
+    private static final int REQUEST_THREADS = 32;
+    private static final int LOGINS = 256;
+
+    @Test
+    void loginThroughputByPoolSize() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> poolSizes = new ArrayList<>(List.of(1, 2, 4));
+        if (!poolSizes.contains(Math.max(1, cores / 2))) {
+            poolSizes.add(Math.max(1, cores / 2));
+        }
+        if (!poolSizes.contains(cores)) {
+            poolSizes.add(cores);
+        }
+        poolSizes.removeIf(size -> size > cores);
+
+        System.out.printf("Cores: %d, BCrypt strength: %d, %d logins from %d request threads%n",
+                cores, STRENGTH, LOGINS, REQUEST_THREADS);
+        System.out.printf("%-12s %-14s %-22s%n", "pool size", "logins/sec", "page probe p99 (ms)");
+
+        for (int poolSize : poolSizes) {
+            PooledPasswordEncoder encoder = new PooledPasswordEncoder(
+                    STRENGTH, poolSize, LOGINS, Duration.ofMinutes(1));
+            try {
+                String hash = encoder.encode("password123");
+                Result result = run(encoder, hash);
+                System.out.printf("%-12d %-14.1f %-22.2f%n", poolSize, result.loginsPerSecond, result.probeP99Millis);
+                assertTrue(result.loginsPerSecond > 0);
+            } finally {
+                encoder.destroy();
+            }
+        }
+    }
+
+    private Result run(PooledPasswordEncoder encoder, String hash) throws Exception {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        List<Long> probeLatencies = new ArrayList<>();
+        Thread probe = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                // Stand-in for rendering a page: a little CPU work
+                double x = 0;
+                for (int i = 0; i < 50_000; i++) {
+                    x += Math.sqrt(i);
+                }
+                if (x < 0) {
+                    return;
+                }
+                probeLatencies.add(System.nanoTime() - start);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        probe.start();
+        List<Future<Boolean>> logins = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            logins.add(requestThreads.submit(() -> encoder.matches("password123", hash)));
+        }
+        for (Future<Boolean> login : logins) {
+            login.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        probe.interrupt();
+        probe.join();
+        requestThreads.shutdown();
+        requestThreads.awaitTermination(1, TimeUnit.MINUTES);
+
+        List<Long> sorted = probeLatencies.stream().sorted().toList();
+        double p99 = sorted.isEmpty() ? 0 : sorted.get((int) (sorted.size() * 0.99)) / 1_000_000.0;
+        return new Result(LOGINS / (elapsed / 1_000_000_000.0), p99);
+    }
+
+    private record Result(double loginsPerSecond, double probeP99Millis) {
+    }
+}
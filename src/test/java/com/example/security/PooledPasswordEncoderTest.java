@@ -0,0 +1,135 @@
+package com.example.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledPasswordEncoderTest {
+
+    // Lowest BCrypt strength keeps the tests fast
+    private static final int STRENGTH = 4;
+
+    private PooledPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new PooledPasswordEncoder(STRENGTH, 2, 10, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    void encode_ShouldUsePrefixedBcryptAndMatch() {
+        // Act
+        String encoded = encoder.encode("password123");
+
+        // Assert
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("password123", encoded));
+        assertFalse(encoder.matches("wrong", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void matches_LegacyHashWithoutPrefix_ShouldMatchAndRequestUpgrade() {
+        // Arrange - hashes stored before the prefix was introduced
+        String legacy = new BCryptPasswordEncoder(STRENGTH).encode("password123");
+
+        // Act & Assert
+        assertTrue(encoder.matches("password123", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void upgradeEncoding_WithLowerStrength_ShouldReturnTrue() {
+        // Arrange
+        String weak = "{bcrypt}" + new BCryptPasswordEncoder(STRENGTH).encode("password123");
+        PooledPasswordEncoder stronger = new PooledPasswordEncoder(STRENGTH + 1, 1, 10, Duration.ofSeconds(5));
+
+        try {
+            // Act & Assert
+            assertTrue(stronger.matches("password123", weak));
+            assertTrue(stronger.upgradeEncoding(weak));
+        } finally {
+            stronger.destroy();
+        }
+    }
+
+    @Test
+    void encode_ShouldRunOnHashingPool() {
+        // Act
+        encoder.encode("password123");
+
+        // Assert
+        assertEquals(1, encoder.getExecutor().getTaskCount());
+    }
+
+    @Test
+    void encode_WhenQueueIsFull_ShouldFailFast() throws InterruptedException {
+        // Arrange - one thread, no queue, the thread is blocked
+        PooledPasswordEncoder saturated = new PooledPasswordEncoder(STRENGTH, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        saturated.getExecutor().execute(() -> awaitQuietly(release));
+        saturated.getExecutor().execute(() -> awaitQuietly(release));
+
+        try {
+            // Act & Assert
+            assertThrows(PasswordHashingUnavailableException.class, () -> saturated.encode("password123"));
+        } finally {
+            release.countDown();
+            saturated.destroy();
+        }
+    }
+
+    @Test
+    void encode_WhenWaitingTooLong_ShouldTimeOut() {
+        // Arrange
+        PooledPasswordEncoder slow = new PooledPasswordEncoder(STRENGTH, 1, 10, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        slow.getExecutor().execute(() -> awaitQuietly(release));
+
+        try {
+            // Act & Assert
+            assertThrows(PasswordHashingUnavailableException.class, () -> slow.encode("password123"));
+        } finally {
+            release.countDown();
+            slow.destroy();
+        }
+    }
+
+    @Test
+    void calibrateStrength_ShouldNotGoBelowMinimum() {
+        // Act
+        int strength = PooledPasswordEncoder.calibrateStrength(STRENGTH, Duration.ofMillis(1));
+
+        // Assert
+        assertTrue(strength >= STRENGTH && strength <= 16);
+    }
+
+    @Test
+    void calibrateStrength_WithLongerTarget_ShouldRaiseStrength() {
+        // Act - strength 4 takes ~1 ms, so one second allows several doublings
+        int strength = PooledPasswordEncoder.calibrateStrength(STRENGTH, Duration.ofSeconds(1));
+
+        // Assert
+        assertTrue(strength > STRENGTH);
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
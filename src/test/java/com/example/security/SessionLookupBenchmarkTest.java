@@ -0,0 +1,127 @@
+package com.example.security;
+
+import com.example.configurations.SessionConfig;
+import com.example.models.User;
+import com.example.models.enums.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Session lookups per second against spring_session, as SessionRepositoryFilter
+ * does them: find the session, deserialize the security context, set the last
+ * access time and save. Once writing the access time on every request, once
+ * with the write interval of LastAccessThrottlingSessionRepository.
+ * <p>
+ * Uses embedded H2, so numbers show the cost on the application side
+ * (JSON, JDBC, row updates) rather than PostgreSQL latency.
+ * Excluded from the default build, run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SessionLookupBenchmarkTest {
+
+    private static final int SESSIONS = 10_000;
+    private static final Duration DURATION = Duration.ofSeconds(3);
+
+    @Test
+    void sessionLookupsPerSecond() throws Exception {
+        System.out.printf("%-28s %12s %14s%n", "access time writes", "lookups/s", "row updates");
+        long everyRequest = run("every request", Duration.ZERO);
+        long throttled = run("once per minute", Duration.ofMinutes(1));
+
+        assertTrue(everyRequest > 0);
+        assertTrue(throttled > 0);
+    }
+
+    private long run(String name, Duration writeInterval) throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("db/migration/common/V9__spring_session.sql")
+                .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            JdbcIndexedSessionRepository sessionRepository = new JdbcIndexedSessionRepository(
+                    jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)));
+            sessionRepository.setConversionService(new SessionConfig().springSessionConversionService());
+            LastAccessThrottlingSessionRepository repository =
+                    new LastAccessThrottlingSessionRepository(sessionRepository, writeInterval);
+
+            List<String> ids = new ArrayList<>(SESSIONS);
+            for (int i = 0; i < SESSIONS; i++) {
+                LastAccessThrottlingSessionRepository.ThrottledSession session = repository.createSession();
+                session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext(i));
+                repository.save(session);
+                ids.add(session.getId());
+            }
+            long createdAt = jdbcTemplate.queryForObject("SELECT MAX(last_access_time) FROM spring_session", Long.class);
+
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long deadline = System.nanoTime() + DURATION.toNanos();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long lookups = 0;
+                    while (System.nanoTime() < deadline) {
+                        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        LastAccessThrottlingSessionRepository.ThrottledSession session = repository.findById(id);
+                        SecurityContextImpl context = session.getAttribute("SPRING_SECURITY_CONTEXT");
+                        assertTrue(context.getAuthentication().isAuthenticated());
+                        session.setLastAccessedTime(Instant.now());
+                        repository.save(session);
+                        lookups++;
+                    }
+                    return lookups;
+                }));
+            }
+
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            // Sessions whose stored access time moved, at least one update each
+            int updated = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM spring_session WHERE last_access_time > ?", Integer.class, createdAt);
+            System.out.printf("%-28s %12.0f %14s%n", name, (double) total / DURATION.toSeconds(),
+                    writeInterval.isZero() ? total + " (every save)" : String.valueOf(updated));
+            return total;
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private SecurityContextImpl securityContext(int i) {
+        User user = new User();
+        user.setId((long) i);
+        user.setUsername("user" + i);
+        user.setActive(true);
+        user.addRole(Role.ROLE_USER);
+        UserPrincipal principal = UserPrincipal.from(user);
+        return new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.security;
+
+import com.example.models.Product;
+import com.example.models.ProductImage;
+import com.example.models.User;
+import com.example.models.enums.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serialized size of the security context stored in each HTTP session,
+ * with the User entity as principal (before) and with UserPrincipal (after),
+ * extrapolated to 100k concurrent sessions.
+ * <p>
+ * Excluded from the default build, run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SessionSizeBenchmarkTest {
+
+    private static final int SESSIONS = 100_000;
+
+    @Test
+    void securityContextSizePerSession() throws IOException {
+        User user = user(0);
+        User userWithProducts = user(12);
+
+        int entitySize = contextSize(user);
+        int principalSize = contextSize(UserPrincipal.from(userWithProducts));
+
+        System.out.printf("%-36s %10s %16s%n", "principal", "bytes", "100k sessions");
+        print("User entity, products not loaded", entitySize);
+        try {
+            print("User entity, 12 products loaded", contextSize(userWithProducts));
+        } catch (NotSerializableException e) {
+            // Product is not Serializable: a session store that serializes sessions fails here
+            System.out.printf("%-36s %27s%n", "User entity, 12 products loaded", "not serializable");
+        }
+        print("UserPrincipal", principalSize);
+
+        assertTrue(principalSize < entitySize);
+    }
+
+    private void print(String name, int size) {
+        System.out.printf("%-36s %10d %13.1f MB%n", name, size, (double) size * SESSIONS / (1024 * 1024));
+    }
+
+    private int contextSize(UserDetails principal) throws IOException {
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new SecurityContextImpl(authentication));
+        }
+        return bytes.size();
+    }
+
+    private User user(int productCount) {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("seller_with_a_typical_name");
+        user.setEmail("seller_with_a_typical_name@example.com");
+        user.setPassword("{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.addRole(Role.ROLE_USER);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setTitle("Product title " + i);
+            product.setDescription("A product description of moderate length, as sellers usually write. ".repeat(3));
+            product.setPrice(new BigDecimal("199.99"));
+            product.setOwner(user);
+            ProductImage image = new ProductImage("uploads/" + i + "_preview.jpg", true);
+            image.setProduct(product);
+            product.setImages(new ArrayList<>(List.of(image)));
+            products.add(product);
+        }
+        user.setProducts(products);
+        return user;
+    }
+}
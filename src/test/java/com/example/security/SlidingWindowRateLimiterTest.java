@@ -0,0 +1,184 @@
+package com.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final Instant WINDOW_START = Instant.parse("2025-01-01T00:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(WINDOW_START);
+    }
+
+    @Test
+    void tryAcquire_ShouldRejectOverLimitWithinWindow() {
+        // Arrange
+        SlidingWindowRateLimiter limiter = limiter(3, 1000);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertFalse(limiter.tryAcquire("1.2.3.4"));
+
+        // Other keys are independent
+        assertTrue(limiter.tryAcquire("5.6.7.8"));
+
+        assertEquals(4.0, meterRegistry.get("marketplace.rate-limit.requests")
+                .tag("result", "allowed").counter().count());
+        assertEquals(1.0, meterRegistry.get("marketplace.rate-limit.requests")
+                .tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void tryAcquire_ShouldWeightPreviousWindow() {
+        // Arrange - limit used up at the end of the first window
+        SlidingWindowRateLimiter limiter = limiter(4, 1000);
+        clock.set(WINDOW_START.plusSeconds(59));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("key"));
+        }
+
+        // Act & Assert - a quarter into the next window 75% of the old count still applies (3 of 4)
+        clock.set(WINDOW_START.plusSeconds(75));
+        assertTrue(limiter.tryAcquire("key"));
+        assertFalse(limiter.tryAcquire("key"));
+
+        // Two windows later the old attempts no longer count
+        clock.set(WINDOW_START.plusSeconds(180));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("key"));
+        }
+    }
+
+    @Test
+    void tryAcquire_WhenFull_ShouldKeepMemoryBounded() {
+        // Arrange - 16 stripes with 2 keys each
+        SlidingWindowRateLimiter limiter = limiter(5, 32);
+
+        // Act - an attacker cycling usernames
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("user" + i);
+        }
+
+        // Assert
+        assertTrue(limiter.trackedKeys() <= 32);
+        assertTrue(meterRegistry.get("marketplace.rate-limit.evictions").counter().count() > 0);
+    }
+
+    @Test
+    void tryAcquire_WhenFull_ShouldRemoveExpiredKeysFirst() {
+        // Arrange
+        SlidingWindowRateLimiter limiter = limiter(5, 32);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire("old" + i);
+        }
+
+        // Act - all old keys expired two windows later
+        clock.set(WINDOW_START.plusSeconds(180));
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire("new" + i);
+        }
+
+        // Assert
+        assertTrue(limiter.trackedKeys() <= 32);
+    }
+
+    @Test
+    void tryAcquire_WhenFull_ShouldKeepThrottledKey() {
+        // Arrange - a throttled victim
+        SlidingWindowRateLimiter limiter = limiter(5, 32);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("victim"));
+        }
+
+        // Act - an attacker cycling usernames to push the victim out
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("user" + i);
+        }
+
+        // Assert - the victim's count was not reset
+        assertFalse(limiter.tryAcquire("victim"));
+    }
+
+    @Test
+    void tryAcquire_Concurrently_ShouldNotExceedLimit() throws InterruptedException {
+        // Arrange
+        SlidingWindowRateLimiter limiter = limiter(100, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger allowed = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("key")) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    void getRetryAfterSeconds_ShouldBeWindowLength() {
+        assertEquals(60, limiter(1, 10).getRetryAfterSeconds());
+    }
+
+    // ========================================
+    // Helper methods
+    // ========================================
+
+    private SlidingWindowRateLimiter limiter(int limit, int maxKeys) {
+        return new SlidingWindowRateLimiter("test", limit, Duration.ofMinutes(1), maxKeys, meterRegistry, clock);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
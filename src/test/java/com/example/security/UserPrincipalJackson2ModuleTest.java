@@ -0,0 +1,72 @@
+package com.example.security;
+
+import com.example.configurations.SessionConfig;
+import com.example.models.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalJackson2ModuleTest {
+
+    private ConversionService conversionService;
+
+    @BeforeEach
+    void setUp() {
+        conversionService = new SessionConfig().springSessionConversionService();
+    }
+
+    @Test
+    void securityContext_ShouldRoundTripAsJson() {
+        // Arrange
+        UserPrincipal principal = new UserPrincipal(1L, "alice", "hash", Set.of(Role.ROLE_USER, Role.ROLE_ADMIN), true);
+        principal.eraseCredentials();
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetails(new MockHttpServletRequest()));
+        SecurityContext context = new SecurityContextImpl(authentication);
+
+        // Act
+        byte[] bytes = conversionService.convert(context, byte[].class);
+        Object restored = conversionService.convert(bytes, Object.class);
+
+        // Assert
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"username\":\"alice\""), json);
+        assertFalse(json.contains("hash"), json);
+
+        SecurityContext restoredContext = assertInstanceOf(SecurityContext.class, restored);
+        UserPrincipal restoredPrincipal =
+                assertInstanceOf(UserPrincipal.class, restoredContext.getAuthentication().getPrincipal());
+        assertEquals(1L, restoredPrincipal.getId());
+        assertEquals("alice", restoredPrincipal.getUsername());
+        assertTrue(restoredPrincipal.isAdmin());
+        assertTrue(restoredPrincipal.isActive());
+        assertNull(restoredPrincipal.getPassword());
+        assertTrue(restoredContext.getAuthentication().getAuthorities().contains(Role.ROLE_ADMIN));
+    }
+
+    @Test
+    void csrfTokenAndPlainValues_ShouldRoundTripAsJson() {
+        // Arrange
+        DefaultCsrfToken token = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "value");
+
+        // Act
+        Object restoredToken = conversionService.convert(conversionService.convert(token, byte[].class), Object.class);
+        Object restoredString = conversionService.convert(conversionService.convert("text", byte[].class), Object.class);
+
+        // Assert
+        assertEquals("value", assertInstanceOf(DefaultCsrfToken.class, restoredToken).getToken());
+        assertEquals("text", restoredString);
+    }
+}
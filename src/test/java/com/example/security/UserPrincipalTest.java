@@ -0,0 +1,109 @@
+package com.example.security;
+
+import com.example.models.User;
+import com.example.models.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalTest {
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+        user.setActive(true);
+        user.addRole(Role.ROLE_USER);
+        user.addRole(Role.ROLE_ADMIN);
+    }
+
+    @Test
+    void from_ShouldCopyAuthorizationData() {
+        // Act
+        UserPrincipal principal = UserPrincipal.from(user);
+
+        // Assert
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals("encodedPassword", principal.getPassword());
+        assertTrue(principal.isEnabled());
+        assertTrue(principal.isAdmin());
+        assertEquals(2, principal.getAuthorities().size());
+    }
+
+    @Test
+    void from_ShouldNotShareRolesWithEntity() {
+        // Arrange
+        UserPrincipal principal = UserPrincipal.from(user);
+
+        // Act
+        user.removeRole(Role.ROLE_ADMIN);
+
+        // Assert
+        assertTrue(principal.isAdmin());
+        assertThrows(UnsupportedOperationException.class, () -> principal.getRoles().add(Role.ROLE_USER));
+    }
+
+    @Test
+    void eraseCredentials_ShouldRemovePassword() {
+        // Arrange
+        UserPrincipal principal = UserPrincipal.from(user);
+
+        // Act
+        principal.eraseCredentials();
+
+        // Assert
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void serialization_ShouldKeepIdentityAndDropPassword() throws Exception {
+        // Arrange
+        UserPrincipal principal = UserPrincipal.from(user);
+
+        // Act
+        UserPrincipal copy = (UserPrincipal) deserialize(serialize(principal));
+
+        // Assert
+        assertEquals(principal, copy);
+        assertEquals(principal.getRoles(), copy.getRoles());
+        assertNull(copy.getPassword());
+    }
+
+    @Test
+    void serialization_ShouldBeSmallerThanEntity() throws Exception {
+        // Act
+        int principalSize = serialize(UserPrincipal.from(user)).length;
+        int entitySize = serialize(user).length;
+
+        // Assert
+        assertTrue(principalSize < entitySize,
+                "principal " + principalSize + " bytes, entity " + entitySize + " bytes");
+    }
+
+    private byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
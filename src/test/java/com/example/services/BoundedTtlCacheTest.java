@@ -0,0 +1,158 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedTtlCache<Long, String> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BoundedTtlCache<>("test-cache", "Test", 2, Duration.ofMinutes(5), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndCountHitsAndMisses() {
+        // Act
+        cache.get(1L, loader("one"));
+        String result = cache.get(1L, loader("one"));
+
+        // Assert
+        assertEquals("one", result);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("test-cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("test-cache.requests").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("test-cache.size").gauge().value());
+    }
+
+    @Test
+    void get_WhenLoaderReturnsNull_ShouldNotCacheNull() {
+        // Act
+        cache.get(1L, loader(null));
+        cache.get(1L, loader(null));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evict_ShouldReloadValue() {
+        // Arrange
+        cache.get(1L, loader("one"));
+        cache.get(2L, loader("two"));
+
+        // Act
+        cache.evict(1L);
+
+        // Assert
+        assertEquals(1, cache.size());
+        cache.get(1L, loader("one"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictAll_ShouldRemoveAllKeys() {
+        // Arrange
+        cache.get(1L, loader("one"));
+        cache.get(2L, loader("two"));
+
+        // Act
+        cache.evictAll(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_WhenEvictedDuringLoad_ShouldNotCacheStaleValue() {
+        // Act - the row is updated while it is read from the database
+        cache.get(1L, () -> {
+            cache.evict(1L);
+            return "old";
+        });
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evict_InTransaction_ShouldRemoveAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Arrange
+            cache.evict(1L);
+            // a request reads the old row before the commit
+            cache.get(1L, loader("old"));
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertEquals(0, cache.size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_AfterTimeToLive_ShouldReload() {
+        // Arrange
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        ReflectionTestUtils.setField(cache, "clock", Clock.fixed(start, ZoneOffset.UTC));
+        cache.get(1L, loader("one"));
+
+        // Act
+        ReflectionTestUtils.setField(cache, "clock",
+                Clock.fixed(start.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+        cache.get(1L, loader("one"));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenFull_ShouldRemoveLeastRecentlyUsed() {
+        // Arrange
+        cache.get(1L, loader("one"));
+        cache.get(2L, loader("two"));
+        cache.get(1L, loader("one"));
+
+        // Act
+        cache.get(3L, loader("three"));
+
+        // Assert - key 2 was used least recently
+        assertEquals(2, cache.size());
+        cache.get(1L, loader("one"));
+        assertEquals(3, loads.get());
+        cache.get(2L, loader("two"));
+        assertEquals(4, loads.get());
+    }
+
+    private Supplier<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+}
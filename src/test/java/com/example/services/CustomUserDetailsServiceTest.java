@@ -3,6 +3,7 @@ package com.example.services;
 import com.example.models.User;
 import com.example.models.enums.Role;
 import com.example.repositories.UserRepository;
+import com.example.security.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -104,4 +105,47 @@ class CustomUserDetailsServiceTest {
         assertEquals(2, result.getAuthorities().size());
         verify(userRepository, times(1)).findByUsername("testuser");
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserByUsername_CalledTwice_ShouldReadHashFromDatabaseEachTime() {
+        // Arrange
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+
+        // Act
+        customUserDetailsService.loadUserByUsername("testuser");
+        UserDetails result = customUserDetailsService.loadUserByUsername("testuser");
+
+        // Assert - the hash is not cached
+        assertEquals("encodedPassword", result.getPassword());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void updatePassword_ShouldStoreNewHashAndReload() {
+        // Arrange
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
+        customUserDetailsService.loadUserByUsername("testuser");
+        when(userRepository.updatePasswordByUsername("testuser", "{bcrypt}newHash")).thenReturn(1);
+
+        // Act
+        customUserDetailsService.updatePassword(UserPrincipal.from(testUser), "{bcrypt}newHash");
+
+        // Assert
+        verify(userRepository).updatePasswordByUsername("testuser", "{bcrypt}newHash");
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void updatePassword_WhenUserNotFound_ShouldReturnSameUser() {
+        // Arrange
+        when(userRepository.updatePasswordByUsername(anyString(), anyString())).thenReturn(0);
+
+        // Act
+        UserPrincipal principal = UserPrincipal.from(testUser);
+        UserDetails result = customUserDetailsService.updatePassword(principal, "{bcrypt}newHash");
+
+        // Assert
+        assertSame(principal, result);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+}
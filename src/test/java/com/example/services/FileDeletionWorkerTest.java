@@ -0,0 +1,120 @@
+package com.example.services;
+
+import com.example.models.PendingFileDeletion;
+import com.example.repositories.PendingFileDeletionRepository;
+import com.example.storage.LocalImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileDeletionWorkerTest {
+
+    @Mock
+    private PendingFileDeletionRepository pendingFileDeletionRepository;
+
+    private FileDeletionWorker fileDeletionWorker;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        fileDeletionWorker = new FileDeletionWorker(
+                pendingFileDeletionRepository,
+                new LocalImageStorage(tempDir.toString())
+        );
+    }
+
+    @Test
+    void processPendingDeletions_ShouldDeleteFilesAndRemoveRowsInOneBatch() throws IOException {
+        // Arrange
+        Path existing = Files.createFile(tempDir.resolve("existing.jpg"));
+        PendingFileDeletion first = deletion(1L, "uploads/existing.jpg");
+        PendingFileDeletion missing = deletion(2L, "uploads/missing.jpg");
+
+        when(pendingFileDeletionRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(first, missing));
+
+        // Act
+        int processed = fileDeletionWorker.processPendingDeletions();
+
+        // Assert
+        assertEquals(2, processed);
+        assertFalse(Files.exists(existing));
+        verify(pendingFileDeletionRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(pendingFileDeletionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void processPendingDeletions_WhenDeleteFails_ShouldKeepRowAndIncreaseAttempts() throws IOException {
+        // Arrange - non-empty directory cannot be deleted
+        Path directory = Files.createDirectory(tempDir.resolve("dir"));
+        Files.createFile(directory.resolve("child.jpg"));
+        PendingFileDeletion deletion = deletion(1L, "uploads/dir");
+
+        when(pendingFileDeletionRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(deletion));
+
+        // Act
+        fileDeletionWorker.processPendingDeletions();
+
+        // Assert
+        assertEquals(1, deletion.getAttempts());
+        verify(pendingFileDeletionRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(pendingFileDeletionRepository, times(1)).saveAll(List.of(deletion));
+    }
+
+    @Test
+    void processPendingDeletions_AfterMaxAttempts_ShouldGiveUp() throws IOException {
+        // Arrange
+        Path directory = Files.createDirectory(tempDir.resolve("dir"));
+        Files.createFile(directory.resolve("child.jpg"));
+        PendingFileDeletion deletion = deletion(1L, "uploads/dir");
+        deletion.setAttempts(FileDeletionWorker.MAX_ATTEMPTS - 1);
+
+        when(pendingFileDeletionRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(deletion));
+
+        // Act
+        fileDeletionWorker.processPendingDeletions();
+
+        // Assert
+        verify(pendingFileDeletionRepository, times(1)).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void processPendingDeletions_WithEmptyQueue_ShouldDoNothing() {
+        // Arrange
+        when(pendingFileDeletionRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        int processed = fileDeletionWorker.processPendingDeletions();
+
+        // Assert
+        assertEquals(0, processed);
+        verify(pendingFileDeletionRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private PendingFileDeletion deletion(Long id, String path) {
+        PendingFileDeletion deletion = new PendingFileDeletion(path);
+        deletion.setId(id);
+        return deletion;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.services;
+
+import com.example.services.ImageHeaderParser.ImageFormat;
+import com.example.services.ImageHeaderParser.ImageInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageHeaderParserTest {
+
+    @Test
+    @DisplayName("Should return null for null or too short header")
+    void shouldReturnNullForShortHeader() {
+        assertNull(ImageHeaderParser.parse((byte[]) null));
+        assertNull(ImageHeaderParser.parse(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}));
+    }
+
+    @Test
+    @DisplayName("Should return null for unknown format")
+    void shouldReturnNullForUnknownFormat() {
+        // Given - GIF header
+        byte[] gif = "GIF89a\u0001\u0000\u0001\u0000\u0000\u0000".getBytes();
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(gif);
+
+        // Then
+        assertNull(info);
+    }
+
+    @Test
+    @DisplayName("Should read JPEG dimensions after EXIF segment")
+    void shouldParseJpegWithExif() {
+        // Given - SOI, APP1 with 1000 bytes of data, SOF2 (progressive)
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xE1, 0x03, (byte) 0xEA}); // APP1, length 1002
+        out.writeBytes(new byte[1000]);
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xC2, 0x00, 0x11, 0x08,
+                0x04, 0x38,               // height 1080
+                0x07, (byte) 0x80,        // width 1920
+                0x03});
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(out.toByteArray());
+
+        // Then
+        assertNotNull(info);
+        assertEquals(ImageFormat.JPEG, info.getFormat());
+        assertEquals(1920, info.getWidth());
+        assertEquals(1080, info.getHeight());
+        assertEquals(1, info.getFrameCount());
+    }
+
+    @Test
+    @DisplayName("Should read JPEG dimensions after several full-size APPn segments")
+    void shouldParseJpegWithFrameBeyondHeaderWindow() {
+        // Given - EXIF, ICC and XMP segments of 64KB each push SOF past the fixed header window
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        for (int marker : new int[]{0xE1, 0xE2, 0xE1}) {
+            out.writeBytes(jpegSegment(marker, 0xFFFF));
+        }
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xC0, 0x00, 0x11, 0x08,
+                0x0C, 0x00,               // height 3072
+                0x10, 0x00,               // width 4096
+                0x03});
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(out.toByteArray());
+
+        // Then
+        assertNotNull(info);
+        assertEquals(4096, info.getWidth());
+        assertEquals(3072, info.getHeight());
+    }
+
+    @Test
+    @DisplayName("Should stop walking JPEG segments at the scan limit")
+    void shouldReturnNullWhenJpegFrameIsBeyondScanLimit() {
+        // Given - enough 64KB segments to exceed JPEG_SCAN_LIMIT before SOF
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        int segments = ImageHeaderParser.JPEG_SCAN_LIMIT / 0xFFFF + 1;
+        for (int i = 0; i < segments; i++) {
+            out.writeBytes(jpegSegment(0xE2, 0xFFFF));
+        }
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xC0, 0x00, 0x11, 0x08,
+                0x00, 0x10, 0x00, 0x10, 0x03});
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(out.toByteArray());
+
+        // Then
+        assertNull(info);
+    }
+
+    @Test
+    @DisplayName("Should return null when JPEG segment is truncated")
+    void shouldReturnNullForTruncatedJpegSegment() {
+        // Given - APP1 declares 1000 bytes but the file ends after 10
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0x03, (byte) 0xE8});
+        out.writeBytes(new byte[10]);
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(out.toByteArray());
+
+        // Then
+        assertNull(info);
+    }
+
+    @Test
+    @DisplayName("Should return null when JPEG scan starts before frame header")
+    void shouldReturnNullForJpegWithoutFrameHeader() {
+        // Given - SOI followed by SOS
+        byte[] jpeg = new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA,
+                0x00, 0x08, 0x01, 0x01, 0x00, 0x00, 0x3F, 0x00};
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(jpeg);
+
+        // Then
+        assertNull(info);
+    }
+
+    @Test
+    @DisplayName("Should read PNG dimensions from IHDR")
+    void shouldParsePng() {
+        // When
+        ImageInfo info = ImageHeaderParser.parse(png(640, 480, null));
+
+        // Then
+        assertNotNull(info);
+        assertEquals(ImageFormat.PNG, info.getFormat());
+        assertEquals(640, info.getWidth());
+        assertEquals(480, info.getHeight());
+        assertEquals(1, info.getFrameCount());
+    }
+
+    @Test
+    @DisplayName("Should read frame count of animated PNG from acTL")
+    void shouldParseAnimatedPngFrameCount() {
+        // When
+        ImageInfo info = ImageHeaderParser.parse(png(100, 100, 500));
+
+        // Then
+        assertNotNull(info);
+        assertEquals(500, info.getFrameCount());
+    }
+
+    @Test
+    @DisplayName("Should read huge declared PNG dimensions without decoding")
+    void shouldParseHugePngDimensions() {
+        // When
+        ImageInfo info = ImageHeaderParser.parse(png(50_000, 50_000, null));
+
+        // Then
+        assertNotNull(info);
+        assertEquals(2_500_000_000L, info.getPixelCount());
+    }
+
+    @Test
+    @DisplayName("Should read lossless WebP (VP8L) dimensions")
+    void shouldParseWebpLossless() {
+        // Given - width-1 and height-1 packed in 14 bit fields
+        long bits = (800 - 1) | ((long) (600 - 1) << 14);
+        byte[] webp = new byte[]{
+                0x52, 0x49, 0x46, 0x46, 0x00, 0x00, 0x00, 0x00,
+                0x57, 0x45, 0x42, 0x50,
+                0x56, 0x50, 0x38, 0x4C,  // "VP8L"
+                0x05, 0x00, 0x00, 0x00,
+                0x2F,
+                (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16), (byte) (bits >> 24),
+                0x00, 0x00, 0x00, 0x00, 0x00
+        };
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(webp);
+
+        // Then
+        assertNotNull(info);
+        assertEquals(ImageFormat.WEBP, info.getFormat());
+        assertEquals(800, info.getWidth());
+        assertEquals(600, info.getHeight());
+    }
+
+    @Test
+    @DisplayName("Should read extended WebP (VP8X) dimensions and count animation frames")
+    void shouldParseAnimatedWebp() {
+        // Given - VP8X with animation flag, canvas 300x200, followed by ANIM and 3 ANMF chunks
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x52, 0x49, 0x46, 0x46, 0x00, 0x00, 0x00, 0x00, 0x57, 0x45, 0x42, 0x50});
+        out.writeBytes(new byte[]{0x56, 0x50, 0x38, 0x58, 0x0A, 0x00, 0x00, 0x00,
+                0x02, 0x00, 0x00, 0x00,
+                (byte) 0x2B, 0x01, 0x00,  // width - 1 = 299
+                (byte) 0xC7, 0x00, 0x00}); // height - 1 = 199
+        out.writeBytes(new byte[]{0x41, 0x4E, 0x49, 0x4D, 0x06, 0x00, 0x00, 0x00, 0, 0, 0, 0, 0, 0});
+        for (int i = 0; i < 3; i++) {
+            out.writeBytes(new byte[]{0x41, 0x4E, 0x4D, 0x46, 0x04, 0x00, 0x00, 0x00, 0, 0, 0, 0});
+        }
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(out.toByteArray());
+
+        // Then
+        assertNotNull(info);
+        assertEquals(300, info.getWidth());
+        assertEquals(200, info.getHeight());
+        assertEquals(3, info.getFrameCount());
+    }
+
+    @Test
+    @DisplayName("Should use the largest ispe box of AVIF")
+    void shouldParseAvifLargestExtent() {
+        // Given - meta/iprp/ipco with a 100x100 thumbnail extent and a 4000x3000 primary extent
+        byte[] ispeSmall = box("ispe", concat(new byte[4], uint32(100), uint32(100)));
+        byte[] ispeLarge = box("ispe", concat(new byte[4], uint32(4000), uint32(3000)));
+        byte[] ipco = box("ipco", concat(ispeSmall, ispeLarge));
+        byte[] iprp = box("iprp", ipco);
+        byte[] meta = box("meta", concat(new byte[4], box("hdlr", new byte[8]), iprp));
+        byte[] ftyp = box("ftyp", "avif\u0000\u0000\u0000\u0000".getBytes());
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(concat(ftyp, meta));
+
+        // Then
+        assertNotNull(info);
+        assertEquals(ImageFormat.AVIF, info.getFormat());
+        assertEquals(4000, info.getWidth());
+        assertEquals(3000, info.getHeight());
+    }
+
+    @Test
+    @DisplayName("Should return null for AVIF without ispe")
+    void shouldReturnNullForAvifWithoutExtent() {
+        // Given
+        byte[] ftyp = box("ftyp", "avif\u0000\u0000\u0000\u0000".getBytes());
+
+        // When
+        ImageInfo info = ImageHeaderParser.parse(ftyp);
+
+        // Then
+        assertNull(info);
+    }
+
+    // ========================================
+    // Helper methods
+    // ========================================
+
+    private byte[] png(long width, long height, Integer frames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A});
+        out.writeBytes(chunk("IHDR", concat(uint32(width), uint32(height), new byte[]{8, 6, 0, 0, 0})));
+        if (frames != null) {
+            out.writeBytes(chunk("acTL", concat(uint32(frames), uint32(0))));
+        }
+        out.writeBytes(chunk("IDAT", new byte[4]));
+        return out.toByteArray();
+    }
+
+    private byte[] jpegSegment(int marker, int length) {
+        return concat(new byte[]{(byte) 0xFF, (byte) marker, (byte) (length >> 8), (byte) length},
+                new byte[length - 2]);
+    }
+
+    private byte[] chunk(String type, byte[] data) {
+        return concat(uint32(data.length), type.getBytes(), data, new byte[4]);
+    }
+
+    private byte[] box(String type, byte[] data) {
+        return concat(uint32(8 + data.length), type.getBytes(), data);
+    }
+
+    private byte[] uint32(long value) {
+        return new byte[]{(byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8), (byte) value};
+    }
+
+    private byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
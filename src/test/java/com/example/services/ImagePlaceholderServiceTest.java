@@ -0,0 +1,141 @@
+package com.example.services;
+
+import com.example.services.ImageHeaderParser.ImageFormat;
+import com.example.services.ImageHeaderParser.ImageInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePlaceholderServiceTest {
+
+    private static final String DATA_URI_PREFIX = "data:image/png;base64,";
+
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @BeforeEach
+    void setUp() {
+        imagePlaceholderService = new ImagePlaceholderService();
+    }
+
+    @Test
+    @DisplayName("Should build small PNG data URI keeping aspect ratio of JPEG")
+    void shouldGeneratePlaceholderForJpeg() throws IOException {
+        // Given
+        MockMultipartFile file = imageFile(1600, 800, "jpg", Color.RED);
+        ImageInfo info = new ImageInfo(ImageFormat.JPEG, 1600, 800, 1);
+
+        // When
+        String placeholder = imagePlaceholderService.generatePlaceholder(file, info);
+
+        // Then
+        assertNotNull(placeholder);
+        assertTrue(placeholder.startsWith(DATA_URI_PREFIX));
+        assertTrue(placeholder.length() <= ImagePlaceholderService.MAX_PLACEHOLDER_LENGTH);
+
+        BufferedImage decoded = decode(placeholder);
+        assertEquals(ImagePlaceholderService.PLACEHOLDER_SIZE, decoded.getWidth());
+        assertEquals(ImagePlaceholderService.PLACEHOLDER_SIZE / 2, decoded.getHeight());
+
+        // Colors of the original survive downscaling
+        Color center = new Color(decoded.getRGB(decoded.getWidth() / 2, decoded.getHeight() / 2));
+        assertTrue(center.getRed() > 200 && center.getGreen() < 60 && center.getBlue() < 60);
+    }
+
+    @Test
+    @DisplayName("Should build placeholder for PNG")
+    void shouldGeneratePlaceholderForPng() throws IOException {
+        // Given
+        MockMultipartFile file = imageFile(300, 600, "png", Color.BLUE);
+        ImageInfo info = new ImageInfo(ImageFormat.PNG, 300, 600, 1);
+
+        // When
+        String placeholder = imagePlaceholderService.generatePlaceholder(file, info);
+
+        // Then
+        assertNotNull(placeholder);
+        BufferedImage decoded = decode(placeholder);
+        assertEquals(8, decoded.getWidth());
+        assertEquals(16, decoded.getHeight());
+    }
+
+    @Test
+    @DisplayName("Should not upscale images smaller than placeholder")
+    void shouldNotUpscaleSmallImages() throws IOException {
+        // Given
+        MockMultipartFile file = imageFile(10, 5, "png", Color.GREEN);
+        ImageInfo info = new ImageInfo(ImageFormat.PNG, 10, 5, 1);
+
+        // When
+        BufferedImage decoded = decode(imagePlaceholderService.generatePlaceholder(file, info));
+
+        // Then
+        assertEquals(10, decoded.getWidth());
+        assertEquals(5, decoded.getHeight());
+    }
+
+    @Test
+    @DisplayName("Should return null for formats without ImageIO reader")
+    void shouldReturnNullForWebp() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "test.webp", "image/webp", new byte[100]);
+        ImageInfo info = new ImageInfo(ImageFormat.WEBP, 100, 100, 1);
+
+        // When & Then
+        assertNull(imagePlaceholderService.generatePlaceholder(file, info));
+    }
+
+    @Test
+    @DisplayName("Should return null for corrupted image data")
+    void shouldReturnNullForCorruptedImage() {
+        // Given - JPEG signature followed by garbage
+        byte[] content = new byte[200];
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", content);
+        ImageInfo info = new ImageInfo(ImageFormat.JPEG, 100, 100, 1);
+
+        // When & Then
+        assertNull(imagePlaceholderService.generatePlaceholder(file, info));
+    }
+
+    @Test
+    @DisplayName("Should return null without header data")
+    void shouldReturnNullWithoutImageInfo() throws IOException {
+        assertNull(imagePlaceholderService.generatePlaceholder(imageFile(10, 10, "png", Color.RED), null));
+        assertNull(imagePlaceholderService.generatePlaceholder(null, null));
+    }
+
+    // ========================================
+    // Helper methods
+    // ========================================
+
+    private MockMultipartFile imageFile(int width, int height, String format, Color color) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return new MockMultipartFile("file", "test." + format, "image/" + format, out.toByteArray());
+    }
+
+    private BufferedImage decode(String placeholder) throws IOException {
+        byte[] png = Base64.getDecoder().decode(placeholder.substring(DATA_URI_PREFIX.length()));
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.services;
 
+import com.example.services.ImageHeaderParser.ImageInfo;
 import com.example.services.ImageValidationService.ValidationResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -293,10 +294,9 @@ class ImageValidationServiceTest {
         void shouldAcceptFileAtExactLimit() {
             // Given - exactly 5MB
             byte[] maxSizeContent = new byte[5 * 1024 * 1024];
-            // Add JPEG magic bytes
-            maxSizeContent[0] = (byte) 0xFF;
-            maxSizeContent[1] = (byte) 0xD8;
-            maxSizeContent[2] = (byte) 0xFF;
+            // Add JPEG header
+            byte[] jpegHeader = createValidJpegBytes();
+            System.arraycopy(jpegHeader, 0, maxSizeContent, 0, jpegHeader.length);
 
             MockMultipartFile maxSizeFile = new MockMultipartFile(
                     "file",
@@ -349,6 +349,107 @@ class ImageValidationServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Image dimensions tests")
+    class ImageDimensionsTests {
+
+        @Test
+        @DisplayName("Should fail when PNG declares huge dimensions (decompression bomb)")
+        void shouldFailForDecompressionBomb() {
+            // Given - tiny file declaring 50000x50000 pixels
+            MockMultipartFile bomb = new MockMultipartFile(
+                    "file",
+                    "bomb.png",
+                    "image/png",
+                    createPngBytes(50_000, 50_000)
+            );
+
+            // When
+            ValidationResult result = validationService.validateImage(bomb);
+
+            // Then
+            assertFalse(result.isValid());
+            assertTrue(result.getErrorMessage().contains("Image dimensions exceed maximum allowed size"));
+        }
+
+        @Test
+        @DisplayName("Should fail when image exceeds max pixel count")
+        void shouldFailWhenPixelCountExceedsMaximum() {
+            // Given - 10000x10000 = 100 megapixels
+            MockMultipartFile largeImage = new MockMultipartFile(
+                    "file",
+                    "large.jpg",
+                    "image/jpeg",
+                    createJpegBytes(10_000, 10_000)
+            );
+
+            // When
+            ValidationResult result = validationService.validateImage(largeImage);
+
+            // Then
+            assertFalse(result.isValid());
+            assertTrue(result.getErrorMessage().contains("megapixels"));
+        }
+
+        @Test
+        @DisplayName("Should accept camera JPEG with SOF beyond the first 64KB")
+        void shouldSucceedForJpegWithLargeMetadata() {
+            // Given - EXIF and two ICC segments of 64KB each before the frame header
+            byte[] jpeg = createValidJpegBytes();
+            byte[] segment = new byte[0xFFFF + 2];
+            segment[0] = (byte) 0xFF;
+            segment[1] = (byte) 0xE1;
+            segment[2] = (byte) 0xFF;
+            segment[3] = (byte) 0xFF;
+            byte[] bytes = new byte[2 + 3 * segment.length + jpeg.length - 2];
+            System.arraycopy(jpeg, 0, bytes, 0, 2);
+            for (int i = 0; i < 3; i++) {
+                System.arraycopy(segment, 0, bytes, 2 + i * segment.length, segment.length);
+            }
+            System.arraycopy(jpeg, 2, bytes, 2 + 3 * segment.length, jpeg.length - 2);
+
+            MockMultipartFile photo = new MockMultipartFile("file", "photo.jpg", "image/jpeg", bytes);
+
+            // When
+            ValidationResult result = validationService.validateImage(photo);
+
+            // Then
+            assertTrue(result.isValid());
+            assertEquals(200, validationService.readImageInfo(photo).getWidth());
+        }
+
+        @Test
+        @DisplayName("Should fail when dimensions cannot be read")
+        void shouldFailWhenHeaderIsTruncated() {
+            // Given - JPEG magic bytes without a frame header
+            MockMultipartFile truncated = new MockMultipartFile(
+                    "file",
+                    "truncated.jpg",
+                    "image/jpeg",
+                    new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0x00, 0x10, 0x4A, 0x46, 0x49, 0x46}
+            );
+
+            // When
+            ValidationResult result = validationService.validateImage(truncated);
+
+            // Then
+            assertFalse(result.isValid());
+            assertEquals("Could not read image dimensions", result.getErrorMessage());
+        }
+
+        @Test
+        @DisplayName("Should read dimensions of valid image")
+        void shouldReadImageInfo() {
+            // When
+            ImageInfo info = validationService.readImageInfo(createValidJpegFile("test.jpg"));
+
+            // Then
+            assertNotNull(info);
+            assertEquals(200, info.getWidth());
+            assertEquals(100, info.getHeight());
+        }
+    }
+
     @Nested
     @DisplayName("validatePreviewImage() tests")
     class ValidatePreviewImageTests {
@@ -540,18 +641,11 @@ class ImageValidationServiceTest {
     // ========================================
 
     private byte[] createValidJpegBytes() {
-        return new byte[]{
-                (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0,
-                0x00, 0x10, 0x4A, 0x46, 0x49, 0x46
-        };
+        return createJpegBytes(200, 100);
     }
 
     private byte[] createValidPngBytes() {
-        return new byte[]{
-                (byte) 0x89, 0x50, 0x4E, 0x47,
-                0x0D, 0x0A, 0x1A, 0x0A,
-                0x00, 0x00
-        };
+        return createPngBytes(200, 100);
     }
 
     private byte[] createValidWebpBytes() {
@@ -559,16 +653,59 @@ class ImageValidationServiceTest {
                 0x52, 0x49, 0x46, 0x46,  // "RIFF"
                 0x00, 0x00, 0x00, 0x00,  // file size
                 0x57, 0x45, 0x42, 0x50,  // "WEBP"
-                0x00, 0x00
+                0x56, 0x50, 0x38, 0x20,  // "VP8 "
+                0x0A, 0x00, 0x00, 0x00,  // chunk size
+                0x10, 0x02, 0x00,        // frame tag
+                (byte) 0x9D, 0x01, 0x2A, // start code
+                (byte) 0xC8, 0x00,       // width 200
+                0x64, 0x00               // height 100
         };
     }
 
     private byte[] createValidAvifBytes() {
         return new byte[]{
-                0x00, 0x00, 0x00, 0x20,  // box size
+                0x00, 0x00, 0x00, 0x10,  // box size
                 0x66, 0x74, 0x79, 0x70,  // "ftyp"
                 0x61, 0x76, 0x69, 0x66,  // "avif"
-                0x00, 0x00, 0x00, 0x00
+                0x00, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x30,  // box size
+                0x6D, 0x65, 0x74, 0x61,  // "meta"
+                0x00, 0x00, 0x00, 0x00,  // version and flags
+                0x00, 0x00, 0x00, 0x24,  // box size
+                0x69, 0x70, 0x72, 0x70,  // "iprp"
+                0x00, 0x00, 0x00, 0x1C,  // box size
+                0x69, 0x70, 0x63, 0x6F,  // "ipco"
+                0x00, 0x00, 0x00, 0x14,  // box size
+                0x69, 0x73, 0x70, 0x65,  // "ispe"
+                0x00, 0x00, 0x00, 0x00,  // version and flags
+                0x00, 0x00, 0x00, (byte) 0xC8, // width 200
+                0x00, 0x00, 0x00, 0x64   // height 100
+        };
+    }
+
+    private byte[] createJpegBytes(int width, int height) {
+        return new byte[]{
+                (byte) 0xFF, (byte) 0xD8,                   // SOI
+                (byte) 0xFF, (byte) 0xE0, 0x00, 0x10,       // APP0, length 16
+                0x4A, 0x46, 0x49, 0x46, 0x00,               // "JFIF"
+                0x01, 0x01, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00,
+                (byte) 0xFF, (byte) 0xC0, 0x00, 0x11, 0x08, // SOF0, length 17, precision 8
+                (byte) (height >> 8), (byte) height,
+                (byte) (width >> 8), (byte) width,
+                0x03, 0x01, 0x22, 0x00, 0x02, 0x11, 0x01, 0x03, 0x11, 0x01
+        };
+    }
+
+    private byte[] createPngBytes(long width, long height) {
+        return new byte[]{
+                (byte) 0x89, 0x50, 0x4E, 0x47,
+                0x0D, 0x0A, 0x1A, 0x0A,
+                0x00, 0x00, 0x00, 0x0D,  // IHDR length
+                0x49, 0x48, 0x44, 0x52,  // "IHDR"
+                (byte) (width >> 24), (byte) (width >> 16), (byte) (width >> 8), (byte) width,
+                (byte) (height >> 24), (byte) (height >> 16), (byte) (height >> 8), (byte) height,
+                0x08, 0x02, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00   // CRC
         };
     }
 
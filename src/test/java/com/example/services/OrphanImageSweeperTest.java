@@ -0,0 +1,131 @@
+package com.example.services;
+
+import com.example.repositories.ProductImageRepository;
+import com.example.services.OrphanImageSweeper.SweepResult;
+import com.example.storage.LocalImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanImageSweeperTest {
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrphanImageSweeper sweeper;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new OrphanImageSweeper(productImageRepository, new LocalImageStorage(tempDir.toString()), meterRegistry);
+
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "pauseBetweenBatches", Duration.ZERO);
+    }
+
+    @Test
+    void sweep_ShouldRemoveOnlyOldUnreferencedFiles() throws IOException {
+        // Arrange
+        Path referenced = createFile("referenced.jpg", 10, Duration.ofDays(2));
+        Path orphan = createFile("orphan.jpg", 100, Duration.ofDays(2));
+        Path recentOrphan = createFile("recent.jpg", 50, Duration.ZERO);
+        Path hidden = createFile(".gitkeep", 0, Duration.ofDays(2));
+
+        when(productImageRepository.findExistingImageDirectories(anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<String> directories = invocation.getArgument(0);
+                    return directories.stream()
+                            .filter(d -> d.equals("uploads/referenced.jpg"))
+                            .toList();
+                });
+
+        // Act
+        SweepResult result = sweeper.sweep();
+
+        // Assert
+        assertEquals(3, result.getScanned());
+        assertEquals(1, result.getRemoved());
+        assertEquals(100, result.getReclaimedBytes());
+        assertTrue(Files.exists(referenced));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(recentOrphan));
+        assertTrue(Files.exists(hidden));
+        assertEquals(100.0, meterRegistry.counter("marketplace.uploads.orphans.reclaimed").count());
+        // 3 files in batches of 2
+        verify(productImageRepository, times(2)).findExistingImageDirectories(anyCollection());
+    }
+
+    @Test
+    void sweep_ShouldStopAtMaxDeletionsPerRun() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(sweeper, "maxDeletionsPerRun", 2);
+        for (int i = 0; i < 5; i++) {
+            createFile("orphan" + i + ".jpg", 1, Duration.ofDays(2));
+        }
+        when(productImageRepository.findExistingImageDirectories(anyCollection())).thenReturn(List.of());
+
+        // Act
+        SweepResult result = sweeper.sweep();
+
+        // Assert
+        assertEquals(2, result.getRemoved());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void sweep_WithQuarantine_ShouldMoveOrphans() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(sweeper, "quarantine", true);
+        createFile("orphan.jpg", 10, Duration.ofDays(2));
+        when(productImageRepository.findExistingImageDirectories(anyCollection())).thenReturn(List.of());
+
+        // Act
+        SweepResult result = sweeper.sweep();
+
+        // Assert
+        assertEquals(1, result.getRemoved());
+        assertFalse(Files.exists(tempDir.resolve("orphan.jpg")));
+        assertTrue(Files.exists(tempDir.resolve(OrphanImageSweeper.QUARANTINE_DIRECTORY).resolve("orphan.jpg")));
+    }
+
+    @Test
+    void sweep_WhenDirectoryIsEmpty_ShouldReturnEmptyResult() {
+        // Act
+        SweepResult result = sweeper.sweep();
+
+        // Assert
+        assertEquals(0, result.getScanned());
+        verifyNoInteractions(productImageRepository);
+    }
+
+    private Path createFile(String name, int size, Duration age) throws IOException {
+        Path file = Files.write(tempDir.resolve(name), new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.services;
+
+import com.example.dto.ProductDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductDetailCacheTest {
+
+    private ProductDetailCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductDetailCache(new SimpleMeterRegistry(), 10000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void evictByOwner_ShouldRemoveOnlyProductsOfOwner() {
+        // Arrange
+        cache.get(1L, loader(detail(1L, 10L)));
+        cache.get(2L, loader(detail(2L, 10L)));
+        cache.get(3L, loader(detail(3L, 20L)));
+
+        // Act
+        cache.evictByOwner(10L);
+
+        // Assert
+        assertEquals(1, cache.size());
+        cache.get(3L, loader(detail(3L, 20L)));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_WhenOwnerEvictedDuringLoad_ShouldNotCacheStaleDetail() {
+        // Act - the owner is renamed while the product is read from the database
+        cache.get(1L, () -> {
+            cache.evictByOwner(10L);
+            return detail(1L, 10L);
+        });
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    private Supplier<ProductDetail> loader(ProductDetail detail) {
+        return () -> {
+            loads.incrementAndGet();
+            return detail;
+        };
+    }
+
+    private ProductDetail detail(Long id, Long ownerId) {
+        return new ProductDetail(id, "Product " + id, "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0), 0L, ownerId, "seller" + ownerId, List.of());
+    }
+}
@@ -1,18 +1,29 @@
 package com.example.services;
 
+import com.example.models.PendingFileDeletion;
 import com.example.models.ProductImage;
+import com.example.repositories.PendingFileDeletionRepository;
 import com.example.repositories.ProductImageRepository;
+import com.example.storage.ImageStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +32,15 @@ class ProductImageServiceTest {
     @Mock
     private ProductImageRepository productImageRepository;
 
+    @Mock
+    private PendingFileDeletionRepository pendingFileDeletionRepository;
+
+    @Mock
+    private FileDeletionWorker fileDeletionWorker;
+
+    @Mock
+    private ImageStorage imageStorage;
+
     @InjectMocks
     private ProductImageService productImageService;
 
@@ -75,26 +95,97 @@ class ProductImageServiceTest {
     }
 
     @Test
-    void deleteImageFromDisk_WithNullImage_ShouldNotThrowException() {
+    void deleteImageFile_WithNullImage_ShouldNotThrowException() {
         // Act & Assert
-        assertDoesNotThrow(() -> productImageService.deleteImageFromDisk(null));
+        assertDoesNotThrow(() -> productImageService.deleteImageFile(null));
+        verifyNoInteractions(imageStorage);
     }
 
     @Test
-    void deleteImageFromDisk_WithNullImageDirectory_ShouldNotThrowException() {
+    void deleteImageFile_WithNullImageDirectory_ShouldNotThrowException() {
         // Arrange
         testImage.setImageDirectory(null);
 
         // Act & Assert
-        assertDoesNotThrow(() -> productImageService.deleteImageFromDisk(testImage));
+        assertDoesNotThrow(() -> productImageService.deleteImageFile(testImage));
+        verifyNoInteractions(imageStorage);
+    }
+
+    @Test
+    void deleteImageFile_WithValidImage_ShouldDeleteFromStorage() throws IOException {
+        // Act
+        productImageService.deleteImageFile(testImage);
+
+        // Assert
+        verify(imageStorage, times(1)).delete("test-image.jpg");
     }
 
     @Test
-    void deleteImageFromDisk_WithValidImage_ShouldAttemptDeletion() {
-        // This test verifies that the method executes without exceptions
-        // In a real scenario, you might need to create actual test files
+    void deleteImageFile_WhenStorageFails_ShouldNotThrowException() throws IOException {
+        // Arrange
+        doThrow(new IOException("Storage unavailable")).when(imageStorage).delete(anyString());
 
         // Act & Assert
-        assertDoesNotThrow(() -> productImageService.deleteImageFromDisk(testImage));
+        assertDoesNotThrow(() -> productImageService.deleteImageFile(testImage));
+    }
+
+    @Test
+    void deleteImageFile_WithExternalImage_ShouldSkipStorage() {
+        // Arrange
+        testImage.setImageDirectory("https://example.com/image.jpg");
+
+        // Act
+        productImageService.deleteImageFile(testImage);
+
+        // Assert
+        verifyNoInteractions(imageStorage);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scheduleDeletion_WithoutTransaction_ShouldQueueFilesAndTriggerWorker() {
+        // Arrange
+        ProductImage second = new ProductImage("uploads/second.jpg", false);
+        ProductImage withoutFile = new ProductImage(null, false);
+
+        // Act
+        productImageService.scheduleDeletion(List.of(testImage, second, withoutFile));
+
+        // Assert
+        ArgumentCaptor<List<PendingFileDeletion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pendingFileDeletionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(List.of("uploads/test-image.jpg", "uploads/second.jpg"),
+                captor.getValue().stream().map(PendingFileDeletion::getPath).toList());
+        verify(fileDeletionWorker, times(1)).processPendingDeletionsAsync();
+    }
+
+    @Test
+    void scheduleDeletion_InTransaction_ShouldTriggerWorkerOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            productImageService.scheduleDeletion(List.of(testImage));
+
+            // Assert
+            verify(pendingFileDeletionRepository, times(1)).saveAll(anyList());
+            verify(fileDeletionWorker, never()).processPendingDeletionsAsync();
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            synchronizations.get(0).afterCommit();
+            verify(fileDeletionWorker, times(1)).processPendingDeletionsAsync();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void scheduleDeletion_WithEmptyList_ShouldDoNothing() {
+        // Act
+        productImageService.scheduleDeletion(new ArrayList<>());
+
+        // Assert
+        verifyNoInteractions(pendingFileDeletionRepository, fileDeletionWorker);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.example.services;
+
+import com.example.services.ProductImportReader.ImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderTest {
+
+    @Test
+    void csv_ShouldReadRowsByHeaderName() throws IOException {
+        // Arrange - columns in another order, an unknown column is ignored
+        String csv = "price,title,sku,description,preview_image,additional_images\n" +
+                "149.99,Vintage film camera,A-1,Fully working with leather case,camera.jpg,back.jpg|lens.jpg\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ProductImportReader.csv(new StringReader(csv)));
+
+        // Assert
+        assertEquals(1, rows.size());
+        ImportRow row = rows.get(0);
+        assertEquals(2, row.getLine());
+        assertEquals("Vintage film camera", row.getTitle());
+        assertEquals("Fully working with leather case", row.getDescription());
+        assertEquals("149.99", row.getPrice());
+        assertEquals("camera.jpg", row.getPreviewImage());
+        assertEquals(List.of("back.jpg", "lens.jpg"), row.getAdditionalImages());
+        assertNull(row.getError());
+    }
+
+    @Test
+    void csv_WithQuotedFields_ShouldKeepCommasQuotesAndLineBreaks() throws IOException {
+        // Arrange
+        String csv = "\uFEFFtitle,description,price,preview_image\r\n" +
+                "\"Camera, 35mm\",\"Says \"\"mint\"\"\nsecond line\",10,a.jpg\r\n" +
+                "\r\n" +
+                "Second product,Description,20,b.jpg";
+
+        // Act
+        List<ImportRow> rows = readAll(ProductImportReader.csv(new StringReader(csv)));
+
+        // Assert - the second row starts on line 5, after the two-line field and a blank line
+        assertEquals(2, rows.size());
+        assertEquals("Camera, 35mm", rows.get(0).getTitle());
+        assertEquals("Says \"mint\"\nsecond line", rows.get(0).getDescription());
+        assertEquals(List.of(), rows.get(0).getAdditionalImages());
+        assertEquals(5, rows.get(1).getLine());
+        assertEquals("b.jpg", rows.get(1).getPreviewImage());
+    }
+
+    @Test
+    void csv_WithTooLongRow_ShouldReportItAndContinue() throws IOException {
+        // Arrange
+        String csv = "title,description,price,preview_image\n" +
+                "Title," + "x".repeat(ProductImportReader.MAX_ROW_LENGTH) + ",10,a.jpg\n" +
+                "Next product,Description,20,b.jpg\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ProductImportReader.csv(new StringReader(csv)));
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertNotNull(rows.get(0).getError());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Next product", rows.get(1).getTitle());
+        assertEquals(3, rows.get(1).getLine());
+    }
+
+    @Test
+    void csv_WithoutRequiredColumn_ShouldFail() {
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ProductImportReader.csv(new StringReader("title,description,price\n")));
+        assertEquals("Missing column: preview_image", e.getMessage());
+    }
+
+    @Test
+    void ndjson_ShouldReadOneObjectPerLine() throws IOException {
+        // Arrange
+        String ndjson = "{\"title\":\"Vintage film camera\",\"description\":\"Fully working\",\"price\":149.99," +
+                "\"previewImage\":\"camera.jpg\",\"additionalImages\":[\"back.jpg\"]}\n" +
+                "\n" +
+                "{\"title\":\"Broken\",\n" +
+                "[1, 2]\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ProductImportReader.ndjson(new StringReader(ndjson), new ObjectMapper()));
+
+        // Assert - invalid lines are reported by line number
+        assertEquals(3, rows.size());
+        assertEquals("Vintage film camera", rows.get(0).getTitle());
+        assertEquals("149.99", rows.get(0).getPrice());
+        assertEquals(List.of("back.jpg"), rows.get(0).getAdditionalImages());
+        assertEquals(3, rows.get(1).getLine());
+        assertTrue(rows.get(1).getError().startsWith("Invalid JSON"));
+        assertEquals("Invalid JSON: expected an object", rows.get(2).getError());
+    }
+
+    private List<ImportRow> readAll(ProductImportReader reader) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (reader) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
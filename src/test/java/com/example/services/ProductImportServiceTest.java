@@ -0,0 +1,336 @@
+package com.example.services;
+
+import com.example.models.Product;
+import com.example.models.User;
+import com.example.repositories.ProductImageRepository;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserRepository;
+import com.example.services.ImageValidationService.ValidationResult;
+import com.example.services.ProductImportService.ImportResult;
+import com.example.storage.ImageStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Imports against H2: each batch is committed on its own, like in production,
+ * so the test does not run in a transaction.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProductService.class, ProductImportService.class,
+        ProductImportServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImportServiceTest {
+
+    private static final String HEADER = "title,description,price,preview_image,additional_images\n";
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProductImageService productImageService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ImageValidationService imageValidationService;
+
+    @MockBean
+    private ImageStorage imageStorage;
+
+    @MockBean
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @MockBean
+    private SellerPageCache sellerPageCache;
+
+    @MockBean
+    private ProductDetailCache productDetailCache;
+
+    @MockBean
+    private SimilarProductsCache similarProductsCache;
+
+    private Long ownerId;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(imageValidationService.validatePreviewImage(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.validateAdditionalImages(anyList())).thenReturn(ValidationResult.success());
+
+        User owner = new User();
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.setPassword("encodedPassword");
+        ownerId = userRepository.save(owner).getId();
+
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM similar_products");
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        ReflectionTestUtils.setField(productImportService, "maxRows", 10000);
+    }
+
+    @Test
+    void importProducts_FromCsv_ShouldSaveAndIndexInBatches() throws Exception {
+        // Arrange
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 5; i++) {
+            csv.append(row("Vintage camera number " + i, "10." + i, i + ".jpg", "extra.jpg"));
+        }
+
+        // Act
+        ImportResult result = productImportService.importProducts(
+                csv("products.csv", csv.toString()), zip("1.jpg", "2.jpg", "3.jpg", "4.jpg", "5.jpg", "extra.jpg"),
+                ownerId);
+
+        // Assert - batches of 2, 2 and 1, each indexed with one request
+        assertNull(result.getErrorMessage());
+        assertEquals(5, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertEquals(5, productRepository.count());
+        assertEquals(10, productImageRepository.count());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM similar_products", Integer.class));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT product_count FROM users WHERE id = ?", Integer.class, ownerId));
+        verify(productSearchService, times(3)).indexProducts(anyCollection());
+        verify(imageStorage, times(10)).store(anyString(), any(), anyLong(), eq("image/jpeg"));
+    }
+
+    @Test
+    void importProducts_ShouldIndexProductsWithLoadedOwner() throws Exception {
+        // Arrange - the index reads the owner after commit, here without open-in-view
+        List<String> indexedOwners = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<Product> products = invocation.getArgument(0);
+            products.forEach(product -> indexedOwners.add(product.getOwner().getUsername()));
+            return null;
+        }).when(productSearchService).indexProducts(anyCollection());
+
+        // Act
+        ImportResult result = productImportService.importProducts(
+                csv("products.csv", HEADER + row("Vintage camera number 1", "10.00", "1.jpg", "")),
+                zip("1.jpg"), ownerId);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(List.of("seller"), indexedOwners);
+    }
+
+    @Test
+    void importProducts_WhenOwnerDoesNotExist_ShouldFail() throws Exception {
+        // Act
+        ImportResult result = productImportService.importProducts(
+                csv("products.csv", HEADER + row("Vintage camera number 1", "10.00", "1.jpg", "")),
+                zip("1.jpg"), ownerId + 1);
+
+        // Assert
+        assertNotNull(result.getErrorMessage());
+        assertEquals(0, productRepository.count());
+        verify(imageStorage, never()).store(anyString(), any(), anyLong(), anyString());
+    }
+
+    @Test
+    void importProducts_ShouldUseConstantNumberOfStatementsPerBatch() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "batchSize", 20);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 20; i++) {
+            csv.append(row("Vintage camera number " + i, "10.00", "1.jpg", ""));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.csv", csv.toString()),
+                zip("1.jpg"), ownerId);
+
+        // Assert - one batched INSERT for products and one for images, owner counters and the
+        // similar products queue, plus at most one nextval per sequence depending on the id pool
+        assertEquals(20, result.getImported());
+        assertEquals(40, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void importProducts_WithInvalidRows_ShouldReportThemAndImportTheRest() throws Exception {
+        // Arrange
+        String csv = HEADER +
+                row("Vintage camera in good condition", "149.99", "1.jpg", "") +
+                row("Short", "10.00", "1.jpg", "") +
+                row("Camera with a price typo", "12,50", "1.jpg", "") +
+                row("Camera without its image", "10.00", "missing.jpg", "") +
+                row("Another camera in good condition", "99.00", "1.jpg", "");
+
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.csv", csv), zip("1.jpg"), ownerId);
+
+        // Assert - errors point to the line of the row
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3, 4, 5), result.getErrors().stream().map(ProductImportService.RowError::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("at least 10"));
+        assertEquals("Invalid price: 12,50", result.getErrors().get(1).getMessage());
+        assertEquals("Image not found in the archive: missing.jpg", result.getErrors().get(2).getMessage());
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void importProducts_WithInvalidImage_ShouldSkipRowWithoutStoringFiles() throws Exception {
+        // Arrange
+        when(imageValidationService.validatePreviewImage(argThat(file -> file != null
+                && "bad.jpg".equals(file.getOriginalFilename()))))
+                .thenReturn(ValidationResult.error("File is not a valid image"));
+        String csv = HEADER + row("Vintage camera in good condition", "149.99", "photos/bad.jpg", "");
+
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.csv", csv), zip("photos/bad.jpg"),
+                ownerId);
+
+        // Assert
+        assertEquals(0, result.getImported());
+        assertEquals("photos/bad.jpg: File is not a valid image", result.getErrors().get(0).getMessage());
+        verifyNoInteractions(imageStorage);
+        verify(productSearchService, never()).indexProducts(anyCollection());
+    }
+
+    @Test
+    void importProducts_FromNdjson_ShouldImportRows() throws Exception {
+        // Arrange
+        String ndjson = "{\"title\":\"Vintage camera in good condition\"," +
+                "\"description\":\"Fully working film camera with case\",\"price\":149.99," +
+                "\"previewImage\":\"1.jpg\",\"additionalImages\":[\"2.jpg\"]}\n";
+
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.ndjson", ndjson),
+                zip("1.jpg", "2.jpg"), ownerId);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        Product product = productRepository.findAll().get(0);
+        assertEquals("Vintage camera in good condition", product.getTitle());
+        assertEquals(ownerId, product.getOwner().getId());
+    }
+
+    @Test
+    void importProducts_OverMaxRows_ShouldImportTheFirstRowsAndStop() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "maxRows", 2);
+        String csv = HEADER +
+                row("Vintage camera number 1", "10.00", "1.jpg", "") +
+                row("Vintage camera number 2", "10.00", "1.jpg", "") +
+                row("Vintage camera number 3", "10.00", "1.jpg", "");
+
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.csv", csv), zip("1.jpg"), ownerId);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertNotNull(result.getErrorMessage());
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void importProducts_WithUnsupportedFile_ShouldFail() throws Exception {
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.xlsx", "data"), zip("1.jpg"), ownerId);
+
+        // Assert
+        assertEquals("Unsupported file type, use .csv or .ndjson", result.getErrorMessage());
+        assertEquals(0, result.getImported());
+    }
+
+    @Test
+    void importProducts_WithMissingColumn_ShouldFail() throws Exception {
+        // Act
+        ImportResult result = productImportService.importProducts(csv("products.csv", "title,price\n"),
+                zip("1.jpg"), ownerId);
+
+        // Assert
+        assertEquals("Missing column: description", result.getErrorMessage());
+    }
+
+    private String row(String title, String price, String previewImage, String additionalImages) {
+        return String.format("\"%s\",Fully working film camera with case,\"%s\",%s,%s%n",
+                title, price, previewImage, additionalImages);
+    }
+
+    private MockMultipartFile csv(String name, String content) {
+        return new MockMultipartFile("file", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MockMultipartFile zip(String... names) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(("image " + name).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("images", "images.zip", "application/zip", bytes.toByteArray());
+    }
+}
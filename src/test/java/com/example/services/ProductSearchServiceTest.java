@@ -16,9 +16,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.MoreLikeThisQuery;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,6 +41,9 @@ class ProductSearchServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
     @InjectMocks
     private ProductSearchService productSearchService;
 
@@ -85,6 +96,82 @@ class ProductSearchServiceTest {
         verify(searchRepository, times(1)).save(any(ProductDocument.class));
     }
 
+    @Test
+    void indexProducts_ShouldSaveAllInOneRequest() {
+        // Act
+        productSearchService.indexProducts(List.of(testProduct, testProduct));
+
+        // Assert
+        verify(searchRepository, times(1)).saveAll(argThat(docs -> ((List<?>) docs).size() == 2));
+        verify(searchRepository, never()).save(any(ProductDocument.class));
+    }
+
+    @Test
+    void indexProducts_WhenExceptionThrown_ShouldHandleGracefully() {
+        // Arrange
+        when(searchRepository.saveAll(anyList())).thenThrow(new RuntimeException("ES error"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> productSearchService.indexProducts(List.of(testProduct)));
+    }
+
+    @Test
+    void updateProductFields_ShouldSendPartialDocument() {
+        // Arrange
+        IndexCoordinates index = IndexCoordinates.of("products");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(index);
+
+        // Act
+        productSearchService.updateProductFields(testProduct, Map.of("price", new BigDecimal("49.99")));
+
+        // Assert
+        verify(elasticsearchOperations).update(argThat((UpdateQuery query) -> "1".equals(query.getId())
+                && query.getDocument().keySet().equals(Set.of("price"))), eq(index));
+        verify(searchRepository, never()).save(any(ProductDocument.class));
+    }
+
+    @Test
+    void updateProductFields_WhenUpdateFails_ShouldIndexWholeProduct() {
+        // Arrange - e.g. the document is missing in the index
+        IndexCoordinates index = IndexCoordinates.of("products");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(index);
+        when(elasticsearchOperations.update(any(UpdateQuery.class), eq(index)))
+                .thenThrow(new RuntimeException("document missing"));
+
+        // Act
+        productSearchService.updateProductFields(testProduct, Map.of("title", "Test Product"));
+
+        // Assert
+        verify(searchRepository, times(1)).save(any(ProductDocument.class));
+    }
+
+    @Test
+    void searchProductIds_ShouldReturnIdsInHitOrder() {
+        // Arrange
+        ProductDocument second = new ProductDocument();
+        second.setId(7L);
+        Pageable pageable = PageRequest.of(0, 20);
+        when(searchRepository.findByTitleContainingOrDescriptionContaining("camera", "camera", pageable))
+                .thenReturn(new PageImpl<>(List.of(second, testDocument), pageable, 2));
+
+        // Act
+        Page<Long> result = productSearchService.searchProductIds("camera", 0, 20);
+
+        // Assert
+        assertEquals(List.of(7L, 1L), result.getContent());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void searchProductIds_WhenElasticsearchFails_ShouldReturnNull() {
+        // Arrange
+        when(searchRepository.findByTitleContainingOrDescriptionContaining(anyString(), anyString(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("ES error"));
+
+        // Act & Assert
+        assertNull(productSearchService.searchProductIds("camera", 0, 20));
+    }
+
     @Test
     void deleteProductFromIndex_ShouldDeleteById() {
         // Arrange
@@ -134,6 +221,38 @@ class ProductSearchServiceTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void findSimilarProductIds_ShouldReturnMoreLikeThisHitsInOrder() {
+        // Arrange
+        SearchHit<ProductDocument> first = mock(SearchHit.class);
+        SearchHit<ProductDocument> second = mock(SearchHit.class);
+        when(first.getId()).thenReturn("7");
+        when(second.getId()).thenReturn("3");
+        SearchHits<ProductDocument> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of(first, second));
+        when(elasticsearchOperations.search(any(MoreLikeThisQuery.class), eq(ProductDocument.class))).thenReturn(hits);
+
+        // Act
+        List<Long> result = productSearchService.findSimilarProductIds(1L, 6);
+
+        // Assert
+        assertEquals(List.of(7L, 3L), result);
+        verify(elasticsearchOperations).search(argThat((MoreLikeThisQuery query) -> "1".equals(query.getId())
+                && query.getFields().containsAll(List.of("title", "description"))
+                && query.getPageable().getPageSize() == 6), eq(ProductDocument.class));
+    }
+
+    @Test
+    void findSimilarProductIds_WhenExceptionThrown_ShouldReturnNull() {
+        // Arrange
+        when(elasticsearchOperations.search(any(MoreLikeThisQuery.class), eq(ProductDocument.class)))
+                .thenThrow(new RuntimeException("ES error"));
+
+        // Act & Assert
+        assertNull(productSearchService.findSimilarProductIds(1L, 6));
+    }
+
     @Test
     void searchProducts_WithQuery_ShouldReturnSearchResults() {
         // Arrange
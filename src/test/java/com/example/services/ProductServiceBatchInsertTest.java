@@ -0,0 +1,137 @@
+package com.example.services;
+
+import com.example.models.Product;
+import com.example.models.User;
+import com.example.services.ImageValidationService.ValidationResult;
+import com.example.storage.ImageStorage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statements sent to the database when a listing with images is saved:
+ * pooled ids and insert batching keep it constant instead of one per image.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProductService.class})
+class ProductServiceBatchInsertTest {
+
+    private static final int ADDITIONAL_IMAGES = 10;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ProductImageService productImageService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ImageValidationService imageValidationService;
+
+    @MockBean
+    private ImageStorage imageStorage;
+
+    @MockBean
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @MockBean
+    private SellerPageCache sellerPageCache;
+
+    @MockBean
+    private ProductDetailCache productDetailCache;
+
+    @MockBean
+    private SimilarProductsCache similarProductsCache;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        when(imageValidationService.validatePreviewImage(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.validateAdditionalImages(anyList())).thenReturn(ValidationResult.success());
+
+        owner = new User();
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.setPassword("encodedPassword");
+        entityManager.persist(owner);
+        entityManager.flush();
+    }
+
+    @Test
+    void saveProductWithImages_ShouldUseConstantNumberOfStatements() {
+        // Arrange
+        List<MultipartFile> additionalImages = new ArrayList<>();
+        for (int i = 0; i < ADDITIONAL_IMAGES; i++) {
+            additionalImages.add(image("additional" + i + ".jpg"));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        ProductService.SaveResult result = productService.saveProductWithImages(
+                image("preview.jpg"), additionalImages, product(), owner);
+        entityManager.flush();
+
+        // Assert - nextval for products and images, one batched INSERT for each table,
+        // owner counters and the similar products queue
+        assertTrue(result.isSuccess());
+        assertEquals(1 + 1 + ADDITIONAL_IMAGES, statistics.getEntityInsertCount());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveProductWithImages_SecondListing_ShouldReuseAllocatedIds() {
+        // Arrange
+        productService.saveProductWithImages(image("first.jpg"), List.of(), product(), owner);
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        productService.saveProductWithImages(image("second.jpg"), List.of(image("extra.jpg")), product(), owner);
+        entityManager.flush();
+
+        // Assert - ids come from the pool allocated by the first save, no nextval
+        assertEquals(3, statistics.getEntityInsertCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    private Product product() {
+        Product product = new Product();
+        product.setTitle("Vintage camera in good condition");
+        product.setDescription("Fully working film camera with original leather case");
+        product.setPrice(new BigDecimal("149.99"));
+        return product;
+    }
+
+    private MultipartFile image(String name) {
+        return new MockMultipartFile("file", name, "image/jpeg", "image".getBytes());
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.services;
+
+import com.example.models.Product;
+import com.example.models.ProductImage;
+import com.example.models.User;
+import com.example.repositories.ProductImageRepository;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserRepository;
+import com.example.services.ImageValidationService.ValidationResult;
+import com.example.services.ProductService.SaveResult;
+import com.example.storage.ImageStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Edits of the same listing from several tabs: each edit commits in its own
+ * transaction, the version column decides which one wins.
+ */
+@DataJpaTest
+@Import({ProductService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceConcurrentEditTest {
+
+    private static final int EDITORS = 8;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @MockBean
+    private ProductImageService productImageService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ImageValidationService imageValidationService;
+
+    @MockBean
+    private ImageStorage imageStorage;
+
+    @MockBean
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @MockBean
+    private SellerPageCache sellerPageCache;
+
+    @MockBean
+    private ProductDetailCache productDetailCache;
+
+    @MockBean
+    private SimilarProductsCache similarProductsCache;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        User owner = new User();
+        owner.setUsername("seller");
+        owner.setEmail("seller@example.com");
+        owner.setPassword("encodedPassword");
+        userRepository.save(owner);
+
+        Product product = edit("Original title", null);
+        product.setOwner(owner);
+        ProductImage image = new ProductImage("uploads/additional.jpg", false);
+        image.setProduct(product);
+        product.setImages(new ArrayList<>(List.of(image)));
+        productId = productRepository.save(product).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updateProduct_FromStaleForm_ShouldBeRejected() {
+        // Arrange - two tabs opened at version 0, the first one saves
+        assertTrue(productService.updateProduct(productId, null, null, null, edit("Saved in tab one", 0L)).isSuccess());
+
+        // Act
+        SaveResult result = productService.updateProduct(productId, null, null, null, edit("Saved in tab two", 0L));
+
+        // Assert
+        assertTrue(result.isConflict());
+        Product current = productRepository.findById(productId).orElseThrow();
+        assertEquals("Saved in tab one", current.getTitle());
+        assertEquals(1L, current.getVersion());
+    }
+
+    @Test
+    void updateProduct_RemovingOnlyAnImage_ShouldIncrementVersion() {
+        // Arrange
+        ProductImage image = productImageRepository.findAll().get(0);
+        Long imageId = image.getId();
+
+        // Act - same text and price, one image removed
+        SaveResult result = productService.updateProduct(productId, null, null, List.of(imageId),
+                edit("Original title", 0L));
+
+        // Assert
+        assertTrue(result.isSuccess());
+        assertEquals(1L, productRepository.findById(productId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateProduct_WithInvalidImageThenResubmit_ShouldSucceed() {
+        // Arrange - the first submit of the form carries an invalid preview image
+        MockMultipartFile invalid = new MockMultipartFile("previewImage", "preview.gif", "image/gif", "gif".getBytes());
+        MockMultipartFile valid = new MockMultipartFile("previewImage", "preview.jpg", "image/jpeg", "jpeg".getBytes());
+        when(imageValidationService.validateImage(invalid)).thenReturn(ValidationResult.error("Unsupported image type"));
+        when(imageValidationService.validateImage(valid)).thenReturn(ValidationResult.success());
+        SaveResult rejected = productService.updateProduct(productId, invalid, null, null, edit("Camera with new photos", 0L));
+        assertFalse(rejected.isSuccess());
+
+        // Act - same form, still at version 0, with a valid image
+        SaveResult result = productService.updateProduct(productId, valid, null, null, edit("Camera with new photos", 0L));
+
+        // Assert
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        Product current = productRepository.findById(productId).orElseThrow();
+        assertEquals("Camera with new photos", current.getTitle());
+    }
+
+    @Test
+    void updateProduct_RemovingImageOfAnotherProduct_ShouldKeepVersion() {
+        // Act - the product is locked for an image change that turns out to be none
+        SaveResult result = productService.updateProduct(productId, null, null, List.of(-1L),
+                edit("Original title", 0L));
+
+        // Assert
+        assertTrue(result.isSuccess());
+        assertEquals(0L, productRepository.findById(productId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateProduct_WithoutChanges_ShouldKeepVersion() {
+        // Act - the form is saved as it was loaded
+        SaveResult result = productService.updateProduct(productId, null, null, null, edit("Original title", 0L));
+
+        // Assert
+        assertTrue(result.isSuccess());
+        assertEquals(0L, productRepository.findById(productId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateProduct_InParallel_ShouldApplyExactlyOneEdit() throws Exception {
+        // Arrange - every editor loaded the form at version 0
+        ExecutorService executor = Executors.newFixedThreadPool(EDITORS);
+        CyclicBarrier start = new CyclicBarrier(EDITORS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < EDITORS; i++) {
+            String title = "Edited by editor " + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    SaveResult result = productService.updateProduct(productId, null, null, null, edit(title, 0L));
+                    assertTrue(result.isSuccess() || result.isConflict(), result.getErrorMessage());
+                    return result.isSuccess();
+                } catch (OptimisticLockingFailureException e) {
+                    // Lost the race at commit
+                    return false;
+                }
+            }));
+        }
+        int saved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                saved++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert - one edit won, the others were told instead of overwriting it
+        assertEquals(1, saved);
+        Product current = productRepository.findById(productId).orElseThrow();
+        assertEquals(1L, current.getVersion());
+        assertTrue(current.getTitle().startsWith("Edited by editor "));
+    }
+
+    private Product edit(String title, Long version) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setDescription("Fully working film camera with original leather case");
+        product.setPrice(new BigDecimal("149.99"));
+        product.setVersion(version);
+        return product;
+    }
+}
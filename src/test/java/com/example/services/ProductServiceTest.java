@@ -1,31 +1,52 @@
 package com.example.services;
 
+import com.example.dto.ProductCard;
+import com.example.dto.ProductDetail;
 import com.example.models.Product;
 import com.example.models.ProductImage;
+import com.example.models.SimilarProducts;
 import com.example.models.User;
 import com.example.repositories.ProductRepository;
+import com.example.repositories.SimilarProductsRepository;
+import com.example.repositories.UserRepository;
+import com.example.services.ImageHeaderParser.ImageFormat;
+import com.example.services.ImageHeaderParser.ImageInfo;
+import com.example.services.ProductService.CardPage;
 import com.example.services.ProductService.SaveResult;
 import com.example.services.ImageValidationService.ValidationResult;
+import com.example.storage.ImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +64,27 @@ class ProductServiceTest {
     @Mock
     private ImageValidationService imageValidationService;
 
+    @Mock
+    private ImageStorage imageStorage;
+
+    @Mock
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @Mock
+    private SellerPageCache sellerPageCache;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private ProductDetailCache productDetailCache = new ProductDetailCache(new SimpleMeterRegistry(), 10000, Duration.ofMinutes(10));
+
+    @Mock
+    private SimilarProductsRepository similarProductsRepository;
+
+    @Spy
+    private SimilarProductsCache similarProductsCache = new SimilarProductsCache(new SimpleMeterRegistry(), 10000, Duration.ofMinutes(10));
+
     @InjectMocks
     private ProductService productService;
 
@@ -142,7 +184,7 @@ class ProductServiceTest {
     @Test
     void isOwner_WhenUserIsOwner_ShouldReturnTrue() {
         // Act
-        boolean result = productService.isOwner(testProduct, testUser);
+        boolean result = productService.isOwner(testProduct, testUser.getId());
 
         // Assert
         assertTrue(result);
@@ -156,7 +198,7 @@ class ProductServiceTest {
         otherUser.setUsername("otheruser");
 
         // Act
-        boolean result = productService.isOwner(testProduct, otherUser);
+        boolean result = productService.isOwner(testProduct, otherUser.getId());
 
         // Assert
         assertFalse(result);
@@ -165,7 +207,7 @@ class ProductServiceTest {
     @Test
     void isOwner_WhenProductIsNull_ShouldReturnFalse() {
         // Act
-        boolean result = productService.isOwner(null, testUser);
+        boolean result = productService.isOwner((Product) null, testUser.getId());
 
         // Assert
         assertFalse(result);
@@ -188,7 +230,6 @@ class ProductServiceTest {
         testProduct.setImages(List.of(image1, image2));
 
         when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
-        doNothing().when(productImageService).deleteImageFromDisk(any(ProductImage.class));
         doNothing().when(productRepository).deleteById(anyLong());
         doNothing().when(searchService).deleteProductFromIndex(anyLong());
 
@@ -197,9 +238,13 @@ class ProductServiceTest {
 
         // Assert
         verify(productRepository, times(1)).findById(1L);
-        verify(productImageService, times(2)).deleteImageFromDisk(any(ProductImage.class));
+        verify(productImageService, times(1)).scheduleDeletion(List.of(image1, image2));
+        verify(productImageService, never()).deleteImageFile(any(ProductImage.class));
         verify(productRepository, times(1)).deleteById(1L);
         verify(searchService, times(1)).deleteProductFromIndex(1L);
+        verify(sellerPageCache, times(1)).evict(1L);
+        verify(productDetailCache, times(1)).evict(1L);
+        verify(userRepository, times(1)).addListingCounters(1L, -1, -2);
     }
 
     @Test
@@ -243,7 +288,6 @@ class ProductServiceTest {
         when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
         when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-        doNothing().when(searchService).indexProduct(any(Product.class));
 
         // Act
         SaveResult result = productService.updateProduct(1L, null, null, null, updatedProduct);
@@ -255,7 +299,76 @@ class ProductServiceTest {
         assertEquals(new BigDecimal("199.99"), testProduct.getPrice());
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(testProduct);
-        verify(searchService, times(1)).indexProduct(testProduct);
+        verify(searchService, times(1)).updateProductFields(testProduct, Map.of(
+                "title", "Updated Title",
+                "description", "Updated Description that is long enough",
+                "price", new BigDecimal("199.99")));
+        verify(searchService, never()).indexProduct(any(Product.class));
+        verify(similarProductsRepository, times(1)).markPending(1L);
+    }
+
+    @Test
+    void updateProduct_WithSameText_ShouldKeepSimilarProducts() {
+        // Arrange - only the price changes
+        Product updatedProduct = new Product();
+        updatedProduct.setTitle(testProduct.getTitle());
+        updatedProduct.setDescription(testProduct.getDescription());
+        updatedProduct.setPrice(new BigDecimal("49.99"));
+
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        // Act
+        SaveResult result = productService.updateProduct(1L, null, null, null, updatedProduct);
+
+        // Assert - only the price is sent to the index
+        assertTrue(result.isSuccess());
+        verify(searchService, times(1)).updateProductFields(testProduct, Map.of("price", new BigDecimal("49.99")));
+        verify(similarProductsRepository, never()).markPending(anyLong());
+    }
+
+    @Test
+    void updateProduct_WithoutChanges_ShouldNotSave() {
+        // Arrange - same values, the price only differs in scale
+        Product updatedProduct = new Product();
+        updatedProduct.setTitle(testProduct.getTitle());
+        updatedProduct.setDescription(testProduct.getDescription());
+        updatedProduct.setPrice(new BigDecimal("99.990"));
+
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        // Act
+        SaveResult result = productService.updateProduct(1L, null, null, null, updatedProduct);
+
+        // Assert
+        assertTrue(result.isSuccess());
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(searchService);
+        verify(productDetailCache, never()).evict(anyLong());
+    }
+
+    @Test
+    void updateProduct_FromStaleForm_ShouldReturnConflict() {
+        // Arrange - the form was loaded at version 2, another edit saved version 3
+        testProduct.setVersion(3L);
+        Product updatedProduct = new Product();
+        updatedProduct.setTitle("Updated Title");
+        updatedProduct.setDescription("Updated Description that is long enough");
+        updatedProduct.setPrice(new BigDecimal("199.99"));
+        updatedProduct.setVersion(2L);
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        // Act
+        SaveResult result = productService.updateProduct(1L, null, null, null, updatedProduct);
+
+        // Assert
+        assertFalse(result.isSuccess());
+        assertTrue(result.isConflict());
+        assertEquals("Test Product", testProduct.getTitle());
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(imageStorage);
     }
 
     @Test
@@ -263,6 +376,7 @@ class ProductServiceTest {
         // Arrange
         Product updatedProduct = new Product();
         when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
 
         // Act
         SaveResult result = productService.updateProduct(999L, null, null, null, updatedProduct);
@@ -288,12 +402,9 @@ class ProductServiceTest {
         updatedProduct.setDescription("Updated Description that is long enough");
         updatedProduct.setPrice(new BigDecimal("199.99"));
 
-        when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+        when(productRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(testProduct));
         when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
-        when(productImageService.getImageById(anyLong())).thenReturn(image1);
-        doNothing().when(productImageService).deleteImageFromDisk(any(ProductImage.class));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-        doNothing().when(searchService).indexProduct(any(Product.class));
 
         List<Long> removeImageIds = List.of(1L);
 
@@ -302,9 +413,36 @@ class ProductServiceTest {
 
         // Assert
         assertTrue(result.isSuccess());
-        verify(productImageService, times(1)).getImageById(1L);
-        verify(productImageService, times(1)).deleteImageFromDisk(image1);
+        verify(productImageService, times(1)).scheduleDeletion(List.of(image1));
+        assertEquals(List.of(image2), testProduct.getImages());
         verify(productRepository, times(1)).save(testProduct);
+        verify(userRepository, times(1)).addListingCounters(1L, 0, -1);
+        verify(productDetailCache, times(1)).evict(1L);
+    }
+
+    @Test
+    void updateProduct_WithImageIdOfAnotherProduct_ShouldIgnoreIt() {
+        // Arrange - image 7 belongs to another listing
+        ProductImage image1 = new ProductImage();
+        image1.setId(1L);
+        testProduct.setImages(new ArrayList<>(List.of(image1)));
+
+        Product updatedProduct = new Product();
+        updatedProduct.setTitle(testProduct.getTitle());
+        updatedProduct.setDescription(testProduct.getDescription());
+        updatedProduct.setPrice(testProduct.getPrice());
+
+        when(productRepository.findWithVersionIncrementById(anyLong())).thenReturn(Optional.of(testProduct));
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        // Act
+        SaveResult result = productService.updateProduct(1L, null, null, List.of(7L), updatedProduct);
+
+        // Assert
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(image1), testProduct.getImages());
+        verify(productImageService, never()).scheduleDeletion(any());
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
@@ -371,4 +509,247 @@ class ProductServiceTest {
         assertEquals("Too many images", result.getErrorMessage());
         verify(productRepository, never()).save(any(Product.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveProductWithImages_ShouldStoreDimensionsAndPlaceholderOfPreviewImage() throws Exception {
+        // Arrange
+        MultipartFile previewFile = new MockMultipartFile("file", "preview.jpg", "image/jpeg", "test".getBytes());
+        MultipartFile additionalFile = new MockMultipartFile("file", "additional.jpg", "image/jpeg", "test".getBytes());
+        ImageInfo imageInfo = new ImageInfo(ImageFormat.JPEG, 800, 600, 1);
+
+        when(imageValidationService.validatePreviewImage(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.readImageInfo(any())).thenReturn(imageInfo);
+        when(imagePlaceholderService.generatePlaceholder(previewFile, imageInfo)).thenReturn("data:image/png;base64,AAAA");
+
+        // Act
+        SaveResult result = productService.saveProductWithImages(
+                previewFile, List.of(additionalFile), testProduct, testUser);
+
+        // Assert
+        assertTrue(result.isSuccess());
+        ProductImage preview = testProduct.getPreviewImage();
+        assertEquals(800, preview.getWidth());
+        assertEquals(600, preview.getHeight());
+        assertEquals("data:image/png;base64,AAAA", preview.getPlaceholder());
+
+        // Placeholders are only generated for the preview image
+        verify(imagePlaceholderService, never()).generatePlaceholder(eq(additionalFile), any());
+        verify(imageStorage, times(2)).store(anyString(), any(), anyLong(), anyString());
+        verify(userRepository, times(1)).addListingCounters(1L, 1, 2);
+    }
+
+    @Test
+    void saveProductWithImages_ShouldIndexAndEvictOnlyAfterCommit() {
+        // Arrange
+        MultipartFile previewFile = new MockMultipartFile("file", "preview.jpg", "image/jpeg", "test".getBytes());
+        when(imageValidationService.validatePreviewImage(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            SaveResult result = productService.saveProductWithImages(previewFile, null, testProduct, testUser);
+
+            // Assert - nothing is visible outside of the transaction yet
+            assertTrue(result.isSuccess());
+            verify(searchService, never()).indexProduct(any());
+            verify(sellerPageCache, never()).evict(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            verify(searchService, times(1)).indexProduct(testProduct);
+            verify(sellerPageCache, times(1)).evict(1L);
+            verify(productImageService, never()).deleteImageFile(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void saveProductWithImages_WhenInsertFails_ShouldPropagateAndDeleteFilesOnRollback() {
+        // Arrange
+        MultipartFile previewFile = new MockMultipartFile("file", "preview.jpg", "image/jpeg", "test".getBytes());
+        MultipartFile additionalFile = new MockMultipartFile("file", "additional.jpg", "image/jpeg", "test".getBytes());
+        when(imageValidationService.validatePreviewImage(any())).thenReturn(ValidationResult.success());
+        when(imageValidationService.validateAdditionalImages(any())).thenReturn(ValidationResult.success());
+        doThrow(new DataIntegrityViolationException("insert failed"))
+                .when(similarProductsRepository).insertPending(any());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            assertThrows(DataIntegrityViolationException.class, () -> productService.saveProductWithImages(
+                    previewFile, List.of(additionalFile), testProduct, testUser));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Assert - both stored files are removed and nothing is indexed
+            verify(productImageService, times(2)).deleteImageFile(any());
+            verify(searchService, never()).indexProduct(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getCardsByOwnerId_FirstPage_ShouldFetchOneExtraCard() {
+        // Arrange
+        List<ProductCard> cards = List.of(card(3L), card(2L), card(1L));
+        when(productRepository.findCardsByOwnerId(1L, PageRequest.of(0, 3))).thenReturn(cards);
+
+        // Act
+        CardPage page = productService.getCardsByOwnerId(1L, null, null, 2);
+
+        // Assert
+        assertEquals(cards.subList(0, 2), page.getProducts());
+        assertTrue(page.hasNext());
+        assertEquals(2L, page.getNextBeforeId());
+        assertEquals(cards.get(1).getDateOfCreated(), page.getNextBeforeDate());
+        verify(productRepository, never()).findCardsByOwnerIdBefore(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getCardsByOwnerId_LastPage_ShouldHaveNoNext() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(productRepository.findCardsByOwnerIdBefore(1L, before, 3L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(card(2L), card(1L)));
+
+        // Act
+        CardPage page = productService.getCardsByOwnerId(1L, before, 3L, 2);
+
+        // Assert
+        assertEquals(2, page.getProducts().size());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextBeforeId());
+    }
+
+    @Test
+    void getCards_ShouldPageTheCatalogByKeyset() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<ProductCard> cards = List.of(card(2L), card(1L));
+        when(productRepository.findCardsBefore(before, 3L, PageRequest.of(0, 2))).thenReturn(cards);
+
+        // Act
+        CardPage page = productService.getCards(before, 3L, 1);
+
+        // Assert
+        assertEquals(List.of(2L), page.getProducts().stream().map(ProductCard::getId).toList());
+        assertEquals(2L, page.getNextBeforeId());
+        verify(productRepository, never()).findCards(any());
+    }
+
+    @Test
+    void searchCards_ShouldKeepRelevanceOrderAndSkipDeletedProducts() {
+        // Arrange - product 5 was deleted but is still in the index
+        when(searchService.searchProductIds("camera", 0, 20))
+                .thenReturn(new PageImpl<>(List.of(3L, 5L, 1L), PageRequest.of(0, 20), 3));
+        when(productRepository.findCardsByIdIn(List.of(3L, 5L, 1L))).thenReturn(List.of(card(1L), card(3L)));
+
+        // Act
+        Page<ProductCard> result = productService.searchCards("camera", 0, 20);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), result.getContent().stream().map(ProductCard::getId).toList());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void searchCards_WhenSearchUnavailable_ShouldReturnNewestCards() {
+        // Arrange
+        when(searchService.searchProductIds("camera", 0, 20)).thenReturn(null);
+        when(productRepository.findCards(PageRequest.of(0, 20))).thenReturn(List.of(card(2L)));
+        when(productRepository.count()).thenReturn(1L);
+
+        // Act
+        Page<ProductCard> result = productService.searchCards("camera", 0, 20);
+
+        // Assert
+        assertEquals(List.of(2L), result.getContent().stream().map(ProductCard::getId).toList());
+        verify(productRepository, never()).findCardsByIdIn(any());
+    }
+
+    @Test
+    void getDetail_ShouldReadOnceAndServeFromCache() {
+        // Arrange
+        ProductDetail.Row row = new ProductDetail.Row(1L, "Test Product", "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0), 0L, 1L, "testuser", 5L, "uploads/a.jpg", 800, 600, null, true);
+        when(productRepository.findDetailRowsById(1L)).thenReturn(List.of(row));
+
+        // Act
+        ProductDetail first = productService.getDetail(1L);
+        ProductDetail second = productService.getDetail(1L);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("testuser", first.getOwnerUsername());
+        assertEquals("/uploads/a.jpg", first.getImages().get(0).getImageUrl());
+        verify(productRepository, times(1)).findDetailRowsById(1L);
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getDetail_WhenProductNotFound_ShouldReturnNull() {
+        // Arrange
+        when(productRepository.findDetailRowsById(999L)).thenReturn(List.of());
+
+        // Act & Assert
+        assertNull(productService.getDetail(999L));
+    }
+
+    @Test
+    void getCurrentDetail_ShouldBypassCache() {
+        // Arrange - the cache still holds version 0, another instance saved version 1
+        ProductDetail.Row cached = new ProductDetail.Row(1L, "Test Product", "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0), 0L, 1L, "testuser", 5L, "uploads/a.jpg", 800, 600, null, true);
+        ProductDetail.Row saved = new ProductDetail.Row(1L, "Edited Product", "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0), 1L, 1L, "testuser", 5L, "uploads/a.jpg", 800, 600, null, true);
+        when(productRepository.findDetailRowsById(1L)).thenReturn(List.of(cached), List.of(saved));
+        productService.getDetail(1L);
+
+        // Act
+        ProductDetail current = productService.getCurrentDetail(1L);
+
+        // Assert
+        assertEquals(1L, current.getVersion());
+        assertEquals("Edited Product", current.getTitle());
+        assertEquals(0L, productService.getDetail(1L).getVersion());
+    }
+
+    @Test
+    void getSimilarProducts_ShouldKeepRankAndSkipDeletedProducts() {
+        // Arrange - product 4 was deleted after the neighbours were computed
+        SimilarProducts similar = new SimilarProducts();
+        ReflectionTestUtils.setField(similar, "similarIds", "3,4,2");
+        when(similarProductsRepository.findById(1L)).thenReturn(Optional.of(similar));
+        when(productRepository.findCardsByIdIn(List.of(3L, 4L, 2L))).thenReturn(List.of(card(2L), card(3L)));
+
+        // Act
+        List<ProductCard> first = productService.getSimilarProducts(1L);
+        List<ProductCard> second = productService.getSimilarProducts(1L);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), first.stream().map(ProductCard::getId).toList());
+        assertSame(first, second);
+        verify(productRepository, times(1)).findCardsByIdIn(any());
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    void getSimilarProducts_WhenNotComputed_ShouldReturnEmptyList() {
+        // Arrange
+        when(similarProductsRepository.findById(1L)).thenReturn(Optional.of(new SimilarProducts()));
+
+        // Act & Assert
+        assertTrue(productService.getSimilarProducts(1L).isEmpty());
+        verify(productRepository, never()).findCardsByIdIn(any());
+    }
+
+    private ProductCard card(Long id) {
+        return new ProductCard(id, "Product " + id, "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(id), 0L, null, null, null, null);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProductViewCounterTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private ProductViewCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(database);
+        counter = new ProductViewCounter(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)),
+                new SimpleMeterRegistry(), 10000, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(counter, "batchSize", 2);
+
+        jdbcTemplate.update("INSERT INTO users (id, active, created_at, email, password, username) "
+                + "VALUES (1, TRUE, CURRENT_TIMESTAMP, 'seller@example.com', 'x', 'seller')");
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO products (id, date_of_created, description, price, title, user_id) "
+                    + "VALUES (?, CURRENT_TIMESTAMP, 'description', 10, 'title', 1)", id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void flush_ShouldInsertNewCountsAndAddToExisting() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO product_views (product_id, view_count) VALUES (1, 10)");
+        record(1L, 3);
+        record(2L, 2);
+        record(3L, 1);
+
+        // Act - three products in batches of two
+        int flushed = counter.flush();
+
+        // Assert
+        assertEquals(3, flushed);
+        assertEquals(13, written(1L));
+        assertEquals(2, written(2L));
+        assertEquals(1, written(3L));
+        assertEquals(0, counter.pending(1L));
+    }
+
+    @Test
+    void getViewCount_ShouldAddViewsNotYetWritten() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO product_views (product_id, view_count) VALUES (1, 10)");
+        record(1L, 2);
+
+        // Act & Assert
+        assertEquals(12, counter.getViewCount(1L));
+        assertEquals(0, counter.getViewCount(2L));
+    }
+
+    @Test
+    void getViewCount_ShouldReadWrittenCountOnce() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO product_views (product_id, view_count) VALUES (1, 10)");
+        counter.getViewCount(1L);
+
+        // Act - written by another node, still cached here
+        jdbcTemplate.update("UPDATE product_views SET view_count = 20 WHERE product_id = 1");
+        record(1L, 1);
+
+        // Assert
+        assertEquals(11, counter.getViewCount(1L));
+    }
+
+    @Test
+    void getViewCount_AfterFlush_ShouldStillCountFlushedViews() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO product_views (product_id, view_count) VALUES (1, 10)");
+        record(1L, 2);
+        assertEquals(12, counter.getViewCount(1L));
+
+        // Act
+        counter.flush();
+
+        // Assert - the flush evicted the cached written count
+        assertEquals(12, counter.getViewCount(1L));
+    }
+
+    @Test
+    void flush_ShouldWriteBatchesInProductIdOrder() {
+        // Arrange
+        JdbcTemplate spy = spy(jdbcTemplate);
+        ReflectionTestUtils.setField(counter, "jdbcTemplate", spy);
+        record(3L, 1);
+        record(1L, 1);
+        record(2L, 1);
+
+        // Act
+        counter.flush();
+
+        // Assert - batches of two, ids ascending across and within batches
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.captor();
+        verify(spy, times(2)).batchUpdate(startsWith("UPDATE"), updates.capture());
+        List<Object> ids = updates.getAllValues().stream().flatMap(List::stream).map(args -> args[1]).toList();
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void flush_WhenProductDeleted_ShouldSkipIt() {
+        // Arrange
+        record(1L, 1);
+        record(99L, 5);
+
+        // Act
+        counter.flush();
+
+        // Assert
+        assertEquals(1, written(1L));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_views WHERE product_id = 99", Integer.class));
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepViewsForNextFlush() {
+        // Arrange
+        record(1L, 4);
+        jdbcTemplate.execute("ALTER TABLE product_views RENAME TO product_views_moved");
+
+        // Act
+        int flushed = counter.flush();
+
+        // Assert
+        assertEquals(0, flushed);
+        assertEquals(4, counter.pending(1L));
+
+        jdbcTemplate.execute("ALTER TABLE product_views_moved RENAME TO product_views");
+        counter.flush();
+        assertEquals(4, written(1L));
+    }
+
+    @Test
+    void recordView_FromManyThreads_ShouldNotLoseViews() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - flushes run while views are recorded
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> record(1L, 10_000)));
+        }
+        while (futures.stream().anyMatch(f -> !f.isDone())) {
+            counter.flush();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        counter.flush();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(80_000, written(1L));
+    }
+
+    @Test
+    void flush_WhenIdle_ShouldDropProductFromMemory() {
+        // Arrange
+        record(1L, 1);
+        counter.flush();
+
+        // Act - nothing viewed since the last flush
+        int flushed = counter.flush();
+
+        // Assert
+        assertEquals(0, flushed);
+        assertEquals(0, ((Map<?, ?>) ReflectionTestUtils.getField(counter, "pendingViews")).size());
+    }
+
+    private void record(Long productId, int views) {
+        for (int i = 0; i < views; i++) {
+            counter.recordView(productId);
+        }
+    }
+
+    private long written(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT view_count FROM product_views WHERE product_id = ?", Long.class, productId);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.services;
+
+import com.example.dto.ListingStats;
+import com.example.dto.ProductCard;
+import com.example.models.User;
+import com.example.services.ProductService.CardPage;
+import com.example.services.SellerService.SellerPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SellerServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private SellerPageCache sellerPageCache = new SellerPageCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+
+    @InjectMocks
+    private SellerService sellerService;
+
+    private User seller;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sellerService, "pageSize", 2);
+
+        seller = new User();
+        seller.setId(1L);
+        seller.setUsername("seller");
+    }
+
+    @Test
+    void getSellerPage_FirstPage_ShouldUseListingCounter() {
+        // Arrange
+        CardPage cards = new CardPage(List.of(card(3L), card(2L)), card(2L));
+        when(userService.getById(1L)).thenReturn(seller);
+        when(userService.getListingStats(1L)).thenReturn(new ListingStats(5, 12));
+        when(productService.getCardsByOwnerId(1L, null, null, 2)).thenReturn(cards);
+
+        // Act
+        SellerPage page = sellerService.getSellerPage(1L, null, null);
+
+        // Assert
+        assertEquals("seller", page.getUsername());
+        assertEquals(5, page.getProductCount());
+        assertEquals(cards.getProducts(), page.getProducts());
+        assertTrue(page.isFirstPage());
+        assertTrue(page.hasNext());
+        assertEquals(2L, page.getNextBeforeId());
+        assertEquals(NOW.plusHours(2), page.getNextBeforeDate());
+    }
+
+    @Test
+    void getSellerPage_FirstPageTwice_ShouldBeCached() {
+        // Arrange
+        when(userService.getById(1L)).thenReturn(seller);
+        when(userService.getListingStats(1L)).thenReturn(new ListingStats(1, 1));
+        when(productService.getCardsByOwnerId(1L, null, null, 2)).thenReturn(new CardPage(List.of(card(1L)), null));
+
+        // Act
+        sellerService.getSellerPage(1L, null, null);
+        sellerService.getSellerPage(1L, null, null);
+
+        // Assert
+        verify(userService, times(1)).getById(1L);
+        verify(productService, times(1)).getCardsByOwnerId(anyLong(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getSellerPage_NextPage_ShouldUseKeysetAndCachedHeader() {
+        // Arrange
+        when(userService.getById(1L)).thenReturn(seller);
+        when(userService.getListingStats(1L)).thenReturn(new ListingStats(5, 5));
+        when(productService.getCardsByOwnerId(1L, null, null, 2))
+                .thenReturn(new CardPage(List.of(card(5L), card(4L)), card(4L)));
+        when(productService.getCardsByOwnerId(1L, NOW.plusHours(4), 4L, 2))
+                .thenReturn(new CardPage(List.of(card(3L), card(2L)), card(2L)));
+
+        // Act
+        SellerPage page = sellerService.getSellerPage(1L, NOW.plusHours(4), 4L);
+
+        // Assert
+        assertEquals("seller", page.getUsername());
+        assertEquals(5, page.getProductCount());
+        assertEquals(List.of(3L, 2L), page.getProducts().stream().map(ProductCard::getId).toList());
+        assertFalse(page.isFirstPage());
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    void getSellerPage_WhenSellerNotFound_ShouldReturnNull() {
+        // Arrange
+        when(userService.getById(999L)).thenReturn(null);
+
+        // Act
+        SellerPage page = sellerService.getSellerPage(999L, NOW, 1L);
+
+        // Assert
+        assertNull(page);
+        verifyNoInteractions(productService);
+    }
+
+    private ProductCard card(Long id) {
+        return new ProductCard(id, "Product " + id, "Description", new BigDecimal("10.00"),
+                NOW.plusHours(id), 0L, "uploads/" + id + ".jpg", 100, 100, null);
+    }
+}
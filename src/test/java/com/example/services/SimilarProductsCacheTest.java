@@ -0,0 +1,65 @@
+package com.example.services;
+
+import com.example.dto.ProductCard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarProductsCacheTest {
+
+    private SimilarProductsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SimilarProductsCache(new SimpleMeterRegistry(), 10000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_WhenNotComputed_ShouldCacheEmptyList() {
+        // Act
+        cache.get(1L, loader(List.of()));
+        cache.get(1L, loader(List.of()));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_ShouldCacheImmutableCopy() {
+        // Arrange
+        List<ProductCard> cards = new ArrayList<>(List.of(card(2L)));
+
+        // Act
+        List<ProductCard> result = cache.get(1L, loader(cards));
+        cards.add(card(3L));
+
+        // Assert
+        assertEquals(1, cache.get(1L, loader(cards)).size());
+        assertThrows(UnsupportedOperationException.class, () -> result.add(card(4L)));
+    }
+
+    private Supplier<List<ProductCard>> loader(List<ProductCard> cards) {
+        return () -> {
+            loads.incrementAndGet();
+            return cards;
+        };
+    }
+
+    private ProductCard card(Long id) {
+        return new ProductCard(id, "Product " + id, "Description", new BigDecimal("10.00"),
+                LocalDateTime.of(2025, 1, 1, 0, 0), 0L, null, null, null, null);
+    }
+}
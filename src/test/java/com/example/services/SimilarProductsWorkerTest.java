@@ -0,0 +1,115 @@
+package com.example.services;
+
+import com.example.models.SimilarProducts;
+import com.example.repositories.SimilarProductsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarProductsWorkerTest {
+
+    @Mock
+    private SimilarProductsRepository similarProductsRepository;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private SimilarProductsCache similarProductsCache;
+
+    private SimilarProductsWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new SimilarProductsWorker(similarProductsRepository, productSearchService, similarProductsCache);
+        ReflectionTestUtils.setField(worker, "batchSize", 3);
+    }
+
+    @Test
+    void computeBatch_ShouldStoreNeighboursOfPendingProducts() {
+        // Arrange
+        when(similarProductsRepository.findPending(PageRequest.of(0, 3)))
+                .thenReturn(List.of(queued(1L), queued(2L), queued(3L)));
+        when(similarProductsRepository.saveSimilarIds(anyLong(), anyInt(), anyString(), any())).thenReturn(1);
+        when(productSearchService.findSimilarProductIds(anyLong(), eq(6))).thenReturn(List.of(7L, 5L));
+        when(productSearchService.findSimilarProductIds(2L, 6)).thenReturn(List.of());
+
+        // Act
+        int computed = worker.computeBatch();
+
+        // Assert - a full batch of pending products, no outdated ones looked up
+        assertEquals(3, computed);
+        verify(similarProductsRepository).saveSimilarIds(eq(1L), eq(0), eq("7,5"), any(LocalDateTime.class));
+        verify(similarProductsRepository).saveSimilarIds(eq(2L), eq(0), eq(""), any(LocalDateTime.class));
+        verify(similarProductsCache).evict(1L);
+        verify(similarProductsRepository, never()).findComputedBefore(any(), any());
+    }
+
+    @Test
+    void computeBatch_ShouldFillBatchWithOutdatedProducts() {
+        // Arrange
+        when(similarProductsRepository.findPending(any(Pageable.class))).thenReturn(List.of(queued(1L)));
+        when(similarProductsRepository.findComputedBefore(any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(new SimilarProducts.Queued(8L, 4)));
+        when(similarProductsRepository.saveSimilarIds(anyLong(), anyInt(), anyString(), any())).thenReturn(1);
+        when(productSearchService.findSimilarProductIds(anyLong(), anyInt())).thenReturn(List.of(2L));
+
+        // Act
+        int computed = worker.computeBatch();
+
+        // Assert
+        assertEquals(2, computed);
+        verify(similarProductsRepository).saveSimilarIds(eq(8L), eq(4), eq("2"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void computeBatch_WhenProductQueuedAgainMeanwhile_ShouldNotCountIt() {
+        // Arrange - the update matches no row, the generation moved on
+        when(similarProductsRepository.findPending(any(Pageable.class))).thenReturn(List.of(queued(1L)));
+        when(productSearchService.findSimilarProductIds(1L, 6)).thenReturn(List.of(2L));
+        when(similarProductsRepository.saveSimilarIds(eq(1L), eq(0), eq("2"), any())).thenReturn(0);
+
+        // Act
+        int computed = worker.computeBatch();
+
+        // Assert
+        assertEquals(0, computed);
+        verify(similarProductsCache, never()).evict(anyLong());
+    }
+
+    @Test
+    void computeBatch_WhenSearchUnavailable_ShouldLeaveProductsQueued() {
+        // Arrange
+        when(similarProductsRepository.findPending(any(Pageable.class))).thenReturn(List.of(queued(1L), queued(2L)));
+        when(productSearchService.findSimilarProductIds(1L, 6)).thenReturn(null);
+
+        // Act
+        int computed = worker.computeBatch();
+
+        // Assert - stops at the first failure instead of querying for every product
+        assertEquals(0, computed);
+        verify(productSearchService, times(1)).findSimilarProductIds(anyLong(), anyInt());
+        verify(similarProductsRepository, never()).saveSimilarIds(anyLong(), anyInt(), anyString(), any());
+    }
+
+    private static SimilarProducts.Queued queued(Long productId) {
+        return new SimilarProducts.Queued(productId, 0);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.services;
+
+import com.example.models.User;
+import com.example.models.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(meterRegistry, 10_000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getById_ShouldLoadOnceAndCountHitsAndMisses() {
+        // Act
+        userCache.getById(1L, loader(user(1L, "alice")));
+        Optional<User> result = userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Assert
+        assertEquals("alice", result.orElseThrow().getUsername());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("marketplace.user-cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("marketplace.user-cache.requests").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("marketplace.user-cache.size").gauge().value());
+    }
+
+    @Test
+    void getByUsername_ShouldShareEntryWithId() {
+        // Arrange
+        userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Act
+        Optional<User> result = userCache.getByUsername("alice", loader(user(1L, "alice")));
+
+        // Assert
+        assertEquals(1L, result.orElseThrow().getId());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getByUsername_OnMiss_ShouldCacheByIdToo() {
+        // Arrange
+        userCache.getByUsername("alice", loader(user(1L, "alice")));
+
+        // Act
+        Optional<User> result = userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Assert
+        assertEquals("alice", result.orElseThrow().getUsername());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotKeepPasswordHash() {
+        // Act
+        User loaded = userCache.getById(1L, loader(user(1L, "alice"))).orElseThrow();
+        User cached = userCache.getByUsername("alice", loader(null)).orElseThrow();
+
+        // Assert - authentication reads the hash from the database
+        assertNull(loaded.getPassword());
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void getByUsername_AfterRename_ShouldNotReturnUserByOldName() {
+        // Arrange - renamed and loaded again by id
+        userCache.getByUsername("alice", loader(user(1L, "alice")));
+        userCache.evictAll(List.of(1L));
+        userCache.getById(1L, loader(user(1L, "alicia")));
+
+        // Act
+        Optional<User> result = userCache.getByUsername("alice", loader(null));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals("alicia", userCache.getByUsername("alicia", loader(null)).orElseThrow().getUsername());
+    }
+
+    @Test
+    void get_ShouldReturnDetachedCopy() {
+        // Arrange
+        userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Act - changes of a returned user must not leak into the cache
+        User first = userCache.getById(1L, loader(null)).orElseThrow();
+        first.setActive(false);
+        first.addRole(Role.ROLE_ADMIN);
+        User second = userCache.getById(1L, loader(null)).orElseThrow();
+
+        // Assert
+        assertNotSame(first, second);
+        assertTrue(second.isActive());
+        assertFalse(second.isAdmin());
+    }
+
+    @Test
+    void get_WhenNotFound_ShouldNotCacheMiss() {
+        // Act
+        userCache.getById(1L, loader(null));
+        userCache.getById(1L, loader(null));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void evict_ShouldRemoveByIdAndOldUsername() {
+        // Arrange
+        userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Act
+        userCache.evict(1L, "alice");
+        userCache.getByUsername("alice", loader(user(1L, "alice")));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictAll_ShouldRemoveUsersByIdAndUsername() {
+        // Arrange
+        userCache.getById(1L, loader(user(1L, "alice")));
+        userCache.getById(2L, loader(user(2L, "bob")));
+        userCache.getById(3L, loader(user(3L, "carol")));
+
+        // Act
+        userCache.evictAll(List.of(1L, 2L, 99L));
+        userCache.getByUsername("bob", loader(user(2L, "bob")));
+
+        // Assert
+        assertEquals(4, loads.get());
+        assertEquals(2, userCache.size());
+    }
+
+    @Test
+    void evict_DuringLoad_ShouldNotCacheLoadedValue() {
+        // Arrange - the user is changed while the old row is being loaded
+        Supplier<Optional<User>> slowLoader = () -> {
+            userCache.evict(1L, "alice");
+            return Optional.of(user(1L, "alice"));
+        };
+
+        // Act
+        Optional<User> result = userCache.getById(1L, slowLoader);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void put_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        userCache = new UserCache(meterRegistry, 2, Duration.ofMinutes(10));
+        userCache.getById(1L, loader(user(1L, "alice")));
+        userCache.getById(2L, loader(user(2L, "bob")));
+        userCache.getById(1L, loader(null));
+
+        // Act
+        userCache.getById(3L, loader(user(3L, "carol")));
+
+        // Assert - bob was used least recently
+        assertEquals(2, userCache.size());
+        assertTrue(userCache.getByUsername("alice", loader(null)).isPresent());
+        assertTrue(userCache.getByUsername("bob", loader(null)).isEmpty());
+        assertEquals(1.0, meterRegistry.get("marketplace.user-cache.evictions").counter().count());
+    }
+
+    @Test
+    void get_AfterTimeToLive_ShouldReload() {
+        // Arrange
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        ReflectionTestUtils.setField(userCache, "clock", Clock.fixed(start, ZoneOffset.UTC));
+        userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Act
+        ReflectionTestUtils.setField(userCache, "clock",
+                Clock.fixed(start.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        userCache.getById(1L, loader(user(1L, "alice")));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    // ========================================
+    // Helper methods
+    // ========================================
+
+    private Supplier<Optional<User>> loader(User user) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(user);
+        };
+    }
+
+    private User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encodedPassword");
+        user.setActive(true);
+        user.addRole(Role.ROLE_USER);
+        return user;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.services;
+
+import com.example.models.User;
+import com.example.models.UserDeletionJob;
+import com.example.models.enums.DeletionStatus;
+import com.example.repositories.ProductImageRepository;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserDeletionJobRepository;
+import com.example.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDeletionWorkerTest {
+
+    @Mock
+    private UserDeletionJobRepository userDeletionJobRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private FileDeletionWorker fileDeletionWorker;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+
+    @Mock
+    private SellerPageCache sellerPageCache;
+
+    @Mock
+    private ProductDetailCache productDetailCache;
+
+    private UserDeletionWorker worker;
+    private UserDeletionJob job;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        worker = new UserDeletionWorker(
+                userDeletionJobRepository,
+                userRepository,
+                productRepository,
+                productImageRepository,
+                productSearchService,
+                fileDeletionWorker,
+                userCache,
+                sellerPageCache,
+                productDetailCache,
+                new TransactionTemplate(transactionManager)
+        );
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+
+        job = new UserDeletionJob(1L, "seller");
+        job.setId(10L);
+        job.setTotalProducts(3);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("seller");
+    }
+
+    @Test
+    void run_ShouldDeleteProductsInBatchesThenUser() {
+        // Arrange - 3 products with batch size 2
+        when(userDeletionJobRepository.claim(eq(10L), any(), any())).thenReturn(1);
+        when(userDeletionJobRepository.findById(10L)).thenReturn(Optional.of(job));
+        when(productRepository.findIdsByOwnerId(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(productImageRepository.queueFilesForDeletionByProductIds(anyList())).thenReturn(4, 1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        boolean completed = worker.run(10L);
+
+        // Assert
+        assertTrue(completed);
+        verify(productImageRepository, times(1)).deleteAllByProductIdIn(List.of(1L, 2L));
+        verify(productRepository, times(1)).deleteAllByIdIn(List.of(1L, 2L));
+        verify(productRepository, times(1)).deleteAllByIdIn(List.of(3L));
+        verify(userRepository, times(1)).addListingCounters(1L, -2, -4);
+        verify(userRepository, times(1)).addListingCounters(1L, -1, -1);
+        verify(userDeletionJobRepository, times(1)).addProgress(eq(10L), eq(2L), eq(4L), any());
+        verify(userDeletionJobRepository, times(1)).addProgress(eq(10L), eq(1L), eq(1L), any());
+        verify(productSearchService, times(1)).deleteProductsFromIndex(List.of(1L, 2L));
+        verify(productSearchService, times(1)).deleteProductsFromIndex(List.of(3L));
+        verify(productDetailCache, times(1)).evictAll(List.of(1L, 2L));
+        verify(productDetailCache, times(1)).evictAll(List.of(3L));
+        verify(fileDeletionWorker, times(2)).processPendingDeletionsAsync();
+        verify(userRepository, times(1)).delete(user);
+        verify(userDeletionJobRepository, times(1)).finish(eq(10L), eq(DeletionStatus.COMPLETED), isNull(), any());
+        verify(sellerPageCache, times(1)).evict(1L);
+        verify(userCache, times(1)).evict(1L, "seller");
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void run_WhenJobClaimedElsewhere_ShouldDoNothing() {
+        // Arrange
+        when(userDeletionJobRepository.claim(eq(10L), any(), any())).thenReturn(0);
+
+        // Act
+        boolean completed = worker.run(10L);
+
+        // Assert
+        assertFalse(completed);
+        verifyNoInteractions(productRepository, productImageRepository, userRepository, productSearchService);
+    }
+
+    @Test
+    void run_WhenBatchFails_ShouldMarkJobFailed() {
+        // Arrange
+        when(userDeletionJobRepository.claim(eq(10L), any(), any())).thenReturn(1);
+        when(userDeletionJobRepository.findById(10L)).thenReturn(Optional.of(job));
+        when(productRepository.findIdsByOwnerId(anyLong(), any())).thenReturn(List.of(1L, 2L));
+        when(productImageRepository.queueFilesForDeletionByProductIds(anyList()))
+                .thenThrow(new QueryTimeoutException("Statement timed out"));
+
+        // Act
+        boolean completed = worker.run(10L);
+
+        // Assert
+        assertFalse(completed);
+        verify(transactionManager, times(1)).rollback(any());
+        verify(userDeletionJobRepository, times(1))
+                .finish(eq(10L), eq(DeletionStatus.FAILED), eq("Statement timed out"), any());
+        verify(userRepository, never()).delete(any());
+        verify(productSearchService, never()).deleteProductsFromIndex(anyList());
+    }
+
+    @Test
+    void runPendingJobs_ShouldRunPendingAndStaleJobs() {
+        // Arrange
+        when(userDeletionJobRepository.findRunnableIds(any(LocalDateTime.class))).thenReturn(List.of(10L, 11L));
+        when(userDeletionJobRepository.claim(eq(10L), any(), any())).thenReturn(1);
+        when(userDeletionJobRepository.claim(eq(11L), any(), any())).thenReturn(0);
+        when(userDeletionJobRepository.findById(10L)).thenReturn(Optional.of(job));
+        when(productRepository.findIdsByOwnerId(anyLong(), any())).thenReturn(List.of());
+
+        // Act
+        int completed = worker.runPendingJobs();
+
+        // Assert
+        assertEquals(1, completed);
+        verify(userDeletionJobRepository, times(1)).finish(eq(10L), eq(DeletionStatus.COMPLETED), isNull(), any());
+    }
+}
@@ -1,29 +1,41 @@
 package com.example.services;
 
-import com.example.models.Product;
-import com.example.models.ProductImage;
 import com.example.models.User;
+import com.example.models.UserDeletionJob;
+import com.example.models.enums.DeletionStatus;
 import com.example.models.enums.Role;
+import com.example.repositories.ProductRepository;
+import com.example.repositories.UserDeletionJobRepository;
 import com.example.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +48,22 @@ class UserServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private ProductImageService productImageService;
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserDeletionJobRepository userDeletionJobRepository;
+
+    @Mock
+    private UserDeletionWorker userDeletionWorker;
+
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+
+    @Mock
+    private SellerPageCache sellerPageCache;
+
+    @Mock
+    private ProductDetailCache productDetailCache;
 
     @InjectMocks
     private UserService userService;
@@ -90,49 +117,58 @@ class UserServiceTest {
     @Test
     void registerUser_WithValidData_ShouldReturnTrue() {
         // Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // Act
         boolean result = userService.registerUser(testUser);
 
         // Assert
         assertTrue(result);
-        verify(userRepository, times(1)).existsByUsername(testUser.getUsername());
-        verify(userRepository, times(1)).existsByEmail(testUser.getEmail());
+        assertEquals("encodedPassword", testUser.getPassword());
         verify(passwordEncoder, times(1)).encode("password123");
-        verify(userRepository, times(1)).save(testUser);
+        verify(userRepository, times(1)).saveAndFlush(testUser);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
     void registerUser_WithExistingUsername_ShouldReturnFalse() {
         // Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate(User.USERNAME_CONSTRAINT));
 
         // Act
         boolean result = userService.registerUser(testUser);
 
         // Assert
         assertFalse(result);
-        verify(userRepository, times(1)).existsByUsername(testUser.getUsername());
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals("password123", testUser.getPassword());
+        verify(userRepository, times(1)).saveAndFlush(testUser);
     }
 
     @Test
     void registerUser_WithExistingEmail_ShouldReturnFalse() {
         // Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate(User.EMAIL_CONSTRAINT));
 
         // Act
         boolean result = userService.registerUser(testUser);
 
         // Assert
         assertFalse(result);
-        verify(userRepository, times(1)).existsByEmail(testUser.getEmail());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(testUser);
+    }
+
+    @Test
+    void registerUser_WithOtherIntegrityViolation_ShouldRethrow() {
+        // Arrange
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("NULL not allowed for column \"PASSWORD\""));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(testUser));
     }
 
     @Test
@@ -166,9 +202,7 @@ class UserServiceTest {
     void updateUser_WithValidData_ShouldReturnTrue() {
         // Arrange
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateProfile(1L, "newusername", "newemail@example.com", null)).thenReturn(1);
 
         // Act
         boolean result = userService.updateUser(1L, "newusername", "newemail@example.com", null);
@@ -176,7 +210,8 @@ class UserServiceTest {
         // Assert
         assertTrue(result);
         verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, times(1)).save(testUser);
+        verify(userRepository, times(1)).updateProfile(1L, "newusername", "newemail@example.com", null);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
@@ -184,7 +219,7 @@ class UserServiceTest {
         // Arrange
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
         when(passwordEncoder.encode(anyString())).thenReturn("newEncodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.updateProfile(anyLong(), anyString(), anyString(), any())).thenReturn(1);
 
         // Act
         boolean result = userService.updateUser(1L, "testuser", "test@example.com", "newPassword");
@@ -192,7 +227,36 @@ class UserServiceTest {
         // Assert
         assertTrue(result);
         verify(passwordEncoder, times(1)).encode("newPassword");
-        verify(userRepository, times(1)).save(testUser);
+        verify(userRepository, times(1)).updateProfile(1L, "testuser", "test@example.com", "newEncodedPassword");
+    }
+
+    @Test
+    void updateUser_WithExistingUsername_ShouldReturnFalseAndKeepCache() {
+        // Arrange
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userRepository.updateProfile(anyLong(), anyString(), anyString(), any()))
+                .thenThrow(duplicate(User.USERNAME_CONSTRAINT));
+
+        // Act
+        boolean result = userService.updateUser(1L, "taken", "test@example.com", null);
+
+        // Assert
+        assertFalse(result);
+        verify(userCache, never()).evict(anyLong(), anyString());
+    }
+
+    @Test
+    void updateUser_WithExistingEmail_ShouldReturnFalse() {
+        // Arrange
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userRepository.updateProfile(anyLong(), anyString(), anyString(), any()))
+                .thenThrow(duplicate(User.EMAIL_CONSTRAINT));
+
+        // Act
+        boolean result = userService.updateUser(1L, "testuser", "taken@example.com", null);
+
+        // Assert
+        assertFalse(result);
     }
 
     @Test
@@ -206,7 +270,7 @@ class UserServiceTest {
         // Assert
         assertFalse(result);
         verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).updateProfile(anyLong(), anyString(), anyString(), any());
     }
 
     @Test
@@ -237,24 +301,99 @@ class UserServiceTest {
     }
 
     @Test
-    void deleteUser_WithProducts_ShouldDeleteImagesAndUser() {
+    void getById_CalledTwice_ShouldUseCache() {
         // Arrange
-        Product product = new Product();
-        ProductImage image = new ProductImage();
-        product.setImages(new ArrayList<>(List.of(image)));
-        testUser.setProducts(new ArrayList<>(List.of(product)));
-
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        doNothing().when(productImageService).deleteImageFromDisk(any(ProductImage.class));
-        doNothing().when(userRepository).deleteById(anyLong());
 
         // Act
-        userService.deleteUser(1L);
+        userService.getById(1L);
+        User result = userService.getById(1L);
 
         // Assert
+        assertEquals(testUser.getUsername(), result.getUsername());
         verify(userRepository, times(1)).findById(1L);
-        verify(productImageService, times(1)).deleteImageFromDisk(image);
-        verify(userRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+    void toggleUserActive_ShouldEvictUserFromCache() {
+        // Arrange
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        userService.getById(1L);
+
+        // Act
+        userService.toggleUserActive(1L);
+        User result = userService.getById(1L);
+
+        // Assert
+        assertFalse(result.isActive());
+        verify(userCache).evict(1L, testUser.getUsername());
+    }
+
+    @Test
+    void updateUser_ShouldEvictOldUsername() {
+        // Arrange
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userRepository.updateProfile(anyLong(), anyString(), anyString(), any())).thenReturn(1);
+        String oldUsername = testUser.getUsername();
+
+        // Act
+        userService.updateUser(1L, "renamed", testUser.getEmail(), null);
+
+        // Assert
+        verify(userCache).evict(1L, oldUsername);
+        verify(sellerPageCache).evict(1L);
+        verify(productDetailCache).evictByOwner(1L);
+    }
+
+    @Test
+    void deleteUser_ShouldDeactivateUserAndScheduleJob() {
+        // Arrange
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userDeletionJobRepository.findFirstByUserIdAndStatusIn(eq(1L), anyCollection()))
+                .thenReturn(Optional.empty());
+        when(productRepository.countByOwnerId(1L)).thenReturn(50_000L);
+        when(userDeletionJobRepository.save(any(UserDeletionJob.class))).thenAnswer(invocation -> {
+            UserDeletionJob job = invocation.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+
+        // Act
+        UserDeletionJob job = userService.deleteUser(1L);
+
+        // Assert - nothing is deleted in the request, products are not loaded
+        assertFalse(testUser.isActive());
+        assertEquals(DeletionStatus.PENDING, job.getStatus());
+        assertEquals(50_000L, job.getTotalProducts());
+        assertEquals("testuser", job.getUsername());
+        verify(userRepository, times(1)).save(testUser);
+        verify(userRepository, never()).deleteById(anyLong());
+        verify(userDeletionWorker, times(1)).runAsync(7L);
+    }
+
+    @Test
+    void deleteUser_WithFailedJob_ShouldRestartIt() {
+        // Arrange
+        UserDeletionJob failed = new UserDeletionJob(1L, "testuser");
+        failed.setId(3L);
+        failed.setStatus(DeletionStatus.FAILED);
+        failed.setError("Connection reset");
+        failed.setProductsDeleted(500);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userDeletionJobRepository.findFirstByUserIdAndStatusIn(eq(1L), anyCollection()))
+                .thenReturn(Optional.of(failed));
+        when(productRepository.countByOwnerId(1L)).thenReturn(100L);
+
+        // Act
+        UserDeletionJob job = userService.deleteUser(1L);
+
+        // Assert
+        assertSame(failed, job);
+        assertEquals(DeletionStatus.PENDING, job.getStatus());
+        assertNull(job.getError());
+        assertEquals(600L, job.getTotalProducts());
+        verify(userDeletionWorker, times(1)).runAsync(3L);
     }
 
     @Test
@@ -263,11 +402,12 @@ class UserServiceTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         // Act
-        userService.deleteUser(999L);
+        UserDeletionJob job = userService.deleteUser(999L);
 
         // Assert
+        assertNull(job);
         verify(userRepository, times(1)).findById(999L);
-        verify(userRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(userDeletionJobRepository, userDeletionWorker);
     }
 
     @Test
@@ -320,37 +460,118 @@ class UserServiceTest {
     }
 
     @Test
-    void getByUsernameOrEmailPage_WithQuery_ShouldReturnFilteredResults() {
+    void getByUsernameOrEmailPage_WithQuery_ShouldSearchWithEscapedPattern() {
         // Arrange
-        List<User> users = List.of(testUser);
-        Page<User> userPage = new PageImpl<>(users);
-        when(userRepository.findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                anyString(), anyString(), any(Pageable.class))).thenReturn(userPage);
+        when(userRepository.searchByUsernameOrEmailAfter(anyString(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(testUser));
 
         // Act
-        Page<User> result = userService.getByUsernameOrEmailPage("test", 0, 20);
+        UserService.UserPage result = userService.getByUsernameOrEmailPage(" test_1% ", null, null, 20);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(List.of(testUser), result.getUsers());
+        assertFalse(result.hasPrevious());
+        assertFalse(result.hasNext());
         verify(userRepository, times(1))
-                .findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                        eq("test"), eq("test"), any(Pageable.class));
+                .searchByUsernameOrEmailAfter("%test\\_1\\%%", 0L, PageRequest.of(0, 21));
     }
 
     @Test
-    void getByUsernameOrEmailPage_WithEmptyQuery_ShouldReturnAllUsers() {
+    void getByUsernameOrEmailPage_WithEmptyQuery_ShouldReturnAllUsersByKeyset() {
         // Arrange
-        List<User> users = List.of(testUser);
-        Page<User> userPage = new PageImpl<>(users);
-        when(userRepository.findAll(any(Pageable.class))).thenReturn(userPage);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(testUser));
 
         // Act
-        Page<User> result = userService.getByUsernameOrEmailPage("", 0, 20);
+        UserService.UserPage result = userService.getByUsernameOrEmailPage("", null, null, 20);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
-        verify(userRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(1, result.getUsers().size());
+        verify(userRepository, never()).count();
+        verify(userRepository, never()).searchByUsernameOrEmailAfter(anyString(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getByUsernameOrEmailPage_WithExtraRow_ShouldReturnNextCursor() {
+        // Arrange - page size 2, repository returns 3 rows
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(user(11L), user(12L), user(13L)));
+
+        // Act
+        UserService.UserPage result = userService.getByUsernameOrEmailPage(null, 10L, null, 2);
+
+        // Assert
+        assertEquals(2, result.getUsers().size());
+        assertTrue(result.hasPrevious());
+        assertEquals(11L, result.getPreviousCursor());
+        assertTrue(result.hasNext());
+        assertEquals(12L, result.getNextCursor());
+    }
+
+    @Test
+    void getByUsernameOrEmailPage_Before_ShouldReturnPreviousPageInIdOrder() {
+        // Arrange - descending query, only 2 rows left before id 13
+        when(userRepository.searchByUsernameOrEmailBefore("%user%", 13L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(user(12L), user(11L)));
+
+        // Act
+        UserService.UserPage result = userService.getByUsernameOrEmailPage("user", null, 13L, 2);
+
+        // Assert
+        assertEquals(List.of(11L, 12L), result.getUsers().stream().map(User::getId).toList());
+        assertFalse(result.hasPrevious());
+        assertNull(result.getPreviousCursor());
+        assertEquals(12L, result.getNextCursor());
+    }
+
+    @Test
+    void applyBulkAction_Ban_ShouldUpdateInBatchesAndEvictCache() {
+        // Arrange - 1500 ids with a duplicate, batches of 1000
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 1500).boxed().toList());
+        ids.add(1L);
+        when(userRepository.updateActiveByIdIn(anyList(), eq(false))).thenReturn(1000, 500);
+
+        // Act
+        int changed = userService.applyBulkAction(ids, UserService.BulkAction.BAN, null);
+
+        // Assert
+        assertEquals(1500, changed);
+        verify(userRepository, times(2)).updateActiveByIdIn(anyList(), eq(false));
+        verify(userCache, times(1)).evictAll(argThat(evicted -> evicted.size() == 1500));
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void applyBulkAction_AddRole_ShouldInsertRoleForAllIds() {
+        // Arrange
+        when(userRepository.addRoleByIdIn(List.of(1L, 2L), "ROLE_ADMIN")).thenReturn(2);
+
+        // Act
+        int changed = userService.applyBulkAction(List.of(1L, 2L), UserService.BulkAction.ADD_ROLE, Role.ROLE_ADMIN);
+
+        // Assert
+        assertEquals(2, changed);
+        verify(userCache, times(1)).evictAll(List.of(1L, 2L));
+    }
+
+    @Test
+    void applyBulkAction_RoleActionWithoutRole_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.applyBulkAction(List.of(1L), UserService.BulkAction.REMOVE_ROLE, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("duplicate key value violates unique constraint \"" + constraint + "\""));
     }
-}
\ No newline at end of file
+}
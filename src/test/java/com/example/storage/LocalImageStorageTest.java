@@ -0,0 +1,95 @@
+package com.example.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(tempDir.toString());
+    }
+
+    @Test
+    void store_ShouldWriteFile() throws IOException {
+        // Act
+        storage.store("image.jpg", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3, "image/jpeg");
+
+        // Assert
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(tempDir.resolve("image.jpg")));
+    }
+
+    @Test
+    void store_WithPathTraversal_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IOException.class, () ->
+                storage.store("../outside.jpg", new ByteArrayInputStream(new byte[]{1}), 1, "image/jpeg"));
+        assertFalse(Files.exists(tempDir.resolveSibling("outside.jpg")));
+    }
+
+    @Test
+    void delete_ShouldRemoveFileAndIgnoreMissing() throws IOException {
+        // Arrange
+        Files.write(tempDir.resolve("image.jpg"), new byte[]{1});
+
+        // Act
+        storage.delete("image.jpg");
+
+        // Assert
+        assertFalse(Files.exists(tempDir.resolve("image.jpg")));
+        assertDoesNotThrow(() -> storage.delete("image.jpg"));
+    }
+
+    @Test
+    void move_ShouldCreateTargetDirectory() throws IOException {
+        // Arrange
+        Files.write(tempDir.resolve("image.jpg"), new byte[]{1});
+
+        // Act
+        storage.move("image.jpg", ".orphaned/image.jpg");
+
+        // Assert
+        assertFalse(Files.exists(tempDir.resolve("image.jpg")));
+        assertTrue(Files.exists(tempDir.resolve(".orphaned/image.jpg")));
+    }
+
+    @Test
+    void list_ShouldReturnTopLevelFilesOnly() throws IOException {
+        // Arrange
+        Files.write(tempDir.resolve("a.jpg"), new byte[]{1, 2});
+        Files.createDirectories(tempDir.resolve(".orphaned"));
+        Files.write(tempDir.resolve(".orphaned/b.jpg"), new byte[]{1});
+
+        // Act
+        List<StoredObject> objects;
+        try (Stream<StoredObject> stream = storage.list()) {
+            objects = stream.toList();
+        }
+
+        // Assert
+        assertEquals(1, objects.size());
+        assertEquals("a.jpg", objects.get(0).getKey());
+        assertEquals(2, objects.get(0).getSize());
+        assertNotNull(objects.get(0).getLastModified());
+    }
+
+    @Test
+    void getDirectUrl_ShouldBeEmpty() {
+        assertTrue(storage.getDirectUrl("a.jpg").isEmpty());
+    }
+}
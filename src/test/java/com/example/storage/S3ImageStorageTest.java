@@ -0,0 +1,146 @@
+package com.example.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * S3ImageStorage against a mocked S3 client.
+ * Presigned URLs are generated by a real presigner for a local MinIO-style endpoint
+ * (signing is offline, no server is needed).
+ */
+@ExtendWith(MockitoExtension.class)
+class S3ImageStorageTest {
+
+    private static final long PART_SIZE = S3ImageStorage.MIN_PART_SIZE;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3Presigner s3Presigner;
+    private S3ImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create("http://localhost:9000"))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("minio", "minio123")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+
+        storage = new S3ImageStorage(s3Client, s3Presigner, "images", "uploads/",
+                PART_SIZE, PART_SIZE, Duration.ofMinutes(15), null);
+    }
+
+    @Test
+    void store_SmallFile_ShouldUseSinglePut() throws IOException {
+        // Arrange
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        // Act
+        storage.store("a.jpg", new ByteArrayInputStream(new byte[10]), 10, "image/jpeg");
+
+        // Assert
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(captor.capture(), any(RequestBody.class));
+        assertEquals("images", captor.getValue().bucket());
+        assertEquals("uploads/a.jpg", captor.getValue().key());
+        assertEquals("image/jpeg", captor.getValue().contentType());
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void store_LargeFile_ShouldUseMultipartUpload() throws IOException {
+        // Arrange - 2.5 parts
+        int size = (int) (PART_SIZE * 2 + PART_SIZE / 2);
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        // Act
+        storage.store("big.jpg", new ByteArrayInputStream(new byte[size]), size, "image/jpeg");
+
+        // Assert
+        ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+        verify(s3Client, times(3)).uploadPart(parts.capture(), any(RequestBody.class));
+        assertEquals(PART_SIZE / 2, parts.getAllValues().get(2).contentLength());
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(complete.capture());
+        assertEquals("upload-1", complete.getValue().uploadId());
+        assertEquals(3, complete.getValue().multipartUpload().parts().size());
+        verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void store_WhenPartFails_ShouldAbortMultipartUpload() {
+        // Arrange
+        int size = (int) (PART_SIZE * 2);
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(SdkClientException.create("Connection reset"));
+
+        // Act & Assert
+        assertThrows(IOException.class, () ->
+                storage.store("big.jpg", new ByteArrayInputStream(new byte[size]), size, "image/jpeg"));
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void delete_WhenClientFails_ShouldThrowIOException() {
+        // Arrange
+        when(s3Client.deleteObject(any(DeleteObjectRequest.class))).thenThrow(SdkClientException.create("Timeout"));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> storage.delete("a.jpg"));
+    }
+
+    @Test
+    void getDirectUrl_ShouldReturnPresignedUrl() {
+        // Act
+        String url = storage.getDirectUrl("a.jpg").orElseThrow().toString();
+
+        // Assert
+        assertTrue(url.startsWith("http://localhost:9000/images/uploads/a.jpg?"));
+        assertTrue(url.contains("X-Amz-Signature="));
+        assertTrue(url.contains("X-Amz-Expires=900"));
+    }
+
+    @Test
+    void getDirectUrl_WithPublicUrl_ShouldNotSign() {
+        // Arrange
+        storage = new S3ImageStorage(s3Client, s3Presigner, "images", "uploads/",
+                PART_SIZE, PART_SIZE, Duration.ofMinutes(15), "https://cdn.example.com/");
+
+        // Act
+        URI url = storage.getDirectUrl("a.jpg").orElseThrow();
+
+        // Assert
+        assertEquals("https://cdn.example.com/uploads/a.jpg", url.toString());
+    }
+}
@@ -0,0 +1,43 @@
+-- Schema created by ddl-auto=update from the entities before the migrations (Hibernate 6.6),
+-- unique constraints named like PostgreSQL names them
+
+CREATE SEQUENCE products_seq_id START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE users (
+    active     BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6),
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username   VARCHAR(50)  NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT users_username_key UNIQUE (username),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role    VARCHAR(255) CHECK (role IN ('ROLE_USER', 'ROLE_ADMIN'))
+);
+
+CREATE TABLE products (
+    price           NUMERIC(10, 2) NOT NULL,
+    date_of_created TIMESTAMP(6),
+    id              BIGINT         NOT NULL,
+    user_id         BIGINT,
+    title           VARCHAR(80)    NOT NULL,
+    description     VARCHAR(600)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_images (
+    is_preview_image BOOLEAN,
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    product_id       BIGINT,
+    image_directory  VARCHAR(500),
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE product_images ADD CONSTRAINT FKqnq71xsohugpqwf3c9gxmsuy FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE products ADD CONSTRAINT FKdb050tk37qryv15hd932626th FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE user_roles ADD CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users;